@@ -0,0 +1,15 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+
+/**
+ * One step of the claim assessment.
+ * <p>
+ * Each contributor inspects the document once and records what it found on the builder; routing,
+ * reasoning, warnings and status then read the finished {@link ClaimAssessment} instead of
+ * inspecting the document again. Contributors are Spring beans and run in {@code @Order}.
+ */
+public interface AssessmentContributor {
+
+    void contribute(FNOLDocument document, ClaimAssessment.Builder assessment);
+}
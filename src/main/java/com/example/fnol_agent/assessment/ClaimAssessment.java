@@ -0,0 +1,130 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.FNOLDocument;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable evaluation of a claim, computed once per document by {@link ClaimAssessor}
+ */
+public final class ClaimAssessment {
+
+    private final String claimId;
+    private final FNOLDocument document;
+    private final List<String> missingFields;
+    private final List<FraudIndicator> fraudIndicators;
+    private final List<String> warnings;
+    private final Map<String, Object> attributes;
+
+    private ClaimAssessment(Builder builder) {
+        this.claimId = builder.claimId;
+        this.document = builder.document;
+        this.missingFields = List.copyOf(builder.missingFields);
+        this.fraudIndicators = List.copyOf(builder.fraudIndicators);
+        this.warnings = List.copyOf(builder.warnings);
+        this.attributes = Map.copyOf(builder.attributes);
+    }
+
+    public static Builder builder(String claimId, FNOLDocument document) {
+        return new Builder(claimId, document);
+    }
+
+    public String getClaimId() {
+        return claimId;
+    }
+
+    public FNOLDocument getDocument() {
+        return document;
+    }
+
+    public ClaimType getClaimType() {
+        return document.getClaimType();
+    }
+
+    /**
+     * Missing mandatory fields, as reported by {@link FNOLDocument#getMissingFields()}
+     */
+    public List<String> getMissingFields() {
+        return missingFields;
+    }
+
+    public List<FraudIndicator> getFraudIndicators() {
+        return fraudIndicators;
+    }
+
+    public boolean hasFraudIndicators() {
+        return !fraudIndicators.isEmpty();
+    }
+
+    /**
+     * Estimated damage of the asset, or null if not given
+     */
+    public BigDecimal getEstimatedDamage() {
+        return document.getAssetDetails() != null ? document.getAssetDetails().getEstimatedDamage() : null;
+    }
+
+    /**
+     * Warnings raised by contributors, in contribution order
+     */
+    public List<String> getWarnings() {
+        return warnings;
+    }
+
+    /**
+     * Value a contributor recorded under a name, or null
+     */
+    public Object getAttribute(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * Collects contributions; not thread-safe
+     */
+    public static final class Builder {
+
+        private final String claimId;
+        private final FNOLDocument document;
+        private List<String> missingFields = List.of();
+        private final List<FraudIndicator> fraudIndicators = new ArrayList<>();
+        private final List<String> warnings = new ArrayList<>();
+        private final Map<String, Object> attributes = new LinkedHashMap<>();
+
+        private Builder(String claimId, FNOLDocument document) {
+            this.claimId = claimId;
+            this.document = document;
+        }
+
+        public String claimId() {
+            return claimId;
+        }
+
+        public Builder missingFields(List<String> missingFields) {
+            this.missingFields = missingFields;
+            return this;
+        }
+
+        public Builder fraudIndicator(FraudIndicator indicator) {
+            fraudIndicators.add(indicator);
+            return this;
+        }
+
+        public Builder warning(String warning) {
+            warnings.add(warning);
+            return this;
+        }
+
+        public Builder attribute(String name, Object value) {
+            attributes.put(name, value);
+            return this;
+        }
+
+        public ClaimAssessment build() {
+            return new ClaimAssessment(this);
+        }
+    }
+}
@@ -0,0 +1,27 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+/**
+ * Runs every {@link AssessmentContributor} over a document, once
+ */
+@Service
+public class ClaimAssessor {
+
+    private final List<AssessmentContributor> contributors;
+
+    public ClaimAssessor(List<AssessmentContributor> contributors) {
+        this.contributors = List.copyOf(contributors);
+    }
+
+    public ClaimAssessment assess(String claimId, FNOLDocument document) {
+        ClaimAssessment.Builder assessment = ClaimAssessment.builder(claimId, document);
+        for (AssessmentContributor contributor : contributors) {
+            contributor.contribute(document, assessment);
+        }
+        return assessment.build();
+    }
+}
@@ -0,0 +1,177 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Locale;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Flags claims reported again for the same policy, incident date and asset.
+ * <p>
+ * Records a {@value #DUPLICATE_OF} attribute naming the first claim reported with that key, and a
+ * warning. When {@code fnol.duplicates.snapshot-path} is set, the index is written there every
+ * {@code fnol.duplicates.snapshot-interval-millis} and on shutdown, and read back at startup.
+ */
+@Slf4j
+@Component
+@Order(250)
+public class DuplicateClaimContributor implements AssessmentContributor {
+
+    public static final String DUPLICATE_OF = "duplicateOf";
+
+    private final boolean enabled;
+    private final Path snapshotPath;
+    private final DuplicateClaimIndex index;
+    private final AtomicBoolean dirty = new AtomicBoolean();
+    private final Counter detected;
+
+    public DuplicateClaimContributor(MeterRegistry meterRegistry,
+                                     @Value("${fnol.duplicates.enabled:true}") boolean enabled,
+                                     @Value("${fnol.duplicates.expected-claims:1000000}") long expectedClaims,
+                                     @Value("${fnol.duplicates.snapshot-path:}") String snapshotPath) {
+        this.enabled = enabled;
+        this.snapshotPath = enabled && !snapshotPath.isBlank() ? Path.of(snapshotPath) : null;
+        this.index = loadIndex(this.snapshotPath, enabled ? expectedClaims : 0);
+
+        this.detected = Counter.builder("fnol.duplicates.detected")
+                .description("Claims reported again for the same policy, incident date and asset")
+                .register(meterRegistry);
+        Gauge.builder("fnol.duplicates.indexed", index, DuplicateClaimIndex::size)
+                .description("Claims in the duplicate claim index")
+                .register(meterRegistry);
+        Gauge.builder("fnol.duplicates.index.capacity", index, DuplicateClaimIndex::capacityBytes)
+                .description("Off-heap memory held by the duplicate claim index")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Warning given to a claim that repeats an earlier one
+     */
+    public static String warning(String originalClaimId) {
+        return String.format("Duplicate of claim %s (same policy, incident date and asset)", originalClaimId);
+    }
+
+    @Override
+    public void contribute(FNOLDocument document, ClaimAssessment.Builder assessment) {
+        if (!enabled || document.getPolicyInformation() == null || document.getIncidentInformation() == null
+                || document.getAssetDetails() == null) {
+            return;
+        }
+        String policyNumber = normalize(document.getPolicyInformation().getPolicyNumber());
+        LocalDate incidentDate = document.getIncidentInformation().getIncidentDate();
+        String assetId = normalize(document.getAssetDetails().getAssetId());
+        if (policyNumber == null || incidentDate == null || assetId == null) {
+            return;
+        }
+
+        UUID claimId = UUID.fromString(assessment.claimId());
+        UUID original = index.putIfAbsent(keyHash(policyNumber, incidentDate, assetId), claimId);
+        if (original == null) {
+            dirty.set(true);
+            return;
+        }
+
+        detected.increment();
+        assessment.attribute(DUPLICATE_OF, original.toString())
+                .warning(warning(original.toString()));
+    }
+
+    /**
+     * Write the index to the snapshot file if claims were added since the last snapshot
+     */
+    @Scheduled(fixedDelayString = "${fnol.duplicates.snapshot-interval-millis:300000}")
+    public void snapshot() {
+        if (snapshotPath == null || !dirty.getAndSet(false)) {
+            return;
+        }
+        try {
+            long start = System.nanoTime();
+            index.writeSnapshot(snapshotPath);
+            log.debug("Wrote {} claims to duplicate claim index snapshot {} in {} ms",
+                    index.size(), snapshotPath, (System.nanoTime() - start) / 1_000_000);
+        } catch (IOException e) {
+            dirty.set(true);
+            log.warn("Could not write duplicate claim index snapshot {}: {}", snapshotPath, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+
+    private static DuplicateClaimIndex loadIndex(Path snapshotPath, long expectedClaims) {
+        if (snapshotPath != null && Files.exists(snapshotPath)) {
+            try {
+                long start = System.nanoTime();
+                DuplicateClaimIndex index = DuplicateClaimIndex.readSnapshot(snapshotPath);
+                log.info("Loaded {} claims from duplicate claim index snapshot {} in {} ms",
+                        index.size(), snapshotPath, (System.nanoTime() - start) / 1_000_000);
+                return index;
+            } catch (IOException e) {
+                log.warn("Ignoring duplicate claim index snapshot {}: {}", snapshotPath, e.getMessage());
+            }
+        }
+        return new DuplicateClaimIndex(expectedClaims);
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        StringBuilder normalized = new StringBuilder(value.length());
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (!Character.isWhitespace(c) && c != '-') {
+                normalized.append(c);
+            }
+        }
+        return normalized.isEmpty() ? null : normalized.toString().toUpperCase(Locale.ROOT);
+    }
+
+    /**
+     * 64-bit FNV-1a hash of the key fields, finished with the MurmurHash3 mixer so every bit
+     * depends on the whole key
+     */
+    static long keyHash(String policyNumber, LocalDate incidentDate, String assetId) {
+        long hash = 0xcbf29ce484222325L;
+        hash = fnv(hash, policyNumber);
+        hash = (hash ^ '|') * 0x100000001b3L;
+        hash = (hash ^ incidentDate.toEpochDay()) * 0x100000001b3L;
+        hash = (hash ^ '|') * 0x100000001b3L;
+        hash = fnv(hash, assetId);
+
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static long fnv(long hash, String value) {
+        for (int i = 0; i < value.length(); i++) {
+            hash = (hash ^ value.charAt(i)) * 0x100000001b3L;
+        }
+        return hash;
+    }
+}
@@ -0,0 +1,271 @@
+package com.example.fnol_agent.assessment;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.UUID;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Off-heap index from a 64-bit claim key hash to the id of the first claim reported with that key.
+ * <p>
+ * Entries are 24-byte slots (key hash, claim UUID) in open-addressing tables held in direct
+ * buffers, so tens of millions of claims cost no heap objects and no garbage collection work. The
+ * table is split into {@value #SEGMENTS} segments, each with its own lock, that double when they
+ * are 70% full. The whole index can be written to a snapshot file and read back with bulk reads,
+ * without rehashing.
+ */
+public final class DuplicateClaimIndex {
+
+    private static final int SEGMENTS = 16;
+    private static final int SLOT_BYTES = 24;
+    private static final int MAGIC = 0x464e4449; // "FNDI"
+    private static final int FORMAT_VERSION = 1;
+    private static final int MAX_SLOTS = Integer.highestOneBit(Integer.MAX_VALUE / SLOT_BYTES);
+
+    private final Segment[] segments = new Segment[SEGMENTS];
+
+    public DuplicateClaimIndex(long expectedClaims) {
+        this(expectedClaims, MAX_SLOTS);
+    }
+
+    /**
+     * Index whose segments stop growing at {@code maxSlots} slots
+     */
+    DuplicateClaimIndex(long expectedClaims, int maxSlots) {
+        int slots = slotsFor(expectedClaims / SEGMENTS + 1);
+        if (slots > maxSlots) {
+            throw new IllegalArgumentException("Duplicate claim index segment too large: " + expectedClaims + " claims");
+        }
+        for (int i = 0; i < SEGMENTS; i++) {
+            segments[i] = new Segment(slots, maxSlots);
+        }
+    }
+
+    private DuplicateClaimIndex(Segment[] loaded) {
+        System.arraycopy(loaded, 0, segments, 0, SEGMENTS);
+    }
+
+    /**
+     * Record a claim under a key unless the key is already taken
+     *
+     * @return the claim already recorded under the key, or null if this claim was recorded or its
+     * segment is full at its largest size
+     */
+    public UUID putIfAbsent(long keyHash, UUID claimId) {
+        long key = keyHash != 0 ? keyHash : 1;
+        return segments[(int) (key >>> 60) & (SEGMENTS - 1)].putIfAbsent(key, claimId);
+    }
+
+    public long size() {
+        long size = 0;
+        for (Segment segment : segments) {
+            size += segment.size();
+        }
+        return size;
+    }
+
+    /**
+     * Off-heap memory held by the tables
+     */
+    public long capacityBytes() {
+        long bytes = 0;
+        for (Segment segment : segments) {
+            bytes += segment.bytes();
+        }
+        return bytes;
+    }
+
+    /**
+     * Write the index to a file, replacing it atomically. Each segment is locked only while it is written.
+     */
+    public void writeSnapshot(Path file) throws IOException {
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temp, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING)) {
+            ByteBuffer header = ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN)
+                    .putInt(MAGIC).putInt(FORMAT_VERSION).putInt(SEGMENTS).flip();
+            writeFully(channel, header);
+            for (Segment segment : segments) {
+                segment.writeTo(channel);
+            }
+            channel.force(false);
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    /**
+     * Read an index written by {@link #writeSnapshot(Path)}
+     */
+    public static DuplicateClaimIndex readSnapshot(Path file) throws IOException {
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            ByteBuffer header = readFully(channel, ByteBuffer.allocate(12).order(ByteOrder.LITTLE_ENDIAN));
+            if (header.getInt() != MAGIC || header.getInt() != FORMAT_VERSION || header.getInt() != SEGMENTS) {
+                throw new IOException("Not a duplicate claim index snapshot: " + file);
+            }
+
+            Segment[] loaded = new Segment[SEGMENTS];
+            for (int i = 0; i < SEGMENTS; i++) {
+                loaded[i] = Segment.readFrom(channel);
+            }
+            return new DuplicateClaimIndex(loaded);
+        }
+    }
+
+    private static int slotsFor(long entries) {
+        long slots = Long.highestOneBit(Math.max(16, entries * 10 / 7)) << 1;
+        if (slots > MAX_SLOTS) {
+            throw new IllegalArgumentException("Duplicate claim index segment too large: " + entries + " entries");
+        }
+        return (int) slots;
+    }
+
+    private static void writeFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                throw new IOException("Truncated duplicate claim index snapshot");
+            }
+        }
+        return buffer.flip();
+    }
+
+    /**
+     * One open-addressing table with linear probing; a zero key hash marks a free slot
+     */
+    private static final class Segment {
+
+        private final ReentrantLock lock = new ReentrantLock();
+        private final int maxSlots;
+        private ByteBuffer table;
+        private int slots;
+        private int size;
+
+        Segment(int slots, int maxSlots) {
+            this.maxSlots = maxSlots;
+            this.slots = slots;
+            this.table = ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        }
+
+        private Segment(ByteBuffer table, int slots, int size) {
+            this.maxSlots = MAX_SLOTS;
+            this.table = table;
+            this.slots = slots;
+            this.size = size;
+        }
+
+        UUID putIfAbsent(long key, UUID claimId) {
+            lock.lock();
+            try {
+                int slot = find(table, slots, key);
+                int offset = slot * SLOT_BYTES;
+                if (table.getLong(offset) == key) {
+                    return new UUID(table.getLong(offset + 8), table.getLong(offset + 16));
+                }
+                if (size + 1 >= slots) {
+                    return null; // segment at its largest size and full; keep one free slot so probes end
+                }
+
+                write(table, offset, key, claimId.getMostSignificantBits(), claimId.getLeastSignificantBits());
+                if (++size > slots * 7L / 10) {
+                    grow();
+                }
+                return null;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        int size() {
+            lock.lock();
+            try {
+                return size;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        long bytes() {
+            lock.lock();
+            try {
+                return (long) slots * SLOT_BYTES;
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        void writeTo(FileChannel channel) throws IOException {
+            lock.lock();
+            try {
+                ByteBuffer header = ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN)
+                        .putInt(slots).putInt(size).flip();
+                writeFully(channel, header);
+                writeFully(channel, table.duplicate().clear());
+            } finally {
+                lock.unlock();
+            }
+        }
+
+        static Segment readFrom(FileChannel channel) throws IOException {
+            ByteBuffer header = readFully(channel, ByteBuffer.allocate(8).order(ByteOrder.LITTLE_ENDIAN));
+            int slots = header.getInt();
+            int size = header.getInt();
+            if (slots < 16 || Integer.bitCount(slots) != 1 || slots > MAX_SLOTS || size < 0 || size >= slots) {
+                throw new IOException("Corrupt duplicate claim index snapshot segment");
+            }
+
+            ByteBuffer table = ByteBuffer.allocateDirect(slots * SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            readFully(channel, table);
+            return new Segment(table.clear(), slots, size);
+        }
+
+        private void grow() {
+            if (slots >= maxSlots) {
+                return;
+            }
+            int grownSlots = slots * 2;
+            ByteBuffer grown = ByteBuffer.allocateDirect(grownSlots * SLOT_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            for (int slot = 0; slot < slots; slot++) {
+                int offset = slot * SLOT_BYTES;
+                long key = table.getLong(offset);
+                if (key != 0) {
+                    int target = find(grown, grownSlots, key) * SLOT_BYTES;
+                    write(grown, target, key, table.getLong(offset + 8), table.getLong(offset + 16));
+                }
+            }
+            table = grown;
+            slots = grownSlots;
+        }
+
+        /**
+         * Slot holding a key, or the free slot where it belongs
+         */
+        private static int find(ByteBuffer table, int slots, long key) {
+            int mask = slots - 1;
+            int slot = (int) (key ^ (key >>> 32)) & mask;
+            while (true) {
+                long stored = table.getLong(slot * SLOT_BYTES);
+                if (stored == 0 || stored == key) {
+                    return slot;
+                }
+                slot = (slot + 1) & mask;
+            }
+        }
+
+        private static void write(ByteBuffer table, int offset, long key, long mostSigBits, long leastSigBits) {
+            table.putLong(offset + 8, mostSigBits);
+            table.putLong(offset + 16, leastSigBits);
+            table.putLong(offset, key);
+        }
+    }
+}
@@ -0,0 +1,11 @@
+package com.example.fnol_agent.assessment;
+
+/**
+ * Occurrence of a fraud lexicon term in a claim
+ *
+ * @param keyword term as declared in the lexicon
+ * @param start   character offset of the match in the incident description
+ * @param end     character offset just past the match
+ */
+public record FraudIndicator(String keyword, int start, int end) {
+}
@@ -0,0 +1,34 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records every fraud lexicon term in the incident description, with its position
+ */
+@Component
+@Order(200)
+public class FraudIndicatorContributor implements AssessmentContributor {
+
+    private final FraudLexicon lexicon;
+
+    public FraudIndicatorContributor(FraudLexicon lexicon) {
+        this.lexicon = lexicon;
+    }
+
+    @Override
+    public void contribute(FNOLDocument document, ClaimAssessment.Builder assessment) {
+        if (document.getIncidentInformation() == null) {
+            return;
+        }
+        String description = document.getIncidentInformation().getDescription();
+        if (description == null || description.isBlank()) {
+            return;
+        }
+
+        for (FraudLexicon.Hit hit : lexicon.scan(description)) {
+            assessment.fraudIndicator(new FraudIndicator(hit.term(), hit.start(), hit.end()));
+        }
+    }
+}
@@ -0,0 +1,337 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.extraction.RuleVersions;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Fraud terms and phrases, matched against free text in a single pass.
+ * <p>
+ * The text is split into words (runs of letters and digits) and lowercased once. Terms therefore
+ * only ever match whole words, and a phrase matches its words separated by any spaces or
+ * punctuation. Words are fed to an Aho-Corasick automaton over word ids, so the cost of a scan
+ * depends on the length of the text and not on the number of terms. Terms are stemmed by default
+ * ("fake" also matches "faked", "fakes", "faking"); a term declared with {@code "stem": false} only
+ * matches its exact words. The lexicon is immutable and thread-safe.
+ */
+public final class FraudLexicon {
+
+    private final String version;
+    private final String[] terms;
+    private final Automaton exact;
+    private final Automaton stemmed;
+    private final int maxPhraseWords;
+
+    /**
+     * Occurrence of a lexicon term in a text
+     *
+     * @param term  the term as declared in the lexicon
+     * @param start offset of the first character of the match
+     * @param end   offset just past the last character of the match
+     */
+    public record Hit(String term, int start, int end) {
+    }
+
+    private FraudLexicon(String version, List<String> terms, List<String[]> exactPhrases, List<String[]> stemmedPhrases,
+                         List<Integer> exactTerms, List<Integer> stemmedTerms) {
+        this.version = version;
+        this.terms = terms.toArray(String[]::new);
+        this.exact = new Automaton(exactPhrases, exactTerms);
+        this.stemmed = new Automaton(stemmedPhrases, stemmedTerms);
+
+        int longest = 1;
+        for (String[] phrase : exactPhrases) {
+            longest = Math.max(longest, phrase.length);
+        }
+        for (String[] phrase : stemmedPhrases) {
+            longest = Math.max(longest, phrase.length);
+        }
+        this.maxPhraseWords = longest;
+    }
+
+    /**
+     * Load a lexicon from the JSON content of a lexicon file
+     */
+    public static FraudLexicon load(byte[] content, ObjectMapper objectMapper) throws IOException {
+        LexiconFile file = objectMapper.readValue(content, LexiconFile.class);
+        if (file.terms() == null || file.terms().isEmpty()) {
+            throw new IllegalArgumentException("Fraud lexicon declares no terms");
+        }
+
+        Map<String, Integer> termIds = new LinkedHashMap<>();
+        List<String[]> exactPhrases = new ArrayList<>();
+        List<String[]> stemmedPhrases = new ArrayList<>();
+        List<Integer> exactTerms = new ArrayList<>();
+        List<Integer> stemmedTerms = new ArrayList<>();
+
+        for (JsonNode entry : file.terms()) {
+            String term;
+            boolean stem;
+            if (entry.isTextual()) {
+                term = entry.textValue();
+                stem = true;
+            } else if (entry.isObject() && entry.path("term").isTextual()) {
+                term = entry.get("term").textValue();
+                stem = entry.path("stem").asBoolean(true);
+            } else {
+                throw new IllegalArgumentException("Fraud lexicon terms must be text or an object with 'term'");
+            }
+
+            List<String> words = words(term);
+            if (words.isEmpty()) {
+                throw new IllegalArgumentException("Fraud lexicon term without words: '" + term + "'");
+            }
+            String[] phrase = words.stream().map(word -> stem ? stem(word) : word).toArray(String[]::new);
+
+            int id = termIds.computeIfAbsent(term.trim(), key -> termIds.size());
+            (stem ? stemmedPhrases : exactPhrases).add(phrase);
+            (stem ? stemmedTerms : exactTerms).add(id);
+        }
+
+        return new FraudLexicon(RuleVersions.of(file.version(), content), new ArrayList<>(termIds.keySet()),
+                exactPhrases, stemmedPhrases, exactTerms, stemmedTerms);
+    }
+
+    /**
+     * Version of the loaded lexicon, changing whenever the lexicon file content changes
+     */
+    public String version() {
+        return version;
+    }
+
+    public int size() {
+        return terms.length;
+    }
+
+    /**
+     * Find every occurrence of every term, in order of where the match ends
+     */
+    public List<Hit> scan(CharSequence text) {
+        List<Hit> hits = new ArrayList<>();
+        if (text == null) {
+            return hits;
+        }
+
+        // Start offsets of the last words, enough to locate the start of the longest phrase
+        int[] wordStarts = new int[maxPhraseWords];
+        int wordCount = 0;
+        int exactState = Automaton.ROOT;
+        int stemmedState = Automaton.ROOT;
+
+        StringBuilder word = new StringBuilder();
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            while (pos < length && !isWordChar(text.charAt(pos))) {
+                pos++;
+            }
+            if (pos == length) {
+                break;
+            }
+            int start = pos;
+            word.setLength(0);
+            while (pos < length && isWordChar(text.charAt(pos))) {
+                word.append(Character.toLowerCase(text.charAt(pos)));
+                pos++;
+            }
+
+            wordStarts[wordCount % maxPhraseWords] = start;
+            wordCount++;
+
+            String surface = word.toString();
+            exactState = exact.next(exactState, surface);
+            stemmedState = stemmed.next(stemmedState, stem(surface));
+            report(exact, exactState, wordStarts, wordCount, pos, hits);
+            report(stemmed, stemmedState, wordStarts, wordCount, pos, hits);
+        }
+        return hits;
+    }
+
+    private void report(Automaton automaton, int state, int[] wordStarts, int wordCount, int end, List<Hit> hits) {
+        int[] matches = automaton.outputs[state];
+        for (int i = 0; i < matches.length; i += 2) {
+            int words = matches[i + 1];
+            int start = wordStarts[(wordCount - words) % maxPhraseWords];
+            hits.add(new Hit(terms[matches[i]], start, end));
+        }
+    }
+
+    /**
+     * Lowercased words of a term
+     */
+    private static List<String> words(String term) {
+        List<String> words = new ArrayList<>();
+        StringBuilder word = new StringBuilder();
+        for (int i = 0; i <= term.length(); i++) {
+            if (i < term.length() && isWordChar(term.charAt(i))) {
+                word.append(Character.toLowerCase(term.charAt(i)));
+            } else if (!word.isEmpty()) {
+                words.add(word.toString());
+                word.setLength(0);
+            }
+        }
+        return words;
+    }
+
+    /**
+     * Light suffix stripping that folds plurals and -ed/-ing forms onto one stem
+     */
+    static String stem(String word) {
+        String stem = word;
+        int length = stem.length();
+        if (length > 4 && stem.endsWith("ies")) {
+            stem = stem.substring(0, length - 3) + "y";
+        } else if (stem.endsWith("sses")) {
+            stem = stem.substring(0, length - 2);
+        } else if (length > 3 && stem.endsWith("s") && !stem.endsWith("ss") && !stem.endsWith("us") && !stem.endsWith("is")) {
+            stem = stem.substring(0, length - 1);
+        }
+
+        length = stem.length();
+        if (length > 5 && stem.endsWith("ing")) {
+            stem = stem.substring(0, length - 3);
+        } else if (length > 4 && stem.endsWith("ed")) {
+            stem = stem.substring(0, length - 2);
+        }
+
+        length = stem.length();
+        if (length > 3 && stem.endsWith("e")) {
+            stem = stem.substring(0, length - 1);
+        }
+        return stem;
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+
+    /**
+     * Aho-Corasick automaton whose symbols are words
+     */
+    private static final class Automaton {
+
+        static final int ROOT = 0;
+
+        private final Map<String, Integer> symbols = new HashMap<>();
+        private final int[][] edgeSymbols;
+        private final int[][] edgeTargets;
+        private final int[] fail;
+        /** Per state, pairs of (term id, phrase length in words) for every phrase ending there */
+        private final int[][] outputs;
+
+        Automaton(List<String[]> phrases, List<Integer> termIds) {
+            List<Map<Integer, Integer>> children = new ArrayList<>();
+            List<List<int[]>> terminals = new ArrayList<>();
+            children.add(new HashMap<>());
+            terminals.add(new ArrayList<>());
+
+            for (int p = 0; p < phrases.size(); p++) {
+                String[] phrase = phrases.get(p);
+                int node = ROOT;
+                for (String word : phrase) {
+                    int symbol = symbols.computeIfAbsent(word, key -> symbols.size());
+                    Integer next = children.get(node).get(symbol);
+                    if (next == null) {
+                        next = children.size();
+                        children.add(new HashMap<>());
+                        terminals.add(new ArrayList<>());
+                        children.get(node).put(symbol, next);
+                    }
+                    node = next;
+                }
+                int termId = termIds.get(p);
+                if (terminals.get(node).stream().noneMatch(output -> output[0] == termId)) {
+                    terminals.get(node).add(new int[]{termId, phrase.length});
+                }
+            }
+
+            int size = children.size();
+            this.edgeSymbols = new int[size][];
+            this.edgeTargets = new int[size][];
+            this.fail = new int[size];
+            this.outputs = new int[size][];
+
+            for (int node = 0; node < size; node++) {
+                int[] keys = children.get(node).keySet().stream().mapToInt(Integer::intValue).sorted().toArray();
+                int[] targets = new int[keys.length];
+                for (int i = 0; i < keys.length; i++) {
+                    targets[i] = children.get(node).get(keys[i]);
+                }
+                edgeSymbols[node] = keys;
+                edgeTargets[node] = targets;
+            }
+
+            // Breadth-first: failure links, and each state's outputs merged with those of its failure state
+            Queue<Integer> queue = new ArrayDeque<>();
+            outputs[ROOT] = flatten(terminals.get(ROOT), new int[0]);
+            for (int child : edgeTargets[ROOT]) {
+                fail[child] = ROOT;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                int node = queue.remove();
+                outputs[node] = flatten(terminals.get(node), outputs[fail[node]]);
+                for (int i = 0; i < edgeSymbols[node].length; i++) {
+                    int symbol = edgeSymbols[node][i];
+                    int child = edgeTargets[node][i];
+                    int state = fail[node];
+                    while (state != ROOT && child(state, symbol) < 0) {
+                        state = fail[state];
+                    }
+                    int target = child(state, symbol);
+                    fail[child] = target >= 0 && target != child ? target : ROOT;
+                    queue.add(child);
+                }
+            }
+        }
+
+        /**
+         * State after reading a word; a word outside the lexicon returns to the root
+         */
+        int next(int state, String word) {
+            Integer symbol = symbols.get(word);
+            if (symbol == null) {
+                return ROOT;
+            }
+            while (true) {
+                int target = child(state, symbol);
+                if (target >= 0) {
+                    return target;
+                }
+                if (state == ROOT) {
+                    return ROOT;
+                }
+                state = fail[state];
+            }
+        }
+
+        private int child(int node, int symbol) {
+            int i = Arrays.binarySearch(edgeSymbols[node], symbol);
+            return i >= 0 ? edgeTargets[node][i] : -1;
+        }
+
+        private static int[] flatten(List<int[]> own, int[] inherited) {
+            int[] merged = new int[own.size() * 2 + inherited.length];
+            int i = 0;
+            for (int[] output : own) {
+                merged[i++] = output[0];
+                merged[i++] = output[1];
+            }
+            System.arraycopy(inherited, 0, merged, i, inherited.length);
+            return merged;
+        }
+    }
+
+    record LexiconFile(String version, List<JsonNode> terms) {
+    }
+}
@@ -0,0 +1,18 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+/**
+ * Records the missing mandatory fields
+ */
+@Component
+@Order(100)
+public class MissingFieldsContributor implements AssessmentContributor {
+
+    @Override
+    public void contribute(FNOLDocument document, ClaimAssessment.Builder assessment) {
+        assessment.missingFields(document.getMissingFields());
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Duration;
+
+/**
+ * Flags claims whose incident description nearly repeats that of a recent claim, as staged-accident
+ * rings reuse narratives across policies.
+ * <p>
+ * Records {@value #NEAR_DUPLICATE_OF} and {@value #NEAR_DUPLICATE_SIMILARITY} attributes for routing
+ * rules, and a warning naming the earlier claim.
+ */
+@Component
+@Order(300)
+public class NearDuplicateContributor implements AssessmentContributor {
+
+    public static final String NEAR_DUPLICATE_OF = "nearDuplicateOf";
+    public static final String NEAR_DUPLICATE_SIMILARITY = "nearDuplicateSimilarity";
+
+    private final boolean enabled;
+    private final double threshold;
+    private final NearDuplicateIndex index;
+    private final Counter detected;
+
+    public NearDuplicateContributor(MeterRegistry meterRegistry,
+                                    @Value("${fnol.near-duplicates.enabled:true}") boolean enabled,
+                                    @Value("${fnol.near-duplicates.threshold:0.75}") double threshold,
+                                    @Value("${fnol.near-duplicates.max-claims:100000}") int maxClaims,
+                                    @Value("${fnol.near-duplicates.window-days:30}") int windowDays,
+                                    @Value("${fnol.near-duplicates.min-words:8}") int minWords) {
+        this.enabled = enabled;
+        this.threshold = threshold;
+        this.index = new NearDuplicateIndex(enabled ? maxClaims : 1, Duration.ofDays(windowDays).toMillis(), minWords);
+
+        this.detected = Counter.builder("fnol.near-duplicates.detected")
+                .description("Claims whose incident description nearly repeats a recent claim")
+                .register(meterRegistry);
+        Gauge.builder("fnol.near-duplicates.indexed", index, NearDuplicateIndex::size)
+                .description("Incident descriptions in the near-duplicate index")
+                .register(meterRegistry);
+    }
+
+    @Override
+    public void contribute(FNOLDocument document, ClaimAssessment.Builder assessment) {
+        if (!enabled || document.getIncidentInformation() == null) {
+            return;
+        }
+        String description = document.getIncidentInformation().getDescription();
+        if (description == null || description.isBlank()) {
+            return;
+        }
+
+        int[] signature = index.signature(description);
+        if (signature == null) {
+            return;
+        }
+
+        NearDuplicateIndex.Match match = index.findAndAdd(assessment.claimId(), signature, threshold,
+                System.currentTimeMillis());
+        if (match == null) {
+            return;
+        }
+
+        detected.increment();
+        BigDecimal similarity = BigDecimal.valueOf(match.similarity()).setScale(2, RoundingMode.HALF_UP);
+        assessment.attribute(NEAR_DUPLICATE_OF, match.claimId())
+                .attribute(NEAR_DUPLICATE_SIMILARITY, similarity)
+                .warning(String.format("Incident description is %.0f%% similar to recent claim %s",
+                        match.similarity() * 100, match.claimId()));
+    }
+}
@@ -0,0 +1,294 @@
+package com.example.fnol_agent.assessment;
+
+import java.util.Arrays;
+import java.util.SplittableRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Index of recent incident descriptions that finds near-duplicates of a new one.
+ * <p>
+ * Each description is reduced to a MinHash signature of its three-word shingles, whose matching
+ * components estimate the Jaccard similarity of two descriptions. Signatures are split into
+ * {@value #BANDS} bands of {@value #ROWS} rows and indexed by band (locality-sensitive hashing), so
+ * a lookup only compares signatures that agree on at least one whole band: with these sizes a
+ * description 80% similar to an indexed one is found with probability above 98%, while dissimilar
+ * ones are rarely compared at all.
+ * <p>
+ * The index is a ring of at most {@code maxClaims} slots kept in primitive arrays; the oldest claim
+ * is dropped when the ring is full or once it is older than the window. Thread-safe.
+ */
+public final class NearDuplicateIndex {
+
+    static final int BANDS = 8;
+    static final int ROWS = 4;
+    private static final int HASHES = BANDS * ROWS;
+    private static final int SHINGLE_WORDS = 3;
+    private static final long[] SEEDS = new SplittableRandom(0x5eed_f00dL).longs(HASHES).toArray();
+
+    private final int capacity;
+    private final long windowMillis;
+    private final int minWords;
+
+    // Ring of indexed claims, oldest at head
+    private final String[] claimIds;
+    private final long[] addedAt;
+    private final int[] signatures;
+    private int head;
+    private int count;
+
+    // Band chains: node (slot * BANDS + band) links to other slots with the same band
+    private final int[] next;
+    private final int[] previous;
+
+    // Open-addressing table from band key to the first node of its chain; key 0 marks a free cell
+    private final long[] bandKeys;
+    private final int[] chainHeads;
+    private final int mask;
+
+    // Slots already compared during the current lookup
+    private final int[] comparedIn;
+    private int lookup;
+
+    private final ReentrantLock lock = new ReentrantLock();
+
+    /**
+     * A similar, earlier claim
+     */
+    public record Match(String claimId, double similarity) {
+    }
+
+    public NearDuplicateIndex(int maxClaims, long windowMillis, int minWords) {
+        this.capacity = Math.max(1, maxClaims);
+        this.windowMillis = windowMillis;
+        this.minWords = Math.max(SHINGLE_WORDS, minWords);
+
+        this.claimIds = new String[capacity];
+        this.addedAt = new long[capacity];
+        this.signatures = new int[capacity * HASHES];
+        this.next = new int[capacity * BANDS];
+        this.previous = new int[capacity * BANDS];
+        this.comparedIn = new int[capacity];
+
+        int cells = Integer.highestOneBit(Math.max(16, capacity * BANDS * 2 - 1)) << 1;
+        this.bandKeys = new long[cells];
+        this.chainHeads = new int[cells];
+        this.mask = cells - 1;
+    }
+
+    /**
+     * MinHash signature of a description, or null if it is too short to compare meaningfully
+     */
+    public int[] signature(CharSequence text) {
+        long[] words = wordHashes(text);
+        if (words.length < minWords) {
+            return null;
+        }
+
+        int[] signature = new int[HASHES];
+        Arrays.fill(signature, Integer.MAX_VALUE);
+        for (int i = 0; i + SHINGLE_WORDS <= words.length; i++) {
+            long shingle = mix(words[i] ^ Long.rotateLeft(words[i + 1], 21) ^ Long.rotateLeft(words[i + 2], 42));
+            for (int h = 0; h < HASHES; h++) {
+                int value = (int) (mix(shingle + SEEDS[h]) >>> 33);
+                if (value < signature[h]) {
+                    signature[h] = value;
+                }
+            }
+        }
+        return signature;
+    }
+
+    /**
+     * Find the most similar indexed claim at or above the threshold, then index this claim
+     *
+     * @return the best match, or null if there is none
+     */
+    public Match findAndAdd(String claimId, int[] signature, double threshold, long nowMillis) {
+        lock.lock();
+        try {
+            while (count > 0 && addedAt[head] < nowMillis - windowMillis) {
+                evictOldest();
+            }
+
+            Match best = find(signature, threshold);
+
+            if (count == capacity) {
+                evictOldest();
+            }
+            int slot = (head + count) % capacity;
+            count++;
+            claimIds[slot] = claimId;
+            addedAt[slot] = nowMillis;
+            System.arraycopy(signature, 0, signatures, slot * HASHES, HASHES);
+            for (int band = 0; band < BANDS; band++) {
+                link(slot * BANDS + band, bandKey(signatures, slot * HASHES, band));
+            }
+            return best;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int size() {
+        lock.lock();
+        try {
+            return count;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private Match find(int[] signature, double threshold) {
+        if (++lookup == 0) {
+            Arrays.fill(comparedIn, 0);
+            lookup = 1;
+        }
+        Match best = null;
+        for (int band = 0; band < BANDS; band++) {
+            int cell = cell(bandKey(signature, 0, band));
+            if (bandKeys[cell] == 0) {
+                continue;
+            }
+            for (int node = chainHeads[cell]; node >= 0; node = next[node]) {
+                int slot = node / BANDS;
+                if (comparedIn[slot] == lookup) {
+                    continue;
+                }
+                comparedIn[slot] = lookup;
+
+                double similarity = similarity(signature, slot);
+                if (similarity >= threshold && (best == null || similarity > best.similarity())) {
+                    best = new Match(claimIds[slot], similarity);
+                }
+            }
+        }
+        return best;
+    }
+
+    private double similarity(int[] signature, int slot) {
+        int base = slot * HASHES;
+        int equal = 0;
+        for (int h = 0; h < HASHES; h++) {
+            if (signature[h] == signatures[base + h]) {
+                equal++;
+            }
+        }
+        return (double) equal / HASHES;
+    }
+
+    private void evictOldest() {
+        int slot = head;
+        for (int band = 0; band < BANDS; band++) {
+            unlink(slot * BANDS + band, bandKey(signatures, slot * HASHES, band));
+        }
+        claimIds[slot] = null;
+        head = (head + 1) % capacity;
+        count--;
+    }
+
+    private void link(int node, long key) {
+        int cell = cell(key);
+        previous[node] = -1;
+        if (bandKeys[cell] == 0) {
+            bandKeys[cell] = key;
+            next[node] = -1;
+        } else {
+            next[node] = chainHeads[cell];
+            previous[chainHeads[cell]] = node;
+        }
+        chainHeads[cell] = node;
+    }
+
+    private void unlink(int node, long key) {
+        if (next[node] >= 0) {
+            previous[next[node]] = previous[node];
+        }
+        if (previous[node] >= 0) {
+            next[previous[node]] = next[node];
+            return;
+        }
+
+        int cell = cell(key);
+        if (next[node] >= 0) {
+            chainHeads[cell] = next[node];
+        } else {
+            removeCell(cell);
+        }
+    }
+
+    /**
+     * Cell holding a key, or the free cell where it would be inserted
+     */
+    private int cell(long key) {
+        int cell = (int) mix(key) & mask;
+        while (bandKeys[cell] != 0 && bandKeys[cell] != key) {
+            cell = (cell + 1) & mask;
+        }
+        return cell;
+    }
+
+    /**
+     * Free a cell, shifting later cells of the same probe run back so lookups still find them
+     */
+    private void removeCell(int free) {
+        int cell = free;
+        while (true) {
+            cell = (cell + 1) & mask;
+            if (bandKeys[cell] == 0) {
+                break;
+            }
+            int home = (int) mix(bandKeys[cell]) & mask;
+            boolean reachable = free <= cell
+                    ? free < home && home <= cell
+                    : free < home || home <= cell;
+            if (!reachable) {
+                bandKeys[free] = bandKeys[cell];
+                chainHeads[free] = chainHeads[cell];
+                free = cell;
+            }
+        }
+        bandKeys[free] = 0;
+    }
+
+    private static long bandKey(int[] signature, int offset, int band) {
+        long key = band + 1;
+        for (int row = 0; row < ROWS; row++) {
+            key = key * 0x100000001b3L + signature[offset + band * ROWS + row];
+        }
+        key = mix(key);
+        return key != 0 ? key : 1;
+    }
+
+    private static long[] wordHashes(CharSequence text) {
+        long[] words = new long[16];
+        int count = 0;
+        long hash = 0;
+        boolean inWord = false;
+        for (int i = 0; i <= text.length(); i++) {
+            char c = i < text.length() ? text.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                if (!inWord) {
+                    hash = 0xcbf29ce484222325L;
+                    inWord = true;
+                }
+                hash = (hash ^ Character.toLowerCase(c)) * 0x100000001b3L;
+            } else if (inWord) {
+                if (count == words.length) {
+                    words = Arrays.copyOf(words, count * 2);
+                }
+                words[count++] = hash;
+                inWord = false;
+            }
+        }
+        return Arrays.copyOf(words, count);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
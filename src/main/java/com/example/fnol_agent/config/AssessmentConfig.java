@@ -0,0 +1,33 @@
+package com.example.fnol_agent.config;
+
+import com.example.fnol_agent.assessment.FraudLexicon;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Claim assessment configuration
+ */
+@Slf4j
+@Configuration
+public class AssessmentConfig {
+
+    @Bean
+    public FraudLexicon fraudLexicon(
+            @Value("${fnol.fraud.lexicon-location:classpath:fraud-lexicon.json}") Resource lexiconFile,
+            ObjectMapper objectMapper) throws IOException {
+
+        try (InputStream in = lexiconFile.getInputStream()) {
+            FraudLexicon lexicon = FraudLexicon.load(in.readAllBytes(), objectMapper);
+            log.info("Loaded fraud lexicon {} ({} terms) from {}",
+                    lexicon.version(), lexicon.size(), lexiconFile.getDescription());
+            return lexicon;
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package com.example.fnol_agent.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Thread pools for work fanned out within a request or run after it, and scheduled housekeeping.
+ * <p>
+ * With {@code spring.threads.virtual.enabled=true}, Spring Boot serves requests on virtual threads
+ * and these pools create virtual threads too. Pool sizes still bound how much work runs at once;
+ * CPU-heavy PDF parsing is bounded separately by {@code fnol.pdf.max-concurrent-parses}.
+ */
+@Configuration
+@EnableScheduling
+public class ExecutorConfig {
+
+    private final boolean virtualThreads;
+
+    public ExecutorConfig(@Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        this.virtualThreads = virtualThreads;
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService pdfTextExecutor(
+            @Value("${fnol.pdf.text.threads:${fnol.pdf.text.parallelism:4}}") int threads) {
+        return Executors.newFixedThreadPool(threads, namedThreads("pdf-text-"));
+    }
+
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchExecutor(@Value("${fnol.batch.threads:4}") int threads) {
+        return Executors.newFixedThreadPool(threads, namedThreads("batch-"));
+    }
+
+    /**
+     * Runs the loop that feeds a batch to {@code batchExecutor} and streams its results; kept apart
+     * so a waiting batch never holds a worker thread
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ExecutorService batchDispatchExecutor() {
+        return virtualThreads
+                ? Executors.newThreadPerTaskExecutor(namedThreads("batch-dispatch-"))
+                : Executors.newCachedThreadPool(namedThreads("batch-dispatch-"));
+    }
+
+    /**
+     * Job workers; submissions beyond the queue capacity are rejected rather than queued without bound
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ThreadPoolExecutor jobExecutor(@Value("${fnol.jobs.workers:4}") int workers,
+                                          @Value("${fnol.jobs.queue-capacity:64}") int queueCapacity) {
+        return new ThreadPoolExecutor(workers, workers, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), namedThreads("job-"), new ThreadPoolExecutor.AbortPolicy());
+    }
+
+    /**
+     * Sends job callbacks and schedules their retries, so a slow or dead callback endpoint never
+     * holds a job worker
+     */
+    @Bean(destroyMethod = "shutdown")
+    public ScheduledExecutorService callbackExecutor(@Value("${fnol.jobs.callback.threads:2}") int threads) {
+        return Executors.newScheduledThreadPool(threads, namedThreads("callback-"));
+    }
+
+    private ThreadFactory namedThreads(String prefix) {
+        if (virtualThreads) {
+            return Thread.ofVirtual().name(prefix, 1).factory();
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+}
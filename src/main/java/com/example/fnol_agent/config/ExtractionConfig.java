@@ -0,0 +1,45 @@
+package com.example.fnol_agent.config;
+
+import com.example.fnol_agent.extraction.ExtractionRuleRegistry;
+import com.example.fnol_agent.pdf.FormTemplateRegistry;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.io.Resource;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Extraction rules and form templates configuration
+ */
+@Slf4j
+@Configuration
+public class ExtractionConfig {
+
+    @Bean
+    public ExtractionRuleRegistry extractionRuleRegistry(
+            @Value("${fnol.extraction.rules-location:classpath:extraction-rules.json}") Resource rulesFile,
+            ObjectMapper objectMapper) throws IOException {
+
+        try (InputStream in = rulesFile.getInputStream()) {
+            ExtractionRuleRegistry registry = ExtractionRuleRegistry.load(in.readAllBytes(), objectMapper);
+            log.info("Loaded extraction rules {} from {}", registry.version(), rulesFile.getDescription());
+            return registry;
+        }
+    }
+
+    @Bean
+    public FormTemplateRegistry formTemplateRegistry(
+            @Value("${fnol.pdf.templates-location:classpath:pdf-templates.json}") Resource templatesFile,
+            ObjectMapper objectMapper) throws IOException {
+
+        try (InputStream in = templatesFile.getInputStream()) {
+            FormTemplateRegistry registry = FormTemplateRegistry.load(in.readAllBytes(), objectMapper);
+            log.info("Loaded form templates {} from {}", registry.version(), templatesFile.getDescription());
+            return registry;
+        }
+    }
+}
@@ -20,7 +20,7 @@ public class JacksonConfig {
 
         mapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
 
-        mapper.enable(SerializationFeature.INDENT_OUTPUT);
+        // Responses are compact; clients ask for indented output per request with ?pretty=true
 
         return mapper;
     }
@@ -0,0 +1,116 @@
+package com.example.fnol_agent.controller;
+
+import com.example.fnol_agent.model.ClaimPage;
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.RoutingDecision;
+import com.example.fnol_agent.store.ClaimQuery;
+import com.example.fnol_agent.store.ClaimStore;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Locale;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * REST Controller for querying processed claims
+ */
+@RestController
+@RequestMapping("/api/v1/fnol/claims")
+@RequiredArgsConstructor
+@Tag(name = "FNOL Claims", description = "Query recently processed claims by route, status, claim type, incident date and damage")
+public class ClaimController {
+
+    private static final int MAX_PAGE_SIZE = 200;
+
+    private final ClaimStore claimStore;
+    private final JsonResponses jsonResponses;
+
+    @GetMapping
+    @Operation(
+            summary = "Query Processed Claims",
+            description = "Processed claims matching every given filter, newest first. " +
+                    "Repeat a parameter to match any of several values, e.g. route=INVESTIGATION&route=MANUAL_REVIEW."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Matching claims",
+            content = @Content(schema = @Schema(implementation = ClaimPage.class))
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "The claim store is disabled"
+    )
+    public ResponseEntity<ClaimPage> queryClaims(
+            @Parameter(description = "Recommended route")
+            @RequestParam(value = "route", required = false) List<RoutingDecision> routes,
+            @Parameter(description = "Processing status (SUCCESS, PARTIAL, INCOMPLETE, FAILED)")
+            @RequestParam(value = "status", required = false) List<String> statuses,
+            @Parameter(description = "Claim type")
+            @RequestParam(value = "claimType", required = false) List<ClaimType> claimTypes,
+            @Parameter(description = "Earliest incident date (inclusive), yyyy-MM-dd")
+            @RequestParam(value = "incidentFrom", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentFrom,
+            @Parameter(description = "Latest incident date (inclusive), yyyy-MM-dd")
+            @RequestParam(value = "incidentTo", required = false)
+            @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate incidentTo,
+            @Parameter(description = "Smallest estimated damage (inclusive)")
+            @RequestParam(value = "minDamage", required = false) BigDecimal minDamage,
+            @Parameter(description = "Largest estimated damage (inclusive)")
+            @RequestParam(value = "maxDamage", required = false) BigDecimal maxDamage,
+            @Parameter(description = "Page number, from 0")
+            @RequestParam(value = "page", defaultValue = "0") int page,
+            @Parameter(description = "Claims per page, at most " + MAX_PAGE_SIZE)
+            @RequestParam(value = "size", defaultValue = "20") int size,
+            @Parameter(description = "Indent the JSON response")
+            @RequestParam(value = "pretty", defaultValue = "false") boolean pretty) throws IOException {
+
+        if (!claimStore.isEnabled()) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).build();
+        }
+
+        ClaimQuery query = new ClaimQuery(
+                valuesOf(routes, route -> route),
+                valuesOf(statuses, status -> status.isBlank() ? null : status.trim().toUpperCase(Locale.ROOT)),
+                valuesOf(claimTypes, claimType -> claimType),
+                incidentFrom,
+                incidentTo,
+                minDamage,
+                maxDamage,
+                Math.max(0, page),
+                Math.clamp(size, 1, MAX_PAGE_SIZE));
+        return jsonResponses.body(ResponseEntity.ok(), claimStore.query(query), pretty);
+    }
+
+    /**
+     * Distinct non-empty values of a repeatable parameter
+     */
+    private static <T, R> Set<R> valuesOf(List<T> values, Function<T, R> normalize) {
+        if (values == null) {
+            return Set.of();
+        }
+        return values.stream()
+                .filter(Objects::nonNull)
+                .map(normalize)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+}
@@ -1,7 +1,9 @@
 package com.example.fnol_agent.controller;
 
 
+import com.example.fnol_agent.model.BatchItemResult;
 import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.service.BatchProcessingService;
 import com.example.fnol_agent.service.FNOLProcessingService;
 import com.example.fnol_agent.service.TxtExtractionService;
 import io.swagger.v3.oas.annotations.Operation;
@@ -12,19 +14,15 @@ import io.swagger.v3.oas.annotations.responses.ApiResponse;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.apache.pdfbox.pdmodel.PDDocument;
-import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
-import org.apache.pdfbox.pdmodel.interactive.form.PDField;
-import org.apache.pdfbox.text.PDFTextStripper;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
 
 import java.io.IOException;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.List;
 
 /**
  * REST Controller for FNOL document processing
@@ -37,7 +35,9 @@ import java.util.Map;
 public class FNOLController {
 
     private final FNOLProcessingService processingService;
+    private final BatchProcessingService batchProcessingService;
     private final TxtExtractionService txtExtractionService;
+    private final JsonResponses jsonResponses;
 
     @PostMapping(value = "/process", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
@@ -60,36 +60,64 @@ public class FNOLController {
     )
     public ResponseEntity<ProcessingResult> processDocument(
             @Parameter(description = "FNOL document file (PDF or TXT)", required = true)
-            @RequestParam("file") MultipartFile file) throws IOException {
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "Indent the JSON response")
+            @RequestParam(value = "pretty", defaultValue = "false") boolean pretty,
+            @Parameter(description = "Include the time and allocation of each processing stage, if profiling is enabled")
+            @RequestParam(value = "profile", defaultValue = "false") boolean profile) throws IOException {
 
         // Validate file
-        if (file.isEmpty()) {
-            ProcessingResult errorResult = ProcessingResult.builder()
-                    .status("FAILED")
-                    .errors(java.util.List.of("File is empty"))
-                    .build();
-            return ResponseEntity.badRequest().body(errorResult);
-        }
-
         String filename = file.getOriginalFilename();
-        if (filename == null ||
-                (!filename.toLowerCase().endsWith(".pdf") && !filename.toLowerCase().endsWith(".txt"))) {
+        String rejection = processingService.validateUpload(file, filename);
+        if (rejection != null) {
             ProcessingResult errorResult = ProcessingResult.builder()
                     .status("FAILED")
-                    .errors(java.util.List.of("Invalid file type. Only PDF and TXT files are supported."))
+                    .errors(List.of(rejection))
                     .build();
-            return ResponseEntity.badRequest().body(errorResult);
+            return jsonResponses.body(ResponseEntity.badRequest(), errorResult, pretty);
         }
 
         // Process document
-        ProcessingResult result = processingService.processDocument(file, filename);
+        ProcessingResult result = processingService.processDocument(file, filename, profile);
 
         // Determine HTTP status based on processing result
         HttpStatus status = "FAILED".equals(result.getStatus())
                 ? HttpStatus.INTERNAL_SERVER_ERROR
                 : HttpStatus.OK;
 
-        return ResponseEntity.status(status).body(result);
+        return jsonResponses.body(ResponseEntity.status(status), result, pretty);
+    }
+
+    @PostMapping(value = "/process/batch",
+            consumes = MediaType.MULTIPART_FORM_DATA_VALUE,
+            produces = MediaType.APPLICATION_NDJSON_VALUE)
+    @Operation(
+            summary = "Process FNOL Documents in Batch",
+            description = "Upload many FNOL documents (PDF or TXT), or ZIP archives of them. " +
+                    "Documents are processed in parallel and each result is streamed back as one " +
+                    "NDJSON line as soon as it completes, tagged with its filename."
+    )
+    @ApiResponse(
+            responseCode = "200",
+            description = "Stream of results, one JSON object per line",
+            content = @Content(schema = @Schema(implementation = BatchItemResult.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "No files uploaded"
+    )
+    public ResponseEntity<ResponseBodyEmitter> processBatch(
+            @Parameter(description = "FNOL document files (PDF, TXT or ZIP)", required = true)
+            @RequestParam("files") List<MultipartFile> files) {
+
+        if (files.isEmpty()) {
+            return ResponseEntity.badRequest().build();
+        }
+
+        log.info("Processing batch of {} uploads", files.size());
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(batchProcessingService.stream(files));
     }
 
     @GetMapping("/health")
@@ -0,0 +1,131 @@
+package com.example.fnol_agent.controller;
+
+import com.example.fnol_agent.model.ProcessingJob;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.service.FNOLProcessingService;
+import com.example.fnol_agent.service.JobQueueFullException;
+import com.example.fnol_agent.service.JobService;
+import io.swagger.v3.oas.annotations.Operation;
+import io.swagger.v3.oas.annotations.Parameter;
+import io.swagger.v3.oas.annotations.media.Content;
+import io.swagger.v3.oas.annotations.media.Schema;
+import io.swagger.v3.oas.annotations.responses.ApiResponse;
+import io.swagger.v3.oas.annotations.tags.Tag;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.List;
+
+/**
+ * REST Controller for asynchronous FNOL processing jobs
+ */
+@Slf4j
+@RestController
+@RequestMapping("/api/v1/fnol/jobs")
+@RequiredArgsConstructor
+@Tag(name = "FNOL Jobs", description = "Submit FNOL documents for asynchronous processing and poll for results")
+public class JobController {
+
+    private final FNOLProcessingService processingService;
+    private final JobService jobService;
+    private final JsonResponses jsonResponses;
+
+    @PostMapping(consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    @Operation(
+            summary = "Submit FNOL Processing Job",
+            description = "Queue a FNOL document (PDF or TXT) for processing and return a job id immediately. " +
+                    "If a callback URL is given, the finished job is POSTed to it as JSON."
+    )
+    @ApiResponse(
+            responseCode = "202",
+            description = "Job queued",
+            content = @Content(schema = @Schema(implementation = ProcessingJob.class))
+    )
+    @ApiResponse(
+            responseCode = "400",
+            description = "Invalid file or callback URL"
+    )
+    @ApiResponse(
+            responseCode = "503",
+            description = "Job queue is full; retry later"
+    )
+    public ResponseEntity<?> submitJob(
+            @Parameter(description = "FNOL document file (PDF or TXT)", required = true)
+            @RequestParam("file") MultipartFile file,
+            @Parameter(description = "http(s) URL to POST the finished job to")
+            @RequestParam(value = "callbackUrl", required = false) String callbackUrl) throws IOException {
+
+        String filename = file.getOriginalFilename();
+        String rejection = processingService.validateUpload(file, filename);
+        URI callback = null;
+        if (rejection == null && callbackUrl != null && !callbackUrl.isBlank()) {
+            callback = parseCallbackUrl(callbackUrl);
+            if (callback == null) {
+                rejection = "Invalid callback URL. Only absolute http and https URLs are supported.";
+            } else if (!jobService.isAllowedCallback(callback)) {
+                rejection = "Callback host " + callback.getHost() + " is not allowed.";
+            }
+        }
+        if (rejection != null) {
+            return ResponseEntity.badRequest().body(failed(rejection));
+        }
+
+        try {
+            ProcessingJob job = jobService.submit(file, filename, callback);
+            return ResponseEntity.accepted()
+                    .location(URI.create("/api/v1/fnol/jobs/" + job.getJobId()))
+                    .body(job);
+        } catch (JobQueueFullException e) {
+            log.warn("Rejected job for {}: {}", filename, e.getMessage());
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .header(HttpHeaders.RETRY_AFTER, "5")
+                    .body(failed(e.getMessage()));
+        }
+    }
+
+    @GetMapping("/{jobId}")
+    @Operation(summary = "Get FNOL Processing Job", description = "Poll the status and result of a job")
+    @ApiResponse(
+            responseCode = "200",
+            description = "Job found",
+            content = @Content(schema = @Schema(implementation = ProcessingJob.class))
+    )
+    @ApiResponse(
+            responseCode = "404",
+            description = "Unknown or expired job id"
+    )
+    public ResponseEntity<ProcessingJob> getJob(
+            @PathVariable String jobId,
+            @Parameter(description = "Indent the JSON response")
+            @RequestParam(value = "pretty", defaultValue = "false") boolean pretty) {
+        return jobService.find(jobId)
+                .map(job -> jsonResponses.body(ResponseEntity.ok(), job, pretty))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
+
+    private static URI parseCallbackUrl(String callbackUrl) {
+        try {
+            URI uri = URI.create(callbackUrl.trim());
+            String scheme = uri.getScheme();
+            boolean http = "http".equalsIgnoreCase(scheme) || "https".equalsIgnoreCase(scheme);
+            return http && uri.getHost() != null ? uri : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static ProcessingResult failed(String error) {
+        return ProcessingResult.builder()
+                .status("FAILED")
+                .errors(List.of(error))
+                .build();
+    }
+}
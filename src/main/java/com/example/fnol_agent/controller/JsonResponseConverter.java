@@ -0,0 +1,80 @@
+package com.example.fnol_agent.controller;
+
+import com.example.fnol_agent.model.ClaimPage;
+import com.example.fnol_agent.model.ProcessingJob;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.service.StageTimers;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.http.HttpInputMessage;
+import org.springframework.http.HttpOutputMessage;
+import org.springframework.http.MediaType;
+import org.springframework.http.converter.AbstractHttpMessageConverter;
+import org.springframework.http.converter.HttpMessageNotReadableException;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+import java.io.IOException;
+
+/**
+ * Writes the API's JSON response bodies on the request thread with writers built once at startup,
+ * compact by default and indented when the handler asked for it through {@link JsonResponses}.
+ * The time spent writing is recorded by route. As a bean, it is registered ahead of Spring's default
+ * converters.
+ */
+@Component
+public class JsonResponseConverter extends AbstractHttpMessageConverter<Object> {
+
+    /**
+     * Request attribute set by {@link JsonResponses} when the client asked for {@code ?pretty=true}
+     */
+    static final String INDENT_ATTRIBUTE = JsonResponseConverter.class.getName() + ".indent";
+
+    private final ObjectWriter compact;
+    private final ObjectWriter pretty;
+    private final StageTimers stageTimers;
+
+    public JsonResponseConverter(ObjectMapper objectMapper, StageTimers stageTimers) {
+        super(MediaType.APPLICATION_JSON);
+        this.stageTimers = stageTimers;
+        // The servlet container owns the response stream, so the writers must not close it
+        this.compact = objectMapper.writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        this.pretty = compact.with(SerializationFeature.INDENT_OUTPUT);
+    }
+
+    @Override
+    protected boolean supports(Class<?> type) {
+        return ProcessingResult.class.isAssignableFrom(type)
+                || ProcessingJob.class.isAssignableFrom(type)
+                || ClaimPage.class.isAssignableFrom(type);
+    }
+
+    @Override
+    public boolean canRead(Class<?> type, MediaType mediaType) {
+        return false;
+    }
+
+    @Override
+    protected Object readInternal(Class<?> type, HttpInputMessage inputMessage) {
+        throw new HttpMessageNotReadableException("Request bodies are not read as " + type.getSimpleName(), inputMessage);
+    }
+
+    @Override
+    protected void writeInternal(Object value, HttpOutputMessage outputMessage) throws IOException {
+        ObjectWriter writer = indented() ? pretty : compact;
+        Timer timer = stageTimers.serialization(value);
+        long start = System.nanoTime();
+        writer.writeValue(outputMessage.getBody(), value);
+        StageTimers.record(timer, start);
+    }
+
+    private static boolean indented() {
+        RequestAttributes request = RequestContextHolder.getRequestAttributes();
+        return request != null
+                && Boolean.TRUE.equals(request.getAttribute(INDENT_ATTRIBUTE, RequestAttributes.SCOPE_REQUEST));
+    }
+}
@@ -0,0 +1,28 @@
+package com.example.fnol_agent.controller;
+
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+
+/**
+ * Completes JSON responses and passes the client's {@code ?pretty=true} on to
+ * {@link JsonResponseConverter}, which writes the body
+ */
+@Component
+public class JsonResponses {
+
+    /**
+     * Complete a response with a JSON body
+     */
+    public <T> ResponseEntity<T> body(ResponseEntity.BodyBuilder response, T value, boolean indent) {
+        if (indent) {
+            RequestContextHolder.currentRequestAttributes()
+                    .setAttribute(JsonResponseConverter.INDENT_ATTRIBUTE, Boolean.TRUE, RequestAttributes.SCOPE_REQUEST);
+        }
+        return response
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(value);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.fnol_agent.extraction;
+
+/**
+ * Hand-written scanners locating phone numbers and email addresses in a text.
+ * <p>
+ * Phone numbers are ten digits optionally grouped 3-3-4 by {@code -} or {@code .}; email addresses
+ * are {@code local@domain.tld} with a top-level domain of at least two letters. Both must start and
+ * end at word boundaries. Matches are reported as offsets; no strings are created while scanning.
+ */
+public final class ContactScanner {
+
+    private ContactScanner() {
+    }
+
+    public static TextSpans phones(CharSequence text) {
+        TextSpans spans = new TextSpans();
+        int length = text.length();
+        int pos = 0;
+        while (pos < length) {
+            if (isDigit(text.charAt(pos)) && (pos == 0 || !isWordChar(text.charAt(pos - 1)))) {
+                int end = phoneEnd(text, pos, length);
+                if (end > 0) {
+                    spans.add(pos, end);
+                    pos = end;
+                    continue;
+                }
+            }
+            pos++;
+        }
+        return spans;
+    }
+
+    public static TextSpans emails(CharSequence text) {
+        TextSpans spans = new TextSpans();
+        int length = text.length();
+        int searchFrom = 0;
+        for (int at = 0; at < length; at++) {
+            if (text.charAt(at) != '@') {
+                continue;
+            }
+
+            int localStart = at;
+            while (localStart > searchFrom && isLocalChar(text.charAt(localStart - 1))) {
+                localStart--;
+            }
+            while (localStart < at && !isBoundary(text, localStart)) {
+                localStart++;
+            }
+            if (localStart == at) {
+                continue;
+            }
+
+            int end = domainEnd(text, at + 1, length);
+            if (end > 0) {
+                spans.add(localStart, end);
+                searchFrom = end;
+                at = end - 1;
+            }
+        }
+        return spans;
+    }
+
+    private static int phoneEnd(CharSequence text, int pos, int length) {
+        pos = digitGroup(text, pos, length, 3);
+        if (pos < 0) {
+            return -1;
+        }
+        pos = skipSeparator(text, pos, length);
+        pos = digitGroup(text, pos, length, 3);
+        if (pos < 0) {
+            return -1;
+        }
+        pos = skipSeparator(text, pos, length);
+        pos = digitGroup(text, pos, length, 4);
+        if (pos < 0 || (pos < length && isWordChar(text.charAt(pos)))) {
+            return -1;
+        }
+        return pos;
+    }
+
+    private static int digitGroup(CharSequence text, int pos, int length, int count) {
+        for (int i = 0; i < count; i++, pos++) {
+            if (pos >= length || !isDigit(text.charAt(pos))) {
+                return -1;
+            }
+        }
+        return pos;
+    }
+
+    private static int skipSeparator(CharSequence text, int pos, int length) {
+        if (pos < length && (text.charAt(pos) == '-' || text.charAt(pos) == '.')) {
+            return pos + 1;
+        }
+        return pos;
+    }
+
+    /**
+     * End of the longest {@code domain.tld} starting at {@code start}, or -1 if there is none
+     */
+    private static int domainEnd(CharSequence text, int start, int length) {
+        int runEnd = start;
+        while (runEnd < length && isDomainChar(text.charAt(runEnd))) {
+            runEnd++;
+        }
+
+        for (int dot = runEnd - 1; dot > start; dot--) {
+            if (text.charAt(dot) != '.') {
+                continue;
+            }
+            int tldEnd = dot + 1;
+            while (tldEnd < runEnd && isAsciiLetter(text.charAt(tldEnd))) {
+                tldEnd++;
+            }
+            if (tldEnd - dot - 1 >= 2 && (tldEnd == length || !isWordChar(text.charAt(tldEnd)))) {
+                return tldEnd;
+            }
+        }
+        return -1;
+    }
+
+    private static boolean isBoundary(CharSequence text, int pos) {
+        boolean before = pos > 0 && isWordChar(text.charAt(pos - 1));
+        return before != isWordChar(text.charAt(pos));
+    }
+
+    private static boolean isLocalChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '.' || c == '_' || c == '%' || c == '+' || c == '-';
+    }
+
+    private static boolean isDomainChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '.' || c == '-';
+    }
+
+    private static boolean isAsciiLetter(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z');
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+
+    private static boolean isWordChar(char c) {
+        return isAsciiLetter(c) || isDigit(c) || c == '_';
+    }
+}
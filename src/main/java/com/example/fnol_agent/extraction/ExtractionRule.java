@@ -0,0 +1,19 @@
+package com.example.fnol_agent.extraction;
+
+import java.util.List;
+import java.util.regex.Pattern;
+
+/**
+ * Compiled extraction rule for a single field path
+ *
+ * @param field         field path the rule extracts, e.g. {@code policyInformation.policyNumber}
+ * @param labels        label variants introducing the field in a document
+ * @param pattern       compiled value pattern, or null when the field takes the raw label value
+ * @param sectionLength length of the text window after the label searched for the value, or 0
+ */
+public record ExtractionRule(String field, List<String> labels, Pattern pattern, int sectionLength) {
+
+    public ExtractionRule {
+        labels = List.copyOf(labels);
+    }
+}
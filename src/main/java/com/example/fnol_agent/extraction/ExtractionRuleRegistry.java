@@ -0,0 +1,143 @@
+package com.example.fnol_agent.extraction;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Pattern;
+import java.util.regex.PatternSyntaxException;
+
+/**
+ * Immutable table of compiled extraction rules keyed by field path.
+ * <p>
+ * Rules are declared in a JSON file, compiled and validated once when the registry is loaded, and
+ * shared by all requests. The label scanner covering every declared label is built at the same time.
+ */
+public final class ExtractionRuleRegistry {
+
+    private final String version;
+    private final Map<String, ExtractionRule> rules;
+    private final LabelScanner scanner;
+
+    private ExtractionRuleRegistry(String version, Map<String, ExtractionRule> rules) {
+        this.version = version;
+        this.rules = Collections.unmodifiableMap(rules);
+
+        Map<String, List<String>> labels = new LinkedHashMap<>();
+        rules.forEach((field, rule) -> {
+            if (!rule.labels().isEmpty()) {
+                labels.put(field, rule.labels());
+            }
+        });
+        this.scanner = new LabelScanner(labels);
+    }
+
+    /**
+     * Load and compile rules from the JSON content of a rules file
+     */
+    public static ExtractionRuleRegistry load(byte[] content, ObjectMapper objectMapper) throws IOException {
+        RuleFile file = objectMapper.readValue(content, RuleFile.class);
+        if (file.fields() == null || file.fields().isEmpty()) {
+            throw new IllegalArgumentException("Extraction rules file declares no fields");
+        }
+
+        Map<String, ExtractionRule> rules = new LinkedHashMap<>();
+        file.fields().forEach((field, definition) -> rules.put(field, compile(field, definition)));
+
+        return new ExtractionRuleRegistry(RuleVersions.of(file.version(), content), rules);
+    }
+
+    /**
+     * Version of the loaded rules, changing whenever the rules file content changes
+     */
+    public String version() {
+        return version;
+    }
+
+    public LabelScanner scanner() {
+        return scanner;
+    }
+
+    /**
+     * Get the rule for a field path
+     */
+    public ExtractionRule rule(String field) {
+        ExtractionRule rule = rules.get(field);
+        if (rule == null) {
+            throw new IllegalStateException("No extraction rule declared for " + field);
+        }
+        return rule;
+    }
+
+    /**
+     * Get the compiled value pattern of a field, failing fast if the rule does not declare one
+     */
+    public Pattern pattern(String field) {
+        Pattern pattern = rule(field).pattern();
+        if (pattern == null) {
+            throw new IllegalStateException("Extraction rule " + field + " declares no pattern");
+        }
+        return pattern;
+    }
+
+    /**
+     * Get the section length of a field, failing fast if the rule does not declare one
+     */
+    public int sectionLength(String field) {
+        int length = rule(field).sectionLength();
+        if (length <= 0) {
+            throw new IllegalStateException("Extraction rule " + field + " declares no section length");
+        }
+        return length;
+    }
+
+    /**
+     * Check that every field the caller depends on declares labels
+     */
+    public void requireLabels(String... fields) {
+        for (String field : fields) {
+            if (rule(field).labels().isEmpty()) {
+                throw new IllegalStateException("Extraction rule " + field + " declares no labels");
+            }
+        }
+    }
+
+    private static ExtractionRule compile(String field, RuleDefinition definition) {
+        List<String> labels = definition.labels() != null ? definition.labels() : List.of();
+        for (String label : labels) {
+            if (label == null || label.isBlank()) {
+                throw new IllegalArgumentException("Blank label in extraction rule " + field);
+            }
+        }
+
+        Pattern pattern = null;
+        if (definition.pattern() != null) {
+            try {
+                pattern = Pattern.compile(definition.pattern(),
+                        definition.caseInsensitive() ? Pattern.CASE_INSENSITIVE : 0);
+            } catch (PatternSyntaxException e) {
+                throw new IllegalArgumentException("Invalid pattern in extraction rule " + field + ": "
+                        + e.getDescription(), e);
+            }
+        }
+
+        int section = definition.section() != null ? definition.section() : 0;
+        if (section < 0) {
+            throw new IllegalArgumentException("Negative section length in extraction rule " + field);
+        }
+        if (labels.isEmpty() && pattern == null) {
+            throw new IllegalArgumentException("Extraction rule " + field + " declares neither labels nor pattern");
+        }
+
+        return new ExtractionRule(field, labels, pattern, section);
+    }
+
+    record RuleFile(String version, Map<String, RuleDefinition> fields) {
+    }
+
+    record RuleDefinition(List<String> labels, String pattern, boolean caseInsensitive, Integer section) {
+    }
+}
@@ -0,0 +1,289 @@
+package com.example.fnol_agent.extraction;
+
+import java.util.Arrays;
+
+/**
+ * Index of label occurrences produced by a single {@link LabelScanner} pass.
+ * <p>
+ * Every occurrence is classified as a field label ({@code Label: value}, or a label opening a line
+ * or a {@code |}-separated cell), a mention inside running text, or a nested match covered by a
+ * longer label. Values and sections are resolved from the recorded offsets without rescanning.
+ */
+public final class LabelIndex {
+
+    private static final int NESTED = 1;
+    private static final int COLON = 1 << 1;
+    private static final int LINE_START = 1 << 2;
+
+    private final LabelScanner scanner;
+    private final CharSequence text;
+
+    private int size;
+    private int[] keys = new int[32];
+    private int[] starts = new int[32];
+    private int[] ends = new int[32];
+    private int[] flags = new int[32];
+
+    LabelIndex(LabelScanner scanner, CharSequence text) {
+        this.scanner = scanner;
+        this.text = text;
+    }
+
+    public CharSequence text() {
+        return text;
+    }
+
+    /**
+     * Check whether any of the keys occurs in the text, including nested matches
+     */
+    public boolean contains(String... keyNames) {
+        boolean[] wanted = resolve(keyNames);
+        for (int hit = 0; hit < size; hit++) {
+            if (wanted[keys[hit]]) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Offset of the first occurrence of any of the keys, or -1 if none occurs
+     */
+    public int position(String... keyNames) {
+        boolean[] wanted = resolve(keyNames);
+        for (int hit = 0; hit < size; hit++) {
+            if (wanted[keys[hit]] && (flags[hit] & NESTED) == 0) {
+                return starts[hit];
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Value of the first field label among the keys
+     */
+    public String value(String... keyNames) {
+        return valueIn(0, text.length(), keyNames);
+    }
+
+    /**
+     * Value of the first field label among the keys starting inside [from, to).
+     * Labels followed by a colon win over labels that merely open a line.
+     */
+    public String valueIn(int from, int to, String... keyNames) {
+        boolean[] wanted = resolve(keyNames);
+        String value = firstValue(wanted, from, to, COLON);
+        if (value == null) {
+            value = firstValue(wanted, from, to, LINE_START);
+        }
+        return value;
+    }
+
+    /**
+     * Offsets just past the label (and its colon) of every non-nested occurrence of the keys,
+     * in document order
+     */
+    public int[] valueStarts(String... keyNames) {
+        boolean[] wanted = resolve(keyNames);
+        int[] result = new int[size];
+        int count = 0;
+        for (int hit = 0; hit < size; hit++) {
+            if (wanted[keys[hit]] && (flags[hit] & NESTED) == 0) {
+                result[count++] = valueStart(hit);
+            }
+        }
+        return Arrays.copyOf(result, count);
+    }
+
+    /**
+     * Multi-line value of a field label, ending at a blank line, at any occurrence of the
+     * terminator keys, or at the end of the text
+     */
+    public String block(String key, String... terminatorKeys) {
+        boolean[] wanted = resolve(key);
+        int hit = firstHit(wanted, COLON);
+        if (hit < 0) {
+            hit = firstHit(wanted, LINE_START);
+        }
+        if (hit < 0) {
+            hit = firstHit(wanted, 0);
+        }
+        if (hit < 0) {
+            return null;
+        }
+
+        int start = valueStart(hit);
+        int end = text.length();
+
+        boolean[] terminators = resolve(terminatorKeys);
+        for (int other = hit + 1; other < size; other++) {
+            if (starts[other] >= start && terminators[keys[other]]) {
+                end = starts[other];
+                break;
+            }
+        }
+
+        int blankLine = blankLine(start, end);
+        if (blankLine >= 0) {
+            end = blankLine;
+        }
+
+        String value = trim(start, end);
+        return value.isEmpty() ? null : value;
+    }
+
+    int size() {
+        return size;
+    }
+
+    int end(int hit) {
+        return ends[hit];
+    }
+
+    void add(int key, int start, int end, boolean nested) {
+        if (size == keys.length) {
+            int capacity = size * 2;
+            keys = Arrays.copyOf(keys, capacity);
+            starts = Arrays.copyOf(starts, capacity);
+            ends = Arrays.copyOf(ends, capacity);
+            flags = Arrays.copyOf(flags, capacity);
+        }
+
+        int flag = nested ? NESTED : 0;
+        if (followedByColon(end)) {
+            flag |= COLON;
+        }
+        if (opensLine(start)) {
+            flag |= LINE_START;
+        }
+
+        keys[size] = key;
+        starts[size] = start;
+        ends[size] = end;
+        flags[size] = flag;
+        size++;
+    }
+
+    void markNested(int hit) {
+        flags[hit] |= NESTED;
+    }
+
+    private String firstValue(boolean[] wanted, int from, int to, int requiredFlag) {
+        for (int hit = 0; hit < size; hit++) {
+            if (starts[hit] < from || !wanted[keys[hit]] || (flags[hit] & NESTED) != 0) {
+                continue;
+            }
+            if (starts[hit] >= to) {
+                break;
+            }
+            if ((flags[hit] & requiredFlag) == 0) {
+                continue;
+            }
+
+            String value = lineValue(hit);
+            if (!value.isEmpty()) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private int firstHit(boolean[] wanted, int requiredFlag) {
+        for (int hit = 0; hit < size; hit++) {
+            if (wanted[keys[hit]] && (flags[hit] & NESTED) == 0 &&
+                    (requiredFlag == 0 || (flags[hit] & requiredFlag) != 0)) {
+                return hit;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Single-line value after a label: ends at a line break, a '|' cell separator,
+     * or the next field label on the same line
+     */
+    private String lineValue(int hit) {
+        int start = valueStart(hit);
+        int end = start;
+        int length = text.length();
+        while (end < length) {
+            char c = text.charAt(end);
+            if (c == '\n' || c == '\r' || c == '|') {
+                break;
+            }
+            end++;
+        }
+
+        for (int other = hit + 1; other < size && starts[other] < end; other++) {
+            if (starts[other] >= start && (flags[other] & NESTED) == 0 && (flags[other] & COLON) != 0) {
+                end = starts[other];
+                break;
+            }
+        }
+
+        return trim(start, end);
+    }
+
+    private int valueStart(int hit) {
+        int pos = skipBlanks(ends[hit]);
+        if (pos < text.length() && text.charAt(pos) == ':') {
+            pos = skipBlanks(pos + 1);
+        }
+        return pos;
+    }
+
+    private boolean followedByColon(int end) {
+        int pos = skipBlanks(end);
+        return pos < text.length() && text.charAt(pos) == ':';
+    }
+
+    private boolean opensLine(int start) {
+        int pos = start - 1;
+        while (pos >= 0 && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos--;
+        }
+        return pos < 0 || text.charAt(pos) == '\n' || text.charAt(pos) == '\r' || text.charAt(pos) == '|';
+    }
+
+    private int skipBlanks(int pos) {
+        int length = text.length();
+        while (pos < length && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t')) {
+            pos++;
+        }
+        return pos;
+    }
+
+    private int blankLine(int from, int to) {
+        int lineBreak = -1;
+        for (int pos = from; pos < to; pos++) {
+            char c = text.charAt(pos);
+            if (c == '\n') {
+                if (lineBreak >= 0) {
+                    return lineBreak;
+                }
+                lineBreak = pos;
+            } else if (!Character.isWhitespace(c)) {
+                lineBreak = -1;
+            }
+        }
+        return -1;
+    }
+
+    private String trim(int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        return text.subSequence(start, end).toString();
+    }
+
+    private boolean[] resolve(String... keyNames) {
+        boolean[] wanted = new boolean[scanner.keyCount()];
+        for (String keyName : keyNames) {
+            wanted[scanner.keyId(keyName)] = true;
+        }
+        return wanted;
+    }
+}
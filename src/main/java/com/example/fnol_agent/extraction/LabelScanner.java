@@ -0,0 +1,220 @@
+package com.example.fnol_agent.extraction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Multi-pattern label matcher that indexes every known label of a document in a single pass.
+ * <p>
+ * Labels are matched case-insensitively, only at word boundaries, and a space inside a label
+ * matches any run of spaces or tabs in the text. The scanner is immutable and thread-safe.
+ * <p>
+ * Case is folded as each character is read rather than on a lowercased copy of the document: the
+ * copy would keep a second full-size text alive next to the original for every upload in flight.
+ * Folding is a table-free ASCII check, falling back to {@link Character#toLowerCase(char)} only
+ * for other characters.
+ */
+public final class LabelScanner {
+
+    private static final int ROOT = 0;
+
+    private final String[] keys;
+    private final Map<String, Integer> keyIds;
+
+    private final char[][] edgeChars;
+    private final int[][] edgeTargets;
+    private final int[] terminalKey;
+    private final boolean[] terminalNeedsBoundary;
+
+    /**
+     * Create a scanner from label variants grouped by field key
+     */
+    public LabelScanner(Map<String, List<String>> labelsByKey) {
+        this.keys = labelsByKey.keySet().toArray(new String[0]);
+        this.keyIds = new HashMap<>();
+        for (int i = 0; i < keys.length; i++) {
+            keyIds.put(keys[i], i);
+        }
+
+        List<Map<Character, Integer>> children = new ArrayList<>();
+        List<Integer> terminals = new ArrayList<>();
+        children.add(new LinkedHashMap<>());
+        terminals.add(-1);
+
+        for (int key = 0; key < keys.length; key++) {
+            for (String label : labelsByKey.get(keys[key])) {
+                String normalized = normalize(label);
+                if (normalized.isEmpty()) {
+                    throw new IllegalArgumentException("Empty label for key " + keys[key]);
+                }
+
+                int node = ROOT;
+                for (int i = 0; i < normalized.length(); i++) {
+                    char c = normalized.charAt(i);
+                    Integer next = children.get(node).get(c);
+                    if (next == null) {
+                        next = children.size();
+                        children.add(new LinkedHashMap<>());
+                        terminals.add(-1);
+                        children.get(node).put(c, next);
+                    }
+                    node = next;
+                }
+
+                int existing = terminals.get(node);
+                if (existing >= 0 && existing != key) {
+                    throw new IllegalArgumentException("Label '" + label + "' is declared for both "
+                            + keys[existing] + " and " + keys[key]);
+                }
+                terminals.set(node, key);
+            }
+        }
+
+        int size = children.size();
+        this.edgeChars = new char[size][];
+        this.edgeTargets = new int[size][];
+        this.terminalKey = new int[size];
+        this.terminalNeedsBoundary = new boolean[size];
+
+        for (int node = 0; node < size; node++) {
+            Map<Character, Integer> edges = children.get(node);
+            char[] chars = new char[edges.size()];
+            int i = 0;
+            for (Character c : edges.keySet()) {
+                chars[i++] = c;
+            }
+            Arrays.sort(chars);
+
+            int[] targets = new int[chars.length];
+            for (i = 0; i < chars.length; i++) {
+                targets[i] = edges.get(chars[i]);
+            }
+            edgeChars[node] = chars;
+            edgeTargets[node] = targets;
+            terminalKey[node] = terminals.get(node);
+        }
+
+        // A label ending in a letter or digit must not match the prefix of a longer word
+        for (int node = 0; node < size; node++) {
+            for (int i = 0; i < edgeChars[node].length; i++) {
+                terminalNeedsBoundary[edgeTargets[node][i]] = isWordChar(edgeChars[node][i]);
+            }
+        }
+    }
+
+    /**
+     * Scan the text once and index all label occurrences
+     */
+    public LabelIndex scan(CharSequence text) {
+        LabelIndex index = new LabelIndex(this, text);
+        int length = text.length();
+        int coveredUntil = 0;
+        boolean previousIsWord = false;
+
+        for (int start = 0; start < length; start++) {
+            char first = text.charAt(start);
+            boolean isWord = isWordChar(first);
+            boolean wordStart = isWord && !previousIsWord;
+            previousIsWord = isWord;
+
+            if (!wordStart) {
+                continue;
+            }
+
+            int hitsBefore = index.size();
+            int node = ROOT;
+            int pos = start;
+
+            while (pos < length) {
+                char c = text.charAt(pos);
+                int next;
+                if (c == ' ' || c == '\t') {
+                    next = child(node, ' ');
+                    if (next < 0) {
+                        break;
+                    }
+                    do {
+                        pos++;
+                    } while (pos < length && (text.charAt(pos) == ' ' || text.charAt(pos) == '\t'));
+                } else {
+                    next = child(node, fold(c));
+                    if (next < 0) {
+                        break;
+                    }
+                    pos++;
+                }
+                node = next;
+
+                if (terminalKey[node] >= 0 &&
+                        (!terminalNeedsBoundary[node] || pos == length || !isWordChar(text.charAt(pos)))) {
+                    index.add(terminalKey[node], start, pos, start < coveredUntil);
+                }
+            }
+
+            // Only the longest label at a position is a field label; shorter ones are nested mentions
+            int hitsAfter = index.size();
+            if (hitsAfter > hitsBefore) {
+                for (int hit = hitsBefore; hit < hitsAfter - 1; hit++) {
+                    index.markNested(hit);
+                }
+                coveredUntil = Math.max(coveredUntil, index.end(hitsAfter - 1));
+            }
+        }
+
+        return index;
+    }
+
+    int keyId(String key) {
+        Integer id = keyIds.get(key);
+        if (id == null) {
+            throw new IllegalArgumentException("Unknown label key: " + key);
+        }
+        return id;
+    }
+
+    int keyCount() {
+        return keys.length;
+    }
+
+    private int child(int node, char c) {
+        char[] chars = edgeChars[node];
+        int i = Arrays.binarySearch(chars, c);
+        return i >= 0 ? edgeTargets[node][i] : -1;
+    }
+
+    private static String normalize(String label) {
+        StringBuilder normalized = new StringBuilder(label.length());
+        boolean pendingSpace = false;
+        for (int i = 0; i < label.length(); i++) {
+            char c = label.charAt(i);
+            if (Character.isWhitespace(c)) {
+                pendingSpace = normalized.length() > 0;
+            } else {
+                if (pendingSpace) {
+                    normalized.append(' ');
+                    pendingSpace = false;
+                }
+                normalized.append(fold(c));
+            }
+        }
+        return normalized.toString();
+    }
+
+    /**
+     * Lowercase a character, without a Unicode lookup for ASCII
+     */
+    static char fold(char c) {
+        if (c < 0x80) {
+            return c >= 'A' && c <= 'Z' ? (char) (c + ('a' - 'A')) : c;
+        }
+        return Character.toLowerCase(c);
+    }
+
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c);
+    }
+}
@@ -0,0 +1,91 @@
+package com.example.fnol_agent.extraction;
+
+/**
+ * Per-document budget for pattern matching over untrusted text.
+ * <p>
+ * Text handed to a matcher is wrapped by {@link #guard}, which charges one step for every character
+ * the matcher reads and periodically checks the deadline. When either limit is exceeded the read
+ * fails with {@link MatchBudgetExceededException} naming the rule that was running, which aborts
+ * even a catastrophically backtracking regex. A budget belongs to a single document and thread.
+ */
+public final class MatchBudget {
+
+    private static final int DEADLINE_CHECK_INTERVAL = 1 << 12;
+
+    private final long maxSteps;
+    private final long startNanos;
+    private final long maxNanos;
+    private long steps;
+
+    private MatchBudget(long maxSteps, long maxNanos) {
+        this.maxSteps = maxSteps;
+        this.maxNanos = maxNanos;
+        this.startNanos = System.nanoTime();
+    }
+
+    /**
+     * Create a budget allowing {@code stepsPerChar} character reads per character of a text of
+     * {@code textLength} chars, and at most {@code maxMillis} of wall time
+     */
+    public static MatchBudget forText(int textLength, long stepsPerChar, long minSteps, long maxMillis) {
+        long maxSteps = Math.max(minSteps, textLength * stepsPerChar);
+        return new MatchBudget(maxSteps, maxMillis * 1_000_000L);
+    }
+
+    /**
+     * Wrap text so that every character read by the named rule is charged to this budget
+     */
+    public CharSequence guard(CharSequence text, String rule) {
+        return new GuardedSequence(text, rule);
+    }
+
+    public long steps() {
+        return steps;
+    }
+
+    private void charge(String rule) {
+        steps++;
+        if (steps > maxSteps) {
+            throw new MatchBudgetExceededException(rule, steps, elapsedMillis());
+        }
+        if ((steps & (DEADLINE_CHECK_INTERVAL - 1)) == 0 && System.nanoTime() - startNanos > maxNanos) {
+            throw new MatchBudgetExceededException(rule, steps, elapsedMillis());
+        }
+    }
+
+    private long elapsedMillis() {
+        return (System.nanoTime() - startNanos) / 1_000_000L;
+    }
+
+    private final class GuardedSequence implements CharSequence {
+
+        private final CharSequence text;
+        private final String rule;
+
+        private GuardedSequence(CharSequence text, String rule) {
+            this.text = text;
+            this.rule = rule;
+        }
+
+        @Override
+        public int length() {
+            return text.length();
+        }
+
+        @Override
+        public char charAt(int index) {
+            charge(rule);
+            return text.charAt(index);
+        }
+
+        @Override
+        public CharSequence subSequence(int start, int end) {
+            return text.subSequence(start, end);
+        }
+
+        @Override
+        public String toString() {
+            return text.toString();
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.example.fnol_agent.extraction;
+
+import lombok.Getter;
+
+/**
+ * Thrown when matching a document exceeds its {@link MatchBudget}
+ */
+@Getter
+public class MatchBudgetExceededException extends RuntimeException {
+
+    private final String rule;
+    private final long steps;
+    private final long elapsedMillis;
+
+    public MatchBudgetExceededException(String rule, long steps, long elapsedMillis) {
+        super("Rule '" + rule + "' exceeded its matching budget after " + steps + " steps in " + elapsedMillis + " ms");
+        this.rule = rule;
+        this.steps = steps;
+        this.elapsedMillis = elapsedMillis;
+    }
+}
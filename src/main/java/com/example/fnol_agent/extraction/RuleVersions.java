@@ -0,0 +1,36 @@
+package com.example.fnol_agent.extraction;
+
+import java.math.BigInteger;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Versions of rule files loaded at startup.
+ * <p>
+ * A version is the declared version of the file plus a short hash of its content, so editing a file
+ * without bumping its declared version still changes the version reported with every result.
+ */
+public final class RuleVersions {
+
+    private RuleVersions() {
+    }
+
+    /**
+     * Version of a rule file from its declared version and its raw content
+     */
+    public static String of(String declaredVersion, byte[] content) {
+        String contentHash = sha256(content).substring(0, 8);
+        return declaredVersion != null && !declaredVersion.isBlank()
+                ? declaredVersion + "-" + contentHash
+                : contentHash;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            return String.format("%064x", new BigInteger(1, digest));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.example.fnol_agent.extraction;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Growable list of [start, end) offsets into a text, kept as primitive arrays
+ */
+public final class TextSpans {
+
+    private int size;
+    private int[] starts = new int[8];
+    private int[] ends = new int[8];
+
+    void add(int start, int end) {
+        if (size == starts.length) {
+            starts = Arrays.copyOf(starts, size * 2);
+            ends = Arrays.copyOf(ends, size * 2);
+        }
+        starts[size] = start;
+        ends[size] = end;
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Materialize the spans lying entirely inside [from, to), at most {@code limit} of them
+     */
+    public List<String> within(CharSequence text, int from, int to, int limit) {
+        List<String> values = new ArrayList<>(Math.min(limit, size));
+        for (int i = 0; i < size && values.size() < limit; i++) {
+            if (starts[i] >= to) {
+                break;
+            }
+            if (starts[i] >= from && ends[i] <= to) {
+                values.add(text.subSequence(starts[i], ends[i]).toString());
+            }
+        }
+        return values;
+    }
+}
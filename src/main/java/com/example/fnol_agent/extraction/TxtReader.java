@@ -0,0 +1,135 @@
+package com.example.fnol_agent.extraction;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharacterCodingException;
+import java.nio.charset.Charset;
+import java.nio.charset.CharsetDecoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming decoder for uploaded TXT claims.
+ * <p>
+ * The upload is read through fixed-size buffers straight into the retained text, which is capped at
+ * a maximum number of characters regardless of upload size. The charset is taken from a byte order
+ * mark when present; otherwise the content is decoded as strict UTF-8 and, if that fails, re-read
+ * as Windows-1252.
+ */
+public final class TxtReader {
+
+    private static final int BUFFER_SIZE = 8192;
+    private static final Charset WINDOWS_1252 = Charset.forName("windows-1252");
+
+    private TxtReader() {
+    }
+
+    /**
+     * Source of the upload content; opened again when the charset has to be re-detected
+     */
+    @FunctionalInterface
+    public interface Source {
+        InputStream open() throws IOException;
+    }
+
+    /**
+     * Decoded text of a TXT claim
+     *
+     * @param text      decoded characters, at most the requested maximum
+     * @param charset   charset the content was decoded with
+     * @param truncated whether the upload held more characters than were retained
+     */
+    public record TxtContent(CharSequence text, Charset charset, boolean truncated) {
+    }
+
+    /**
+     * Decode an upload of about {@code sizeHint} bytes, retaining at most {@code maxChars} characters
+     */
+    public static TxtContent read(Source source, long sizeHint, int maxChars) throws IOException {
+        byte[] head;
+        try (InputStream in = source.open()) {
+            head = in.readNBytes(3);
+        }
+
+        if (head.length >= 3 && (head[0] & 0xFF) == 0xEF && (head[1] & 0xFF) == 0xBB && (head[2] & 0xFF) == 0xBF) {
+            return decode(source, StandardCharsets.UTF_8, 3, false, sizeHint, maxChars);
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFE && (head[1] & 0xFF) == 0xFF) {
+            return decode(source, StandardCharsets.UTF_16BE, 2, false, sizeHint, maxChars);
+        }
+        if (head.length >= 2 && (head[0] & 0xFF) == 0xFF && (head[1] & 0xFF) == 0xFE) {
+            return decode(source, StandardCharsets.UTF_16LE, 2, false, sizeHint, maxChars);
+        }
+
+        try {
+            return decode(source, StandardCharsets.UTF_8, 0, true, sizeHint, maxChars);
+        } catch (CharacterCodingException e) {
+            return decode(source, WINDOWS_1252, 0, false, sizeHint, maxChars);
+        }
+    }
+
+    private static TxtContent decode(Source source, Charset charset, int skip, boolean strict,
+                                     long sizeHint, int maxChars) throws IOException {
+        CodingErrorAction onError = strict ? CodingErrorAction.REPORT : CodingErrorAction.REPLACE;
+        CharsetDecoder decoder = charset.newDecoder()
+                .onMalformedInput(onError)
+                .onUnmappableCharacter(onError);
+
+        ByteBuffer bytes = ByteBuffer.allocate(BUFFER_SIZE);
+        CharBuffer chars = CharBuffer.allocate(BUFFER_SIZE);
+        StringBuilder text = new StringBuilder((int) Math.max(16, Math.min(sizeHint, maxChars)));
+
+        try (InputStream in = source.open()) {
+            in.skipNBytes(skip);
+
+            boolean eof = false;
+            while (!eof) {
+                int read = in.read(bytes.array(), bytes.position(), bytes.remaining());
+                if (read < 0) {
+                    eof = true;
+                } else {
+                    bytes.position(bytes.position() + read);
+                }
+
+                bytes.flip();
+                CoderResult result;
+                do {
+                    result = decoder.decode(bytes, chars, eof);
+                    if (result.isError()) {
+                        result.throwException();
+                    }
+                    if (!drain(chars, text, maxChars)) {
+                        return new TxtContent(text, charset, true);
+                    }
+                } while (result.isOverflow());
+                bytes.compact();
+            }
+
+            CoderResult result;
+            do {
+                result = decoder.flush(chars);
+                if (!drain(chars, text, maxChars)) {
+                    return new TxtContent(text, charset, true);
+                }
+            } while (result.isOverflow());
+        }
+
+        return new TxtContent(text, charset, false);
+    }
+
+    /**
+     * Move decoded chars into the text; false if the text reached its cap first
+     */
+    private static boolean drain(CharBuffer chars, StringBuilder text, int maxChars) {
+        chars.flip();
+        int room = maxChars - text.length();
+        int count = Math.min(room, chars.remaining());
+        text.append(chars.array(), chars.position(), count);
+        boolean fits = count == chars.remaining();
+        chars.clear();
+        return fits;
+    }
+}
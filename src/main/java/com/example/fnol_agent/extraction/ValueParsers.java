@@ -0,0 +1,193 @@
+package com.example.fnol_agent.extraction;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.Month;
+import java.time.Year;
+
+/**
+ * Allocation-free parsers for dates and monetary amounts found in FNOL documents.
+ * <p>
+ * Parsers work on a range of a {@link CharSequence} and report failure through return values
+ * rather than exceptions.
+ */
+public final class ValueParsers {
+
+    /**
+     * Returned by {@link #parseMinorUnits} when the text is not an amount
+     */
+    public static final long INVALID_AMOUNT = Long.MIN_VALUE;
+
+    private static final int MINOR_DIGITS = 2;
+    /** Integer digits that still fit in a long once scaled to minor units and rounded */
+    private static final int MAX_AMOUNT_DIGITS = 16;
+
+    private ValueParsers() {
+    }
+
+    public static LocalDate parseDate(CharSequence text) {
+        return text == null ? null : parseDate(text, 0, text.length());
+    }
+
+    /**
+     * Parse a date in one of the supported shapes: {@code M/d/yyyy}, {@code M-d-yyyy}, {@code M/d/yy},
+     * {@code M-d-yy}, {@code yyyy-M-d} or {@code yyyy/M/d}. The shape is recognised from the digit
+     * group lengths and separators; two-digit years are in 2000-2099.
+     *
+     * @return the date, or null when the text has no supported shape or is not a valid date
+     */
+    public static LocalDate parseDate(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+
+        int firstEnd = digitsEnd(text, start, end);
+        int firstLength = firstEnd - start;
+        if (firstLength == 0 || firstEnd >= end) {
+            return null;
+        }
+        char separator = text.charAt(firstEnd);
+        if (separator != '/' && separator != '-') {
+            return null;
+        }
+
+        int secondStart = firstEnd + 1;
+        int secondEnd = digitsEnd(text, secondStart, end);
+        int secondLength = secondEnd - secondStart;
+        if (secondLength < 1 || secondLength > 2 || secondEnd >= end || text.charAt(secondEnd) != separator) {
+            return null;
+        }
+
+        int thirdStart = secondEnd + 1;
+        int thirdEnd = digitsEnd(text, thirdStart, end);
+        int thirdLength = thirdEnd - thirdStart;
+        if (thirdEnd != end || thirdLength == 0) {
+            return null;
+        }
+
+        int year;
+        int month;
+        int day;
+        if (firstLength == 4 && thirdLength <= 2) {
+            year = digits(text, start, firstEnd);
+            month = digits(text, secondStart, secondEnd);
+            day = digits(text, thirdStart, thirdEnd);
+        } else if (firstLength <= 2 && (thirdLength == 2 || thirdLength == 4)) {
+            month = digits(text, start, firstEnd);
+            day = digits(text, secondStart, secondEnd);
+            year = digits(text, thirdStart, thirdEnd);
+            if (thirdLength == 2) {
+                year += 2000;
+            }
+        } else {
+            return null;
+        }
+
+        if (month < 1 || month > 12 || day < 1 || day > Month.of(month).length(Year.isLeap(year))) {
+            return null;
+        }
+        return LocalDate.of(year, month, day);
+    }
+
+    public static BigDecimal parseAmount(CharSequence text) {
+        return text == null ? null : parseAmount(text, 0, text.length());
+    }
+
+    /**
+     * Parse a monetary amount into a {@link BigDecimal} with two fraction digits
+     *
+     * @return the amount, or null when the text is not an amount
+     */
+    public static BigDecimal parseAmount(CharSequence text, int start, int end) {
+        long minorUnits = parseMinorUnits(text, start, end);
+        return minorUnits == INVALID_AMOUNT ? null : BigDecimal.valueOf(minorUnits, MINOR_DIGITS);
+    }
+
+    /**
+     * Parse a monetary amount such as {@code $1,250.50}, {@code 1250.5} or {@code 1250} into minor units
+     * (cents). A leading currency symbol and {@code ,} digit grouping are accepted; a third fraction digit
+     * rounds half-up and further digits are ignored. Amounts with more than {@value #MAX_AMOUNT_DIGITS}
+     * integer digits are rejected, so the result never overflows.
+     *
+     * @return the amount in minor units, or {@link #INVALID_AMOUNT} when the text is not an amount
+     */
+    public static long parseMinorUnits(CharSequence text, int start, int end) {
+        while (start < end && Character.isWhitespace(text.charAt(start))) {
+            start++;
+        }
+        while (end > start && Character.isWhitespace(text.charAt(end - 1))) {
+            end--;
+        }
+        if (start < end && isCurrencySymbol(text.charAt(start))) {
+            start++;
+            while (start < end && Character.isWhitespace(text.charAt(start))) {
+                start++;
+            }
+        }
+
+        long units = 0;
+        int integerDigits = 0;
+        int pos = start;
+        for (; pos < end; pos++) {
+            char c = text.charAt(pos);
+            if (c >= '0' && c <= '9') {
+                if (++integerDigits > MAX_AMOUNT_DIGITS) {
+                    return INVALID_AMOUNT;
+                }
+                units = units * 10 + (c - '0');
+            } else if (c != ',' || integerDigits == 0) {
+                break;
+            }
+        }
+        if (integerDigits == 0) {
+            return INVALID_AMOUNT;
+        }
+
+        int fractionDigits = 0;
+        boolean roundUp = false;
+        if (pos < end && text.charAt(pos) == '.') {
+            for (pos++; pos < end; pos++) {
+                char c = text.charAt(pos);
+                if (c < '0' || c > '9') {
+                    break;
+                }
+                if (fractionDigits < MINOR_DIGITS) {
+                    units = units * 10 + (c - '0');
+                } else if (fractionDigits == MINOR_DIGITS) {
+                    roundUp = c >= '5';
+                }
+                fractionDigits++;
+            }
+        }
+        if (pos != end) {
+            return INVALID_AMOUNT;
+        }
+
+        for (int i = Math.min(fractionDigits, MINOR_DIGITS); i < MINOR_DIGITS; i++) {
+            units *= 10;
+        }
+        return roundUp ? units + 1 : units;
+    }
+
+    private static boolean isCurrencySymbol(char c) {
+        return c == '$' || c == '€' || c == '£' || c == '₹';
+    }
+
+    private static int digitsEnd(CharSequence text, int pos, int end) {
+        while (pos < end && text.charAt(pos) >= '0' && text.charAt(pos) <= '9') {
+            pos++;
+        }
+        return pos;
+    }
+
+    private static int digits(CharSequence text, int start, int end) {
+        int value = 0;
+        for (int i = start; i < end; i++) {
+            value = value * 10 + (text.charAt(i) - '0');
+        }
+        return value;
+    }
+}
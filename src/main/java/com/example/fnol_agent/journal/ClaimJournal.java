@@ -0,0 +1,409 @@
+package com.example.fnol_agent.journal;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+import java.util.concurrent.locks.Condition;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+
+/**
+ * Append-only journal of binary records in memory-mapped segment files.
+ * <p>
+ * Each record is a 24-byte header (payload length, CRC32C, sequence, timestamp) followed by its
+ * payload; a zero length marks the end of a segment. Appends copy the record into the mapped
+ * segment and a new segment is started when one is full. A single flusher thread forces written
+ * records to disk: every flush covers all records appended while the previous one ran, so
+ * concurrent writers waiting in {@link #awaitDurable(long)} share one fsync (group commit).
+ * <p>
+ * On open, the last segment is scanned to the last record with a valid checksum, dropping a record
+ * torn by a crash.
+ */
+@Slf4j
+public final class ClaimJournal implements Closeable {
+
+    static final int HEADER_BYTES = 24;
+    private static final String PREFIX = "claims-";
+    private static final String SUFFIX = ".journal";
+
+    private final Path directory;
+    private final int segmentBytes;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final Condition appended = lock.newCondition();
+    private final Condition flushed = lock.newCondition();
+    private final Thread flusher;
+
+    private Segment active;
+    private int position;
+    private int forcedPosition;
+    private long nextSequence;
+    private long durableSequence;
+    private long flushes;
+    private boolean closed;
+
+    /**
+     * A record read back from the journal
+     */
+    public record Entry(long sequence, long timestampMillis, byte[] payload) {
+    }
+
+    @FunctionalInterface
+    public interface EntryHandler {
+        void accept(Entry entry) throws IOException;
+    }
+
+    private ClaimJournal(Path directory, int segmentBytes) throws IOException {
+        this.directory = directory;
+        this.segmentBytes = segmentBytes;
+        recover();
+        this.flusher = new Thread(this::flushLoop, "journal-flush");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Open the journal in a directory, creating it if needed
+     */
+    public static ClaimJournal open(Path directory, int segmentBytes) throws IOException {
+        if (segmentBytes < 4096) {
+            throw new IllegalArgumentException("Journal segments must be at least 4096 bytes");
+        }
+        Files.createDirectories(directory);
+        return new ClaimJournal(directory, segmentBytes);
+    }
+
+    /**
+     * Append a record; it is durable once {@link #awaitDurable(long)} returns for its sequence
+     *
+     * @return the sequence number of the record
+     */
+    public long append(byte[] payload, long timestampMillis) throws IOException {
+        int recordBytes = HEADER_BYTES + payload.length;
+        if (recordBytes + 4 > segmentBytes) {
+            throw new IOException(String.format("Journal record of %,d bytes exceeds the segment size", payload.length));
+        }
+
+        lock.lock();
+        try {
+            if (closed) {
+                throw new IOException("Journal is closed");
+            }
+            if (position + recordBytes + 4 > segmentBytes) {
+                rollOver();
+            }
+
+            long sequence = nextSequence++;
+            CRC32C crc = new CRC32C();
+            ByteBuffer meta = ByteBuffer.allocate(16).order(ByteOrder.LITTLE_ENDIAN)
+                    .putLong(sequence).putLong(timestampMillis).flip();
+            crc.update(meta);
+            crc.update(payload);
+
+            MappedByteBuffer buffer = active.buffer;
+            buffer.put(position + HEADER_BYTES, payload);
+            buffer.putLong(position + 8, sequence);
+            buffer.putLong(position + 16, timestampMillis);
+            buffer.putInt(position + 4, (int) crc.getValue());
+            buffer.putInt(position, payload.length);
+            position += recordBytes;
+
+            appended.signal();
+            return sequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Wait until a record and all before it have been forced to disk
+     */
+    public void awaitDurable(long sequence) throws IOException {
+        lock.lock();
+        try {
+            while (durableSequence <= sequence) {
+                if (closed) {
+                    throw new IOException("Journal closed before record " + sequence + " was flushed");
+                }
+                flushed.await();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for the journal to flush");
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Read records from a sequence onwards, in order, up to the last record appended when replay started
+     */
+    public void replay(long fromSequence, EntryHandler handler) throws IOException {
+        long endSequence;
+        lock.lock();
+        try {
+            endSequence = nextSequence;
+        } finally {
+            lock.unlock();
+        }
+
+        List<Path> segments = segments();
+        for (int i = 0; i < segments.size(); i++) {
+            if (i + 1 < segments.size() && firstSequence(segments.get(i + 1)) <= fromSequence) {
+                continue;
+            }
+            try (FileChannel channel = FileChannel.open(segments.get(i), StandardOpenOption.READ)) {
+                ByteBuffer buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size())
+                        .order(ByteOrder.LITTLE_ENDIAN);
+                int offset = 0;
+                Entry entry;
+                while ((entry = read(buffer, offset)) != null && entry.sequence() < endSequence) {
+                    if (entry.sequence() >= fromSequence) {
+                        handler.accept(entry);
+                    }
+                    offset += HEADER_BYTES + entry.payload().length;
+                }
+            }
+        }
+    }
+
+    /**
+     * Delete whole segments whose records are all older than a cutoff; the active segment is kept
+     *
+     * @return the number of segments deleted
+     */
+    public int deleteOlderThan(long cutoffMillis) throws IOException {
+        List<Path> segments = segments();
+        int deleted = 0;
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            // Every record of a segment precedes the first record of the next one
+            Entry next = readFirst(segments.get(i + 1));
+            if (next == null || next.timestampMillis() >= cutoffMillis) {
+                break;
+            }
+            Files.delete(segments.get(i));
+            deleted++;
+        }
+        return deleted;
+    }
+
+    public long nextSequence() {
+        lock.lock();
+        try {
+            return nextSequence;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public long flushes() {
+        lock.lock();
+        try {
+            return flushes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int segmentCount() {
+        try {
+            return segments().size();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    /**
+     * Flush outstanding records and stop the flusher
+     */
+    @Override
+    public void close() throws IOException {
+        lock.lock();
+        try {
+            if (closed) {
+                return;
+            }
+            active.buffer.force();
+            durableSequence = nextSequence;
+            closed = true;
+            appended.signalAll();
+            flushed.signalAll();
+            active.channel.close();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void flushLoop() {
+        while (true) {
+            Segment segment;
+            int from;
+            int to;
+            long upTo;
+            lock.lock();
+            try {
+                while (!closed && durableSequence == nextSequence) {
+                    appended.awaitUninterruptibly();
+                }
+                if (closed) {
+                    return;
+                }
+                segment = active;
+                from = forcedPosition;
+                to = position;
+                upTo = nextSequence;
+            } finally {
+                lock.unlock();
+            }
+
+            // Appends made while forcing land beyond this range and go in the next flush
+            segment.buffer.force(from, to - from);
+
+            lock.lock();
+            try {
+                if (segment == active) {
+                    forcedPosition = to;
+                }
+                durableSequence = Math.max(durableSequence, upTo);
+                flushes++;
+                flushed.signalAll();
+            } finally {
+                lock.unlock();
+            }
+        }
+    }
+
+    /**
+     * Finish the active segment and start the next; called with the lock held
+     */
+    private void rollOver() throws IOException {
+        active.buffer.force();
+        active.channel.close();
+        durableSequence = nextSequence;
+        flushed.signalAll();
+
+        active = Segment.create(segmentPath(nextSequence), segmentBytes);
+        position = 0;
+        forcedPosition = 0;
+    }
+
+    private void recover() throws IOException {
+        List<Path> segments = segments();
+        if (segments.isEmpty()) {
+            active = Segment.create(segmentPath(0), segmentBytes);
+            return;
+        }
+
+        Path last = segments.get(segments.size() - 1);
+        long sequence = firstSequence(last);
+        active = Segment.open(last, segmentBytes);
+        ByteBuffer buffer = active.buffer;
+        Entry entry;
+        while ((entry = read(buffer, position)) != null) {
+            if (entry.sequence() != sequence) {
+                break;
+            }
+            position += HEADER_BYTES + entry.payload().length;
+            sequence++;
+        }
+
+        // Mark the end after the last valid record, dropping a torn one
+        if (position + 4 <= buffer.capacity() && buffer.getInt(position) != 0) {
+            buffer.putInt(position, 0);
+            active.buffer.force();
+        }
+
+        nextSequence = sequence;
+        durableSequence = sequence;
+        forcedPosition = position;
+        log.info("Opened claim journal {} at sequence {} ({} segments)", directory, sequence, segments.size());
+    }
+
+    /**
+     * Record at an offset, or null at the end of the segment or at a record failing its checksum
+     */
+    private static Entry read(ByteBuffer buffer, int offset) {
+        if (offset + HEADER_BYTES > buffer.limit()) {
+            return null;
+        }
+        int length = buffer.getInt(offset);
+        if (length <= 0 || length > buffer.limit() - offset - HEADER_BYTES) {
+            return null;
+        }
+
+        int checksum = buffer.getInt(offset + 4);
+        long sequence = buffer.getLong(offset + 8);
+        long timestamp = buffer.getLong(offset + 16);
+        byte[] payload = new byte[length];
+        buffer.get(offset + HEADER_BYTES, payload);
+
+        CRC32C crc = new CRC32C();
+        crc.update(buffer.slice(offset + 8, 16));
+        crc.update(payload);
+        return (int) crc.getValue() == checksum ? new Entry(sequence, timestamp, payload) : null;
+    }
+
+    private static Entry readFirst(Path segment) throws IOException {
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.READ)) {
+            ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            channel.read(header, 0);
+            header.flip();
+            if (header.remaining() < HEADER_BYTES || header.getInt(0) <= 0) {
+                return null;
+            }
+            return new Entry(header.getLong(8), header.getLong(16), new byte[0]);
+        }
+    }
+
+    private List<Path> segments() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString();
+                        return name.startsWith(PREFIX) && name.endsWith(SUFFIX);
+                    })
+                    .sorted()
+                    .toList();
+        }
+    }
+
+    private Path segmentPath(long firstSequence) {
+        return directory.resolve(String.format("%s%020d%s", PREFIX, firstSequence, SUFFIX));
+    }
+
+    private static long firstSequence(Path segment) {
+        String name = segment.getFileName().toString();
+        return Long.parseLong(name.substring(PREFIX.length(), name.length() - SUFFIX.length()));
+    }
+
+    private record Segment(FileChannel channel, MappedByteBuffer buffer) {
+
+        static Segment create(Path path, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.CREATE_NEW,
+                    StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return map(channel, segmentBytes);
+        }
+
+        static Segment open(Path path, int segmentBytes) throws IOException {
+            FileChannel channel = FileChannel.open(path, StandardOpenOption.READ, StandardOpenOption.WRITE);
+            return map(channel, (int) Math.max(segmentBytes, channel.size()));
+        }
+
+        private static Segment map(FileChannel channel, int size) throws IOException {
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+            buffer.order(ByteOrder.LITTLE_ENDIAN);
+            return new Segment(channel, buffer);
+        }
+    }
+}
@@ -0,0 +1,138 @@
+package com.example.fnol_agent.journal;
+
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.function.Consumer;
+
+/**
+ * Audit trail of processed claims, kept in a {@link ClaimJournal} under {@code fnol.journal.directory}.
+ * <p>
+ * Results are stored as Smile, Jackson's binary JSON. With {@code fnol.journal.sync=true} a result
+ * is returned only once its record is on disk. Segments older than {@code fnol.journal.retention-days}
+ * are deleted. A journal that cannot be written is logged and counted; processing goes on.
+ */
+@Slf4j
+@Component
+public class ProcessedClaimJournal {
+
+    private final ClaimJournal journal;
+    private final boolean sync;
+    private final long retentionMillis;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+    private final Counter failures;
+
+    public ProcessedClaimJournal(MeterRegistry meterRegistry,
+                                 ObjectMapper objectMapper,
+                                 @Value("${fnol.journal.enabled:false}") boolean enabled,
+                                 @Value("${fnol.journal.directory:fnol-journal}") String directory,
+                                 @Value("${fnol.journal.segment-bytes:67108864}") int segmentBytes,
+                                 @Value("${fnol.journal.sync:true}") boolean sync,
+                                 @Value("${fnol.journal.retention-days:90}") int retentionDays) throws IOException {
+        this.journal = enabled ? ClaimJournal.open(Path.of(directory), segmentBytes) : null;
+        this.sync = sync;
+        this.retentionMillis = Duration.ofDays(retentionDays).toMillis();
+
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.writer = smileMapper.writerFor(ProcessingResult.class);
+        // Derived flags such as IncidentInformation.complete are written but have no setter to read back
+        this.reader = smileMapper.readerFor(ProcessingResult.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        this.failures = Counter.builder("fnol.journal.failures")
+                .description("Processed claims that could not be journaled")
+                .register(meterRegistry);
+        if (journal != null) {
+            FunctionCounter.builder("fnol.journal.records", journal, ClaimJournal::nextSequence)
+                    .description("Records appended to the claim journal")
+                    .register(meterRegistry);
+            FunctionCounter.builder("fnol.journal.flushes", journal, ClaimJournal::flushes)
+                    .description("Claim journal flushes to disk, each covering every record appended meanwhile")
+                    .register(meterRegistry);
+            Gauge.builder("fnol.journal.segments", journal, ClaimJournal::segmentCount)
+                    .description("Claim journal segment files")
+                    .register(meterRegistry);
+        }
+    }
+
+    public boolean isEnabled() {
+        return journal != null;
+    }
+
+    /**
+     * Append a processed claim to the journal
+     */
+    public void record(ProcessingResult result) {
+        if (journal == null) {
+            return;
+        }
+        try {
+            long sequence = journal.append(writer.writeValueAsBytes(result), System.currentTimeMillis());
+            if (sync) {
+                journal.awaitDurable(sequence);
+            }
+        } catch (IOException e) {
+            failures.increment();
+            log.warn("Could not journal claim {}: {}", result.getClaimId(), e.getMessage());
+        }
+    }
+
+    /**
+     * Read journaled claims in the order they were processed
+     *
+     * @return the number of claims read
+     */
+    public long replay(Consumer<ProcessingResult> handler) throws IOException {
+        if (journal == null) {
+            return 0;
+        }
+        long[] count = new long[1];
+        journal.replay(0, entry -> {
+            handler.accept(reader.readValue(entry.payload()));
+            count[0]++;
+        });
+        return count[0];
+    }
+
+    /**
+     * Delete segments past the retention period
+     */
+    @Scheduled(fixedDelayString = "${fnol.journal.retention-check-interval-millis:3600000}")
+    public void applyRetention() {
+        if (journal == null) {
+            return;
+        }
+        try {
+            int deleted = journal.deleteOlderThan(System.currentTimeMillis() - retentionMillis);
+            if (deleted > 0) {
+                log.info("Deleted {} claim journal segments past retention", deleted);
+            }
+        } catch (IOException e) {
+            log.warn("Could not apply claim journal retention: {}", e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+}
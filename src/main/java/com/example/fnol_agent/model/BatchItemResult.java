@@ -0,0 +1,24 @@
+package com.example.fnol_agent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Result of one document in a batch, written as one NDJSON line
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class BatchItemResult {
+
+    private int index; // position of the document in the batch, counting ZIP entries
+
+    private String filename;
+
+    private ProcessingResult result;
+}
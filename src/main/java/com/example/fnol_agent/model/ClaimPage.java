@@ -0,0 +1,28 @@
+package com.example.fnol_agent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One page of processed claims matching a query, newest first
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ClaimPage {
+
+    private int page;
+
+    private int size;
+
+    private long total; // claims matching the query across all pages
+
+    private List<ProcessingResult> claims;
+}
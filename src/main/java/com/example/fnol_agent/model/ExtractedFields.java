@@ -0,0 +1,35 @@
+package com.example.fnol_agent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Fields extracted from a FNOL document, as returned in a processing result
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ExtractedFields {
+
+    private PolicyInformation policyInformation;
+
+    private IncidentInformation incidentInformation;
+
+    private List<InvolvedParty> involvedParties; // omitted when there are none
+
+    private AssetDetails assetDetails;
+
+    private ClaimType claimType;
+
+    private BigDecimal initialEstimate;
+
+    private List<String> attachments; // omitted when there are none
+}
@@ -8,7 +8,6 @@ import lombok.NoArgsConstructor;
 
 import java.time.LocalDate;
 import java.time.LocalTime;
-import java.util.List;
 
 /**
  * Incident Information extracted from FNOL document
@@ -28,14 +27,6 @@ public class IncidentInformation {
 
     private String description;
 
-
-    private static final List<String> FRAUD_KEYWORDS = List.of(
-            "fraud",
-            "inconsistent",
-            "staged",
-            "fake"
-    );
-
     /**
      * Check if all mandatory incident fields are present
      */
@@ -44,17 +35,4 @@ public class IncidentInformation {
                 location != null && !location.isBlank() &&
                 description != null && !description.isBlank();
     }
-
-    /**
-     * Check if description contains fraud indicators
-     */
-    public boolean hasFraudIndicators() {
-        if (description == null || description.isBlank()) {
-            return false;
-        }
-
-        String text = description.toLowerCase();
-
-        return FRAUD_KEYWORDS.stream().anyMatch(text::contains);
-    }
 }
\ No newline at end of file
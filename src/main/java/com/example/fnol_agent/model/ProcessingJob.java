@@ -0,0 +1,38 @@
+package com.example.fnol_agent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+/**
+ * Snapshot of an asynchronous processing job
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class ProcessingJob {
+
+    private String jobId;
+
+    private String filename;
+
+    private String status; // QUEUED, RUNNING, COMPLETED
+
+    private Instant submittedAt;
+
+    private Instant startedAt;
+
+    private Instant completedAt;
+
+    private ProcessingResult result;
+
+    private String callbackUrl;
+
+    private String callbackStatus; // PENDING, DELIVERED, FAILED
+}
@@ -1,5 +1,6 @@
 package com.example.fnol_agent.model;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import com.fasterxml.jackson.annotation.JsonInclude;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
@@ -7,19 +8,22 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.util.List;
-import java.util.Map;
 
 /**
  * Result of FNOL document processing
  */
 @Data
-@Builder
+@Builder(toBuilder = true)
 @NoArgsConstructor
 @AllArgsConstructor
 @JsonInclude(JsonInclude.Include.NON_NULL)
 public class ProcessingResult {
 
-    private Map<String, Object> extractedFields;
+    private String claimId; // identifies the processed claim; every response, cache hits included, gets its own
+
+    private String duplicateOf; // claim first reported for the same policy, incident date and asset
+
+    private ExtractedFields extractedFields;
 
     private List<String> missingFields;
 
@@ -32,4 +36,13 @@ public class ProcessingResult {
     private List<String> warnings;
 
     private List<String> errors;
+
+    private String rulesVersion; // version of the routing rules that routed the claim
+
+    private Boolean cacheHit; // true when served from the result cache of an identical earlier upload
+
+    private List<StageProfile> profile; // per-stage cost, only when the request was profiled
+
+    @JsonIgnore
+    private boolean extractionStopped; // extraction ended early, so the result is not cached
 }
\ No newline at end of file
@@ -0,0 +1,30 @@
+package com.example.fnol_agent.model;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Cost of one stage of processing a document on the thread that processed it
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public class StageProfile {
+
+    private String stage;
+
+    private String parent; // stage this sub-stage is part of; its cost is included in the parent's
+
+    private long wallMicros;
+
+    private Long cpuMicros; // omitted where the JVM cannot measure thread CPU time, e.g. on virtual threads
+
+    private Long allocatedBytes; // heap allocated by the thread; work handed to other threads is not included
+
+    private String note; // caveat on the figures above, e.g. work they leave out
+}
@@ -0,0 +1,181 @@
+package com.example.fnol_agent.pdf;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Reads AcroForm field values without loading pages, content streams, fonts or images.
+ * <p>
+ * Only the objects on the path trailer → Root → AcroForm → Fields are parsed, and of each field
+ * only {@code /T}, {@code /FT}, {@code /V} and {@code /Kids}. Values are rendered the way PDFBox's
+ * {@code PDField.getValueAsString()} renders them, so callers see the same strings on both paths.
+ * Instances are not thread-safe.
+ */
+public final class AcroFormReader implements FormFields {
+
+    private static final int MAX_FIELD_DEPTH = 32;
+
+    /** PDFDocEncoding code points for bytes 0x18-0x1F and 0x80-0xA0 where it differs from Latin-1 */
+    private static final char[] PDF_DOC_ENCODING = new char[256];
+
+    static {
+        for (int i = 0; i < 256; i++) {
+            PDF_DOC_ENCODING[i] = (char) i;
+        }
+        String low = "\u02D8\u02C7\u02C6\u02D9\u02DD\u02DB\u02DA\u02DC";
+        for (int i = 0; i < low.length(); i++) {
+            PDF_DOC_ENCODING[0x18 + i] = low.charAt(i);
+        }
+        String high = "\u2022\u2020\u2021\u2026\u2014\u2013\u0192\u2044\u2039\u203A\u2212\u2030\u201E\u201C\u201D"
+                + "\u2018\u2019\u201A\u2122\uFB01\uFB02\u0141\u0152\u0160\u0178\u017D\u0131\u0142\u0153\u0161\u017E"
+                + "\uFFFD\u20AC";
+        for (int i = 0; i < high.length(); i++) {
+            PDF_DOC_ENCODING[0x80 + i] = high.charAt(i);
+        }
+    }
+
+    private record FieldHandle(LazyPdfReader reader, Object type, Object value) {
+    }
+
+    private final Map<String, FieldHandle> fields = new LinkedHashMap<>();
+
+    private AcroFormReader() {
+    }
+
+    /**
+     * Index the fields of a form by fully qualified name; values are rendered only when asked for.
+     *
+     * @return the form, or null if the document has no AcroForm or its field array is empty
+     * @throws IOException if the document cannot be read without the full parser
+     */
+    public static AcroFormReader open(ByteBuffer pdf) throws IOException {
+        LazyPdfReader reader = new LazyPdfReader(pdf);
+
+        Map<String, Object> root = reader.resolveDictionary(reader.trailer().get("Root"));
+        if (root == null) {
+            throw new IOException("Document catalog not found");
+        }
+        Map<String, Object> acroForm = reader.resolveDictionary(root.get("AcroForm"));
+        if (acroForm == null) {
+            return null;
+        }
+        if (!(reader.resolve(acroForm.get("Fields")) instanceof List<?> fields) || fields.isEmpty()) {
+            return null;
+        }
+
+        AcroFormReader form = new AcroFormReader();
+        Set<Object> visited = new HashSet<>();
+        for (Object field : fields) {
+            form.indexField(reader, field, null, null, null, visited, 0);
+        }
+        return form;
+    }
+
+    @Override
+    public Set<String> names() {
+        return Collections.unmodifiableSet(fields.keySet());
+    }
+
+    @Override
+    public String value(String name) throws IOException {
+        FieldHandle field = fields.get(name);
+        return field != null ? render(field.reader(), field.type(), field.reader().resolve(field.value())) : null;
+    }
+
+    private void indexField(LazyPdfReader reader, Object fieldObject, String parentName,
+                            Object inheritedType, Object inheritedValue,
+                            Set<Object> visited, int depth) throws IOException {
+        if (depth > MAX_FIELD_DEPTH) {
+            throw new IOException("Form field hierarchy too deep");
+        }
+        if (fieldObject instanceof LazyPdfReader.Ref && !visited.add(fieldObject)) {
+            return;
+        }
+        Map<String, Object> field = reader.resolveDictionary(fieldObject);
+        if (field == null) {
+            return;
+        }
+
+        String partialName = reader.resolve(field.get("T")) instanceof LazyPdfReader.PdfString name
+                ? decodeText(name.bytes())
+                : null;
+        String fullName = partialName == null ? parentName
+                : parentName == null ? partialName
+                : parentName + "." + partialName;
+
+        Object type = field.containsKey("FT") ? reader.resolve(field.get("FT")) : inheritedType;
+        Object value = field.containsKey("V") ? field.get("V") : inheritedValue;
+
+        if (partialName != null) {
+            fields.putIfAbsent(fullName, new FieldHandle(reader, type, value));
+        }
+
+        // Kids without a partial name are widget annotations of this field, not child fields
+        if (reader.resolve(field.get("Kids")) instanceof List<?> kids) {
+            for (Object kid : kids) {
+                Map<String, Object> kidDictionary = reader.resolveDictionary(kid);
+                if (kidDictionary != null && kidDictionary.containsKey("T")) {
+                    indexField(reader, kid, fullName, type, value, visited, depth + 1);
+                }
+            }
+        }
+    }
+
+    private static String render(LazyPdfReader reader, Object type, Object value) throws IOException {
+        boolean choice = type instanceof LazyPdfReader.Name(String name) && "Ch".equals(name);
+
+        if (value instanceof List<?> options) {
+            List<String> rendered = new ArrayList<>();
+            for (Object option : options) {
+                String text = renderScalar(reader, reader.resolve(option));
+                if (text != null) {
+                    rendered.add(text);
+                }
+            }
+            return rendered.toString();
+        }
+
+        String text = renderScalar(reader, value);
+        return choice && text != null ? "[" + text + "]" : text;
+    }
+
+    private static String renderScalar(LazyPdfReader reader, Object value) throws IOException {
+        if (value instanceof LazyPdfReader.PdfString string) {
+            return decodeText(string.bytes());
+        }
+        if (value instanceof LazyPdfReader.Name(String name)) {
+            return name;
+        }
+        if (value instanceof LazyPdfReader.Stream stream) {
+            return decodeText(reader.streamData(stream));
+        }
+        return null;
+    }
+
+    /**
+     * Decode a PDF text string: UTF-16BE or UTF-8 with a byte order mark, PDFDocEncoding otherwise
+     */
+    static String decodeText(byte[] bytes) {
+        if (bytes.length >= 2 && (bytes[0] & 0xFF) == 0xFE && (bytes[1] & 0xFF) == 0xFF) {
+            return new String(bytes, 2, bytes.length - 2, StandardCharsets.UTF_16BE);
+        }
+        if (bytes.length >= 3 && (bytes[0] & 0xFF) == 0xEF && (bytes[1] & 0xFF) == 0xBB
+                && (bytes[2] & 0xFF) == 0xBF) {
+            return new String(bytes, 3, bytes.length - 3, StandardCharsets.UTF_8);
+        }
+
+        char[] chars = new char[bytes.length];
+        for (int i = 0; i < bytes.length; i++) {
+            chars[i] = PDF_DOC_ENCODING[bytes[i] & 0xFF];
+        }
+        return new String(chars);
+    }
+}
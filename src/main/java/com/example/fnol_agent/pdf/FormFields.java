@@ -0,0 +1,21 @@
+package com.example.fnol_agent.pdf;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Named fields of a fillable PDF form, with values read on demand
+ */
+public interface FormFields {
+
+    /**
+     * Fully qualified names of all fields in the form
+     */
+    Set<String> names();
+
+    /**
+     * Value of a field rendered like {@code PDField.getValueAsString()}, or null if the field is
+     * missing or has no value
+     */
+    String value(String name) throws IOException;
+}
@@ -0,0 +1,66 @@
+package com.example.fnol_agent.pdf;
+
+/**
+ * Logical form fields read from a fillable FNOL PDF.
+ * <p>
+ * Each {@link FormTemplate} maps these slots to the field names of one form variant, so extraction
+ * code never refers to names like {@code Text7} directly.
+ */
+public enum FormSlot {
+
+    POLICY_NUMBER,
+    POLICYHOLDER_NAME,
+    AGENCY_CUSTOMER_ID,
+
+    LOSS_DATE,
+    LOSS_TIME,
+    LOSS_TIME_AM,
+    LOSS_TIME_PM,
+    LOSS_STREET,
+    LOSS_CITY_STATE_ZIP,
+    LOSS_COUNTRY,
+    LOSS_LOCATION_DESCRIPTION,
+    ACCIDENT_DESCRIPTION,
+
+    INSURED_PRIMARY_PHONE,
+    INSURED_PRIMARY_PHONE_HOME,
+    INSURED_PRIMARY_PHONE_BUS,
+    INSURED_PRIMARY_PHONE_CELL,
+    INSURED_SECONDARY_PHONE,
+    INSURED_SECONDARY_PHONE_HOME,
+    INSURED_SECONDARY_PHONE_BUS,
+    INSURED_SECONDARY_PHONE_CELL,
+    INSURED_PRIMARY_EMAIL,
+    INSURED_SECONDARY_EMAIL,
+
+    OWNER_NAME,
+    OWNER_PRIMARY_PHONE,
+    OWNER_PRIMARY_PHONE_HOME,
+    OWNER_PRIMARY_PHONE_BUS,
+    OWNER_PRIMARY_PHONE_CELL,
+    OWNER_SECONDARY_PHONE,
+    OWNER_SECONDARY_PHONE_HOME,
+    OWNER_SECONDARY_PHONE_BUS,
+    OWNER_SECONDARY_PHONE_CELL,
+    OWNER_PRIMARY_EMAIL,
+    OWNER_SECONDARY_EMAIL,
+
+    DRIVER_SAME_AS_OWNER,
+    DRIVER_NAME,
+    DRIVER_PRIMARY_PHONE,
+    DRIVER_PRIMARY_PHONE_HOME,
+    DRIVER_PRIMARY_PHONE_BUS,
+    DRIVER_PRIMARY_PHONE_CELL,
+    DRIVER_SECONDARY_PHONE,
+    DRIVER_SECONDARY_PHONE_HOME,
+    DRIVER_SECONDARY_PHONE_BUS,
+    DRIVER_SECONDARY_PHONE_CELL,
+    DRIVER_PRIMARY_EMAIL,
+    DRIVER_SECONDARY_EMAIL,
+
+    PLATE_NUMBER,
+    ESTIMATED_DAMAGE,
+    DAMAGE_DESCRIPTION,
+    INJURED_NAME_ADDRESS,
+    PROPERTY_DAMAGE
+}
@@ -0,0 +1,73 @@
+package com.example.fnol_agent.pdf;
+
+import java.io.IOException;
+import java.util.Set;
+
+/**
+ * Compiled mapping from {@link FormSlot}s to the field names of one form variant
+ */
+public final class FormTemplate {
+
+    private static final FormSlot[] SLOTS = FormSlot.values();
+
+    private final String id;
+    private final String[] fieldNames;
+    private final Set<String> requiredFields;
+    private final int mappedCount;
+
+    FormTemplate(String id, String[] fieldNames, Set<String> requiredFields) {
+        this.id = id;
+        this.fieldNames = fieldNames;
+        this.requiredFields = requiredFields;
+
+        int mapped = 0;
+        for (String fieldName : fieldNames) {
+            if (fieldName != null) {
+                mapped++;
+            }
+        }
+        this.mappedCount = mapped;
+    }
+
+    public String id() {
+        return id;
+    }
+
+    /**
+     * Read the value of every mapped slot; fields the template does not map are never read
+     */
+    public FormValues extract(FormFields form) throws IOException {
+        String[] values = new String[SLOTS.length];
+        for (int slot = 0; slot < SLOTS.length; slot++) {
+            String fieldName = fieldNames[slot];
+            if (fieldName == null) {
+                continue;
+            }
+            String value = form.value(fieldName);
+            if (value != null && !value.trim().isEmpty()) {
+                values[slot] = value.trim();
+            }
+        }
+        return new FormValues(id, values);
+    }
+
+    /**
+     * Number of mapped field names present in the form, or -1 if a required field is missing
+     */
+    int coverage(Set<String> formFieldNames) {
+        if (!formFieldNames.containsAll(requiredFields)) {
+            return -1;
+        }
+        int present = 0;
+        for (String fieldName : fieldNames) {
+            if (fieldName != null && formFieldNames.contains(fieldName)) {
+                present++;
+            }
+        }
+        return present;
+    }
+
+    int mappedCount() {
+        return mappedCount;
+    }
+}
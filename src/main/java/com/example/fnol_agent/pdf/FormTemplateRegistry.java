@@ -0,0 +1,171 @@
+package com.example.fnol_agent.pdf;
+
+import com.example.fnol_agent.extraction.RuleVersions;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Registry of form templates for the ACORD and carrier form variants we accept.
+ * <p>
+ * An incoming form is fingerprinted by the set of its field names. The first form with a given
+ * fingerprint is matched against every template by how many of the template's field names it
+ * contains; the winner is cached so later forms of the same variant skip the comparison.
+ */
+@Slf4j
+public final class FormTemplateRegistry {
+
+    private static final int MAX_CACHED_FINGERPRINTS = 1024;
+
+    private final String version;
+    private final List<FormTemplate> templates;
+    private final FormTemplate defaultTemplate;
+    private final Map<Long, FormTemplate> templatesByFingerprint = new ConcurrentHashMap<>();
+
+    private FormTemplateRegistry(String version, List<FormTemplate> templates, FormTemplate defaultTemplate) {
+        this.version = version;
+        this.templates = List.copyOf(templates);
+        this.defaultTemplate = defaultTemplate;
+    }
+
+    /**
+     * Load and compile templates from the JSON content of a templates file
+     */
+    public static FormTemplateRegistry load(byte[] content, ObjectMapper objectMapper) throws IOException {
+        TemplateFile file = objectMapper.readValue(content, TemplateFile.class);
+        if (file.templates() == null || file.templates().isEmpty()) {
+            throw new IllegalArgumentException("Form templates file declares no templates");
+        }
+
+        List<FormTemplate> templates = new ArrayList<>();
+        FormTemplate defaultTemplate = null;
+        for (Map.Entry<String, TemplateDefinition> entry : file.templates().entrySet()) {
+            FormTemplate template = compile(entry.getKey(), entry.getValue());
+            templates.add(template);
+            if (entry.getKey().equals(file.defaultTemplate())) {
+                defaultTemplate = template;
+            }
+        }
+        if (file.defaultTemplate() != null && defaultTemplate == null) {
+            throw new IllegalArgumentException("Default form template " + file.defaultTemplate() + " is not declared");
+        }
+
+        return new FormTemplateRegistry(RuleVersions.of(file.version(), content), templates,
+                defaultTemplate != null ? defaultTemplate : templates.get(0));
+    }
+
+    /**
+     * Version of the loaded templates, changing whenever the templates file content changes
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * Match a form to its template and read the template's slots
+     */
+    public FormValues extract(FormFields form) throws IOException {
+        return match(form.names()).extract(form);
+    }
+
+    /**
+     * Find the template for a form from its field names
+     */
+    public FormTemplate match(Set<String> fieldNames) {
+        long fingerprint = fingerprint(fieldNames);
+        FormTemplate template = templatesByFingerprint.get(fingerprint);
+        if (template != null) {
+            return template;
+        }
+
+        template = bestMatch(fieldNames);
+        if (templatesByFingerprint.size() < MAX_CACHED_FINGERPRINTS) {
+            templatesByFingerprint.put(fingerprint, template);
+        }
+        log.info("Form with {} fields (fingerprint {}) matched template {}",
+                fieldNames.size(), Long.toHexString(fingerprint), template.id());
+        return template;
+    }
+
+    private FormTemplate bestMatch(Set<String> fieldNames) {
+        FormTemplate best = null;
+        double bestScore = 0;
+        for (FormTemplate template : templates) {
+            int coverage = template.coverage(fieldNames);
+            double score = coverage > 0 ? (double) coverage / template.mappedCount() : 0;
+            if (score > bestScore) {
+                best = template;
+                bestScore = score;
+            }
+        }
+
+        if (best == null) {
+            log.warn("Form with {} fields matches no template; using {}", fieldNames.size(), defaultTemplate.id());
+            return defaultTemplate;
+        }
+        return best;
+    }
+
+    /**
+     * Order-independent 64-bit hash of a set of field names
+     */
+    static long fingerprint(Collection<String> fieldNames) {
+        long fingerprint = fieldNames.size();
+        for (String fieldName : fieldNames) {
+            long hash = 0xcbf29ce484222325L;
+            for (int i = 0; i < fieldName.length(); i++) {
+                hash = (hash ^ fieldName.charAt(i)) * 0x100000001b3L;
+            }
+            fingerprint += mix(hash);
+        }
+        return mix(fingerprint);
+    }
+
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    private static FormTemplate compile(String id, TemplateDefinition definition) {
+        if (definition.fields() == null || definition.fields().isEmpty()) {
+            throw new IllegalArgumentException("Form template " + id + " maps no fields");
+        }
+
+        String[] fieldNames = new String[FormSlot.values().length];
+        for (Map.Entry<String, String> entry : definition.fields().entrySet()) {
+            FormSlot slot;
+            try {
+                slot = FormSlot.valueOf(entry.getKey());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Unknown form slot " + entry.getKey() + " in template " + id, e);
+            }
+            if (entry.getValue() == null || entry.getValue().isBlank()) {
+                throw new IllegalArgumentException("Blank field name for " + slot + " in template " + id);
+            }
+            fieldNames[slot.ordinal()] = entry.getValue();
+        }
+
+        Set<String> requiredFields = definition.requiredFields() != null
+                ? new HashSet<>(definition.requiredFields())
+                : Set.of();
+        return new FormTemplate(id, fieldNames, requiredFields);
+    }
+
+    record TemplateFile(String version, String defaultTemplate, Map<String, TemplateDefinition> templates) {
+    }
+
+    record TemplateDefinition(String description, List<String> requiredFields, Map<String, String> fields) {
+    }
+}
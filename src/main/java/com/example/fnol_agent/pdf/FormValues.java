@@ -0,0 +1,50 @@
+package com.example.fnol_agent.pdf;
+
+/**
+ * Values of the {@link FormSlot}s read from one form, stored by slot index
+ */
+public final class FormValues {
+
+    private final String templateId;
+    private final String[] values;
+
+    FormValues(String templateId, String[] values) {
+        this.templateId = templateId;
+        this.values = values;
+    }
+
+    /**
+     * Id of the template the form was matched to
+     */
+    public String templateId() {
+        return templateId;
+    }
+
+    /**
+     * Trimmed value of a slot, or an empty string if the form left it blank
+     */
+    public String get(FormSlot slot) {
+        String value = values[slot.ordinal()];
+        return value != null ? value : "";
+    }
+
+    /**
+     * Check whether a check box slot is ticked
+     */
+    public boolean isChecked(FormSlot slot) {
+        return "Yes".equalsIgnoreCase(values[slot.ordinal()]);
+    }
+
+    /**
+     * Number of slots the form filled in
+     */
+    public int filledCount() {
+        int count = 0;
+        for (String value : values) {
+            if (value != null) {
+                count++;
+            }
+        }
+        return count;
+    }
+}
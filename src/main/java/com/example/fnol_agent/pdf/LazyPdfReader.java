@@ -0,0 +1,802 @@
+package com.example.fnol_agent.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+
+/**
+ * Minimal PDF object reader that parses objects only when they are dereferenced.
+ * <p>
+ * Reads the cross-reference data (tables, streams and hybrid files, following {@code /Prev} through
+ * incremental updates) and resolves indirect objects on demand, including objects stored in object
+ * streams. Only FlateDecode streams are supported. Anything this reader does not support, such as
+ * encryption or other stream filters, fails with an {@link IOException}; callers fall back to the
+ * full PDFBox loader.
+ * <p>
+ * Decompressed stream data is budgeted at {@value #INFLATE_RATIO} times the document size, and at
+ * least {@value #MIN_INFLATE_BUDGET} bytes, so a small upload cannot inflate into an unbounded
+ * amount of heap.
+ */
+final class LazyPdfReader {
+
+    private static final int MAX_DEPTH = 64;
+    static final int INFLATE_RATIO = 32;
+    static final int MIN_INFLATE_BUDGET = 4 * 1024 * 1024;
+
+    record Ref(int number, int generation) {
+    }
+
+    record Name(String value) {
+    }
+
+    record PdfString(byte[] bytes) {
+    }
+
+    record Stream(Map<String, Object> dictionary, ByteBuffer source, int dataStart) {
+    }
+
+    private record XrefEntry(int type, long field2, int field3) {
+    }
+
+    private record ObjectStream(ByteBuffer data, Map<Integer, Integer> offsets) {
+    }
+
+    private final ByteBuffer pdf;
+    private final Map<Integer, XrefEntry> xref = new HashMap<>();
+    private final Map<Integer, Object> objects = new HashMap<>();
+    private final Map<Integer, ObjectStream> objectStreams = new HashMap<>();
+    private final Set<Integer> resolving = new HashSet<>();
+    private final Map<String, Object> trailer;
+    private long inflateBudget;
+
+    LazyPdfReader(ByteBuffer pdf) throws IOException {
+        this.pdf = pdf;
+        this.inflateBudget = Math.max(MIN_INFLATE_BUDGET, (long) pdf.limit() * INFLATE_RATIO);
+        this.trailer = readCrossReferences(findStartXref());
+        if (trailer.containsKey("Encrypt")) {
+            throw new IOException("Encrypted PDFs are not supported");
+        }
+    }
+
+    Map<String, Object> trailer() {
+        return trailer;
+    }
+
+    /**
+     * Dereference an object, returning direct objects unchanged and null for missing objects
+     */
+    Object resolve(Object object) throws IOException {
+        int depth = 0;
+        while (object instanceof Ref ref) {
+            if (++depth > MAX_DEPTH) {
+                throw new IOException("Reference chain too deep at object " + ref.number());
+            }
+            object = load(ref.number());
+        }
+        return object;
+    }
+
+    @SuppressWarnings("unchecked")
+    Map<String, Object> resolveDictionary(Object object) throws IOException {
+        Object resolved = resolve(object);
+        if (resolved instanceof Stream stream) {
+            return stream.dictionary();
+        }
+        return resolved instanceof Map ? (Map<String, Object>) resolved : null;
+    }
+
+    /**
+     * Read and decode the data of a stream
+     */
+    byte[] streamData(Stream stream) throws IOException {
+        Map<String, Object> dictionary = stream.dictionary();
+        ByteBuffer source = stream.source();
+        int start = stream.dataStart();
+
+        int length = -1;
+        Object lengthValue = resolve(dictionary.get("Length"));
+        if (lengthValue instanceof Long value && value >= 0 && start + value <= source.limit()) {
+            length = value.intValue();
+        }
+        if (length < 0) {
+            int end = indexOf(source, "endstream", start);
+            if (end < 0) {
+                throw new IOException("Unterminated stream");
+            }
+            length = end - start;
+        }
+
+        byte[] raw = new byte[length];
+        source.get(start, raw);
+        return decode(raw, resolve(dictionary.get("Filter")), resolve(dictionary.get("DecodeParms")));
+    }
+
+    private Object load(int number) throws IOException {
+        if (objects.containsKey(number)) {
+            return objects.get(number);
+        }
+        if (!resolving.add(number)) {
+            throw new IOException("Circular reference to object " + number);
+        }
+
+        try {
+            XrefEntry entry = xref.get(number);
+            Object object = null;
+            if (entry != null && entry.type() == 1) {
+                object = parseIndirectObject(pdf, (int) entry.field2(), number);
+            } else if (entry != null && entry.type() == 2) {
+                ObjectStream objectStream = objectStream((int) entry.field2());
+                Integer offset = objectStream.offsets().get(number);
+                if (offset == null) {
+                    throw new IOException("Object " + number + " missing from its object stream");
+                }
+                object = new Lexer(objectStream.data(), offset).readObject();
+            }
+            objects.put(number, object);
+            return object;
+        } finally {
+            resolving.remove(number);
+        }
+    }
+
+    private ObjectStream objectStream(int number) throws IOException {
+        ObjectStream cached = objectStreams.get(number);
+        if (cached != null) {
+            return cached;
+        }
+
+        if (!(resolve(new Ref(number, 0)) instanceof Stream stream)) {
+            throw new IOException("Object stream " + number + " is not a stream");
+        }
+        ByteBuffer data = ByteBuffer.wrap(streamData(stream));
+        int count = intValue(stream.dictionary().get("N"));
+        int first = intValue(stream.dictionary().get("First"));
+
+        Map<Integer, Integer> offsets = new HashMap<>();
+        Lexer header = new Lexer(data, 0);
+        for (int i = 0; i < count; i++) {
+            int objectNumber = intValue(header.readObject());
+            int offset = intValue(header.readObject());
+            offsets.put(objectNumber, first + offset);
+        }
+
+        ObjectStream objectStream = new ObjectStream(data, offsets);
+        objectStreams.put(number, objectStream);
+        return objectStream;
+    }
+
+    private Object parseIndirectObject(ByteBuffer source, int offset, int expectedNumber) throws IOException {
+        if (offset < 0 || offset >= source.limit()) {
+            throw new IOException("Object offset " + offset + " out of range");
+        }
+        Lexer lexer = new Lexer(source, offset);
+        int number = intValue(lexer.readObject());
+        lexer.readObject();
+        if (number != expectedNumber || !"obj".equals(lexer.readKeyword())) {
+            throw new IOException("Cross-reference entry for object " + expectedNumber + " is wrong");
+        }
+
+        Object object = lexer.readObject();
+        if (object instanceof Map<?, ?> && lexer.nextKeywordIs("stream")) {
+            @SuppressWarnings("unchecked")
+            Map<String, Object> dictionary = (Map<String, Object>) object;
+            return new Stream(dictionary, source, lexer.streamDataStart());
+        }
+        return object;
+    }
+
+    private int findStartXref() throws IOException {
+        int from = Math.max(0, pdf.limit() - 2048);
+        int found = -1;
+        for (int pos = indexOf(pdf, "startxref", from); pos >= 0; pos = indexOf(pdf, "startxref", pos + 1)) {
+            found = pos;
+        }
+        if (found < 0) {
+            throw new IOException("startxref not found");
+        }
+        return intValue(new Lexer(pdf, found + "startxref".length()).readObject());
+    }
+
+    private Map<String, Object> readCrossReferences(int offset) throws IOException {
+        Map<String, Object> newest = null;
+        Set<Integer> visited = new HashSet<>();
+        Integer next = offset;
+
+        while (next != null) {
+            if (!visited.add(next) || next < 0 || next >= pdf.limit()) {
+                throw new IOException("Invalid cross-reference offset " + next);
+            }
+
+            Map<String, Object> sectionTrailer;
+            Map<Integer, XrefEntry> section = new HashMap<>();
+            Lexer lexer = new Lexer(pdf, next);
+            if (lexer.nextKeywordIs("xref")) {
+                sectionTrailer = readXrefTable(lexer, section);
+                Object hybrid = sectionTrailer.get("XRefStm");
+                if (hybrid instanceof Long hybridOffset && visited.add(hybridOffset.intValue())) {
+                    // A hybrid file lists its compressed objects as free in the table, for older readers
+                    Map<Integer, XrefEntry> streamSection = new HashMap<>();
+                    readXrefStream(hybridOffset.intValue(), streamSection);
+                    streamSection.forEach((number, entry) ->
+                            section.merge(number, entry, (table, stream) -> table.type() == 0 ? stream : table));
+                }
+            } else {
+                sectionTrailer = readXrefStream(next, section);
+            }
+            // Sections are read newest first, so an object keeps its most recent entry
+            section.forEach(xref::putIfAbsent);
+
+            if (newest == null) {
+                newest = sectionTrailer;
+            }
+            Object prev = sectionTrailer.get("Prev");
+            next = prev instanceof Long prevOffset ? prevOffset.intValue() : null;
+        }
+        return newest;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> readXrefTable(Lexer lexer, Map<Integer, XrefEntry> section) throws IOException {
+        while (true) {
+            if (lexer.nextKeywordIs("trailer")) {
+                Object dictionary = lexer.readObject();
+                if (!(dictionary instanceof Map)) {
+                    throw new IOException("Malformed trailer");
+                }
+                return (Map<String, Object>) dictionary;
+            }
+
+            int start = intValue(lexer.readObject());
+            int count = intValue(lexer.readObject());
+            for (int i = 0; i < count; i++) {
+                long entryOffset = longValue(lexer.readObject());
+                lexer.readObject();
+                String type = lexer.readKeyword();
+                section.putIfAbsent(start + i, new XrefEntry("n".equals(type) ? 1 : 0, entryOffset, 0));
+            }
+        }
+    }
+
+    private Map<String, Object> readXrefStream(int offset, Map<Integer, XrefEntry> section) throws IOException {
+        Lexer lexer = new Lexer(pdf, offset);
+        lexer.readObject();
+        lexer.readObject();
+        if (!"obj".equals(lexer.readKeyword())) {
+            throw new IOException("No cross-reference data at offset " + offset);
+        }
+        Object object = lexer.readObject();
+        if (!(object instanceof Map<?, ?>) || !lexer.nextKeywordIs("stream")) {
+            throw new IOException("No cross-reference stream at offset " + offset);
+        }
+        @SuppressWarnings("unchecked")
+        Map<String, Object> dictionary = (Map<String, Object>) object;
+        byte[] data = streamData(new Stream(dictionary, pdf, lexer.streamDataStart()));
+
+        List<?> widths = resolve(dictionary.get("W")) instanceof List<?> list ? list : null;
+        if (widths == null || widths.size() != 3) {
+            throw new IOException("Malformed /W in cross-reference stream");
+        }
+        int[] w = {intValue(widths.get(0)), intValue(widths.get(1)), intValue(widths.get(2))};
+
+        List<Object> index = new ArrayList<>();
+        if (resolve(dictionary.get("Index")) instanceof List<?> declared) {
+            index.addAll(declared);
+        } else {
+            index.add(0L);
+            index.add(resolve(dictionary.get("Size")));
+        }
+
+        int pos = 0;
+        int entryLength = w[0] + w[1] + w[2];
+        for (int i = 0; i + 1 < index.size(); i += 2) {
+            int start = intValue(index.get(i));
+            int count = intValue(index.get(i + 1));
+            for (int j = 0; j < count; j++) {
+                if (pos + entryLength > data.length) {
+                    throw new IOException("Truncated cross-reference stream");
+                }
+                int type = w[0] == 0 ? 1 : (int) field(data, pos, w[0]);
+                long field2 = field(data, pos + w[0], w[1]);
+                int field3 = (int) field(data, pos + w[0] + w[1], w[2]);
+                section.putIfAbsent(start + j, new XrefEntry(type, field2, field3));
+                pos += entryLength;
+            }
+        }
+        return dictionary;
+    }
+
+    private static long field(byte[] data, int pos, int width) {
+        long value = 0;
+        for (int i = 0; i < width; i++) {
+            value = (value << 8) | (data[pos + i] & 0xFF);
+        }
+        return value;
+    }
+
+    private byte[] decode(byte[] data, Object filter, Object parameters) throws IOException {
+        List<?> filters = filter instanceof List<?> list ? list : filter == null ? List.of() : List.of(filter);
+        List<?> parameterList = parameters instanceof List<?> list ? list : Collections.singletonList(parameters);
+
+        for (int i = 0; i < filters.size(); i++) {
+            Object name = resolve(filters.get(i));
+            if (!(name instanceof Name(String value)) || !("FlateDecode".equals(value) || "Fl".equals(value))) {
+                throw new IOException("Unsupported stream filter " + name);
+            }
+            data = inflate(data);
+            Object parameter = i < parameterList.size() ? parameterList.get(i) : null;
+            Map<String, Object> decodeParms = resolveDictionary(parameter);
+            if (decodeParms != null) {
+                data = unpredict(data, decodeParms);
+            }
+        }
+        return data;
+    }
+
+    private byte[] inflate(byte[] data) throws IOException {
+        Inflater inflater = new Inflater();
+        try {
+            inflater.setInput(data);
+            ByteArrayOutputStream out = new ByteArrayOutputStream((int) Math.max(64, Math.min(inflateBudget, data.length * 3L)));
+            byte[] buffer = new byte[8192];
+            while (!inflater.finished()) {
+                int count;
+                try {
+                    count = inflater.inflate(buffer);
+                } catch (DataFormatException e) {
+                    if (out.size() > 0) {
+                        break;
+                    }
+                    throw new IOException("Corrupt FlateDecode stream", e);
+                }
+                if (count == 0 && (inflater.needsInput() || inflater.needsDictionary())) {
+                    break;
+                }
+                inflateBudget -= count;
+                if (inflateBudget < 0) {
+                    throw new IOException("FlateDecode data exceeds the inflate budget for a "
+                            + pdf.limit() + " byte document");
+                }
+                out.write(buffer, 0, count);
+            }
+            return out.toByteArray();
+        } finally {
+            inflater.end();
+        }
+    }
+
+    private byte[] unpredict(byte[] data, Map<String, Object> parameters) throws IOException {
+        int predictor = intValue(parameters.getOrDefault("Predictor", 1L));
+        if (predictor == 1) {
+            return data;
+        }
+        if (predictor < 10) {
+            throw new IOException("Unsupported predictor " + predictor);
+        }
+
+        // The parameters come from the document, so a row must be checked before it is allocated
+        long colors = longValue(parameters.getOrDefault("Colors", 1L));
+        long bitsPerComponent = longValue(parameters.getOrDefault("BitsPerComponent", 8L));
+        long columns = longValue(parameters.getOrDefault("Columns", 1L));
+        if (colors < 1 || colors > 32) {
+            throw new IOException("Unsupported predictor Colors " + colors);
+        }
+        if (bitsPerComponent != 1 && bitsPerComponent != 2 && bitsPerComponent != 4
+                && bitsPerComponent != 8 && bitsPerComponent != 16) {
+            throw new IOException("Unsupported predictor BitsPerComponent " + bitsPerComponent);
+        }
+        if (columns < 1) {
+            throw new IOException("Unsupported predictor Columns " + columns);
+        }
+        long rowBits;
+        try {
+            rowBits = Math.multiplyExact(Math.multiplyExact(colors, bitsPerComponent), columns);
+        } catch (ArithmeticException e) {
+            throw new IOException("Predictor row of " + columns + " columns is too long", e);
+        }
+        long rowBytes = (rowBits + 7) / 8;
+        if (rowBytes > data.length || rowBytes > inflateBudget) {
+            throw new IOException("Predictor row of " + rowBytes + " bytes exceeds the "
+                    + data.length + " bytes of stream data");
+        }
+        int rowLength = (int) rowBytes;
+        int bytesPerPixel = (int) Math.max(1, colors * bitsPerComponent / 8);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream(data.length);
+        byte[] previous = new byte[rowLength];
+        byte[] row = new byte[rowLength];
+        for (int pos = 0; pos + 1 + rowLength <= data.length; pos += 1 + rowLength) {
+            int type = data[pos];
+            System.arraycopy(data, pos + 1, row, 0, rowLength);
+            for (int i = 0; i < rowLength; i++) {
+                int left = i >= bytesPerPixel ? row[i - bytesPerPixel] & 0xFF : 0;
+                int up = previous[i] & 0xFF;
+                int upLeft = i >= bytesPerPixel ? previous[i - bytesPerPixel] & 0xFF : 0;
+                int value = row[i] & 0xFF;
+                switch (type) {
+                    case 0 -> { }
+                    case 1 -> value += left;
+                    case 2 -> value += up;
+                    case 3 -> value += (left + up) / 2;
+                    case 4 -> value += paeth(left, up, upLeft);
+                    default -> throw new IOException("Unsupported PNG row filter " + type);
+                }
+                row[i] = (byte) value;
+            }
+            out.write(row, 0, rowLength);
+            byte[] swap = previous;
+            previous = row;
+            row = swap;
+        }
+        return out.toByteArray();
+    }
+
+    private static int paeth(int left, int up, int upLeft) {
+        int estimate = left + up - upLeft;
+        int distanceLeft = Math.abs(estimate - left);
+        int distanceUp = Math.abs(estimate - up);
+        int distanceUpLeft = Math.abs(estimate - upLeft);
+        if (distanceLeft <= distanceUp && distanceLeft <= distanceUpLeft) {
+            return left;
+        }
+        return distanceUp <= distanceUpLeft ? up : upLeft;
+    }
+
+    private int intValue(Object value) throws IOException {
+        long number = longValue(value);
+        if (number < Integer.MIN_VALUE || number > Integer.MAX_VALUE) {
+            throw new IOException("Integer " + number + " is out of range");
+        }
+        return (int) number;
+    }
+
+    private long longValue(Object value) throws IOException {
+        Object resolved = resolve(value);
+        if (resolved instanceof Long number) {
+            return number;
+        }
+        throw new IOException("Expected an integer but found " + resolved);
+    }
+
+    private static int indexOf(ByteBuffer buffer, String token, int from) {
+        byte[] needle = token.getBytes(StandardCharsets.US_ASCII);
+        int last = buffer.limit() - needle.length;
+        outer:
+        for (int pos = Math.max(0, from); pos <= last; pos++) {
+            for (int i = 0; i < needle.length; i++) {
+                if (buffer.get(pos + i) != needle[i]) {
+                    continue outer;
+                }
+            }
+            return pos;
+        }
+        return -1;
+    }
+
+    /**
+     * Tokenizer for PDF objects over a byte buffer
+     */
+    private static final class Lexer {
+
+        private final ByteBuffer buffer;
+        private int pos;
+
+        private Lexer(ByteBuffer buffer, int pos) {
+            this.buffer = buffer;
+            this.pos = pos;
+        }
+
+        Object readObject() throws IOException {
+            return readObject(0);
+        }
+
+        private Object readObject(int depth) throws IOException {
+            if (depth > MAX_DEPTH) {
+                throw new IOException("Objects nested too deeply");
+            }
+            skipWhitespace();
+            int c = peek();
+            if (c < 0) {
+                throw new IOException("Unexpected end of data");
+            }
+
+            switch (c) {
+                case '/':
+                    pos++;
+                    return new Name(readNameChars());
+                case '(':
+                    pos++;
+                    return new PdfString(readLiteralString());
+                case '[': {
+                    pos++;
+                    List<Object> array = new ArrayList<>();
+                    while (true) {
+                        skipWhitespace();
+                        if (peek() == ']') {
+                            pos++;
+                            return array;
+                        }
+                        array.add(readObject(depth + 1));
+                    }
+                }
+                case '<':
+                    if (peekAt(pos + 1) == '<') {
+                        pos += 2;
+                        return readDictionary(depth);
+                    }
+                    pos++;
+                    return new PdfString(readHexString());
+                default:
+                    break;
+            }
+
+            if (c == '+' || c == '-' || c == '.' || isDigit(c)) {
+                return readNumberOrReference();
+            }
+
+            String keyword = readKeyword();
+            return switch (keyword) {
+                case "true" -> Boolean.TRUE;
+                case "false" -> Boolean.FALSE;
+                case "null" -> null;
+                default -> throw new IOException("Unexpected token '" + keyword + "'");
+            };
+        }
+
+        private Map<String, Object> readDictionary(int depth) throws IOException {
+            Map<String, Object> dictionary = new LinkedHashMap<>();
+            while (true) {
+                skipWhitespace();
+                int c = peek();
+                if (c == '>' && peekAt(pos + 1) == '>') {
+                    pos += 2;
+                    return dictionary;
+                }
+                if (c != '/') {
+                    throw new IOException("Expected a name in dictionary at offset " + pos);
+                }
+                pos++;
+                String key = readNameChars();
+                dictionary.put(key, readObject(depth + 1));
+            }
+        }
+
+        private Object readNumberOrReference() throws IOException {
+            String token = readToken();
+            if (token.indexOf('.') >= 0) {
+                try {
+                    return Double.valueOf(token);
+                } catch (NumberFormatException e) {
+                    throw new IOException("Malformed number '" + token + "'", e);
+                }
+            }
+
+            long number;
+            try {
+                number = Long.parseLong(token.startsWith("+") ? token.substring(1) : token);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed number '" + token + "'", e);
+            }
+
+            // "num gen R" is a reference; otherwise keep the plain integer
+            int mark = pos;
+            skipWhitespace();
+            if (isDigit(peek())) {
+                String generation = readToken();
+                skipWhitespace();
+                if (peek() == 'R' && isDelimiterOrWhitespace(peekAt(pos + 1))) {
+                    pos++;
+                    return reference(number, generation);
+                }
+            }
+            pos = mark;
+            return number;
+        }
+
+        /**
+         * Object numbers and generations are non-negative and fit an {@code int}; anything else is
+         * a corrupt or hostile document
+         */
+        private static Ref reference(long number, String generation) throws IOException {
+            long parsedGeneration;
+            try {
+                parsedGeneration = Long.parseLong(generation);
+            } catch (NumberFormatException e) {
+                throw new IOException("Malformed reference", e);
+            }
+            if (number < 0 || number > Integer.MAX_VALUE || parsedGeneration < 0 || parsedGeneration > Integer.MAX_VALUE) {
+                throw new IOException("Malformed reference");
+            }
+            return new Ref((int) number, (int) parsedGeneration);
+        }
+
+        String readKeyword() {
+            skipWhitespace();
+            return readToken();
+        }
+
+        boolean nextKeywordIs(String keyword) {
+            int mark = pos;
+            if (keyword.equals(readKeyword())) {
+                return true;
+            }
+            pos = mark;
+            return false;
+        }
+
+        /**
+         * Offset of stream data right after the {@code stream} keyword and its end-of-line marker
+         */
+        int streamDataStart() {
+            if (peek() == '\r') {
+                pos++;
+            }
+            if (peek() == '\n') {
+                pos++;
+            }
+            return pos;
+        }
+
+        private String readToken() {
+            StringBuilder token = new StringBuilder();
+            int c;
+            while ((c = peek()) >= 0 && !isDelimiterOrWhitespace(c)) {
+                token.append((char) c);
+                pos++;
+            }
+            return token.toString();
+        }
+
+        private String readNameChars() {
+            ByteArrayOutputStream name = new ByteArrayOutputStream();
+            int c;
+            while ((c = peek()) >= 0 && !isDelimiterOrWhitespace(c)) {
+                pos++;
+                if (c == '#' && isHex(peek()) && isHex(peekAt(pos + 1))) {
+                    c = Character.digit(peek(), 16) * 16 + Character.digit(peekAt(pos + 1), 16);
+                    pos += 2;
+                }
+                name.write(c);
+            }
+            return name.toString(StandardCharsets.UTF_8);
+        }
+
+        private byte[] readLiteralString() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int nesting = 1;
+            while (true) {
+                int c = next();
+                if (c < 0) {
+                    throw new IOException("Unterminated string");
+                }
+                if (c == '(') {
+                    nesting++;
+                } else if (c == ')') {
+                    if (--nesting == 0) {
+                        return out.toByteArray();
+                    }
+                } else if (c == '\\') {
+                    c = next();
+                    switch (c) {
+                        case 'n' -> c = '\n';
+                        case 'r' -> c = '\r';
+                        case 't' -> c = '\t';
+                        case 'b' -> c = '\b';
+                        case 'f' -> c = '\f';
+                        case '\r' -> {
+                            if (peek() == '\n') {
+                                pos++;
+                            }
+                            continue;
+                        }
+                        case '\n' -> {
+                            continue;
+                        }
+                        default -> {
+                            if (c >= '0' && c <= '7') {
+                                int octal = c - '0';
+                                for (int i = 0; i < 2 && peek() >= '0' && peek() <= '7'; i++) {
+                                    octal = octal * 8 + (next() - '0');
+                                }
+                                c = octal & 0xFF;
+                            } else if (c < 0) {
+                                throw new IOException("Unterminated string");
+                            }
+                        }
+                    }
+                } else if (c == '\r') {
+                    if (peek() == '\n') {
+                        pos++;
+                    }
+                    c = '\n';
+                }
+                out.write(c);
+            }
+        }
+
+        private byte[] readHexString() throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            int high = -1;
+            while (true) {
+                int c = next();
+                if (c < 0) {
+                    throw new IOException("Unterminated hex string");
+                }
+                if (c == '>') {
+                    if (high >= 0) {
+                        out.write(high << 4);
+                    }
+                    return out.toByteArray();
+                }
+                if (!isHex(c)) {
+                    continue;
+                }
+                int digit = Character.digit(c, 16);
+                if (high < 0) {
+                    high = digit;
+                } else {
+                    out.write((high << 4) | digit);
+                    high = -1;
+                }
+            }
+        }
+
+        private void skipWhitespace() {
+            while (true) {
+                int c = peek();
+                if (c == '%') {
+                    while ((c = peek()) >= 0 && c != '\r' && c != '\n') {
+                        pos++;
+                    }
+                } else if (isWhitespace(c)) {
+                    pos++;
+                } else {
+                    return;
+                }
+            }
+        }
+
+        private int peek() {
+            return peekAt(pos);
+        }
+
+        private int peekAt(int index) {
+            return index < buffer.limit() ? buffer.get(index) & 0xFF : -1;
+        }
+
+        private int next() {
+            int c = peek();
+            if (c >= 0) {
+                pos++;
+            }
+            return c;
+        }
+
+        private static boolean isWhitespace(int c) {
+            return c == 0 || c == '\t' || c == '\n' || c == '\f' || c == '\r' || c == ' ';
+        }
+
+        private static boolean isDelimiterOrWhitespace(int c) {
+            return c < 0 || isWhitespace(c) || c == '(' || c == ')' || c == '<' || c == '>' || c == '['
+                    || c == ']' || c == '{' || c == '}' || c == '/' || c == '%';
+        }
+
+        private static boolean isDigit(int c) {
+            return c >= '0' && c <= '9';
+        }
+
+        private static boolean isHex(int c) {
+            return Character.digit(c, 16) >= 0 && c < 128;
+        }
+    }
+}
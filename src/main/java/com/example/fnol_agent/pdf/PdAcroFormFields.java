@@ -0,0 +1,81 @@
+package com.example.fnol_agent.pdf;
+
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDNonTerminalField;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * {@link FormFields} over a form loaded by PDFBox.
+ * <p>
+ * A value is found by following its name's path through the field hierarchy, so a template reads
+ * only the fields it maps. {@link PDAcroForm#getField(String)} is not used because in PDFBox 2
+ * it iterates the whole field tree on every call. The tree is walked once, and only if the names
+ * are asked for.
+ */
+public final class PdAcroFormFields implements FormFields {
+
+    private final PDAcroForm acroForm;
+    private List<PDField> rootFields;
+    private Set<String> names;
+
+    public PdAcroFormFields(PDAcroForm acroForm) {
+        this.acroForm = acroForm;
+    }
+
+    @Override
+    public Set<String> names() {
+        if (names == null) {
+            Set<String> collected = new LinkedHashSet<>();
+            for (PDField field : acroForm.getFieldTree()) {
+                String name = field.getFullyQualifiedName();
+                if (name != null) {
+                    collected.add(name);
+                }
+            }
+            names = Collections.unmodifiableSet(collected);
+        }
+        return names;
+    }
+
+    @Override
+    public String value(String name) {
+        PDField field = field(name);
+        return field != null ? field.getValueAsString() : null;
+    }
+
+    /**
+     * Field with a fully qualified name, descending one partial name at a time
+     */
+    private PDField field(String name) {
+        if (rootFields == null) {
+            rootFields = acroForm.getFields();
+        }
+
+        List<PDField> level = rootFields;
+        int start = 0;
+        while (true) {
+            int dot = name.indexOf('.', start);
+            String partialName = dot < 0 ? name.substring(start) : name.substring(start, dot);
+            PDField match = null;
+            for (PDField field : level) {
+                if (partialName.equals(field.getPartialName())) {
+                    match = field;
+                    break;
+                }
+            }
+            if (match == null || dot < 0) {
+                return match;
+            }
+            if (!(match instanceof PDNonTerminalField parent)) {
+                return null;
+            }
+            level = parent.getChildren();
+            start = dot + 1;
+        }
+    }
+}
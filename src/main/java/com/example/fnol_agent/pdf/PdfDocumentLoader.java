@@ -0,0 +1,218 @@
+package com.example.fnol_agent.pdf;
+
+import com.example.fnol_agent.service.FileSystemMultipartFile;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.io.MemoryUsageSetting;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Loads uploaded PDFs with a memory budget chosen by upload size.
+ * <p>
+ * Small uploads are parsed entirely on heap. Larger ones get a fixed main-memory budget and page
+ * the rest of the parsed document to a scratch file; very large ones are parsed from a scratch
+ * file only, so a burst of large scanned forms cannot exhaust the heap.
+ * <p>
+ * Form values are first read with {@link AcroFormReader}, which never builds the page tree; the
+ * full load is only needed when that fast path does not apply.
+ */
+@Slf4j
+@Component
+public class PdfDocumentLoader {
+
+    private final long inMemoryMaxBytes;
+    private final long mainMemoryBytes;
+    private final long tempFileOnlyMinBytes;
+    private final long maxStorageBytes;
+    private final File tempDir;
+    private final boolean formFastPathEnabled;
+
+    private final Counter mainMemoryLoads;
+    private final Counter mixedLoads;
+    private final Counter tempFileLoads;
+    private final Counter overBudgetLoads;
+    private final DistributionSummary uploadSizes;
+    private final Counter formFastPathHits;
+    private final Counter formFastPathFallbacks;
+
+    public PdfDocumentLoader(MeterRegistry meterRegistry,
+                             @Value("${fnol.pdf.memory.in-memory-max-bytes:4194304}") long inMemoryMaxBytes,
+                             @Value("${fnol.pdf.memory.main-memory-bytes:16777216}") long mainMemoryBytes,
+                             @Value("${fnol.pdf.memory.temp-file-only-min-bytes:104857600}") long tempFileOnlyMinBytes,
+                             @Value("${fnol.pdf.memory.max-storage-bytes:1073741824}") long maxStorageBytes,
+                             @Value("${fnol.pdf.memory.temp-dir:}") String tempDir,
+                             @Value("${fnol.pdf.form-fast-path.enabled:true}") boolean formFastPathEnabled) {
+        this.inMemoryMaxBytes = inMemoryMaxBytes;
+        this.mainMemoryBytes = mainMemoryBytes;
+        this.tempFileOnlyMinBytes = tempFileOnlyMinBytes;
+        this.maxStorageBytes = maxStorageBytes;
+        this.tempDir = tempDir.isBlank() ? null : new File(tempDir);
+        this.formFastPathEnabled = formFastPathEnabled;
+
+        this.mainMemoryLoads = loads(meterRegistry, "main-memory");
+        this.mixedLoads = loads(meterRegistry, "mixed");
+        this.tempFileLoads = loads(meterRegistry, "temp-file");
+        this.overBudgetLoads = Counter.builder("fnol.pdf.loads.over-budget")
+                .description("PDF loads whose upload is larger than the main-memory budget, so the parser may page to a scratch file")
+                .register(meterRegistry);
+        this.uploadSizes = DistributionSummary.builder("fnol.pdf.upload.size")
+                .description("Size of uploaded PDFs")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        this.formFastPathHits = formFastPath(meterRegistry, "hit");
+        this.formFastPathFallbacks = formFastPath(meterRegistry, "fallback");
+    }
+
+    /**
+     * Read the upload's form without loading the full document.
+     * Returns null when the upload has no form or needs the full parser, in which case the caller
+     * loads it with {@link #load(MultipartFile)}.
+     */
+    public <T> T readForm(MultipartFile file, FormReader<T> reader) {
+        if (!formFastPathEnabled) {
+            return null;
+        }
+
+        T result = null;
+        try {
+            result = file.getSize() <= inMemoryMaxBytes
+                    ? readForm(ByteBuffer.wrap(file.getBytes()), reader)
+                    : readFormMapped(file, reader);
+        } catch (IOException | RuntimeException e) {
+            log.debug("Form fast path not applicable to {}: {}", file.getOriginalFilename(), e.getMessage());
+        }
+
+        (result != null ? formFastPathHits : formFastPathFallbacks).increment();
+        return result;
+    }
+
+    /**
+     * Check whether an upload of the given size is parsed entirely on heap
+     */
+    public boolean fitsInMemory(long size) {
+        return size <= inMemoryMaxBytes;
+    }
+
+    /**
+     * Load an uploaded PDF using the memory mode its size calls for
+     */
+    public PDDocument load(MultipartFile file) throws IOException {
+        long size = file.getSize();
+        uploadSizes.record(size);
+
+        MemoryUsageSetting setting = memoryUsageFor(size);
+        try (InputStream in = file.getInputStream()) {
+            return PDDocument.load(in, setting);
+        }
+    }
+
+    /**
+     * Load another copy of an upload that is already loaded, without counting it in the load metrics
+     */
+    PDDocument reload(MultipartFile file) throws IOException {
+        try (InputStream in = file.getInputStream()) {
+            return PDDocument.load(in, settingFor(file.getSize()));
+        }
+    }
+
+    /**
+     * Choose the memory mode for an upload of the given size
+     */
+    MemoryUsageSetting memoryUsageFor(long size) {
+        if (size <= inMemoryMaxBytes) {
+            mainMemoryLoads.increment();
+        } else if (size >= tempFileOnlyMinBytes) {
+            tempFileLoads.increment();
+        } else {
+            mixedLoads.increment();
+        }
+
+        // Counted from the upload size: PDFBox does not report whether its scratch file was written to
+        if (size > inMemoryMaxBytes && size > mainMemoryBytes) {
+            overBudgetLoads.increment();
+            log.debug("PDF upload of {} bytes exceeds the {} byte main-memory budget; scratch file enabled",
+                    size, mainMemoryBytes);
+        }
+        return settingFor(size);
+    }
+
+    private MemoryUsageSetting settingFor(long size) {
+        if (size <= inMemoryMaxBytes) {
+            return MemoryUsageSetting.setupMainMemoryOnly();
+        }
+        MemoryUsageSetting setting = size >= tempFileOnlyMinBytes
+                ? MemoryUsageSetting.setupTempFileOnly(maxStorageBytes)
+                : MemoryUsageSetting.setupMixed(mainMemoryBytes, mainMemoryBytes + maxStorageBytes);
+        return tempDir != null ? setting.setTempDir(tempDir) : setting;
+    }
+
+    /**
+     * Map larger uploads from a file so their bytes stay off the heap. An upload already spooled to
+     * disk is mapped where it is; any other is copied to a scratch file first.
+     */
+    private <T> T readFormMapped(MultipartFile file, FormReader<T> reader) throws IOException {
+        if (file instanceof FileSystemMultipartFile spooled) {
+            return readFormMapped(spooled.getPath(), reader);
+        }
+
+        Path scratch = tempDir != null
+                ? Files.createTempFile(tempDir.toPath(), "fnol-form-", ".pdf")
+                : Files.createTempFile("fnol-form-", ".pdf");
+        try {
+            try (InputStream in = file.getInputStream()) {
+                Files.copy(in, scratch, StandardCopyOption.REPLACE_EXISTING);
+            }
+            return readFormMapped(scratch, reader);
+        } finally {
+            Files.deleteIfExists(scratch);
+        }
+    }
+
+    private static <T> T readFormMapped(Path path, FormReader<T> reader) throws IOException {
+        try (FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            return readForm(channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()), reader);
+        }
+    }
+
+    private static <T> T readForm(ByteBuffer pdf, FormReader<T> reader) throws IOException {
+        AcroFormReader form = AcroFormReader.open(pdf);
+        return form != null ? reader.read(form) : null;
+    }
+
+    private static Counter formFastPath(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fnol.pdf.form.fast-path")
+                .description("Form reads that skipped the full PDF load, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
+    }
+
+    private static Counter loads(MeterRegistry meterRegistry, String mode) {
+        return Counter.builder("fnol.pdf.loads")
+                .description("PDF documents loaded, by memory mode")
+                .tag("mode", mode)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Reads what the caller needs from a form
+     */
+    @FunctionalInterface
+    public interface FormReader<T> {
+        T read(FormFields form) throws IOException;
+    }
+}
@@ -0,0 +1,92 @@
+package com.example.fnol_agent.pdf;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Bounds how many PDFs are parsed at once.
+ * <p>
+ * PDF parsing is CPU-bound. Once requests run on virtual threads, the number of requests in flight
+ * no longer limits the number of parses, so without this bound a burst of uploads would oversubscribe
+ * the carrier threads and stall every other request. Waiting uses a {@link Semaphore}, which parks a
+ * virtual thread without pinning its carrier.
+ * <p>
+ * Callers read the whole upload before asking for a slot, so a slow client never holds one. Text
+ * extraction workers take further slots with {@link #tryAcquire(int)}, so a parse that fans out
+ * counts once per thread it keeps busy.
+ */
+@Component
+public class PdfParseLimiter {
+
+    private final Semaphore permits;
+
+    public PdfParseLimiter(MeterRegistry meterRegistry,
+                           @Value("${fnol.pdf.max-concurrent-parses:0}") int maxConcurrentParses) {
+        int limit = maxConcurrentParses > 0 ? maxConcurrentParses : Runtime.getRuntime().availableProcessors();
+        this.permits = new Semaphore(limit, true);
+
+        Gauge.builder("fnol.pdf.parse.waiting", permits, Semaphore::getQueueLength)
+                .description("Requests waiting for a PDF parse slot")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Run a parse once a slot is free
+     */
+    public <T> T call(ParseTask<T> task) throws IOException {
+        try {
+            permits.acquire();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a PDF parse slot");
+        }
+        try {
+            return task.call();
+        } finally {
+            permits.release();
+        }
+    }
+
+    /**
+     * Take up to {@code wanted} more slots for a parse that already holds one and fans out to more
+     * threads. Never waits, so parses cannot deadlock waiting for each other's workers, and never
+     * takes a slot that a waiting request is queued for.
+     *
+     * @return the number of slots taken, to be handed back with {@link #release(int)}
+     */
+    public int tryAcquire(int wanted) {
+        int taken = 0;
+        try {
+            while (taken < wanted && permits.tryAcquire(0, TimeUnit.NANOSECONDS)) {
+                taken++;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return taken;
+    }
+
+    /**
+     * Hand back slots taken with {@link #tryAcquire(int)}
+     */
+    public void release(int slots) {
+        if (slots > 0) {
+            permits.release(slots);
+        }
+    }
+
+    /**
+     * A parse that may fail with an I/O error
+     */
+    @FunctionalInterface
+    public interface ParseTask<T> {
+        T call() throws IOException;
+    }
+}
@@ -0,0 +1,219 @@
+package com.example.fnol_agent.pdf;
+
+import lombok.extern.slf4j.Slf4j;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Reads the text layer of PDFs without a fillable form.
+ * <p>
+ * Pages are split into slices that are stripped in parallel, one {@link PDFTextStripper} and one
+ * {@link PDDocument} per worker since PDFBox documents are not thread-safe. Slices run in waves in
+ * page order. After the first wave the text so far is read; later waves only trigger another read
+ * when the caller sees something in the new text that the last result lacks, and the remaining
+ * pages are skipped once a result is complete.
+ * <p>
+ * The caller already holds a {@link PdfParseLimiter} slot for the first worker; every further worker
+ * needs a free slot of its own, so under load a document is read by fewer workers instead of
+ * oversubscribing the CPUs.
+ */
+@Slf4j
+@Component
+public class PdfTextExtractor {
+
+    private final PdfDocumentLoader pdfDocumentLoader;
+    private final PdfParseLimiter pdfParseLimiter;
+    private final ExecutorService executor;
+    private final int pagesPerSlice;
+    private final int parallelism;
+
+    public PdfTextExtractor(PdfDocumentLoader pdfDocumentLoader,
+                            PdfParseLimiter pdfParseLimiter,
+                            @Qualifier("pdfTextExecutor") ExecutorService executor,
+                            @Value("${fnol.pdf.text.pages-per-slice:2}") int pagesPerSlice,
+                            @Value("${fnol.pdf.text.parallelism:4}") int parallelism) {
+        this.pdfDocumentLoader = pdfDocumentLoader;
+        this.pdfParseLimiter = pdfParseLimiter;
+        this.executor = executor;
+        this.pagesPerSlice = Math.max(1, pagesPerSlice);
+        this.parallelism = Math.max(1, parallelism);
+    }
+
+    /**
+     * Reads a result from the text stripped so far
+     */
+    public interface TextReader<T> {
+
+        /**
+         * Read a result from all the text stripped so far
+         */
+        T read(CharSequence text);
+
+        /**
+         * Check whether a result has everything the caller needs, so the remaining pages can be skipped
+         */
+        boolean isComplete(T result);
+
+        /**
+         * Check whether newly stripped text may add something an incomplete result lacks
+         */
+        boolean mayImprove(T result, CharSequence newText);
+    }
+
+    /**
+     * Strip the text of a loaded document wave by wave and read the result from it, stopping early
+     * once the reader accepts a result as complete. The returned result is always read from all the
+     * text that was stripped.
+     *
+     * @param document the loaded upload, used by the first worker
+     * @param file     the upload, opened again by every further worker
+     */
+    public <T> T extract(PDDocument document, MultipartFile file, TextReader<T> reader) throws IOException {
+        int pages = document.getNumberOfPages();
+        int slices = Math.max(1, (pages + pagesPerSlice - 1) / pagesPerSlice);
+        int extraWorkers = pdfParseLimiter.tryAcquire(Math.min(parallelism, slices) - 1);
+        PDDocument[] workers = new PDDocument[1 + extraWorkers];
+        workers[0] = document;
+
+        StringBuilder text = new StringBuilder();
+        T result = null;
+        int readLength = -1;
+        try {
+            for (int first = 0; first < slices; first += workers.length) {
+                int waveStart = text.length();
+                int waveSize = Math.min(workers.length, slices - first);
+                if (waveSize == 1) {
+                    text.append(strip(workers[0], first));
+                } else {
+                    appendWave(workers, file, first, waveSize, text);
+                }
+
+                int pagesRead = Math.min(pages, (first + waveSize) * pagesPerSlice);
+                if (pagesRead == pages) {
+                    break;
+                }
+                if (result == null || reader.mayImprove(result, text.subSequence(waveStart, text.length()))) {
+                    result = reader.read(text);
+                    readLength = text.length();
+                    if (reader.isComplete(result)) {
+                        log.info("Found all mandatory fields after {} of {} pages; skipping the rest", pagesRead, pages);
+                        break;
+                    }
+                }
+            }
+        } finally {
+            pdfParseLimiter.release(extraWorkers);
+            for (int i = 1; i < workers.length; i++) {
+                if (workers[i] != null) {
+                    workers[i].close();
+                }
+            }
+        }
+        return readLength == text.length() ? result : reader.read(text);
+    }
+
+    private void appendWave(PDDocument[] workers, MultipartFile file, int firstSlice, int waveSize,
+                            StringBuilder text) throws IOException {
+        Wave wave = new Wave(waveSize);
+        List<Future<String>> slices = new ArrayList<>(waveSize);
+        for (int i = 0; i < waveSize; i++) {
+            int worker = i;
+            int slice = firstSlice + i;
+            slices.add(executor.submit(() -> wave.run(worker, () -> {
+                if (workers[worker] == null) {
+                    workers[worker] = pdfDocumentLoader.reload(file);
+                }
+                return strip(workers[worker], slice);
+            })));
+        }
+
+        try {
+            for (Future<String> slice : slices) {
+                text.append(slice.get());
+            }
+        } catch (InterruptedException e) {
+            wave.abandon();
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while reading PDF text");
+        } catch (ExecutionException e) {
+            wave.abandon();
+            if (e.getCause() instanceof IOException cause) {
+                throw cause;
+            }
+            throw new IOException("Failed to read PDF text: " + e.getCause().getMessage(), e.getCause());
+        }
+    }
+
+    private String strip(PDDocument document, int slice) throws IOException {
+        PDFTextStripper stripper = new PDFTextStripper();
+        stripper.setStartPage(slice * pagesPerSlice + 1);
+        stripper.setEndPage((slice + 1) * pagesPerSlice);
+        return stripper.getText(document);
+    }
+
+    /**
+     * Slices of one wave. An abandoned wave skips the slices that have not started and waits for
+     * the running ones, so no worker still uses or opens a document once the documents are closed.
+     */
+    private static final class Wave {
+
+        private static final int PENDING = 0;
+        private static final int RUNNING = 1;
+        private static final int SKIPPED = 2;
+
+        private final AtomicIntegerArray states;
+        private final CountDownLatch finished;
+
+        Wave(int size) {
+            this.states = new AtomicIntegerArray(size);
+            this.finished = new CountDownLatch(size);
+        }
+
+        String run(int slice, Callable<String> task) throws Exception {
+            if (!states.compareAndSet(slice, PENDING, RUNNING)) {
+                return null;
+            }
+            try {
+                return task.call();
+            } finally {
+                finished.countDown();
+            }
+        }
+
+        void abandon() {
+            for (int i = 0; i < states.length(); i++) {
+                if (states.compareAndSet(i, PENDING, SKIPPED)) {
+                    finished.countDown();
+                }
+            }
+
+            boolean interrupted = false;
+            while (true) {
+                try {
+                    finished.await();
+                    break;
+                } catch (InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
@@ -0,0 +1,124 @@
+package com.example.fnol_agent.routing;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Compiled reasoning or warning text with {@code {name}} placeholders.
+ * <p>
+ * A placeholder names a rule parameter or a {@link RuleFields rule field}. A line whose placeholders
+ * do not all have a value is left out. A template declared with {@code each} renders one line per
+ * element of a list field, available as {@code {item}}.
+ */
+final class ReasonTemplate {
+
+    private static final String ITEM = "item";
+
+    /** Stands in for the current element of an {@code each} template */
+    private static final Function<ClaimAssessment, Object> ITEM_SLOT = assessment -> null;
+
+    /** Literal text and placeholder accessors, alternating and starting with literal text */
+    private final List<String> literals;
+    private final List<Function<ClaimAssessment, Object>> values;
+    private final Function<ClaimAssessment, Object> each;
+
+    private ReasonTemplate(List<String> literals, List<Function<ClaimAssessment, Object>> values,
+                           Function<ClaimAssessment, Object> each) {
+        this.literals = literals;
+        this.values = values;
+        this.each = each;
+    }
+
+    /**
+     * Compile a template
+     *
+     * @param text      template text
+     * @param eachField list field to render one line per element of, or null
+     * @param params    rule parameters placeholders may refer to
+     */
+    static ReasonTemplate compile(String text, String eachField, Map<String, Object> params) {
+        if (text == null || text.isBlank()) {
+            throw new IllegalArgumentException("Blank reasoning template");
+        }
+
+        List<String> literals = new ArrayList<>();
+        List<Function<ClaimAssessment, Object>> values = new ArrayList<>();
+
+        int start = 0;
+        int open;
+        while ((open = text.indexOf('{', start)) >= 0) {
+            int close = text.indexOf('}', open);
+            if (close < 0) {
+                throw new IllegalArgumentException("Unclosed placeholder in template: " + text);
+            }
+            literals.add(text.substring(start, open));
+
+            String name = text.substring(open + 1, close).trim();
+            if (ITEM.equals(name) && eachField != null) {
+                values.add(ITEM_SLOT);
+            } else if (params.containsKey(name)) {
+                Object param = params.get(name);
+                values.add(assessment -> param);
+            } else {
+                values.add(RuleFields.accessor(name));
+            }
+            start = close + 1;
+        }
+        literals.add(text.substring(start));
+
+        return new ReasonTemplate(List.copyOf(literals), List.copyOf(values),
+                eachField != null ? RuleFields.accessor(eachField) : null);
+    }
+
+    /**
+     * Render the lines of this template for a claim, adding them to {@code lines}
+     */
+    void render(ClaimAssessment assessment, List<String> lines) {
+        if (each == null) {
+            String line = line(assessment, null);
+            if (line != null) {
+                lines.add(line);
+            }
+            return;
+        }
+
+        if (each.apply(assessment) instanceof Collection<?> items) {
+            for (Object item : items) {
+                String line = line(assessment, item);
+                if (line != null) {
+                    lines.add(line);
+                }
+            }
+        }
+    }
+
+    private String line(ClaimAssessment assessment, Object item) {
+        StringBuilder line = new StringBuilder(literals.get(0));
+        for (int i = 0; i < values.size(); i++) {
+            Function<ClaimAssessment, Object> slot = values.get(i);
+            Object value = slot == ITEM_SLOT ? item : slot.apply(assessment);
+            if (value == null) {
+                return null;
+            }
+            line.append(format(value)).append(literals.get(i + 1));
+        }
+        return line.toString();
+    }
+
+    private static String format(Object value) {
+        if (value instanceof BigDecimal || value instanceof Double || value instanceof Float) {
+            return String.format("%,.2f", value);
+        }
+        if (value instanceof Collection<?> items) {
+            return items.stream().map(ReasonTemplate::format).collect(Collectors.joining(", "));
+        }
+        return String.valueOf(value);
+    }
+}
@@ -0,0 +1,51 @@
+package com.example.fnol_agent.routing;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.model.RoutingDecision;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Predicate;
+
+/**
+ * Compiled routing rule: a condition over the claim assessment, the route it selects and the
+ * reasoning given for it
+ */
+public final class RoutingRule {
+
+    private final String id;
+    private final Predicate<ClaimAssessment> condition;
+    private final RoutingDecision decision;
+    private final List<ReasonTemplate> reasoning;
+
+    RoutingRule(String id, Predicate<ClaimAssessment> condition, RoutingDecision decision,
+                List<ReasonTemplate> reasoning) {
+        this.id = id;
+        this.condition = condition;
+        this.decision = decision;
+        this.reasoning = List.copyOf(reasoning);
+    }
+
+    public String id() {
+        return id;
+    }
+
+    public RoutingDecision decision() {
+        return decision;
+    }
+
+    boolean matches(ClaimAssessment assessment) {
+        return condition.test(assessment);
+    }
+
+    /**
+     * Reasoning for routing a claim by this rule
+     */
+    public String reasoning(ClaimAssessment assessment) {
+        List<String> reasons = new ArrayList<>();
+        for (ReasonTemplate template : reasoning) {
+            template.render(assessment, reasons);
+        }
+        return String.join(". ", reasons) + ".";
+    }
+}
@@ -0,0 +1,330 @@
+package com.example.fnol_agent.routing;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.extraction.RuleVersions;
+import com.example.fnol_agent.model.RoutingDecision;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.IntPredicate;
+import java.util.function.Predicate;
+
+/**
+ * Immutable, compiled set of routing and warning rules.
+ * <p>
+ * Rules are declared in a JSON file and compiled once when loaded: every condition becomes a
+ * predicate over the {@link ClaimAssessment} and every field reference a direct accessor. Routing
+ * rules are tried in declaration order and the first match wins; the last rule must have no
+ * conditions so every claim is routed. Every matching warning rule adds its message. Rules declared
+ * with {@code "enabled": false} are skipped.
+ */
+public final class RoutingRules {
+
+    private final String version;
+    private final RoutingRule[] rules;
+    private final WarningRule[] warnings;
+
+    private record WarningRule(Predicate<ClaimAssessment> condition, ReasonTemplate message) {
+    }
+
+    private RoutingRules(String version, List<RoutingRule> rules, List<WarningRule> warnings) {
+        this.version = version;
+        this.rules = rules.toArray(RoutingRule[]::new);
+        this.warnings = warnings.toArray(WarningRule[]::new);
+    }
+
+    /**
+     * Load and compile rules from the JSON content of a rules file
+     */
+    public static RoutingRules load(byte[] content, ObjectMapper objectMapper) throws IOException {
+        RuleFile file = objectMapper.readValue(content, RuleFile.class);
+        if (file.rules() == null || file.rules().isEmpty()) {
+            throw new IllegalArgumentException("Routing rules file declares no rules");
+        }
+
+        Set<String> ids = new HashSet<>();
+        List<RoutingRule> rules = new ArrayList<>();
+        RuleDefinition last = null;
+        for (RuleDefinition definition : file.rules()) {
+            String id = requireId(definition.id(), ids);
+            if (Boolean.FALSE.equals(definition.enabled())) {
+                continue;
+            }
+            last = definition;
+            Map<String, Object> params = params(id, definition.params());
+            RoutingDecision decision = decision(id, definition.route());
+
+            List<ReasonTemplate> reasoning = new ArrayList<>();
+            for (JsonNode entry : definition.reasoning() != null ? definition.reasoning() : List.<JsonNode>of()) {
+                reasoning.add(template(id, entry, params));
+            }
+            rules.add(new RoutingRule(id, condition(id, definition.when(), params), decision, reasoning));
+        }
+
+        if (last == null) {
+            throw new IllegalArgumentException("Routing rules file enables no rules");
+        }
+        if (last.when() != null && !last.when().isEmpty()) {
+            throw new IllegalArgumentException("Last routing rule " + last.id() + " must have no conditions");
+        }
+
+        List<WarningRule> warnings = new ArrayList<>();
+        for (WarningDefinition definition : file.warnings() != null ? file.warnings() : List.<WarningDefinition>of()) {
+            String id = requireId(definition.id(), ids);
+            if (Boolean.FALSE.equals(definition.enabled())) {
+                continue;
+            }
+            Map<String, Object> params = params(id, definition.params());
+            warnings.add(new WarningRule(condition(id, definition.when(), params),
+                    compileTemplate(id, definition.message(), null, params)));
+        }
+
+        return new RoutingRules(RuleVersions.of(file.version(), content), rules, warnings);
+    }
+
+    /**
+     * Version of the loaded rules, changing whenever the rules file content changes
+     */
+    public String version() {
+        return version;
+    }
+
+    /**
+     * First rule matching a claim
+     */
+    public RoutingRule match(ClaimAssessment assessment) {
+        for (RoutingRule rule : rules) {
+            if (rule.matches(assessment)) {
+                return rule;
+            }
+        }
+        // Unreachable: the last rule matches every claim
+        throw new IllegalStateException("No routing rule matched");
+    }
+
+    /**
+     * Messages of every warning rule matching a claim, in declaration order
+     */
+    public List<String> warnings(ClaimAssessment assessment) {
+        List<String> messages = new ArrayList<>();
+        for (WarningRule warning : warnings) {
+            if (warning.condition().test(assessment)) {
+                warning.message().render(assessment, messages);
+            }
+        }
+        return messages;
+    }
+
+    private static String requireId(String id, Set<String> ids) {
+        if (id == null || id.isBlank()) {
+            throw new IllegalArgumentException("Routing rule without id");
+        }
+        if (!ids.add(id)) {
+            throw new IllegalArgumentException("Duplicate routing rule id " + id);
+        }
+        return id;
+    }
+
+    private static Map<String, Object> params(String id, Map<String, JsonNode> declared) {
+        Map<String, Object> params = new LinkedHashMap<>();
+        if (declared != null) {
+            declared.forEach((name, value) -> {
+                if (value.isNumber()) {
+                    params.put(name, value.decimalValue());
+                } else if (value.isTextual()) {
+                    params.put(name, value.textValue());
+                } else {
+                    throw new IllegalArgumentException("Parameter " + name + " of routing rule " + id
+                            + " must be a number or a string");
+                }
+            });
+        }
+        return params;
+    }
+
+    private static RoutingDecision decision(String id, String route) {
+        try {
+            return RoutingDecision.valueOf(route);
+        } catch (IllegalArgumentException | NullPointerException e) {
+            throw new IllegalArgumentException("Unknown route " + route + " in routing rule " + id);
+        }
+    }
+
+    private static ReasonTemplate template(String id, JsonNode entry, Map<String, Object> params) {
+        if (entry.isTextual()) {
+            return compileTemplate(id, entry.textValue(), null, params);
+        }
+        if (entry.isObject() && entry.path("text").isTextual() && entry.path("each").isTextual()) {
+            return compileTemplate(id, entry.get("text").textValue(), entry.get("each").textValue(), params);
+        }
+        throw new IllegalArgumentException("Reasoning of routing rule " + id
+                + " must be text or an object with 'each' and 'text'");
+    }
+
+    private static ReasonTemplate compileTemplate(String id, String text, String each, Map<String, Object> params) {
+        try {
+            return ReasonTemplate.compile(text, each, params);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Routing rule " + id + ": " + e.getMessage(), e);
+        }
+    }
+
+    /**
+     * Conjunction of a rule's conditions
+     */
+    private static Predicate<ClaimAssessment> condition(String id, List<ConditionDefinition> when,
+                                                        Map<String, Object> params) {
+        if (when == null || when.isEmpty()) {
+            return assessment -> true;
+        }
+
+        Predicate<ClaimAssessment> combined = null;
+        for (ConditionDefinition condition : when) {
+            Predicate<ClaimAssessment> predicate;
+            try {
+                predicate = compile(condition, params);
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Routing rule " + id + ": " + e.getMessage(), e);
+            }
+            combined = combined == null ? predicate : combined.and(predicate);
+        }
+        return combined;
+    }
+
+    private static Predicate<ClaimAssessment> compile(ConditionDefinition condition, Map<String, Object> params) {
+        Function<ClaimAssessment, Object> field = RuleFields.accessor(condition.field());
+        String op = condition.op() != null ? condition.op() : "";
+
+        return switch (op) {
+            case "empty" -> assessment -> isEmpty(field.apply(assessment));
+            case "notEmpty" -> assessment -> !isEmpty(field.apply(assessment));
+            case "eq" -> {
+                String expected = text(value(condition, params));
+                yield assessment -> {
+                    Object actual = field.apply(assessment);
+                    return actual != null && expected.equals(text(actual));
+                };
+            }
+            case "ne" -> {
+                String expected = text(value(condition, params));
+                yield assessment -> {
+                    Object actual = field.apply(assessment);
+                    return actual == null || !expected.equals(text(actual));
+                };
+            }
+            case "in" -> {
+                if (condition.value() == null || !condition.value().isArray()) {
+                    throw new IllegalArgumentException("'in' on " + condition.field() + " needs an array value");
+                }
+                Set<String> expected = new HashSet<>();
+                for (JsonNode item : condition.value()) {
+                    expected.add(text(literal(item, params)));
+                }
+                if (expected.isEmpty()) {
+                    throw new IllegalArgumentException("'in' on " + condition.field() + " needs a non-empty array value");
+                }
+                yield assessment -> {
+                    Object actual = field.apply(assessment);
+                    return actual != null && expected.contains(text(actual));
+                };
+            }
+            case "contains" -> {
+                String expected = text(value(condition, params)).toLowerCase(Locale.ROOT);
+                yield assessment -> contains(field.apply(assessment), expected);
+            }
+            case "lt" -> compare(field, number(condition, params), c -> c < 0);
+            case "le" -> compare(field, number(condition, params), c -> c <= 0);
+            case "gt" -> compare(field, number(condition, params), c -> c > 0);
+            case "ge" -> compare(field, number(condition, params), c -> c >= 0);
+            default -> throw new IllegalArgumentException("Unknown operator '" + op + "' on " + condition.field());
+        };
+    }
+
+    private static Predicate<ClaimAssessment> compare(Function<ClaimAssessment, Object> field, BigDecimal limit,
+                                                      IntPredicate accept) {
+        return assessment -> field.apply(assessment) instanceof BigDecimal actual
+                && accept.test(actual.compareTo(limit));
+    }
+
+    private static Object value(ConditionDefinition condition, Map<String, Object> params) {
+        if (condition.value() == null || condition.value().isNull()) {
+            throw new IllegalArgumentException("'" + condition.op() + "' on " + condition.field() + " needs a value");
+        }
+        return literal(condition.value(), params);
+    }
+
+    private static BigDecimal number(ConditionDefinition condition, Map<String, Object> params) {
+        if (value(condition, params) instanceof BigDecimal number) {
+            return number;
+        }
+        throw new IllegalArgumentException("'" + condition.op() + "' on " + condition.field() + " needs a number");
+    }
+
+    /**
+     * Value of a condition: a number, a string, or {@code {name}} referring to a rule parameter
+     */
+    private static Object literal(JsonNode value, Map<String, Object> params) {
+        if (value.isNumber()) {
+            return value.decimalValue();
+        }
+        if (!value.isTextual()) {
+            throw new IllegalArgumentException("Condition values must be numbers or strings");
+        }
+        String text = value.textValue();
+        if (text.length() > 2 && text.startsWith("{") && text.endsWith("}")) {
+            String name = text.substring(1, text.length() - 1).trim();
+            if (!params.containsKey(name)) {
+                throw new IllegalArgumentException("Unknown parameter " + name);
+            }
+            return params.get(name);
+        }
+        return text;
+    }
+
+    private static String text(Object value) {
+        return value instanceof Enum<?> constant ? constant.name() : String.valueOf(value);
+    }
+
+    private static boolean isEmpty(Object value) {
+        return value == null
+                || value instanceof CharSequence text && text.toString().isBlank()
+                || value instanceof Collection<?> items && items.isEmpty();
+    }
+
+    private static boolean contains(Object value, String expected) {
+        if (value instanceof Collection<?> items) {
+            for (Object item : items) {
+                if (text(item).toLowerCase(Locale.ROOT).equals(expected)) {
+                    return true;
+                }
+            }
+            return false;
+        }
+        return value != null && text(value).toLowerCase(Locale.ROOT).contains(expected);
+    }
+
+    record RuleFile(String version, List<RuleDefinition> rules, List<WarningDefinition> warnings) {
+    }
+
+    record RuleDefinition(String id, Boolean enabled, Map<String, JsonNode> params,
+                          List<ConditionDefinition> when, String route, List<JsonNode> reasoning) {
+    }
+
+    record WarningDefinition(String id, Boolean enabled, Map<String, JsonNode> params,
+                             List<ConditionDefinition> when, String message) {
+    }
+
+    record ConditionDefinition(String field, String op, JsonNode value) {
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.fnol_agent.routing;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.assessment.FraudIndicator;
+import com.example.fnol_agent.model.AssetDetails;
+import com.example.fnol_agent.model.IncidentInformation;
+import com.example.fnol_agent.model.PolicyInformation;
+
+import java.util.function.Function;
+
+/**
+ * Fields that routing rules may refer to, each resolved to a plain accessor when the rules are
+ * compiled so evaluating a rule never looks a field up by name
+ */
+final class RuleFields {
+
+    private static final String ATTRIBUTE_PREFIX = "attribute.";
+
+    private RuleFields() {
+    }
+
+    /**
+     * Accessor for a field name
+     *
+     * @throws IllegalArgumentException if no such field exists
+     */
+    static Function<ClaimAssessment, Object> accessor(String field) {
+        if (field != null && field.startsWith(ATTRIBUTE_PREFIX) && field.length() > ATTRIBUTE_PREFIX.length()) {
+            String name = field.substring(ATTRIBUTE_PREFIX.length());
+            return assessment -> assessment.getAttribute(name);
+        }
+
+        return switch (field == null ? "" : field) {
+            case "missingFields" -> ClaimAssessment::getMissingFields;
+            case "fraudKeywords" -> assessment -> assessment.getFraudIndicators().stream()
+                    .map(FraudIndicator::keyword)
+                    .distinct()
+                    .toList();
+            case "claimType" -> ClaimAssessment::getClaimType;
+            case "estimatedDamage" -> ClaimAssessment::getEstimatedDamage;
+            case "initialEstimate" -> assessment -> assessment.getDocument().getInitialEstimate();
+            case "attachments" -> assessment -> assessment.getDocument().getAttachments();
+            case "involvedParties" -> assessment -> assessment.getDocument().getInvolvedParties();
+
+            case "policyInformation" -> RuleFields::policyOf;
+            case "policyInformation.policyNumber" -> policy(PolicyInformation::getPolicyNumber);
+            case "policyInformation.policyholderName" -> policy(PolicyInformation::getPolicyholderName);
+            case "policyInformation.agencyCustomerId" -> policy(PolicyInformation::getAgencyCustomerId);
+            case "policyInformation.effectiveDate" -> policy(PolicyInformation::getEffectiveDate);
+
+            case "incidentInformation" -> RuleFields::incidentOf;
+            case "incidentInformation.incidentDate" -> incident(IncidentInformation::getIncidentDate);
+            case "incidentInformation.incidentTime" -> incident(IncidentInformation::getIncidentTime);
+            case "incidentInformation.location" -> incident(IncidentInformation::getLocation);
+            case "incidentInformation.description" -> incident(IncidentInformation::getDescription);
+
+            case "assetDetails" -> RuleFields::assetOf;
+            case "assetDetails.assetType" -> asset(AssetDetails::getAssetType);
+            case "assetDetails.assetId" -> asset(AssetDetails::getAssetId);
+            case "assetDetails.description" -> asset(AssetDetails::getDescription);
+
+            default -> throw new IllegalArgumentException("Unknown routing rule field: " + field);
+        };
+    }
+
+    private static PolicyInformation policyOf(ClaimAssessment assessment) {
+        return assessment.getDocument().getPolicyInformation();
+    }
+
+    private static IncidentInformation incidentOf(ClaimAssessment assessment) {
+        return assessment.getDocument().getIncidentInformation();
+    }
+
+    private static AssetDetails assetOf(ClaimAssessment assessment) {
+        return assessment.getDocument().getAssetDetails();
+    }
+
+    private static Function<ClaimAssessment, Object> policy(Function<PolicyInformation, Object> getter) {
+        return assessment -> {
+            PolicyInformation policy = policyOf(assessment);
+            return policy != null ? getter.apply(policy) : null;
+        };
+    }
+
+    private static Function<ClaimAssessment, Object> incident(Function<IncidentInformation, Object> getter) {
+        return assessment -> {
+            IncidentInformation incident = incidentOf(assessment);
+            return incident != null ? getter.apply(incident) : null;
+        };
+    }
+
+    private static Function<ClaimAssessment, Object> asset(Function<AssetDetails, Object> getter) {
+        return assessment -> {
+            AssetDetails asset = assetOf(assessment);
+            return asset != null ? getter.apply(asset) : null;
+        };
+    }
+}
@@ -0,0 +1,265 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.BatchItemResult;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InterruptedIOException;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipException;
+import java.util.zip.ZipInputStream;
+
+/**
+ * Processes many FNOL documents per request.
+ * <p>
+ * Uploaded files and the entries of uploaded ZIP archives are fanned out over a bounded worker
+ * pool. At most {@code fnol.batch.max-in-flight} documents are read ahead, so a large archive is
+ * never held in memory at once, and every result is streamed as soon as it completes.
+ */
+@Slf4j
+@Service
+public class BatchProcessingService {
+
+    private final FNOLProcessingService processingService;
+    private final ExecutorService batchExecutor;
+    private final ExecutorService batchDispatchExecutor;
+    private final ObjectWriter lineWriter;
+
+    private final int maxInFlight;
+    private final int maxDocuments;
+    private final long maxEntryBytes;
+    private final long timeoutMillis;
+
+    public BatchProcessingService(FNOLProcessingService processingService,
+                                  ObjectMapper objectMapper,
+                                  @Qualifier("batchExecutor") ExecutorService batchExecutor,
+                                  @Qualifier("batchDispatchExecutor") ExecutorService batchDispatchExecutor,
+                                  @Value("${fnol.batch.max-in-flight:16}") int maxInFlight,
+                                  @Value("${fnol.batch.max-documents:10000}") int maxDocuments,
+                                  @Value("${fnol.batch.max-entry-bytes:10485760}") long maxEntryBytes,
+                                  @Value("${fnol.batch.timeout-millis:3600000}") long timeoutMillis) {
+        this.processingService = processingService;
+        this.batchExecutor = batchExecutor;
+        this.batchDispatchExecutor = batchDispatchExecutor;
+        this.lineWriter = objectMapper.writer();
+        this.maxInFlight = Math.max(1, maxInFlight);
+        this.maxDocuments = maxDocuments;
+        this.maxEntryBytes = maxEntryBytes;
+        this.timeoutMillis = timeoutMillis;
+    }
+
+    /**
+     * Process a batch in the background and stream one NDJSON line per document, in completion order
+     */
+    public ResponseBodyEmitter stream(List<MultipartFile> uploads) {
+        ResponseBodyEmitter emitter = new ResponseBodyEmitter(timeoutMillis);
+        batchDispatchExecutor.execute(() -> {
+            try {
+                process(uploads, item -> {
+                    ByteArrayOutputStream line = new ByteArrayOutputStream(1024);
+                    lineWriter.writeValue(line, item);
+                    line.write('\n');
+                    emitter.send(line.toByteArray());
+                });
+                emitter.complete();
+            } catch (Exception e) {
+                log.warn("Batch of {} uploads aborted: {}", uploads.size(), e.getMessage());
+                emitter.completeWithError(e);
+            }
+        });
+        return emitter;
+    }
+
+    /**
+     * Process uploaded documents and ZIP archives of documents, handing each result to the sink as
+     * soon as it completes. The sink is always called from the calling thread.
+     */
+    public void process(List<MultipartFile> uploads, BatchSink sink) throws IOException {
+        Batch batch = new Batch(sink);
+        try {
+            for (MultipartFile upload : uploads) {
+                String filename = upload.getOriginalFilename();
+                if (filename != null && filename.toLowerCase().endsWith(".zip")) {
+                    batch.submitArchive(upload);
+                } else {
+                    batch.submit(upload, filename);
+                }
+                if (batch.limitReached) {
+                    break;
+                }
+            }
+            batch.drain();
+        } finally {
+            batch.cancel();
+        }
+    }
+
+    /**
+     * Receives batch results; may block to apply backpressure
+     */
+    @FunctionalInterface
+    public interface BatchSink {
+        void accept(BatchItemResult item) throws IOException;
+    }
+
+    /**
+     * State of one running batch
+     */
+    private final class Batch {
+
+        private final BatchSink sink;
+        private final CompletionService<BatchItemResult> completion;
+        private final Set<Future<BatchItemResult>> inFlight = new HashSet<>();
+        private int submitted;
+        private boolean limitReached;
+
+        private Batch(BatchSink sink) {
+            this.sink = sink;
+            this.completion = new ExecutorCompletionService<>(batchExecutor);
+        }
+
+        void submit(MultipartFile file, String filename) throws IOException {
+            if (submitted == maxDocuments) {
+                limitReached = true;
+                sink.accept(failed(submitted, null, String.format(
+                        "Batch exceeds %,d documents; remaining documents were skipped", maxDocuments)));
+                return;
+            }
+
+            int index = submitted++;
+            String rejection = processingService.validateUpload(file, filename);
+            if (rejection != null) {
+                sink.accept(failed(index, filename, rejection));
+                return;
+            }
+
+            while (inFlight.size() >= maxInFlight) {
+                sink.accept(take());
+            }
+            inFlight.add(completion.submit(() -> BatchItemResult.builder()
+                    .index(index)
+                    .filename(filename)
+                    .result(processingService.processDocument(file, filename))
+                    .build()));
+
+            // Stream whatever finished meanwhile before reading the next document
+            Future<BatchItemResult> done;
+            while ((done = completion.poll()) != null) {
+                sink.accept(result(done));
+            }
+        }
+
+        void submitArchive(MultipartFile archive) throws IOException {
+            try (InputStream in = archive.getInputStream(); ZipInputStream zip = new ZipInputStream(in)) {
+                ZipEntry entry;
+                while (!limitReached && (entry = zip.getNextEntry()) != null) {
+                    String name = entry.getName();
+                    String baseName = name.substring(name.lastIndexOf('/') + 1);
+                    if (entry.isDirectory() || name.startsWith("__MACOSX/") || baseName.startsWith(".")
+                            || !isDocument(baseName)) {
+                        continue;
+                    }
+
+                    byte[] content = readEntry(zip);
+                    if (content == null) {
+                        sink.accept(failed(submitted++, name,
+                                String.format("File exceeds %,d bytes", maxEntryBytes)));
+                        continue;
+                    }
+                    submit(new ByteArrayMultipartFile(name, content), name);
+                }
+            } catch (ZipException e) {
+                sink.accept(failed(submitted++, archive.getOriginalFilename(), "Invalid ZIP archive: " + e.getMessage()));
+            }
+        }
+
+        void drain() throws IOException {
+            while (!inFlight.isEmpty()) {
+                sink.accept(take());
+            }
+        }
+
+        /**
+         * Stop documents still queued or running when the client went away or the batch failed
+         */
+        void cancel() {
+            inFlight.forEach(pending -> pending.cancel(true));
+            inFlight.clear();
+        }
+
+        /**
+         * Read a ZIP entry fully, or return null if it is larger than allowed
+         */
+        private byte[] readEntry(ZipInputStream zip) throws IOException {
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = zip.read(buffer)) != -1) {
+                if (out.size() + read > maxEntryBytes) {
+                    return null;
+                }
+                out.write(buffer, 0, read);
+            }
+            return out.toByteArray();
+        }
+
+        private BatchItemResult take() throws IOException {
+            try {
+                return result(completion.take());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for batch results");
+            }
+        }
+
+        private BatchItemResult result(Future<BatchItemResult> done) throws IOException {
+            inFlight.remove(done);
+            try {
+                return done.get();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InterruptedIOException("Interrupted while waiting for batch results");
+            } catch (ExecutionException e) {
+                // processDocument reports its own failures; this only happens on errors like OOM
+                throw new IOException("Batch worker failed: " + e.getCause(), e.getCause());
+            }
+        }
+    }
+
+    /**
+     * Only PDF and TXT entries of an archive are processed; anything else bundled with them is skipped
+     */
+    private static boolean isDocument(String name) {
+        String lower = name.toLowerCase();
+        return lower.endsWith(".pdf") || lower.endsWith(".txt");
+    }
+
+    private static BatchItemResult failed(int index, String filename, String error) {
+        return BatchItemResult.builder()
+                .index(index)
+                .filename(filename)
+                .result(ProcessingResult.builder()
+                        .status("FAILED")
+                        .errors(List.of(error))
+                        .build())
+                .build();
+    }
+}
@@ -1,150 +1,141 @@
 package com.example.fnol_agent.service;
 
 
-import com.example.fnol_agent.model.ClaimType;
-import com.example.fnol_agent.model.FNOLDocument;
-import com.example.fnol_agent.model.RoutingDecision;
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.routing.RoutingRule;
+import com.example.fnol_agent.routing.RoutingRules;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
-import java.math.BigDecimal;
-import java.util.ArrayList;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
 
 /**
- * Service for routing claims based on business rules
+ * Service for routing claims based on business rules.
+ * <p>
+ * Rules are loaded from {@code fnol.routing.rules-location}. When that is a file on disk, it is
+ * checked for changes every {@code fnol.routing.reload-interval-millis} and a changed file is
+ * compiled and swapped in atomically; a file that fails to compile is logged and the current rules
+ * stay in effect. Callers take one {@link RoutingRules} snapshot per document, so a reload never
+ * mixes two rule versions within one result.
  */
+@Slf4j
 @Service
 public class ClaimRoutingService {
 
-    private static final BigDecimal FAST_TRACK_THRESHOLD = new BigDecimal("25000");
+    private final Resource rulesFile;
+    private final ObjectMapper objectMapper;
+    private final AtomicReference<RoutingRules> rules = new AtomicReference<>();
+    private final Counter reloads;
+    private final Counter reloadFailures;
+    private volatile long lastModified;
+
+    public ClaimRoutingService(@Value("${fnol.routing.rules-location:classpath:routing-rules.json}") Resource rulesFile,
+                               ObjectMapper objectMapper,
+                               MeterRegistry meterRegistry) throws IOException {
+        this.rulesFile = rulesFile;
+        this.objectMapper = objectMapper;
+        this.reloads = reloadCounter(meterRegistry, "success");
+        this.reloadFailures = reloadCounter(meterRegistry, "failure");
+
+        this.lastModified = lastModified();
+        RoutingRules loaded = load();
+        rules.set(loaded);
+        log.info("Loaded routing rules {} from {}", loaded.version(), rulesFile.getDescription());
+    }
 
     /**
-     * Determine routing decision for a claim
+     * Rules currently in effect
      */
-    public RoutingDecision determineRoute(FNOLDocument document) {
-        List<String> missingFields = document.getMissingFields();
-
-        // Rule 1: If any mandatory field is missing → Manual review
-        if (!missingFields.isEmpty()) {
-            return RoutingDecision.MANUAL_REVIEW;
-        }
-
-        // Rule 2: If description contains fraud indicators → Investigation Flag
-        if (document.getIncidentInformation() != null &&
-                document.getIncidentInformation().hasFraudIndicators()) {
-            return RoutingDecision.INVESTIGATION;
-        }
-
-        // Rule 3: If claim type = injury → Specialist Queue
-        if (ClaimType.INJURY == document.getClaimType()) {
-            return RoutingDecision.SPECIALIST_QUEUE;
-        }
-
-        // Rule 4: If estimated damage < $25,000 → Fast-track
-        if (document.getAssetDetails() != null &&
-                document.getAssetDetails().isUnderFastTrackThreshold(FAST_TRACK_THRESHOLD)) {
-            return RoutingDecision.FAST_TRACK;
-        }
+    public RoutingRules currentRules() {
+        return rules.get();
+    }
 
-        // Default: Standard processing
-        return RoutingDecision.STANDARD_PROCESSING;
+    /**
+     * Determine the routing rule a claim matches
+     */
+    public RoutingRule determineRoute(RoutingRules rules, ClaimAssessment assessment) {
+        return rules.match(assessment);
     }
 
     /**
      * Generate reasoning for routing decision
      */
-    public String generateReasoning(FNOLDocument document, RoutingDecision decision) {
-        List<String> reasons = new ArrayList<>();
-        List<String> missingFields = document.getMissingFields();
-
-        switch (decision) {
-            case FAST_TRACK:
-                BigDecimal damage = document.getAssetDetails().getEstimatedDamage();
-                reasons.add(String.format(
-                        "Estimated damage of ₹%,.2f is below the fast-track threshold of $%,.2f",
-                        damage, FAST_TRACK_THRESHOLD
-                ));
-                reasons.add("All mandatory fields are present");
-                reasons.add("No fraud indicators detected");
-                break;
-
-            case MANUAL_REVIEW:
-                reasons.add("Missing mandatory fields: " + String.join(", ", missingFields));
-                reasons.add("Manual review required to complete claim information");
-                break;
-
-            case INVESTIGATION:
-                reasons.add("Fraud indicators detected in incident description");
-                if (document.getIncidentInformation() != null) {
-                    String desc = document.getIncidentInformation().getDescription();
-                    if (desc != null) {
-                        String lowerDesc = desc.toLowerCase();
-                        if (lowerDesc.contains("fraud")) reasons.add("- Contains keyword: 'fraud'");
-                        if (lowerDesc.contains("staged")) reasons.add("- Contains keyword: 'staged'");
-                        if (lowerDesc.contains("inconsistent")) reasons.add("- Contains keyword: 'inconsistent'");
-                        if (lowerDesc.contains("suspicious")) reasons.add("- Contains keyword: 'suspicious'");
-                    }
-                }
-                reasons.add("Requires investigation before processing");
-                break;
-
-            case SPECIALIST_QUEUE:
-                reasons.add("Claim type is INJURY - requires specialist handling");
-                reasons.add("Routing to medical claims specialist queue");
-                break;
-
-            case STANDARD_PROCESSING:
-                reasons.add("Claim meets all standard processing criteria");
-                if (document.getAssetDetails() != null && document.getAssetDetails().getEstimatedDamage() != null) {
-                    reasons.add(String.format(
-                            "Estimated damage: $%,.2f (above fast-track threshold)",
-                            document.getAssetDetails().getEstimatedDamage()
-                    ));
-                }
-                break;
-        }
-
-        return String.join(". ", reasons) + ".";
+    public String generateReasoning(RoutingRule rule, ClaimAssessment assessment) {
+        return rule.reasoning(assessment);
     }
 
     /**
      * Get warnings for the claim
      */
-    public List<String> generateWarnings(FNOLDocument document) {
-        List<String> warnings = new ArrayList<>();
+    public List<String> generateWarnings(RoutingRules rules, ClaimAssessment assessment) {
+        List<String> warnings = rules.warnings(assessment);
+        warnings.addAll(assessment.getWarnings());
+        return warnings;
+    }
 
-        // Check for incomplete but not missing fields
-        if (document.getIncidentInformation() != null &&
-                document.getIncidentInformation().getIncidentTime() == null) {
-            warnings.add("Incident time not provided - may affect investigation");
+    /**
+     * Swap in the rules file if it changed on disk
+     */
+    @Scheduled(fixedDelayString = "${fnol.routing.reload-interval-millis:10000}")
+    public void reloadIfChanged() {
+        long modified = lastModified();
+        if (modified == 0 || modified == lastModified) {
+            return;
         }
+        lastModified = modified;
 
-//        if (document.getInvolvedParties() != null) {
-//            long partiesWithoutContact = document.getInvolvedParties().stream()
-//                    .filter(p -> (p.getContactPhone() == null || p.getContactPhone().isBlank()) &&
-//                            (p.getContactEmail() == null || p.getContactEmail().isBlank()))
-//                    .count();
-//            if (partiesWithoutContact > 0) {
-//                warnings.add(String.format(
-//                        "%d involved party/parties missing contact information",
-//                        partiesWithoutContact
-//                ));
-//            }
-//        }
-
-        if (document.getAttachments() == null || document.getAttachments().isEmpty()) {
-            warnings.add("No attachments/supporting documents provided");
+        try {
+            RoutingRules loaded = load();
+            RoutingRules previous = rules.get();
+            if (loaded.version().equals(previous.version())) {
+                return;
+            }
+            rules.set(loaded);
+            reloads.increment();
+            log.info("Reloaded routing rules {} (was {}) from {}",
+                    loaded.version(), previous.version(), rulesFile.getDescription());
+        } catch (IOException | RuntimeException e) {
+            reloadFailures.increment();
+            log.error("Keeping routing rules {}: could not load {}: {}",
+                    rules.get().version(), rulesFile.getDescription(), e.getMessage());
         }
+    }
 
-        // Check for high damage amount
-        if (document.getAssetDetails() != null &&
-                document.getAssetDetails().getEstimatedDamage() != null) {
-            BigDecimal damage = document.getAssetDetails().getEstimatedDamage();
-            if (damage.compareTo(new BigDecimal("100000")) > 0) {
-                warnings.add("High damage amount - may require additional approval");
+    private RoutingRules load() throws IOException {
+        try (InputStream in = rulesFile.getInputStream()) {
+            return RoutingRules.load(in.readAllBytes(), objectMapper);
+        }
+    }
+
+    /**
+     * Modification time of the rules file, or 0 if it is not a file on disk (e.g. inside the jar)
+     */
+    private long lastModified() {
+        try {
+            if (!rulesFile.isFile()) {
+                return 0;
             }
+            File file = rulesFile.getFile();
+            return file.lastModified();
+        } catch (IOException e) {
+            return 0;
         }
+    }
 
-        return warnings;
+    private static Counter reloadCounter(MeterRegistry meterRegistry, String outcome) {
+        return Counter.builder("fnol.routing.reloads")
+                .description("Routing rule reloads after the rules file changed, by outcome")
+                .tag("outcome", outcome)
+                .register(meterRegistry);
     }
 }
@@ -0,0 +1,47 @@
+package com.example.fnol_agent.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event spanning all stages of processing a document
+ */
+@Name("com.example.fnol.DocumentProcessed")
+@Label("FNOL Document Processed")
+@Category({"FNOL", "Processing"})
+@Description("Processing of an uploaded FNOL document, from upload to result")
+@StackTrace(false)
+final class DocumentProcessedEvent extends Event {
+
+    @Label("File Type")
+    String fileType;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Claim Id")
+    String claimId;
+
+    @Label("Status")
+    String status;
+
+    @Label("Route")
+    String route;
+
+    @Label("Missing Fields")
+    @Description("Number of mandatory fields that could not be extracted")
+    int missingFields;
+
+    @Label("Extracted Field Groups")
+    @Description("Number of field groups, such as policy information or asset details, extracted from the document")
+    int extractedFieldGroups;
+
+    @Label("Cache Hit")
+    boolean cacheHit;
+}
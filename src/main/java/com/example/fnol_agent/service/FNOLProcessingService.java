@@ -1,122 +1,287 @@
 package com.example.fnol_agent.service;
 
 
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.assessment.ClaimAssessor;
+import com.example.fnol_agent.assessment.DuplicateClaimContributor;
+import com.example.fnol_agent.assessment.FraudLexicon;
+import com.example.fnol_agent.extraction.ExtractionRuleRegistry;
+import com.example.fnol_agent.journal.ProcessedClaimJournal;
+import com.example.fnol_agent.model.ExtractedFields;
 import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.model.InvolvedParty;
 import com.example.fnol_agent.model.ProcessingResult;
-import com.example.fnol_agent.model.RoutingDecision;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.example.fnol_agent.pdf.FormTemplateRegistry;
+import com.example.fnol_agent.routing.RoutingRule;
+import com.example.fnol_agent.routing.RoutingRules;
+import com.example.fnol_agent.service.StageTimers.FileType;
+import com.example.fnol_agent.store.ClaimStore;
 import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
  * Main service for processing FNOL documents
  */
+@Slf4j
 @Service
 @RequiredArgsConstructor
 public class FNOLProcessingService {
 
+    private final ClaimAssessor claimAssessor;
+    private final DuplicateClaimContributor duplicateClaims;
     private final ClaimRoutingService routingService;
-    private final ObjectMapper objectMapper;
     private final PdfExtractionService pdfExtractionService;
     private final TxtExtractionService txtExtractionService;
+    private final ProcessingResultCache resultCache;
+    private final ExtractionRuleRegistry extractionRules;
+    private final FormTemplateRegistry formTemplates;
+    private final FraudLexicon fraudLexicon;
+    private final ProcessedClaimJournal claimJournal;
+    private final ClaimStore claimStore;
+    private final StageTimers stageTimers;
+    private final ProcessingProfiler profiler;
 
     /**
-     * Process a FNOL document file
+     * Check an upload before processing it
+     *
+     * @return the reason the upload is rejected, or null if it can be processed
+     */
+    public String validateUpload(MultipartFile file, String filename) {
+        if (file.isEmpty()) {
+            return "File is empty";
+        }
+        if (filename == null ||
+                (!filename.toLowerCase().endsWith(".pdf") && !filename.toLowerCase().endsWith(".txt"))) {
+            return "Invalid file type. Only PDF and TXT files are supported.";
+        }
+        return null;
+    }
+
+    /**
+     * Process a FNOL document file, reusing the result of an identical earlier upload
      */
     public ProcessingResult processDocument(MultipartFile file, String filename) {
+        return processDocument(file, filename, false);
+    }
+
+    /**
+     * Process a FNOL document file, with a per-stage profile in the result if requested and
+     * profiling is enabled
+     */
+    public ProcessingResult processDocument(MultipartFile file, String filename, boolean profile) {
+        try (ProcessingTrace trace = profiler.start(filename, file.getSize(), profile)) {
+            // One snapshot of the routing rules for the whole document, even if they are reloaded meanwhile
+            RoutingRules routingRules = routingService.currentRules();
+
+            String cacheKey = null;
+            if (resultCache.isEnabled()) {
+                long start = System.nanoTime();
+                cacheKey = cacheKey(file, filename, routingRules);
+                StageTimers.record(stageTimers.cacheKey(FileType.of(filename)), start);
+                trace.stage("cache-key");
+            }
+            if (cacheKey != null) {
+                ProcessingResult cached = resultCache.get(cacheKey);
+                if (cached != null) {
+                    // A re-submitted upload is a claim of its own, in the audit trail and the claim store too
+                    ProcessingResult served = cacheHit(cached, duplicateClaims.isEnabled());
+                    claimJournal.record(served);
+                    claimStore.add(served);
+                    trace.stage("recording");
+                    return trace.finish(served);
+                }
+            }
+
+            ProcessingResult result = process(file, filename, routingRules, trace);
+            claimJournal.record(result);
+            claimStore.add(result);
+
+            // Results cut short by the extraction budget depend on timing, and failures may be transient
+            if (cacheKey != null && !"FAILED".equals(result.getStatus()) && !result.isExtractionStopped()) {
+                resultCache.put(cacheKey, result);
+            }
+            trace.stage("recording");
+            return trace.finish(cacheKey != null ? result.toBuilder().cacheHit(false).build() : result);
+        }
+    }
+
+    /**
+     * Result served for a cache hit: a re-report of the cached claim when duplicate detection is
+     * enabled and the claim has a duplicate key, otherwise the cached result under a claim id of its own
+     */
+    static ProcessingResult cacheHit(ProcessingResult cached, boolean duplicatesEnabled) {
+        ProcessingResult reReport = duplicatesEnabled ? asDuplicate(cached) : null;
+        ProcessingResult served = reReport != null
+                ? reReport : cached.toBuilder().claimId(UUID.randomUUID().toString()).build();
+        return served.toBuilder().cacheHit(true).build();
+    }
+
+    /**
+     * Mark a cached result served again as a re-report of the claim it was processed as. Processing
+     * the identical upload again would find the same policy, incident date and asset in the duplicate
+     * index, so the re-report gets a claim id of its own and {@code duplicateOf} names the first claim
+     * with that key. The cached route is kept.
+     *
+     * @return the marked result, or null if the result has no complete duplicate key
+     */
+    static ProcessingResult asDuplicate(ProcessingResult cached) {
+        ExtractedFields fields = cached.getExtractedFields();
+        if (fields == null || fields.getPolicyInformation() == null || fields.getIncidentInformation() == null
+                || fields.getAssetDetails() == null
+                || isBlank(fields.getPolicyInformation().getPolicyNumber())
+                || fields.getIncidentInformation().getIncidentDate() == null
+                || isBlank(fields.getAssetDetails().getAssetId())) {
+            return null;
+        }
+
+        if (cached.getDuplicateOf() != null) {
+            // Already a duplicate, and already warned about the same original
+            return cached.toBuilder().claimId(UUID.randomUUID().toString()).build();
+        }
+        List<String> warnings = new ArrayList<>();
+        warnings.add(DuplicateClaimContributor.warning(cached.getClaimId()));
+        if (cached.getWarnings() != null) {
+            warnings.addAll(cached.getWarnings());
+        }
+        return cached.toBuilder()
+                .claimId(UUID.randomUUID().toString())
+                .duplicateOf(cached.getClaimId())
+                .warnings(warnings)
+                .build();
+    }
+
+    private static boolean isBlank(String value) {
+        return value == null || value.isBlank();
+    }
+
+    /**
+     * Version of every rule set that shapes a result; part of the cache key so a rules change
+     * never serves stale results
+     */
+    public String rulesVersion() {
+        return rulesVersion(routingService.currentRules());
+    }
+
+    private String rulesVersion(RoutingRules routingRules) {
+        return "extraction:" + extractionRules.version() + ",templates:" + formTemplates.version()
+                + ",fraud:" + fraudLexicon.version() + ",routing:" + routingRules.version();
+    }
+
+    private ProcessingResult process(MultipartFile file, String filename, RoutingRules routingRules,
+                                     ProcessingTrace trace) {
+        String claimId = UUID.randomUUID().toString();
+        trace.claimId(claimId);
         try {
 
             FNOLDocument document = null;
-            if ((filename.toLowerCase().endsWith(".pdf"))) {
-                document = pdfExtractionService.extractPdfFNOLDocument(file);
-            }
-            if((filename.toLowerCase().endsWith(".txt"))) {
-                document = txtExtractionService.extractTxtFNOLDocument(file);
+            String extractionWarning = null;
+            try {
+                if ((filename.toLowerCase().endsWith(".pdf"))) {
+                    document = pdfExtractionService.extractPdfFNOLDocument(file);
+                }
+                if ((filename.toLowerCase().endsWith(".txt"))) {
+                    document = txtExtractionService.extractTxtFNOLDocument(file);
+                }
+            } catch (PartialExtractionException e) {
+                // Route what was extracted before extraction stopped
+                document = e.getDocument();
+                extractionWarning = e.getMessage();
             }
+            trace.stage("extraction");
+
+            // Assess the claim once; routing, reasoning, warnings and status all read the assessment
+            FileType type = FileType.of(filename);
+            long mark = System.nanoTime();
+            ClaimAssessment assessment = claimAssessor.assess(claimId, document);
+            mark = StageTimers.record(stageTimers.assessment(type), mark);
+            trace.stage("assessment");
 
             // Determine routing
-            RoutingDecision routing = routingService.determineRoute(document);
-            String reasoning = routingService.generateReasoning(document, routing);
+            RoutingRule routing = routingService.determineRoute(routingRules, assessment);
+            String reasoning = routingService.generateReasoning(routing, assessment);
 
             // Get missing fields and warnings
-            List<String> missingFields = document.getMissingFields();
-            List<String> warnings = routingService.generateWarnings(document);
+            List<String> missingFields = assessment.getMissingFields();
+            List<String> warnings = routingService.generateWarnings(routingRules, assessment);
+            StageTimers.record(stageTimers.routing(type, routing.decision()), mark);
+            trace.stage("routing");
+            if (extractionWarning != null) {
+                warnings.add(0, extractionWarning);
+            }
 
-            // Build extracted fields map
-            Map<String, Object> extractedFields = buildExtractedFieldsMap(document);
+            // Collect extracted fields
+            ExtractedFields extractedFields = buildExtractedFields(document);
 
             // Determine status
-            String status = determineStatus(missingFields);
+            String status = extractionWarning != null ? "PARTIAL" : determineStatus(missingFields);
 
             return ProcessingResult.builder()
+                    .claimId(claimId)
+                    .duplicateOf((String) assessment.getAttribute(DuplicateClaimContributor.DUPLICATE_OF))
                     .extractedFields(extractedFields)
                     .missingFields(missingFields)
-                    .recommendedRoute(routing.name())
+                    .recommendedRoute(routing.decision().name())
                     .reasoning(reasoning)
                     .status(status)
                     .warnings(warnings.isEmpty() ? null : warnings)
+                    .rulesVersion(routingRules.version())
+                    .extractionStopped(extractionWarning != null)
                     .build();
 
         } catch (Exception e) {
             return ProcessingResult.builder()
                     .status("FAILED")
                     .errors(List.of("Error processing document: " + e.getMessage()))
+                    .rulesVersion(routingRules.version())
                     .build();
         }
     }
 
 
     /**
-     * Build extracted fields map for JSON output
+     * Cache key of an upload: SHA-256 of its bytes, read in one streaming pass, plus file type and
+     * rules version
      */
-    private Map<String, Object> buildExtractedFieldsMap(FNOLDocument document) {
-        Map<String, Object> fields = new LinkedHashMap<>();
-
-        // Policy Information
-        if (document.getPolicyInformation() != null) {
-            fields.put("policyInformation", objectMapper.convertValue(
-                    document.getPolicyInformation(), Map.class
-            ));
-        }
-
-        // Incident Information
-        if (document.getIncidentInformation() != null) {
-            fields.put("incidentInformation", objectMapper.convertValue(
-                    document.getIncidentInformation(), Map.class
-            ));
-        }
-
-        // Involved Parties
-        if (document.getInvolvedParties() != null && !document.getInvolvedParties().isEmpty()) {
-            fields.put("involvedParties", document.getInvolvedParties().stream()
-                    .map(party -> objectMapper.convertValue(party, Map.class))
-                    .toList());
-        }
-
-        // Asset Details
-        if (document.getAssetDetails() != null) {
-            fields.put("assetDetails", objectMapper.convertValue(
-                    document.getAssetDetails(), Map.class
-            ));
-        }
-
-        // Other fields
-        if (document.getClaimType() != null) {
-            fields.put("claimType", document.getClaimType());
-        }
-
-        if (document.getInitialEstimate() != null) {
-            fields.put("initialEstimate", document.getInitialEstimate());
+    private String cacheKey(MultipartFile file, String filename, RoutingRules routingRules) {
+        try (InputStream in = file.getInputStream()) {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            byte[] buffer = new byte[8192];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+            String type = filename.toLowerCase().endsWith(".pdf") ? "pdf" : "txt";
+            return HexFormat.of().formatHex(digest.digest()) + ":" + type + ":" + rulesVersion(routingRules);
+        } catch (IOException | NoSuchAlgorithmException e) {
+            log.debug("Not using result cache for {}: {}", filename, e.getMessage());
+            return null;
         }
+    }
 
-        if (document.getAttachments() != null && !document.getAttachments().isEmpty()) {
-            fields.put("attachments", document.getAttachments());
-        }
+    /**
+     * Collect the extracted fields for JSON output
+     */
+    static ExtractedFields buildExtractedFields(FNOLDocument document) {
+        List<InvolvedParty> parties = document.getInvolvedParties();
+        List<String> attachments = document.getAttachments();
 
-        return fields;
+        return ExtractedFields.builder()
+                .policyInformation(document.getPolicyInformation())
+                .incidentInformation(document.getIncidentInformation())
+                .involvedParties(parties != null && !parties.isEmpty() ? parties : null)
+                .assetDetails(document.getAssetDetails())
+                .claimType(document.getClaimType())
+                .initialEstimate(document.getInitialEstimate())
+                .attachments(attachments != null && !attachments.isEmpty() ? attachments : null)
+                .build();
     }
 
     /**
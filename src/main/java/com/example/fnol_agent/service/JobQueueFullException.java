@@ -0,0 +1,11 @@
+package com.example.fnol_agent.service;
+
+/**
+ * Thrown when a job is submitted while the job queue is full
+ */
+public class JobQueueFullException extends RuntimeException {
+
+    public JobQueueFullException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,283 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.ProcessingJob;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Asynchronous FNOL processing.
+ * <p>
+ * Submitted uploads are spooled to disk and queued on a bounded worker pool; the request returns a
+ * job id right away. Jobs are kept for {@code fnol.jobs.ttl-millis} after completion so clients can
+ * poll for the result, and a completion callback is posted to the job's callback URL, if any.
+ * <p>
+ * Callbacks are sent asynchronously on the callback executor, which also schedules retries, so the
+ * job worker is free as soon as the document is processed. Callback URLs must name a host on the
+ * {@code fnol.jobs.callback.allowed-hosts} list, so clients cannot make the service call arbitrary
+ * internal endpoints.
+ */
+@Slf4j
+@Service
+public class JobService {
+
+    private static final int CALLBACK_ATTEMPTS = 3;
+
+    private final FNOLProcessingService processingService;
+    private final ThreadPoolExecutor jobExecutor;
+    private final ObjectWriter callbackWriter;
+    private final HttpClient httpClient;
+    private final ScheduledExecutorService callbackExecutor;
+    private final Duration callbackTimeout;
+    private final List<String> allowedCallbackHosts;
+    private final long ttlMillis;
+
+    private final Map<String, Job> jobs = new ConcurrentHashMap<>();
+
+    public JobService(FNOLProcessingService processingService,
+                      @Qualifier("jobExecutor") ThreadPoolExecutor jobExecutor,
+                      @Qualifier("callbackExecutor") ScheduledExecutorService callbackExecutor,
+                      ObjectMapper objectMapper,
+                      @Value("${fnol.jobs.ttl-millis:3600000}") long ttlMillis,
+                      @Value("${fnol.jobs.callback.timeout-millis:5000}") long callbackTimeoutMillis,
+                      @Value("${fnol.jobs.callback.allowed-hosts:}") String allowedCallbackHosts) {
+        this.processingService = processingService;
+        this.jobExecutor = jobExecutor;
+        this.callbackExecutor = callbackExecutor;
+        this.callbackWriter = objectMapper.writer();
+        this.callbackTimeout = Duration.ofMillis(callbackTimeoutMillis);
+        this.httpClient = HttpClient.newBuilder()
+                .connectTimeout(callbackTimeout)
+                .executor(callbackExecutor)
+                .build();
+        this.allowedCallbackHosts = Arrays.stream(allowedCallbackHosts.split(","))
+                .map(host -> host.trim().toLowerCase(Locale.ROOT))
+                .filter(host -> !host.isEmpty())
+                .toList();
+        this.ttlMillis = ttlMillis;
+    }
+
+    /**
+     * Check whether callbacks may be sent to the host of a URL: the host must be listed, or be a
+     * subdomain of a domain listed as {@code *.example.com}
+     */
+    public boolean isAllowedCallback(URI callbackUrl) {
+        String host = callbackUrl.getHost();
+        if (host == null) {
+            return false;
+        }
+        host = host.toLowerCase(Locale.ROOT);
+        for (String allowed : allowedCallbackHosts) {
+            if (allowed.startsWith("*.") ? host.endsWith(allowed.substring(1)) : host.equals(allowed)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Queue an upload for processing
+     *
+     * @throws JobQueueFullException if the queue has no room for the job
+     */
+    public ProcessingJob submit(MultipartFile file, String filename, URI callbackUrl) throws IOException {
+        if (callbackUrl != null && !isAllowedCallback(callbackUrl)) {
+            throw new IllegalArgumentException("Callback host " + callbackUrl.getHost() + " is not allowed");
+        }
+
+        Path spooled = Files.createTempFile("fnol-job-", suffix(filename));
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+
+        Job job = new Job(UUID.randomUUID().toString(), filename, callbackUrl,
+                new FileSystemMultipartFile(filename, spooled));
+        jobs.put(job.id, job);
+        try {
+            jobExecutor.execute(() -> run(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            Files.deleteIfExists(spooled);
+            throw new JobQueueFullException(String.format(
+                    "Job queue is full (%d jobs waiting); retry later", jobExecutor.getQueue().size()));
+        }
+
+        log.info("Queued job {} for {}", job.id, filename);
+        return job.snapshot();
+    }
+
+    /**
+     * Current state of a job, if it exists and has not expired
+     */
+    public Optional<ProcessingJob> find(String jobId) {
+        return Optional.ofNullable(jobs.get(jobId)).map(Job::snapshot);
+    }
+
+    /**
+     * Drop completed jobs older than the configured time to live
+     */
+    @Scheduled(fixedDelayString = "${fnol.jobs.eviction-interval-millis:60000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minusMillis(ttlMillis);
+        int before = jobs.size();
+        jobs.values().removeIf(job -> job.completedAt != null && job.completedAt.isBefore(cutoff));
+        int evicted = before - jobs.size();
+        if (evicted > 0) {
+            log.debug("Evicted {} expired jobs", evicted);
+        }
+    }
+
+    private void run(Job job) {
+        job.startedAt = Instant.now();
+        job.status = "RUNNING";
+        try {
+            job.result = processingService.processDocument(job.file, job.filename);
+        } catch (RuntimeException e) {
+            job.result = ProcessingResult.builder()
+                    .status("FAILED")
+                    .errors(List.of("Error processing document: " + e.getMessage()))
+                    .build();
+        } finally {
+            deleteQuietly(job.file.getPath());
+            job.completedAt = Instant.now();
+            job.status = "COMPLETED";
+        }
+
+        if (job.callbackUrl != null) {
+            deliverCallback(job);
+        }
+    }
+
+    private void deliverCallback(Job job) {
+        byte[] body;
+        try {
+            body = callbackWriter.writeValueAsBytes(job.snapshot());
+        } catch (IOException e) {
+            job.callbackStatus = "FAILED";
+            log.warn("Could not serialize callback for job {}: {}", job.id, e.getMessage());
+            return;
+        }
+
+        HttpRequest request = HttpRequest.newBuilder(job.callbackUrl)
+                .timeout(callbackTimeout)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofByteArray(body))
+                .build();
+        sendCallback(job, request, 1);
+    }
+
+    /**
+     * Send one callback attempt without blocking; a failed attempt schedules the next one
+     */
+    private void sendCallback(Job job, HttpRequest request, int attempt) {
+        httpClient.sendAsync(request, HttpResponse.BodyHandlers.discarding()).whenComplete((response, error) -> {
+            if (error == null && response.statusCode() / 100 == 2) {
+                job.callbackStatus = "DELIVERED";
+                return;
+            }
+            if (error != null) {
+                log.warn("Callback for job {} to {} failed (attempt {}/{}): {}",
+                        job.id, job.callbackUrl, attempt, CALLBACK_ATTEMPTS, error.getMessage());
+            } else {
+                log.warn("Callback for job {} to {} returned {} (attempt {}/{})",
+                        job.id, job.callbackUrl, response.statusCode(), attempt, CALLBACK_ATTEMPTS);
+            }
+
+            if (attempt == CALLBACK_ATTEMPTS) {
+                job.callbackStatus = "FAILED";
+                return;
+            }
+            try {
+                callbackExecutor.schedule(() -> sendCallback(job, request, attempt + 1),
+                        250L << attempt, TimeUnit.MILLISECONDS);
+            } catch (RejectedExecutionException e) {
+                job.callbackStatus = "FAILED";
+            }
+        });
+    }
+
+    private static String suffix(String filename) {
+        int dot = filename != null ? filename.lastIndexOf('.') : -1;
+        return dot >= 0 ? filename.substring(dot) : ".upload";
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("Could not delete spooled upload {}: {}", path, e.getMessage());
+        }
+    }
+
+    /**
+     * Mutable job state; written by the worker, read by pollers through {@link #snapshot()}
+     */
+    private static final class Job {
+
+        private final String id;
+        private final String filename;
+        private final URI callbackUrl;
+        private final FileSystemMultipartFile file;
+        private final Instant submittedAt = Instant.now();
+
+        private volatile String status = "QUEUED";
+        private volatile Instant startedAt;
+        private volatile Instant completedAt;
+        private volatile ProcessingResult result;
+        private volatile String callbackStatus;
+
+        private Job(String id, String filename, URI callbackUrl, FileSystemMultipartFile file) {
+            this.id = id;
+            this.filename = filename;
+            this.callbackUrl = callbackUrl;
+            this.file = file;
+            this.callbackStatus = callbackUrl != null ? "PENDING" : null;
+        }
+
+        private ProcessingJob snapshot() {
+            return ProcessingJob.builder()
+                    .jobId(id)
+                    .filename(filename)
+                    .status(status)
+                    .submittedAt(submittedAt)
+                    .startedAt(startedAt)
+                    .completedAt(completedAt)
+                    .result(result)
+                    .callbackUrl(callbackUrl != null ? callbackUrl.toString() : null)
+                    .callbackStatus(callbackStatus)
+                    .build();
+        }
+    }
+}
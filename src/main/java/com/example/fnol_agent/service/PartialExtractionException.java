@@ -0,0 +1,18 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import lombok.Getter;
+
+/**
+ * Thrown when extraction stops early; carries the fields extracted up to that point
+ */
+@Getter
+public class PartialExtractionException extends RuntimeException {
+
+    private final transient FNOLDocument document;
+
+    public PartialExtractionException(String message, FNOLDocument document, Throwable cause) {
+        super(message, cause);
+        this.document = document;
+    }
+}
@@ -1,63 +1,150 @@
 package com.example.fnol_agent.service;
 
 
+import com.example.fnol_agent.extraction.ValueParsers;
 import com.example.fnol_agent.model.*;
+import com.example.fnol_agent.pdf.FormSlot;
+import com.example.fnol_agent.pdf.FormTemplateRegistry;
+import com.example.fnol_agent.pdf.FormValues;
+import com.example.fnol_agent.pdf.PdAcroFormFields;
+import com.example.fnol_agent.pdf.PdfDocumentLoader;
+import com.example.fnol_agent.pdf.PdfParseLimiter;
+import com.example.fnol_agent.pdf.PdfTextExtractor;
+import com.example.fnol_agent.service.StageTimers.FileType;
+import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.apache.pdfbox.pdmodel.PDDocument;
 import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
-import org.apache.pdfbox.pdmodel.interactive.form.PDField;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
+import java.io.InputStream;
 import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
 
 
 @Slf4j
 @Service
+@RequiredArgsConstructor
 public class PdfExtractionService {
 
+    private static final String TEXT_WORKERS_NOTE =
+            "CPU time and allocation of the PDF text workers are not counted, only this thread's";
+
+    private final PdfDocumentLoader pdfDocumentLoader;
+    private final FormTemplateRegistry formTemplates;
+    private final PdfTextExtractor pdfTextExtractor;
+    private final PdfParseLimiter pdfParseLimiter;
+    private final TxtExtractionService txtExtractionService;
+    private final StageTimers stageTimers;
+
     /**
      * Extract text from PDF file
      */
     public FNOLDocument extractPdfFNOLDocument(MultipartFile file) throws IOException {
-        Map<String, String> formData = new HashMap<>();
-
-        try (PDDocument document = PDDocument.load(file.getInputStream())) {
-            PDAcroForm acroForm = document.getDocumentCatalog().getAcroForm();
+        // Read the whole upload before taking a parse slot, so a slow client never holds one
+        long mark = System.nanoTime();
+        MultipartFile upload = readUpload(file);
+        StageTimers.record(stageTimers.uploadRead(FileType.PDF), mark);
+        ProcessingTrace.subStage("pdf-upload-read");
+        try {
+            return pdfParseLimiter.call(() -> extract(upload));
+        } finally {
+            if (upload != file && upload instanceof FileSystemMultipartFile spooled) {
+                Files.deleteIfExists(spooled.getPath());
+            }
+        }
+    }
 
-            if (acroForm != null) {
-                log.info("PDF has fillable form fields");
+    /**
+     * Copy an upload into memory, or into a scratch file when it is too large to parse on heap.
+     * Documents that are already local are used as they are.
+     */
+    private MultipartFile readUpload(MultipartFile file) throws IOException {
+        if (file instanceof ByteArrayMultipartFile || file instanceof FileSystemMultipartFile) {
+            return file;
+        }
+        if (pdfDocumentLoader.fitsInMemory(file.getSize())) {
+            return new ByteArrayMultipartFile(file.getOriginalFilename(), file.getBytes());
+        }
 
-                for (PDField field : acroForm.getFields()) {
-                    String fieldName = field.getFullyQualifiedName();
-                    String fieldValue = field.getValueAsString();
+        Path spooled = Files.createTempFile("fnol-pdf-", ".pdf");
+        try (InputStream in = file.getInputStream()) {
+            Files.copy(in, spooled, StandardCopyOption.REPLACE_EXISTING);
+        } catch (IOException e) {
+            Files.deleteIfExists(spooled);
+            throw e;
+        }
+        return new FileSystemMultipartFile(file.getOriginalFilename(), spooled);
+    }
 
-                    if (fieldValue != null && !fieldValue.trim().isEmpty()) {
-                        formData.put(fieldName, fieldValue.trim());
-                        log.debug("Form field - {}: {}", fieldName, fieldValue);
-                    }
+    private FNOLDocument extract(MultipartFile file) throws IOException {
+        ProcessingTrace.subStage("pdf-parse-wait");
+        long mark = System.nanoTime();
+        FormValues form = pdfDocumentLoader.readForm(file, formTemplates::extract);
+        if (form != null) {
+            StageTimers.record(stageTimers.acroFormRead(true), mark);
+        }
+        // A PDF the lazy reader cannot handle is loaded in full below, after this probe
+        ProcessingTrace.subStage(form != null ? "acroform-read" : "acroform-probe");
+
+        if (form == null) {
+            mark = System.nanoTime();
+            try (PDDocument document = pdfDocumentLoader.load(file)) {
+                mark = StageTimers.record(stageTimers.pdfLoad(), mark);
+                ProcessingTrace.subStage("pdf-load");
+                PDAcroForm acroForm = document.getDocumentCatalog().getAcroForm();
+
+                if (acroForm == null || acroForm.getFields().isEmpty()) {
+                    log.info("PDF does not have fillable form fields; reading its text layer");
+                    FNOLDocument fromText = pdfTextExtractor.extract(document, file, textReader(file.getOriginalFilename()));
+                    ProcessingTrace.subStage("pdf-text-layer", TEXT_WORKERS_NOTE);
+                    return fromText;
                 }
-
-                log.info("Extracted {} form fields", formData.size());
-            } else {
-                log.info("PDF does not have fillable form fields");
+                form = formTemplates.extract(new PdAcroFormFields(acroForm));
+                StageTimers.record(stageTimers.acroFormRead(false), mark);
+                ProcessingTrace.subStage("acroform-read");
             }
         }
 
-        FNOLDocument document = buildPdfFNOLDocument(formData);
+        log.info("PDF has fillable form fields");
+        log.info("Extracted {} form fields using template {}", form.filledCount(), form.templateId());
+
+        FNOLDocument document = buildPdfFNOLDocument(form);
+        ProcessingTrace.subStage("pdf-fields");
         return document;
     }
 
 
-    public FNOLDocument buildPdfFNOLDocument(Map<String, String> form) {
+    /**
+     * Reads the text layer with the TXT rules; new pages are only re-read when they label a missing field
+     */
+    private PdfTextExtractor.TextReader<FNOLDocument> textReader(String source) {
+        return new PdfTextExtractor.TextReader<>() {
+            @Override
+            public FNOLDocument read(CharSequence text) {
+                return txtExtractionService.extractFNOLDocument(text, source);
+            }
+
+            @Override
+            public boolean isComplete(FNOLDocument result) {
+                return result.getMissingFields().isEmpty();
+            }
+
+            @Override
+            public boolean mayImprove(FNOLDocument result, CharSequence newText) {
+                return txtExtractionService.labelsAnyOf(newText, result.getMissingFields());
+            }
+        };
+    }
+
+    public FNOLDocument buildPdfFNOLDocument(FormValues form) {
         return FNOLDocument.builder()
                 .policyInformation(extractPolicyInformation(form))
                 .incidentInformation(extractIncidentInformation(form))
@@ -72,13 +159,13 @@ public class PdfExtractionService {
     /**
      * Extract policy information
      */
-    private PolicyInformation extractPolicyInformation(Map<String, String> form) {
+    private PolicyInformation extractPolicyInformation(FormValues form) {
 
         PolicyInformation policyInformation = PolicyInformation.builder()
-                .policyNumber(getFormValue(form, "Text7"))
-                .policyholderName(getFormValue(form, "NAME OF INSURED First Middle Last"))
-                .agencyCustomerId(getFormValue(form, "AGENCY CUSTOMER ID"))
-                .effectiveDate(parseDate(getFormValue(form, "Text3")))
+                .policyNumber(getFormValue(form, FormSlot.POLICY_NUMBER))
+                .policyholderName(getFormValue(form, FormSlot.POLICYHOLDER_NAME))
+                .agencyCustomerId(getFormValue(form, FormSlot.AGENCY_CUSTOMER_ID))
+                .effectiveDate(parseDate(getFormValue(form, FormSlot.LOSS_DATE)))
                 .build();
 
 
@@ -88,13 +175,13 @@ public class PdfExtractionService {
     /**
      * Extract incident information
      */
-    private IncidentInformation extractIncidentInformation(Map<String, String> form) {
+    private IncidentInformation extractIncidentInformation(FormValues form) {
 
         IncidentInformation incidentInformation = IncidentInformation.builder()
-                .incidentDate(parseDate(getFormValue(form, "Text3")))
-                .incidentTime(parseTimeAsString(form, "Text4"))
+                .incidentDate(parseDate(getFormValue(form, FormSlot.LOSS_DATE)))
+                .incidentTime(parseTimeAsString(form, FormSlot.LOSS_TIME))
                 .location(buildLossLocation(form))
-                .description(getFormValue(form, "DESCRIPTION OF ACCIDENT ACORD 101 Additional Remarks Schedule may be attached if more space is required"))
+                .description(getFormValue(form, FormSlot.ACCIDENT_DESCRIPTION))
                 .build();
 
         return incidentInformation;
@@ -105,18 +192,18 @@ public class PdfExtractionService {
     /**
      * Extract involved parties
      */
-    private List<InvolvedParty> extractInvolvedParties(Map<String, String> form) {
+    private List<InvolvedParty> extractInvolvedParties(FormValues form) {
         List<InvolvedParty> parties = new ArrayList<>();
 
         InvolvedParty claimant = InvolvedParty.builder()
-                .name(getFormValue(form, "NAME OF INSURED First Middle Last"))
+                .name(getFormValue(form, FormSlot.POLICYHOLDER_NAME))
                 .role("CLAIMANT")
-                .primaryPhone(getFormValue(form, "PHONE  CELL HOME BUS PRIMARY"))
-                .primaryPhoneType(getPhoneType(form, "Check Box10", "Check Box11", "Check Box12"))
-                .secondaryPhone(getFormValue(form, "PHONE  SECONDARY CELL HOME BUS"))
-                .secondaryPhoneType(getPhoneType(form, "Check Box13", "Check Box14", "Check Box15"))
-                .primaryMailId(getFormValue(form, "PRIMARY EMAIL ADDRESS"))
-                .secondaryMailId(getFormValue(form,"SECONDARY EMAIL ADDRESS"))
+                .primaryPhone(getFormValue(form, FormSlot.INSURED_PRIMARY_PHONE))
+                .primaryPhoneType(getPhoneType(form, FormSlot.INSURED_PRIMARY_PHONE_HOME, FormSlot.INSURED_PRIMARY_PHONE_BUS, FormSlot.INSURED_PRIMARY_PHONE_CELL))
+                .secondaryPhone(getFormValue(form, FormSlot.INSURED_SECONDARY_PHONE))
+                .secondaryPhoneType(getPhoneType(form, FormSlot.INSURED_SECONDARY_PHONE_HOME, FormSlot.INSURED_SECONDARY_PHONE_BUS, FormSlot.INSURED_SECONDARY_PHONE_CELL))
+                .primaryMailId(getFormValue(form, FormSlot.INSURED_PRIMARY_EMAIL))
+                .secondaryMailId(getFormValue(form,FormSlot.INSURED_SECONDARY_EMAIL))
                 .build();
 
         parties.add(claimant);
@@ -125,13 +212,13 @@ public class PdfExtractionService {
         return parties;
     }
 
-    private List<InvolvedParty> buildThirdParties(Map<String, String> form, List<InvolvedParty> parties) {
+    private List<InvolvedParty> buildThirdParties(FormValues form, List<InvolvedParty> parties) {
 
-        String ownerName = getFormValue(form, "Text48");
-        String driverName = getFormValue(form, "Text81");
+        String ownerName = getFormValue(form, FormSlot.OWNER_NAME);
+        String driverName = getFormValue(form, FormSlot.DRIVER_NAME);
 
         boolean sameAsOwner =
-                "Yes".equalsIgnoreCase(getFormValue(form, "Check Box55"));
+                form.isChecked(FormSlot.DRIVER_SAME_AS_OWNER);
 
         // --- OWNER ---
         if (ownerName != null && !ownerName.isBlank()) {
@@ -139,22 +226,22 @@ public class PdfExtractionService {
                     InvolvedParty.builder()
                             .name(ownerName)
                             .role("THIRD_PARTY_OWNER")
-                            .primaryPhone(getFormValue(form, "PHONE  CELL HOME BUS PRIMARY_5"))
+                            .primaryPhone(getFormValue(form, FormSlot.OWNER_PRIMARY_PHONE))
                             .primaryPhoneType(getPhoneType(
                                     form,
-                                    "Check Box49",
-                                    "Check Box50",
-                                    "Check Box51"
+                                    FormSlot.OWNER_PRIMARY_PHONE_HOME,
+                                    FormSlot.OWNER_PRIMARY_PHONE_BUS,
+                                    FormSlot.OWNER_PRIMARY_PHONE_CELL
                             ))
-                            .secondaryPhone(getFormValue(form, "PHONE  SECONDARY CELL HOME BUS_5"))
+                            .secondaryPhone(getFormValue(form, FormSlot.OWNER_SECONDARY_PHONE))
                             .secondaryPhoneType(getPhoneType(
                                     form,
-                                    "Check Box52",
-                                    "Check Box53",
-                                    "Check Box54"
+                                    FormSlot.OWNER_SECONDARY_PHONE_HOME,
+                                    FormSlot.OWNER_SECONDARY_PHONE_BUS,
+                                    FormSlot.OWNER_SECONDARY_PHONE_CELL
                             ))
-                            .primaryMailId(getFormValue(form, "PRIMARY EMAIL ADDRESS_5"))
-                            .secondaryMailId(getFormValue(form, "SECONDARY EMAIL ADDRESS_5"))
+                            .primaryMailId(getFormValue(form, FormSlot.OWNER_PRIMARY_EMAIL))
+                            .secondaryMailId(getFormValue(form, FormSlot.OWNER_SECONDARY_EMAIL))
                             .build()
             );
         }
@@ -168,22 +255,22 @@ public class PdfExtractionService {
                     InvolvedParty.builder()
                             .name(driverName)
                             .role("THIRD_PARTY_DRIVER")
-                            .primaryPhone(getFormValue(form, "PHONE  CELL HOME BUS PRIMARY_6"))
+                            .primaryPhone(getFormValue(form, FormSlot.DRIVER_PRIMARY_PHONE))
                             .primaryPhoneType(getPhoneType(
                                     form,
-                                    "Check Box56",
-                                    "Check Box57",
-                                    "Check Box58"
+                                    FormSlot.DRIVER_PRIMARY_PHONE_HOME,
+                                    FormSlot.DRIVER_PRIMARY_PHONE_BUS,
+                                    FormSlot.DRIVER_PRIMARY_PHONE_CELL
                             ))
-                            .secondaryPhone(getFormValue(form, "DRIVER SECONDARY PHONE"))
+                            .secondaryPhone(getFormValue(form, FormSlot.DRIVER_SECONDARY_PHONE))
                             .secondaryPhoneType(getPhoneType(
                                     form,
-                                    "Check Box59",
-                                    "Check Box60",
-                                    "Check Box61"
+                                    FormSlot.DRIVER_SECONDARY_PHONE_HOME,
+                                    FormSlot.DRIVER_SECONDARY_PHONE_BUS,
+                                    FormSlot.DRIVER_SECONDARY_PHONE_CELL
                             ))
-                            .primaryMailId(getFormValue(form, "PRIMARY EMAIL ADDRESS_6"))
-                            .secondaryMailId(getFormValue(form, "SECONDARY EMAIL ADDRESS_6"))
+                            .primaryMailId(getFormValue(form, FormSlot.DRIVER_PRIMARY_EMAIL))
+                            .secondaryMailId(getFormValue(form, FormSlot.DRIVER_SECONDARY_EMAIL))
                             .build()
             );
         }
@@ -192,15 +279,15 @@ public class PdfExtractionService {
     }
 
 
-    public AssetDetails.PhoneType getPhoneType(Map<String, String> form, String home, String bus, String cell) {
+    public AssetDetails.PhoneType getPhoneType(FormValues form, FormSlot home, FormSlot bus, FormSlot cell) {
 
-        if ("Yes".equalsIgnoreCase(form.get(home))) {
+        if (form.isChecked(home)) {
             return AssetDetails.PhoneType.HOME;
         }
-        if ("Yes".equalsIgnoreCase(form.get(bus))) {
+        if (form.isChecked(bus)) {
             return AssetDetails.PhoneType.BUS;
         }
-        if ("Yes".equalsIgnoreCase(form.get(cell))) {
+        if (form.isChecked(cell)) {
             return AssetDetails.PhoneType.CELL;
         }
 
@@ -211,13 +298,13 @@ public class PdfExtractionService {
     /**
      * Extract asset details
      */
-    private AssetDetails extractAssetDetails(Map<String, String> form) {
+    private AssetDetails extractAssetDetails(FormValues form) {
 
         AssetDetails assetDetails = AssetDetails.builder()
                 .assetType("VEHICLE")
-                .assetId(getFormValue(form, "PLATE NUMBER"))
-                .estimatedDamage(BigDecimal.valueOf(Double.parseDouble(getFormValue(form, "Text45"))))
-                .description(getFormValue(form, "DESCRIBE DAMAGE"))
+                .assetId(getFormValue(form, FormSlot.PLATE_NUMBER))
+                .estimatedDamage(ValueParsers.parseAmount(getFormValue(form, FormSlot.ESTIMATED_DAMAGE)))
+                .description(getFormValue(form, FormSlot.DAMAGE_DESCRIPTION))
                 .build();
 
         return assetDetails;
@@ -227,13 +314,13 @@ public class PdfExtractionService {
     /**
      * Extract claim type
      */
-    private ClaimType extractClaimType(Map<String, String> form) {
+    private ClaimType extractClaimType(FormValues form) {
 
-        if (getFormValue(form, "NAME  ADDRESSRow1") != null) {
+        if (getFormValue(form, FormSlot.INJURED_NAME_ADDRESS) != null) {
             return ClaimType.INJURY;
         }
 
-        return "Yes".equalsIgnoreCase(getFormValue(form, "Check Box46"))
+        return form.isChecked(FormSlot.PROPERTY_DAMAGE)
                 ? ClaimType.PROPERTY
                 : ClaimType.VEHICLE;
     }
@@ -242,8 +329,8 @@ public class PdfExtractionService {
     /**
      * Extract initial estimate
      */
-    private BigDecimal extractInitialEstimate(Map<String, String> form) {
-        return BigDecimal.valueOf(Double.parseDouble(getFormValue(form, "Text45")));
+    private BigDecimal extractInitialEstimate(FormValues form) {
+        return ValueParsers.parseAmount(getFormValue(form, FormSlot.ESTIMATED_DAMAGE));
     }
 
 
@@ -252,49 +339,35 @@ public class PdfExtractionService {
      * Parse date string
      */
     private LocalDate parseDate(String dateStr) {
-        DateTimeFormatter[] formatters = {
-                DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-                DateTimeFormatter.ofPattern("MM-dd-yyyy"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd"),
-                DateTimeFormatter.ofPattern("MM/dd/yy"),
-                DateTimeFormatter.ofPattern("MM-dd-yy")
-        };
-
-        for (DateTimeFormatter formatter : formatters) {
-            try {
-                return LocalDate.parse(dateStr.trim(), formatter);
-            } catch (DateTimeParseException ignored) {}
-        }
-        return null;
+        return ValueParsers.parseDate(dateStr);
     }
 
     /**
      * Parse time string
      */
-    private String parseTimeAsString(Map<String, String> form, String key) {
+    private String parseTimeAsString(FormValues form, FormSlot key) {
 
         String timeValue = getFormValue(form, key); // e.g. "10:30"
         if (timeValue == null || timeValue.isBlank()) {
             return null;
         }
 
-        if ("Yes".equalsIgnoreCase(getFormValue(form, "Check Box5"))) {
+        if (form.isChecked(FormSlot.LOSS_TIME_AM)) {
             return timeValue + " AM";
         }
 
-        if ("Yes".equalsIgnoreCase(getFormValue(form, "Check Box6"))) {
+        if (form.isChecked(FormSlot.LOSS_TIME_PM)) {
             return timeValue + " PM";
         }
 
         return null;
     }
 
-    public String buildLossLocation(Map<String, String> form) {
-        String street = getFormValue(form, "STREET LOCATION OF LOSS");
-        String cityStateZip = getFormValue(form,  "CITY STATE ZIP");
-        String country = getFormValue(form,  "COUNTRY");
-        String describeLocation = getFormValue(form, "DESCRIBE LOCATION OF LOSS IF NOT AT SPECIFIC STREET ADDRESS");
+    public String buildLossLocation(FormValues form) {
+        String street = getFormValue(form, FormSlot.LOSS_STREET);
+        String cityStateZip = getFormValue(form,  FormSlot.LOSS_CITY_STATE_ZIP);
+        String country = getFormValue(form,  FormSlot.LOSS_COUNTRY);
+        String describeLocation = getFormValue(form, FormSlot.LOSS_LOCATION_DESCRIPTION);
 
         List<String> parts = new ArrayList<>();
 
@@ -316,8 +389,8 @@ public class PdfExtractionService {
     }
 
 
-    private String getFormValue(Map<String, String> form, String key) {
-        return form.getOrDefault(key, "");
+    private String getFormValue(FormValues form, FormSlot slot) {
+        return form.get(slot);
     }
 
 
@@ -0,0 +1,37 @@
+package com.example.fnol_agent.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides which requests are profiled.
+ * <p>
+ * With {@code fnol.profiling.enabled=true}, a client can ask for a profile with {@code ?profile=true},
+ * and a {@code fnol.profiling.sample-rate} fraction of all other requests is profiled too. A
+ * profiled result carries the wall time, CPU time and allocation of each stage in its {@code profile}.
+ */
+@Component
+public class ProcessingProfiler {
+
+    private final boolean enabled;
+    private final double sampleRate;
+
+    public ProcessingProfiler(@Value("${fnol.profiling.enabled:false}") boolean enabled,
+                              @Value("${fnol.profiling.sample-rate:0}") double sampleRate) {
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+    }
+
+    /**
+     * Begin tracing the processing of a document
+     *
+     * @param requested whether the client asked for a profile
+     */
+    ProcessingTrace start(String filename, long fileSize, boolean requested) {
+        boolean profiled = enabled
+                && (requested || (sampleRate > 0 && ThreadLocalRandom.current().nextDouble() < sampleRate));
+        return new ProcessingTrace(StageTimers.FileType.of(filename).tag(), fileSize, profiled);
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * LRU cache of processing results keyed by document content and rules version.
+ * <p>
+ * The cache is bounded by the total weight of its entries in bytes, measured as the size of each
+ * result's JSON, rather than by entry count, since results range from a few hundred bytes to tens
+ * of kilobytes. Entries also expire after {@code fnol.cache.ttl-millis}.
+ */
+@Slf4j
+@Component
+public class ProcessingResultCache {
+
+    /** Approximate per-entry overhead of the key, node and bookkeeping */
+    private static final int ENTRY_OVERHEAD_BYTES = 256;
+
+    private final boolean enabled;
+    private final long maxWeightBytes;
+    private final long ttlMillis;
+    private final ObjectWriter weigher;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private final LinkedHashMap<String, Entry> entries = new LinkedHashMap<>(256, 0.75f, true);
+    private long weightBytes;
+
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter sizeEvictions;
+    private final Counter expiredEvictions;
+
+    private record Entry(ProcessingResult result, long weight, long expiresAtMillis) {
+    }
+
+    public ProcessingResultCache(MeterRegistry meterRegistry,
+                                 ObjectMapper objectMapper,
+                                 @Value("${fnol.cache.enabled:true}") boolean enabled,
+                                 @Value("${fnol.cache.max-weight-bytes:67108864}") long maxWeightBytes,
+                                 @Value("${fnol.cache.ttl-millis:3600000}") long ttlMillis) {
+        this.enabled = enabled;
+        this.maxWeightBytes = maxWeightBytes;
+        this.ttlMillis = ttlMillis;
+        this.weigher = objectMapper.writer();
+
+        this.hits = requests(meterRegistry, "hit");
+        this.misses = requests(meterRegistry, "miss");
+        this.sizeEvictions = evictions(meterRegistry, "size");
+        this.expiredEvictions = evictions(meterRegistry, "expired");
+        Gauge.builder("fnol.cache.weight", this, ProcessingResultCache::weightBytes)
+                .description("Total weight of cached processing results")
+                .baseUnit("bytes")
+                .register(meterRegistry);
+        Gauge.builder("fnol.cache.entries", this, ProcessingResultCache::size)
+                .description("Number of cached processing results")
+                .register(meterRegistry);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Cached result for a key, or null on a miss
+     */
+    public ProcessingResult get(String key) {
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry entry = entries.get(key);
+            if (entry != null && entry.expiresAtMillis() <= now) {
+                entries.remove(key);
+                weightBytes -= entry.weight();
+                expiredEvictions.increment();
+                entry = null;
+            }
+            (entry != null ? hits : misses).increment();
+            return entry != null ? entry.result() : null;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    /**
+     * Cache a result, evicting least recently used entries until the cache fits its weight bound
+     */
+    public void put(String key, ProcessingResult result) {
+        long weight;
+        try {
+            weight = weigher.writeValueAsBytes(result).length + key.length() * 2L + ENTRY_OVERHEAD_BYTES;
+        } catch (JsonProcessingException e) {
+            log.debug("Not caching result for {}: {}", key, e.getMessage());
+            return;
+        }
+        if (weight > maxWeightBytes) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+        lock.lock();
+        try {
+            Entry previous = entries.put(key, new Entry(result, weight, now + ttlMillis));
+            if (previous != null) {
+                weightBytes -= previous.weight();
+            }
+            weightBytes += weight;
+
+            Iterator<Map.Entry<String, Entry>> eldest = entries.entrySet().iterator();
+            while (weightBytes > maxWeightBytes && eldest.hasNext()) {
+                Entry evicted = eldest.next().getValue();
+                eldest.remove();
+                weightBytes -= evicted.weight();
+                (evicted.expiresAtMillis() <= now ? expiredEvictions : sizeEvictions).increment();
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double weightBytes() {
+        lock.lock();
+        try {
+            return weightBytes;
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private double size() {
+        lock.lock();
+        try {
+            return entries.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private static Counter requests(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("fnol.cache.requests")
+                .description("Processing result cache lookups, by result")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    private static Counter evictions(MeterRegistry meterRegistry, String cause) {
+        return Counter.builder("fnol.cache.evictions")
+                .description("Processing results dropped from the cache, by cause")
+                .tag("cause", cause)
+                .register(meterRegistry);
+    }
+}
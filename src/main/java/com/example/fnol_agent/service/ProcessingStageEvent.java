@@ -0,0 +1,37 @@
+package com.example.fnol_agent.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event for one stage, or sub-stage, of processing a document
+ */
+@Name("com.example.fnol.ProcessingStage")
+@Label("FNOL Processing Stage")
+@Category({"FNOL", "Processing"})
+@Description("One stage of processing an uploaded FNOL document")
+@StackTrace(false)
+final class ProcessingStageEvent extends Event {
+
+    @Label("Stage")
+    String stage;
+
+    @Label("Parent Stage")
+    @Description("Stage this sub-stage is part of; empty for a stage")
+    String parentStage;
+
+    @Label("File Type")
+    String fileType;
+
+    @Label("File Size")
+    @DataAmount
+    long fileSize;
+
+    @Label("Claim Id")
+    String claimId;
+}
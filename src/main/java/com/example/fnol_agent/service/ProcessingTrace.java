@@ -0,0 +1,198 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.StageProfile;
+
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Stages of processing one document, committed as JFR events and, when the request is profiled,
+ * measured as wall time, CPU time and heap allocation of the processing thread.
+ * <p>
+ * A stage may be split into sub-stages by the code it calls, through {@link #subStage(String)}; they
+ * are reported after their stage, which they are part of. JFR events cost almost nothing while no
+ * recording is running. A trace is confined to the thread processing the document and is current on
+ * that thread until it is closed.
+ */
+final class ProcessingTrace implements AutoCloseable {
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+
+    private static final ThreadLocal<ProcessingTrace> CURRENT = new ThreadLocal<>();
+
+    private final String fileType;
+    private final long fileSize;
+    private final List<StageProfile> profile;
+    private final DocumentProcessedEvent documentEvent = new DocumentProcessedEvent();
+    private final List<ProcessingStageEvent> subStageEvents = new ArrayList<>();
+    private final List<StageProfile> subStageProfile;
+    private ProcessingStageEvent stageEvent;
+    private ProcessingStageEvent subStageEvent;
+    private String claimId;
+
+    private Usage stageMark;
+    private Usage subStageMark;
+
+    ProcessingTrace(String fileType, long fileSize, boolean profiled) {
+        this.fileType = fileType;
+        this.fileSize = fileSize;
+        this.profile = profiled ? new ArrayList<>() : null;
+        this.subStageProfile = profiled ? new ArrayList<>() : null;
+        documentEvent.begin();
+        beginStage(profiled ? Usage.now() : null);
+        CURRENT.set(this);
+    }
+
+    /**
+     * End the current sub-stage of the trace current on this thread and begin the next; does nothing
+     * on threads without a trace, such as the PDF text workers
+     */
+    static void subStage(String subStage) {
+        subStage(subStage, null);
+    }
+
+    /**
+     * @param note caveat on the measured cost, shown with the sub-stage in a profile
+     */
+    static void subStage(String subStage, String note) {
+        ProcessingTrace trace = CURRENT.get();
+        if (trace != null) {
+            trace.endSubStage(subStage, note);
+        }
+    }
+
+    void claimId(String claimId) {
+        this.claimId = claimId;
+    }
+
+    /**
+     * End the current stage and begin the next
+     */
+    void stage(String stage) {
+        stageEvent.end();
+        commit(stageEvent, stage, null);
+        for (ProcessingStageEvent event : subStageEvents) {
+            commit(event, event.stage, stage);
+        }
+        subStageEvents.clear();
+
+        Usage now = null;
+        if (profile != null) {
+            now = Usage.now();
+            profile.add(stageMark.until(now).stage(stage).build());
+            for (StageProfile subStage : subStageProfile) {
+                subStage.setParent(stage);
+                profile.add(subStage);
+            }
+            subStageProfile.clear();
+        }
+        beginStage(now);
+    }
+
+    /**
+     * Commit the whole-document event and attach the profile, if any, to the result
+     */
+    ProcessingResult finish(ProcessingResult result) {
+        documentEvent.end();
+        if (documentEvent.shouldCommit()) {
+            documentEvent.fileType = fileType;
+            documentEvent.fileSize = fileSize;
+            documentEvent.claimId = result.getClaimId();
+            documentEvent.status = result.getStatus();
+            documentEvent.route = result.getRecommendedRoute();
+            documentEvent.missingFields = result.getMissingFields() != null ? result.getMissingFields().size() : 0;
+            documentEvent.extractedFieldGroups = extractedFieldGroups(result.getExtractedFields());
+            documentEvent.cacheHit = Boolean.TRUE.equals(result.getCacheHit());
+            documentEvent.commit();
+        }
+        return profile != null ? result.toBuilder().profile(List.copyOf(profile)).build() : result;
+    }
+
+    /**
+     * Number of field groups present in extracted fields; empty lists count as absent
+     */
+    static int extractedFieldGroups(ExtractedFields fields) {
+        if (fields == null) {
+            return 0;
+        }
+        int groups = 0;
+        groups += fields.getPolicyInformation() != null ? 1 : 0;
+        groups += fields.getIncidentInformation() != null ? 1 : 0;
+        groups += fields.getInvolvedParties() != null && !fields.getInvolvedParties().isEmpty() ? 1 : 0;
+        groups += fields.getAssetDetails() != null ? 1 : 0;
+        groups += fields.getClaimType() != null ? 1 : 0;
+        groups += fields.getInitialEstimate() != null ? 1 : 0;
+        groups += fields.getAttachments() != null && !fields.getAttachments().isEmpty() ? 1 : 0;
+        return groups;
+    }
+
+    @Override
+    public void close() {
+        if (CURRENT.get() == this) {
+            CURRENT.remove();
+        }
+    }
+
+    private void endSubStage(String subStage, String note) {
+        // Committed with the stage they belong to, which is named only when it ends
+        subStageEvent.end();
+        if (subStageEvent.shouldCommit()) {
+            subStageEvent.stage = subStage;
+            subStageEvents.add(subStageEvent);
+        }
+
+        Usage now = null;
+        if (profile != null) {
+            now = Usage.now();
+            subStageProfile.add(subStageMark.until(now).stage(subStage).note(note).build());
+        }
+        beginSubStage(now);
+    }
+
+    private void beginStage(Usage now) {
+        stageEvent = new ProcessingStageEvent();
+        stageEvent.begin();
+        stageMark = now;
+        beginSubStage(now);
+    }
+
+    private void beginSubStage(Usage now) {
+        subStageEvent = new ProcessingStageEvent();
+        subStageEvent.begin();
+        subStageMark = now;
+    }
+
+    private void commit(ProcessingStageEvent event, String stage, String parentStage) {
+        if (event.shouldCommit()) {
+            event.stage = stage;
+            event.parentStage = parentStage;
+            event.fileType = fileType;
+            event.fileSize = fileSize;
+            event.claimId = claimId;
+            event.commit();
+        }
+    }
+
+    /**
+     * Wall clock, CPU time and allocated bytes of the current thread; -1 where the JVM cannot tell
+     */
+    private record Usage(long wall, long cpu, long allocated) {
+
+        static Usage now() {
+            return new Usage(System.nanoTime(),
+                    THREADS.isCurrentThreadCpuTimeSupported() ? THREADS.getCurrentThreadCpuTime() : -1,
+                    THREADS.isThreadAllocatedMemoryEnabled() ? THREADS.getCurrentThreadAllocatedBytes() : -1);
+        }
+
+        StageProfile.StageProfileBuilder until(Usage end) {
+            return StageProfile.builder()
+                    .wallMicros((end.wall - wall) / 1_000)
+                    .cpuMicros(cpu >= 0 && end.cpu >= 0 ? (end.cpu - cpu) / 1_000 : null)
+                    .allocatedBytes(allocated >= 0 && end.allocated >= 0 ? end.allocated - allocated : null);
+        }
+    }
+}
@@ -0,0 +1,183 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.RoutingDecision;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Timers for each stage of processing a document, registered once at startup.
+ * <p>
+ * Every tag combination is built up front and looked up by array index, so timing a stage costs two
+ * {@link System#nanoTime()} calls and a histogram update, with no allocation. Timers publish
+ * histogram buckets, for percentiles computed by the monitoring system, and SLO buckets.
+ */
+@Component
+public class StageTimers {
+
+    private static final Duration[] SLOS = {
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5)
+    };
+    private static final String NONE = "none";
+
+    public enum FileType {
+        PDF("pdf"), TXT("txt");
+
+        private final String tag;
+
+        FileType(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+
+        public static FileType of(String filename) {
+            return filename != null && filename.toLowerCase().endsWith(".pdf") ? PDF : TXT;
+        }
+    }
+
+    /**
+     * Field groups extracted from text, in extraction order
+     */
+    public enum TxtField {
+        LABELS("labels"),
+        POLICY_INFORMATION("policyInformation"),
+        INCIDENT_INFORMATION("incidentInformation"),
+        INVOLVED_PARTIES("involvedParties"),
+        ASSET_DETAILS("assetDetails"),
+        CLAIM_TYPE("claimType"),
+        ATTACHMENTS("attachments"),
+        INITIAL_ESTIMATE("initialEstimate");
+
+        private final String tag;
+
+        TxtField(String tag) {
+            this.tag = tag;
+        }
+
+        public String tag() {
+            return tag;
+        }
+    }
+
+    private final Timer[] uploadRead = new Timer[FileType.values().length];
+    private final Timer[] cacheKey = new Timer[FileType.values().length];
+    private final Timer[] assessment = new Timer[FileType.values().length];
+    private final Timer[][] routing = new Timer[FileType.values().length][RoutingDecision.values().length];
+    private final Timer[][] txtFields = new Timer[FileType.values().length][TxtField.values().length];
+    private final Timer[] serialization = new Timer[RoutingDecision.values().length + 1];
+    private final Timer pdfLoad;
+    private final Timer acroFormFastPath;
+    private final Timer acroFormFull;
+
+    public StageTimers(MeterRegistry meterRegistry) {
+        for (FileType type : FileType.values()) {
+            int t = type.ordinal();
+            uploadRead[t] = timer(meterRegistry, "fnol.upload.read",
+                    "Reading an upload into memory or a scratch file", "type", type.tag);
+            cacheKey[t] = timer(meterRegistry, "fnol.cache.key",
+                    "Hashing an upload for the result cache", "type", type.tag);
+            assessment[t] = timer(meterRegistry, "fnol.assessment",
+                    "Assessing an extracted claim", "type", type.tag);
+            for (RoutingDecision route : RoutingDecision.values()) {
+                routing[t][route.ordinal()] = timer(meterRegistry, "fnol.routing",
+                        "Routing an assessed claim and generating its reasoning and warnings",
+                        "type", type.tag, "route", route.name());
+            }
+            for (TxtField field : TxtField.values()) {
+                txtFields[t][field.ordinal()] = timer(meterRegistry, "fnol.txt.field",
+                        "Extracting one group of fields from document text", "type", type.tag, "field", field.tag);
+            }
+        }
+        for (RoutingDecision route : RoutingDecision.values()) {
+            serialization[route.ordinal()] = serializationTimer(meterRegistry, route.name());
+        }
+        serialization[RoutingDecision.values().length] = serializationTimer(meterRegistry, NONE);
+
+        this.pdfLoad = timer(meterRegistry, "fnol.pdf.load", "Parsing a whole PDF document");
+        this.acroFormFastPath = timer(meterRegistry, "fnol.pdf.acroform.read",
+                "Reading a PDF form's fields", "path", "fast");
+        this.acroFormFull = timer(meterRegistry, "fnol.pdf.acroform.read",
+                "Reading a PDF form's fields", "path", "full");
+    }
+
+    public Timer uploadRead(FileType type) {
+        return uploadRead[type.ordinal()];
+    }
+
+    public Timer cacheKey(FileType type) {
+        return cacheKey[type.ordinal()];
+    }
+
+    public Timer assessment(FileType type) {
+        return assessment[type.ordinal()];
+    }
+
+    public Timer routing(FileType type, RoutingDecision route) {
+        return routing[type.ordinal()][route.ordinal()];
+    }
+
+    public Timer txtField(FileType type, TxtField field) {
+        return txtFields[type.ordinal()][field.ordinal()];
+    }
+
+    public Timer pdfLoad() {
+        return pdfLoad;
+    }
+
+    /**
+     * @param fastPath whether the form was read without loading the whole document
+     */
+    public Timer acroFormRead(boolean fastPath) {
+        return fastPath ? acroFormFastPath : acroFormFull;
+    }
+
+    /**
+     * Writing a response body, by the route of the result it carries
+     */
+    public Timer serialization(Object body) {
+        RoutingDecision route = null;
+        if (body instanceof ProcessingResult result && result.getRecommendedRoute() != null) {
+            try {
+                route = RoutingDecision.valueOf(result.getRecommendedRoute());
+            } catch (IllegalArgumentException e) {
+                // Not a known route; counted under none
+            }
+        }
+        return serialization[route != null ? route.ordinal() : RoutingDecision.values().length];
+    }
+
+    /**
+     * Record the time since a {@link System#nanoTime()} mark
+     *
+     * @return the current time, to mark the start of the next stage
+     */
+    public static long record(Timer timer, long startNanos) {
+        long now = System.nanoTime();
+        timer.record(now - startNanos, TimeUnit.NANOSECONDS);
+        return now;
+    }
+
+    private static Timer serializationTimer(MeterRegistry meterRegistry, String route) {
+        return timer(meterRegistry, "fnol.response.serialization", "Writing a JSON response body", "route", route);
+    }
+
+    private static Timer timer(MeterRegistry meterRegistry, String name, String description, String... tags) {
+        return Timer.builder(name)
+                .description(description)
+                .tags(tags)
+                .publishPercentileHistogram()
+                .serviceLevelObjectives(SLOS)
+                .minimumExpectedValue(Duration.ofNanos(100_000))
+                .maximumExpectedValue(Duration.ofSeconds(30))
+                .register(meterRegistry);
+    }
+}
@@ -1,17 +1,29 @@
 package com.example.fnol_agent.service;
 
+import com.example.fnol_agent.extraction.ContactScanner;
+import com.example.fnol_agent.extraction.ExtractionRuleRegistry;
+import com.example.fnol_agent.extraction.LabelIndex;
+import com.example.fnol_agent.extraction.LabelScanner;
+import com.example.fnol_agent.extraction.MatchBudget;
+import com.example.fnol_agent.extraction.MatchBudgetExceededException;
+import com.example.fnol_agent.extraction.TextSpans;
+import com.example.fnol_agent.extraction.TxtReader;
+import com.example.fnol_agent.extraction.ValueParsers;
 import com.example.fnol_agent.model.*;
+import com.example.fnol_agent.service.StageTimers.FileType;
+import com.example.fnol_agent.service.StageTimers.TxtField;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.IOException;
 import java.math.BigDecimal;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
-import java.time.format.DateTimeParseException;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.List;
+import java.util.Map;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
@@ -19,94 +31,248 @@ import java.util.regex.Pattern;
 @Service
 public class TxtExtractionService {
 
-    private static final Pattern POLICY_NUMBER_PATTERN = Pattern.compile(
-            "(?:policy\\s*(?:number|no\\.?|#)\\s*:?\\s*)([A-Z0-9-]+)",
-            Pattern.CASE_INSENSITIVE
-    );
+    private static final String POLICY_NUMBER = "policyInformation.policyNumber";
+    private static final String POLICYHOLDER = "policyInformation.policyholderName";
+    private static final String AGENCY_CUSTOMER_ID = "policyInformation.agencyCustomerId";
+    private static final String EFFECTIVE_DATE = "policyInformation.effectiveDate";
+    private static final String INCIDENT_DATE = "incidentInformation.incidentDate";
+    private static final String INCIDENT_TIME = "incidentInformation.incidentTime";
+    private static final String STREET = "incidentInformation.location.street";
+    private static final String CITY = "incidentInformation.location.city";
+    private static final String STATE = "incidentInformation.location.state";
+    private static final String ZIP = "incidentInformation.location.zip";
+    private static final String SCENE = "incidentInformation.location.scene";
+    private static final String DESCRIPTION = "incidentInformation.description";
+    private static final String CLAIMANT = "involvedParties.claimant";
+    private static final String INSURED = "involvedParties.insured";
+    private static final String THIRD_PARTY = "involvedParties.thirdParty";
+    private static final String DRIVER = "involvedParties.driver";
+    private static final String NAME = "involvedParties.name";
+    private static final String VIN = "assetDetails.vin";
+    private static final String PLATE_NUMBER = "assetDetails.plateNumber";
+    private static final String ESTIMATED_DAMAGE = "assetDetails.estimatedDamage";
+    private static final String DAMAGE_DESCRIPTION = "assetDetails.description";
+    private static final String INITIAL_ESTIMATE = "initialEstimate";
+    private static final String ATTACHMENTS = "attachments";
+    private static final String VEHICLE_DETAILS = "sections.vehicleDetails";
+    private static final String ASSET_DETAILS = "sections.assetDetails";
+    private static final String INJURY = "claimType.injury";
+    private static final String PROPERTY_DAMAGE = "claimType.propertyDamage";
+    private static final String VEHICLE = "claimType.vehicle";
+
+    private static final String DATE_VALUE = "values.date";
+    private static final String AMOUNT_VALUE = "values.amount";
+    private static final String LABEL_SCAN = "labels";
 
-    private static final Pattern POLICYHOLDER_PATTERN = Pattern.compile(
-            "(?:policyholder\\s*(?:name)?\\s*:?\\s*)([A-Za-z\\s.]+?)(?:\\n|,|\\||Policy)",
-            Pattern.CASE_INSENSITIVE
-    );
+    /**
+     * Trace sub-stage of each group of fields, named after its timer's field tag
+     */
+    private static final String[] FIELD_SUB_STAGES = Arrays.stream(TxtField.values())
+            .map(field -> "txt-" + field.tag())
+            .toArray(String[]::new);
 
-    private static final Pattern DATE_PATTERN = Pattern.compile(
-            "\\b(\\d{1,2}[-/]\\d{1,2}[-/]\\d{2,4}|\\d{4}[-/]\\d{1,2}[-/]\\d{1,2})\\b"
-    );
+    /**
+     * Rule keys whose labels can fill each mandatory field reported by {@link FNOLDocument#getMissingFields()}
+     */
+    private static final Map<String, String[]> MANDATORY_FIELD_LABELS = Map.of(
+            POLICY_NUMBER, new String[]{POLICY_NUMBER},
+            POLICYHOLDER, new String[]{POLICYHOLDER},
+            INCIDENT_DATE, new String[]{INCIDENT_DATE},
+            "incidentInformation.location", new String[]{STREET, CITY, STATE, ZIP, SCENE},
+            DESCRIPTION, new String[]{DESCRIPTION},
+            CLAIMANT, new String[]{CLAIMANT, INSURED, POLICYHOLDER, NAME},
+            "assetDetails.assetId", new String[]{VIN, PLATE_NUMBER},
+            ESTIMATED_DAMAGE, new String[]{ESTIMATED_DAMAGE},
+            INITIAL_ESTIMATE, new String[]{INITIAL_ESTIMATE, ESTIMATED_DAMAGE});
 
-    private static final Pattern TIME_PATTERN = Pattern.compile(
-            "\\b(\\d{1,2}:\\d{2}(?:\\s*(?:AM|PM))?)\\b",
-            Pattern.CASE_INSENSITIVE
-    );
+    /**
+     * Matching budget floor, so short documents are not held to a few thousand steps
+     */
+    private static final long MIN_MATCH_STEPS = 1_000_000L;
+
+    private final StageTimers stageTimers;
+    private final LabelScanner labelScanner;
+    private final Pattern policyNumberPattern;
+    private final Pattern policyholderPattern;
+    private final Pattern datePattern;
+    private final Pattern timePattern;
+    private final Pattern amountPattern;
+    private final Pattern vinPattern;
+    private final Pattern attachmentPattern;
+
+    private final int effectiveDateSectionLength;
+    private final int incidentDateSectionLength;
+    private final int incidentTimeSectionLength;
+    private final int claimantSectionLength;
+    private final int thirdPartySectionLength;
+    private final int driverSectionLength;
+    private final int attachmentSectionLength;
+    private final int estimatedDamageSectionLength;
+    private final int initialEstimateSectionLength;
+
+    private final long matchStepsPerChar;
+    private final long matchMaxMillis;
+    private final int maxChars;
+
+    public TxtExtractionService(ExtractionRuleRegistry rules,
+                                StageTimers stageTimers,
+                                @Value("${fnol.extraction.budget.steps-per-char:500}") long matchStepsPerChar,
+                                @Value("${fnol.extraction.budget.max-millis:2000}") long matchMaxMillis,
+                                @Value("${fnol.txt.max-chars:2000000}") int maxChars) {
+        rules.requireLabels(POLICY_NUMBER, POLICYHOLDER, AGENCY_CUSTOMER_ID, EFFECTIVE_DATE, INCIDENT_DATE,
+                INCIDENT_TIME, STREET, CITY, STATE, ZIP, SCENE, DESCRIPTION, CLAIMANT, INSURED, THIRD_PARTY,
+                DRIVER, NAME, VIN, PLATE_NUMBER, ESTIMATED_DAMAGE, DAMAGE_DESCRIPTION, INITIAL_ESTIMATE,
+                ATTACHMENTS, VEHICLE_DETAILS, ASSET_DETAILS, INJURY, PROPERTY_DAMAGE, VEHICLE);
+
+        this.stageTimers = stageTimers;
+        this.labelScanner = rules.scanner();
+        this.policyNumberPattern = rules.pattern(POLICY_NUMBER);
+        this.policyholderPattern = rules.pattern(POLICYHOLDER);
+        this.datePattern = rules.pattern(DATE_VALUE);
+        this.timePattern = rules.pattern(INCIDENT_TIME);
+        this.amountPattern = rules.pattern(AMOUNT_VALUE);
+        this.vinPattern = rules.pattern(VIN);
+        this.attachmentPattern = rules.pattern(ATTACHMENTS);
+
+        this.effectiveDateSectionLength = rules.sectionLength(EFFECTIVE_DATE);
+        this.incidentDateSectionLength = rules.sectionLength(INCIDENT_DATE);
+        this.incidentTimeSectionLength = rules.sectionLength(INCIDENT_TIME);
+        this.claimantSectionLength = rules.sectionLength(CLAIMANT);
+        this.thirdPartySectionLength = rules.sectionLength(THIRD_PARTY);
+        this.driverSectionLength = rules.sectionLength(DRIVER);
+        this.attachmentSectionLength = rules.sectionLength(ATTACHMENTS);
+        this.estimatedDamageSectionLength = rules.sectionLength(ESTIMATED_DAMAGE);
+        this.initialEstimateSectionLength = rules.sectionLength(INITIAL_ESTIMATE);
+
+        this.matchStepsPerChar = matchStepsPerChar;
+        this.matchMaxMillis = matchMaxMillis;
+        this.maxChars = maxChars;
+    }
 
-    private static final Pattern AMOUNT_PATTERN = Pattern.compile(
-            "(?:[$€£])\\s*([\\d,]+(?:\\.\\d{2})?)"
-    );
+    /**
+     * Extract FNOL document from text content
+     */
+    public FNOLDocument extractTxtFNOLDocument(MultipartFile file) throws IOException {
+        long mark = System.nanoTime();
+        TxtReader.TxtContent content = TxtReader.read(file::getInputStream, file.getSize(), maxChars);
+        StageTimers.record(stageTimers.uploadRead(FileType.TXT), mark);
+        ProcessingTrace.subStage("txt-read");
+        return extract(content.text(), file.getOriginalFilename(), content.truncated(), FileType.TXT);
+    }
 
-    private static final Pattern VIN_PATTERN = Pattern.compile(
-            "(?:VIN|Vehicle\\s*Identification\\s*Number)\\s*:?\\s*([A-HJ-NPR-Z0-9]{17})",
-            Pattern.CASE_INSENSITIVE
-    );
+    /**
+     * Extract FNOL document from text decoded from another format, such as the text layer of a PDF
+     */
+    public FNOLDocument extractFNOLDocument(CharSequence text, String source) {
+        boolean truncated = text.length() > maxChars;
+        return extract(truncated ? text.subSequence(0, maxChars) : text, source, truncated, FileType.PDF);
+    }
 
-    private static final Pattern PHONE_PATTERN = Pattern.compile(
-            "\\b\\d{3}[-.]?\\d{3}[-.]?\\d{4}\\b"
-    );
+    /**
+     * Check whether a text carries a field label for any of the missing fields, so extracting again
+     * with the text added may fill one of them. Fields not known to come from a label count as labelled.
+     */
+    public boolean labelsAnyOf(CharSequence text, List<String> missingFields) {
+        LabelIndex index = null;
+        for (String field : missingFields) {
+            String[] keys = MANDATORY_FIELD_LABELS.get(field);
+            if (keys == null) {
+                return true;
+            }
+            if (index == null) {
+                index = labelScanner.scan(text);
+            }
+            if (index.valueStarts(keys).length > 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private FNOLDocument extract(CharSequence text, String source, boolean truncated, FileType type) {
+        MatchBudget budget = MatchBudget.forText(text.length(), matchStepsPerChar, MIN_MATCH_STEPS, matchMaxMillis);
+        FNOLDocument.FNOLDocumentBuilder builder = FNOLDocument.builder();
+
+        try {
+            long mark = System.nanoTime();
+            TxtDocument txt = new TxtDocument(text, labelScanner.scan(budget.guard(text, LABEL_SCAN)),
+                    ContactScanner.phones(text), ContactScanner.emails(text), budget);
+            mark = recordField(type, TxtField.LABELS, mark);
+
+            builder.policyInformation(extractPolicyInformation(txt));
+            mark = recordField(type, TxtField.POLICY_INFORMATION, mark);
+            builder.incidentInformation(extractIncidentInformation(txt));
+            mark = recordField(type, TxtField.INCIDENT_INFORMATION, mark);
+            builder.involvedParties(extractInvolvedParties(txt));
+            mark = recordField(type, TxtField.INVOLVED_PARTIES, mark);
+            builder.assetDetails(extractAssetDetails(txt));
+            mark = recordField(type, TxtField.ASSET_DETAILS, mark);
+            builder.claimType(extractClaimType(txt));
+            mark = recordField(type, TxtField.CLAIM_TYPE, mark);
+            builder.attachments(extractAttachments(txt));
+            mark = recordField(type, TxtField.ATTACHMENTS, mark);
+            builder.initialEstimate(extractInitialEstimate(txt));
+            recordField(type, TxtField.INITIAL_ESTIMATE, mark);
+        } catch (MatchBudgetExceededException e) {
+            log.warn("Aborted text extraction of {} ({} chars): {}", source, text.length(), e.getMessage());
+            throw new PartialExtractionException("Extraction stopped early: " + e.getMessage(), builder.build(), e);
+        }
 
-    private static final Pattern EMAIL_PATTERN = Pattern.compile(
-            "\\b[A-Za-z0-9._%+-]+@[A-Za-z0-9.-]+\\.[A-Z|a-z]{2,}\\b"
-    );
+        if (truncated) {
+            log.warn("Truncated text of {} to {} chars", source, maxChars);
+            throw new PartialExtractionException(String.format(
+                    "Document exceeds %,d characters; only the beginning was extracted", maxChars),
+                    builder.build(), null);
+        }
+
+        return builder.build();
+    }
 
     /**
-     * Extract FNOL document from text content
+     * Time one group of fields. For a TXT upload the group is also a sub-stage of the trace; the text
+     * layer of a PDF is read between waves of pages, so its fields fall within {@code pdf-text-layer}.
      */
-    public FNOLDocument extractTxtFNOLDocument(MultipartFile file) throws IOException {
-        String text = new String(file.getBytes());
-
-        FNOLDocument document = FNOLDocument.builder()
-                .policyInformation(extractPolicyInformation(text))
-                .incidentInformation(extractIncidentInformation(text))
-                .involvedParties(extractInvolvedParties(text))
-                .assetDetails(extractAssetDetails(text))
-                .claimType(extractClaimType(text))
-                .attachments(extractAttachments(text))
-                .initialEstimate(extractInitialEstimate(text))
-                .build();
-
-        return document;
+    private long recordField(FileType type, TxtField field, long mark) {
+        if (type == FileType.TXT) {
+            ProcessingTrace.subStage(FIELD_SUB_STAGES[field.ordinal()]);
+        }
+        return StageTimers.record(stageTimers.txtField(type, field), mark);
     }
 
     /**
      * Extract policy information
      */
-    private PolicyInformation extractPolicyInformation(String text) {
+    private PolicyInformation extractPolicyInformation(TxtDocument txt) {
         PolicyInformation.PolicyInformationBuilder builder = PolicyInformation.builder();
 
         // Extract policy number
-        Matcher policyMatcher = POLICY_NUMBER_PATTERN.matcher(text);
-        if (policyMatcher.find()) {
-            String policyNumber = policyMatcher.group(1).trim();
+        String policyNumber = extractToken(txt, policyNumberPattern, POLICY_NUMBER);
+        if (policyNumber != null) {
             builder.policyNumber(policyNumber);
         }
 
         // Extract policyholder name
-        Matcher holderMatcher = POLICYHOLDER_PATTERN.matcher(text);
-        if (holderMatcher.find()) {
-            String policyholderName = holderMatcher.group(1).trim();
-            builder.policyholderName(policyholderName);
+        String policyholderName = txt.index.value(POLICYHOLDER);
+        if (policyholderName != null) {
+            int comma = policyholderName.indexOf(',');
+            if (comma >= 0) {
+                policyholderName = policyholderName.substring(0, comma).trim();
+            }
+            if (!policyholderName.isEmpty() && txt.matcher(policyholderPattern, policyholderName, POLICYHOLDER).matches()) {
+                builder.policyholderName(policyholderName);
+            }
         }
 
         // Extract agency customer ID (if present)
-        String agencyId = extractFieldValue(text, "(?:Agency Customer ID|Customer ID)");
+        String agencyId = txt.index.value(AGENCY_CUSTOMER_ID);
         if (agencyId != null && !agencyId.isBlank()) {
             builder.agencyCustomerId(agencyId);
         }
 
         // Extract effective dates
-        String effectiveDatesSection = extractSection(text, "(?:Effective Date|Effective Dates)", 200);
-        List<LocalDate> dates = extractDates(effectiveDatesSection);
-
-        if (!dates.isEmpty()) {
-            builder.effectiveDate(dates.get(0));
-        } else {
+        LocalDate effectiveDate = extractFirstDate(txt, txt.section(EFFECTIVE_DATE, effectiveDateSectionLength, true));
+        if (effectiveDate != null) {
+            builder.effectiveDate(effectiveDate);
         }
 
         return builder.build();
@@ -115,33 +281,30 @@ public class TxtExtractionService {
     /**
      * Extract incident information
      */
-    private IncidentInformation extractIncidentInformation(String text) {
+    private IncidentInformation extractIncidentInformation(TxtDocument txt) {
 
         IncidentInformation.IncidentInformationBuilder builder = IncidentInformation.builder();
 
         // Extract incident date
-        if (text.contains("Incident Date") || text.contains("Date of Loss")) {
-            String section = extractSection(text, "(?:Incident Date|Date of Loss)", 200);
-            List<LocalDate> dates = extractDates(section);
-            if (!dates.isEmpty()) {
-                builder.incidentDate(dates.get(0));
-            }
+        int[] dateSection = txt.section(INCIDENT_DATE, incidentDateSectionLength, false);
+        if (dateSection != null) {
+            builder.incidentDate(extractFirstDate(txt, dateSection));
         }
 
         // Extract incident time
-        String timeSection = extractSection(text, "(?:Time|Incident Time)", 100);
-        Matcher timeMatcher = TIME_PATTERN.matcher(timeSection);
+        int[] timeSection = txt.section(INCIDENT_TIME, incidentTimeSectionLength, true);
+        Matcher timeMatcher = txt.matcher(timePattern, INCIDENT_TIME).region(timeSection[0], timeSection[1]);
         if (timeMatcher.find()) {
             String timeStr = timeMatcher.group(1).trim();
             builder.incidentTime(timeStr);
         }
 
         // Extract location - build comprehensive location string
-        String location = buildLossLocation(text);
+        String location = buildLossLocation(txt);
         builder.location(location);
 
         // Extract description
-        String description = extractDescription(text);
+        String description = txt.index.block(DESCRIPTION, CLAIMANT, THIRD_PARTY, VEHICLE_DETAILS, ASSET_DETAILS);
         builder.description(description);
 
         return builder.build();
@@ -150,14 +313,14 @@ public class TxtExtractionService {
     /**
      * Build loss location from multiple potential fields
      */
-    private String buildLossLocation(String text) {
+    private String buildLossLocation(TxtDocument txt) {
         List<String> locationParts = new ArrayList<>();
 
         // Try to extract structured location
-        String street = extractFieldValue(text, "(?:Street|Address)");
-        String city = extractFieldValue(text, "(?:City|Location)");
-        String state = extractFieldValue(text, "(?:State)");
-        String zip = extractFieldValue(text, "(?:Zip|ZIP|Postal Code)");
+        String street = txt.index.value(STREET);
+        String city = txt.index.value(CITY);
+        String state = txt.index.value(STATE);
+        String zip = txt.index.value(ZIP);
 
         // Build location from parts
         if (street != null && !street.isBlank()) {
@@ -178,28 +341,31 @@ public class TxtExtractionService {
         }
 
         // Fallback to general location extraction
-        String location = extractFieldValue(text, "(?:Location|Address|Scene)");
+        String location = txt.index.value(SCENE);
         return location != null ? location : "";
     }
 
     /**
      * Extract involved parties
      */
-    private List<InvolvedParty> extractInvolvedParties(String text) {
+    private List<InvolvedParty> extractInvolvedParties(TxtDocument txt) {
         List<InvolvedParty> parties = new ArrayList<>();
 
         // Extract claimant/insured
-        String claimantName = extractFieldValue(text, "(?:Claimant|Insured|Policyholder)(?:\\s+(?:Name|Information))?");
+        int[] claimantSection = txt.section(new String[]{CLAIMANT, INSURED}, claimantSectionLength, true);
+        String claimantName = txt.index.value(CLAIMANT, INSURED, POLICYHOLDER);
+        if (claimantName == null) {
+            claimantName = txt.index.valueIn(claimantSection[0], claimantSection[1], NAME);
+        }
         if (claimantName != null && !claimantName.isBlank()) {
 
             // Extract phones
-            String claimantSection = extractSection(text, "(?:Claimant|Insured)", 300);
-            List<String> phones = extractPhones(claimantSection);
+            List<String> phones = txt.phonesIn(claimantSection);
             String primaryPhone = phones.size() > 0 ? phones.get(0) : null;
             String secondaryPhone = phones.size() > 1 ? phones.get(1) : null;
 
             // Extract emails
-            List<String> emails = extractEmails(claimantSection);
+            List<String> emails = txt.emailsIn(claimantSection);
             String primaryEmail = emails.size() > 0 ? emails.get(0) : null;
             String secondaryEmail = emails.size() > 1 ? emails.get(1) : null;
 
@@ -223,7 +389,7 @@ public class TxtExtractionService {
         }
 
         // Extract third party information
-        buildThirdParties(text, parties);
+        buildThirdParties(txt, parties);
 
         log.info("Extracted {} involved parties", parties.size());
         return parties;
@@ -232,15 +398,15 @@ public class TxtExtractionService {
     /**
      * Build third party information (owner and driver if different)
      */
-    private void buildThirdParties(String text, List<InvolvedParty> parties) {
+    private void buildThirdParties(TxtDocument txt, List<InvolvedParty> parties) {
 
         // Extract third party owner
-        String ownerSection = extractSection(text, "(?:Third Party|Other (?:Vehicle|Driver)|Owner)", 400);
-        String ownerName = extractFieldValue(ownerSection, "(?:Name|Third Party)");
+        int[] ownerSection = txt.section(THIRD_PARTY, thirdPartySectionLength, true);
+        String ownerName = txt.index.valueIn(ownerSection[0], ownerSection[1], NAME, THIRD_PARTY);
 
         if (ownerName != null && !ownerName.isBlank()) {
-            List<String> ownerPhones = extractPhones(ownerSection);
-            List<String> ownerEmails = extractEmails(ownerSection);
+            List<String> ownerPhones = txt.phonesIn(ownerSection);
+            List<String> ownerEmails = txt.emailsIn(ownerSection);
 
             InvolvedParty owner = InvolvedParty.builder()
                     .name(ownerName)
@@ -257,14 +423,14 @@ public class TxtExtractionService {
         }
 
         // Check if driver is different from owner
-        String driverSection = extractSection(text, "(?:Driver)", 300);
-        String driverName = extractFieldValue(driverSection, "(?:Driver)");
+        int[] driverSection = txt.section(DRIVER, driverSectionLength, true);
+        String driverName = txt.index.valueIn(driverSection[0], driverSection[1], DRIVER);
 
         if (driverName != null && !driverName.isBlank() &&
                 (ownerName == null || !driverName.equals(ownerName))) {
 
-            List<String> driverPhones = extractPhones(driverSection);
-            List<String> driverEmails = extractEmails(driverSection);
+            List<String> driverPhones = txt.phonesIn(driverSection);
+            List<String> driverEmails = txt.emailsIn(driverSection);
 
             InvolvedParty driver = InvolvedParty.builder()
                     .name(driverName)
@@ -285,37 +451,35 @@ public class TxtExtractionService {
     /**
      * Extract asset details
      */
-    private AssetDetails extractAssetDetails(String text) {
+    private AssetDetails extractAssetDetails(TxtDocument txt) {
 
         AssetDetails.AssetDetailsBuilder builder = AssetDetails.builder();
 
         // Determine asset type
         String assetType = "VEHICLE"; // Default
-        if (text.toLowerCase().contains("property damage") &&
-                !text.toLowerCase().contains("vehicle")) {
+        if (isPropertyDamageOnly(txt)) {
             assetType = "PROPERTY";
         }
         builder.assetType(assetType);
 
         // Extract VIN or asset ID
-        Matcher vinMatcher = VIN_PATTERN.matcher(text);
-        if (vinMatcher.find()) {
-            String vin = vinMatcher.group(1);
+        String vin = extractToken(txt, vinPattern, VIN);
+        if (vin != null) {
             builder.assetId(vin);
         } else {
             // Try to extract plate number as asset ID
-            String plateNumber = extractFieldValue(text, "(?:Plate Number|License Plate)");
+            String plateNumber = txt.index.value(PLATE_NUMBER);
             if (plateNumber != null && !plateNumber.isBlank()) {
                 builder.assetId(plateNumber);
             }
         }
 
         // Extract estimated damage
-        BigDecimal damage = extractAmount(text, "(?:Estimated Damage|Damage Estimate)");
+        BigDecimal damage = extractAmount(txt, ESTIMATED_DAMAGE, estimatedDamageSectionLength, true);
         builder.estimatedDamage(damage);
 
         // Extract damage description
-        String damageDesc = extractFieldValue(text, "(?:Describe Damage|Damage Description)");
+        String damageDesc = txt.index.value(DAMAGE_DESCRIPTION);
         builder.description(damageDesc);
         return builder.build();
     }
@@ -323,14 +487,12 @@ public class TxtExtractionService {
     /**
      * Extract claim type
      */
-    private ClaimType extractClaimType(String text) {
-
-        String lowerText = text.toLowerCase();
+    private ClaimType extractClaimType(TxtDocument txt) {
 
         ClaimType claimType;
-        if (lowerText.contains("injury") || lowerText.contains("bodily harm")) {
+        if (txt.index.contains(INJURY)) {
             claimType = ClaimType.INJURY;
-        } else if (lowerText.contains("property damage") && !lowerText.contains("vehicle")) {
+        } else if (isPropertyDamageOnly(txt)) {
             claimType = ClaimType.PROPERTY;
         } else {
             claimType = ClaimType.VEHICLE;
@@ -338,25 +500,23 @@ public class TxtExtractionService {
         return claimType;
     }
 
+    private boolean isPropertyDamageOnly(TxtDocument txt) {
+        return txt.index.contains(PROPERTY_DAMAGE) && !txt.index.contains(VEHICLE);
+    }
+
     /**
      * Extract attachments list
      */
-    private List<String> extractAttachments(String text) {
+    private List<String> extractAttachments(TxtDocument txt) {
         List<String> attachments = new ArrayList<>();
 
-        String attachmentSection = extractSection(text, "(?:Attachments|Supporting Documents)", 200);
-        if (attachmentSection != null) {
-            Pattern attachmentPattern = Pattern.compile(
-                    "(?:Photos?|Pictures?|Reports?|Documents?)(?:\\s+(?:of|\\()?)?([^,\\n]+)",
-                    Pattern.CASE_INSENSITIVE
-            );
-            Matcher matcher = attachmentPattern.matcher(attachmentSection);
-
-            while (matcher.find()) {
-                String attachment = matcher.group(0).trim();
-                if (!attachment.isEmpty()) {
-                    attachments.add(attachment);
-                }
+        int[] attachmentSection = txt.section(ATTACHMENTS, attachmentSectionLength, true);
+        Matcher matcher = txt.matcher(attachmentPattern, ATTACHMENTS).region(attachmentSection[0], attachmentSection[1]);
+
+        while (matcher.find()) {
+            String attachment = matcher.group(0).trim();
+            if (!attachment.isEmpty()) {
+                attachments.add(attachment);
             }
         }
         return attachments;
@@ -365,162 +525,129 @@ public class TxtExtractionService {
     /**
      * Extract initial estimate
      */
-    private BigDecimal extractInitialEstimate(String text) {
-        BigDecimal estimate = extractAmount(text, "(?:Initial Estimate|Estimate|Claim Amount)");
+    private BigDecimal extractInitialEstimate(TxtDocument txt) {
+        BigDecimal estimate = extractAmount(txt, INITIAL_ESTIMATE, initialEstimateSectionLength, false);
+        if (estimate == null) {
+            // "Estimated Damage" used to satisfy the bare "Estimate" label
+            estimate = extractAmount(txt, ESTIMATED_DAMAGE, estimatedDamageSectionLength, true);
+        }
         return estimate;
     }
 
     /**
-     * Extract dates from text
+     * Extract the first date inside a section
      */
-    private List<LocalDate> extractDates(String text) {
-        List<LocalDate> dates = new ArrayList<>();
-        Matcher matcher = DATE_PATTERN.matcher(text);
+    private LocalDate extractFirstDate(TxtDocument txt, int[] section) {
+        Matcher matcher = txt.matcher(datePattern, DATE_VALUE).region(section[0], section[1]);
 
         while (matcher.find()) {
-            String dateStr = matcher.group(1);
-            try {
-                LocalDate date = parseDate(dateStr);
-                if (date != null) {
-                    dates.add(date);
-                }
-            } catch (Exception e) {
+            LocalDate date = ValueParsers.parseDate(txt.text, matcher.start(1), matcher.end(1));
+            if (date != null) {
+                return date;
             }
         }
-        return dates;
-    }
-
-    /**
-     * Parse date string with multiple format support
-     */
-    private LocalDate parseDate(String dateStr) {
-        if (dateStr == null || dateStr.isBlank()) {
-            return null;
-        }
-
-        DateTimeFormatter[] formatters = {
-                DateTimeFormatter.ofPattern("MM/dd/yyyy"),
-                DateTimeFormatter.ofPattern("MM-dd-yyyy"),
-                DateTimeFormatter.ofPattern("yyyy-MM-dd"),
-                DateTimeFormatter.ofPattern("yyyy/MM/dd"),
-                DateTimeFormatter.ofPattern("MM/dd/yy"),
-                DateTimeFormatter.ofPattern("MM-dd-yy")
-        };
-
-        for (DateTimeFormatter formatter : formatters) {
-            try {
-                return LocalDate.parse(dateStr.trim(), formatter);
-            } catch (DateTimeParseException e) {
-                // Try next formatter
-            }
-        }
-
         return null;
     }
 
     /**
-     * Extract monetary amount
+     * Extract monetary amount following a label, or the first amount shortly after it
      */
-    private BigDecimal extractAmount(String text, String fieldPattern) {
-        Pattern pattern = Pattern.compile(
-                fieldPattern + "\\s*:?\\s*" + AMOUNT_PATTERN.pattern(),
-                Pattern.CASE_INSENSITIVE
-        );
-        Matcher matcher = pattern.matcher(text);
-
-        if (matcher.find()) {
-            String amountStr = matcher.group(matcher.groupCount()).replace(",", "");
-            try {
-                return new BigDecimal(amountStr);
-            } catch (NumberFormatException e) {
+    private BigDecimal extractAmount(TxtDocument txt, String key, int sectionLength, boolean wholeTextFallback) {
+        Matcher matcher = txt.matcher(amountPattern, AMOUNT_VALUE);
+
+        for (int valueStart : txt.index.valueStarts(key)) {
+            matcher.region(valueStart, txt.text.length());
+            if (matcher.lookingAt()) {
+                BigDecimal amount = ValueParsers.parseAmount(txt.text, matcher.start(1), matcher.end(1));
+                if (amount != null) {
+                    return amount;
+                }
             }
         }
 
         // Try to find any amount near the field
-        String section = extractSection(text, fieldPattern, 100);
-        Matcher amountMatcher = AMOUNT_PATTERN.matcher(section);
-        if (amountMatcher.find()) {
-            String amountStr = amountMatcher.group(1).replace(",", "");
-            try {
-                return new BigDecimal(amountStr);
-            } catch (NumberFormatException e) {
+        int[] section = txt.section(key, sectionLength, wholeTextFallback);
+        if (section != null) {
+            matcher.region(section[0], section[1]);
+            if (matcher.find()) {
+                return ValueParsers.parseAmount(txt.text, matcher.start(1), matcher.end(1));
             }
         }
         return null;
     }
 
     /**
-     * Extract field value using pattern
+     * Extract the token directly following a label
      */
-    private String extractFieldValue(String text, String fieldName) {
-        Pattern pattern = Pattern.compile(
-                fieldName + "\\s*:?\\s*([A-Za-z0-9\\s.,'-]+?)(?:\\n|\\||$)",
-                Pattern.CASE_INSENSITIVE
-        );
-        Matcher matcher = pattern.matcher(text);
-
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    private String extractToken(TxtDocument txt, Pattern tokenPattern, String key) {
+        Matcher matcher = txt.matcher(tokenPattern, key);
+        for (int valueStart : txt.index.valueStarts(key)) {
+            matcher.region(valueStart, txt.text.length());
+            if (matcher.lookingAt()) {
+                return matcher.group();
+            }
         }
         return null;
     }
 
     /**
-     * Extract description
+     * Text of a TXT claim with its label index and contact details, each computed in one pass
      */
-    private String extractDescription(String text) {
-        Pattern pattern = Pattern.compile(
-                "(?:Description|Incident Description|Details)\\s*:?\\s*(.+?)(?:\\n\\n|Claimant|Third Party|Vehicle Details|Asset Details|$)",
-                Pattern.CASE_INSENSITIVE | Pattern.DOTALL
-        );
-        Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            return matcher.group(1).trim();
+    private static final class TxtDocument {
+
+        private final CharSequence text;
+        private final LabelIndex index;
+        private final TextSpans phones;
+        private final TextSpans emails;
+        private final MatchBudget budget;
+
+        private TxtDocument(CharSequence text, LabelIndex index, TextSpans phones, TextSpans emails, MatchBudget budget) {
+            this.text = text;
+            this.index = index;
+            this.phones = phones;
+            this.emails = emails;
+            this.budget = budget;
         }
-        return null;
-    }
 
-    /**
-     * Extract section of text around a pattern
-     */
-    private String extractSection(String text, String startPattern, int length) {
-        Pattern pattern = Pattern.compile(startPattern, Pattern.CASE_INSENSITIVE);
-        Matcher matcher = pattern.matcher(text);
-        if (matcher.find()) {
-            int start = matcher.start();
-            int end = Math.min(start + length, text.length());
-            return text.substring(start, end);
+        /**
+         * Matcher over the document text, charging every character read to the document budget
+         */
+        private Matcher matcher(Pattern pattern, String rule) {
+            return matcher(pattern, text, rule);
         }
 
-        return text;
-    }
-
-    /**
-     * Extract all phone numbers from text
-     */
-    private List<String> extractPhones(String text) {
-        List<String> phones = new ArrayList<>();
-        Matcher matcher = PHONE_PATTERN.matcher(text);
-
-        while (matcher.find()) {
-            phones.add(matcher.group());
+        private Matcher matcher(Pattern pattern, CharSequence input, String rule) {
+            return pattern.matcher(budget.guard(input, rule));
         }
 
-        return phones;
-    }
+        /**
+         * Window of {@code length} chars starting at the first occurrence of the key; when the key does not
+         * occur, the whole text if {@code wholeTextFallback} is set, otherwise null
+         */
+        private int[] section(String key, int length, boolean wholeTextFallback) {
+            return section(new String[]{key}, length, wholeTextFallback);
+        }
 
-    /**
-     * Extract all email addresses from text
-     */
-    private List<String> extractEmails(String text) {
-        List<String> emails = new ArrayList<>();
-        Matcher matcher = EMAIL_PATTERN.matcher(text);
+        private int[] section(String[] keys, int length, boolean wholeTextFallback) {
+            int start = index.position(keys);
+            if (start < 0) {
+                return wholeTextFallback ? new int[]{0, text.length()} : null;
+            }
+            return new int[]{start, Math.min(start + length, text.length())};
+        }
 
-        while (matcher.find()) {
-            emails.add(matcher.group());
+        /**
+         * Primary and secondary phone numbers inside a section
+         */
+        private List<String> phonesIn(int[] section) {
+            return phones.within(text, section[0], section[1], 2);
         }
 
-        return emails;
+        /**
+         * Primary and secondary email addresses inside a section
+         */
+        private List<String> emailsIn(int[] section) {
+            return emails.within(text, section[0], section[1], 2);
+        }
     }
-
-}
\ No newline at end of file
+}
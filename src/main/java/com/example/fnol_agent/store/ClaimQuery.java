@@ -0,0 +1,22 @@
+package com.example.fnol_agent.store;
+
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.RoutingDecision;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Set;
+
+/**
+ * Filters and page of a claim query; empty sets and null bounds match everything
+ */
+public record ClaimQuery(Set<RoutingDecision> routes,
+                         Set<String> statuses,
+                         Set<ClaimType> claimTypes,
+                         LocalDate incidentFrom,
+                         LocalDate incidentTo,
+                         BigDecimal minDamage,
+                         BigDecimal maxDamage,
+                         int page,
+                         int size) {
+}
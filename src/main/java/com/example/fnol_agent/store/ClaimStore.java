@@ -0,0 +1,304 @@
+package com.example.fnol_agent.store;
+
+import com.example.fnol_agent.journal.ProcessedClaimJournal;
+import com.example.fnol_agent.model.ClaimPage;
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.RoutingDecision;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectReader;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.dataformat.smile.SmileFactory;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory store of the most recent processed claims, queried through secondary indexes.
+ * <p>
+ * Claims live in a ring of {@code fnol.claims.max-claims} slots, held as Smile (binary JSON) and
+ * decoded only when returned; the oldest claim gives way to the newest. Route, status and claim
+ * type are indexed as a bitmap of slots per value, incident date and estimated damage as
+ * {@link RangeIndex range indexes}, so a query intersects bitmaps rather than scanning claims.
+ * Incident dates are binned by day, the granularity of date queries, so a date range never cuts
+ * through a bin and no claim is checked individually.
+ * When the claim journal is enabled, the store is refilled from it at startup.
+ */
+@Slf4j
+@Component
+public class ClaimStore {
+
+    private final boolean enabled;
+    private final int capacity;
+    private final ObjectWriter writer;
+    private final ObjectReader reader;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final byte[][] claims;
+    private final BitSet live = new BitSet();
+    private final Map<RoutingDecision, BitSet> byRoute = new EnumMap<>(RoutingDecision.class);
+    private final Map<ClaimType, BitSet> byClaimType = new EnumMap<>(ClaimType.class);
+    private final Map<String, BitSet> byStatus = new HashMap<>();
+    private final RoutingDecision[] routes;
+    private final ClaimType[] claimTypes;
+    private final String[] statuses;
+    private final RangeIndex byIncidentDate;
+    private final RangeIndex byEstimatedDamage;
+    private long added;
+
+    public ClaimStore(MeterRegistry meterRegistry,
+                      ObjectMapper objectMapper,
+                      ProcessedClaimJournal claimJournal,
+                      @Value("${fnol.claims.enabled:true}") boolean enabled,
+                      @Value("${fnol.claims.max-claims:1000000}") int maxClaims) throws IOException {
+        this.enabled = enabled;
+        this.capacity = enabled ? maxClaims : 1;
+
+        ObjectMapper smileMapper = objectMapper.copyWith(new SmileFactory());
+        this.writer = smileMapper.writerFor(ProcessingResult.class);
+        // Derived flags such as IncidentInformation.complete are written but have no setter to read back
+        this.reader = smileMapper.readerFor(ProcessingResult.class)
+                .without(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES);
+
+        this.claims = new byte[capacity][];
+        this.routes = new RoutingDecision[capacity];
+        this.claimTypes = new ClaimType[capacity];
+        this.statuses = new String[capacity];
+        this.byIncidentDate = new RangeIndex(capacity, epochDay -> epochDay, epochDay -> epochDay + 1);
+        this.byEstimatedDamage = new RangeIndex(capacity, ClaimStore::damageBinOf, ClaimStore::nextDamageBin);
+
+        Gauge.builder("fnol.claims.stored", this, ClaimStore::size)
+                .description("Processed claims held in the claim store")
+                .register(meterRegistry);
+
+        if (enabled && claimJournal.isEnabled()) {
+            long start = System.nanoTime();
+            long replayed = claimJournal.replay(this::add);
+            log.info("Loaded {} of {} journaled claims into the claim store in {} ms",
+                    size(), replayed, (System.nanoTime() - start) / 1_000_000);
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Store a processed claim; results without a claim id, such as rejected uploads, are ignored
+     */
+    public void add(ProcessingResult result) {
+        if (!enabled || result.getClaimId() == null) {
+            return;
+        }
+        byte[] encoded;
+        try {
+            encoded = writer.writeValueAsBytes(result);
+        } catch (JsonProcessingException e) {
+            log.warn("Could not store claim {}: {}", result.getClaimId(), e.getMessage());
+            return;
+        }
+
+        ExtractedFields fields = result.getExtractedFields();
+        LocalDate incidentDate = fields != null && fields.getIncidentInformation() != null
+                ? fields.getIncidentInformation().getIncidentDate() : null;
+        BigDecimal estimatedDamage = fields != null && fields.getAssetDetails() != null
+                ? fields.getAssetDetails().getEstimatedDamage() : null;
+
+        lock.writeLock().lock();
+        try {
+            int slot = (int) (added++ % capacity);
+            if (claims[slot] != null) {
+                evict(slot);
+            }
+
+            claims[slot] = encoded;
+            live.set(slot);
+            routes[slot] = routeOf(result.getRecommendedRoute());
+            claimTypes[slot] = fields != null ? fields.getClaimType() : null;
+            statuses[slot] = result.getStatus();
+            if (routes[slot] != null) {
+                byRoute.computeIfAbsent(routes[slot], route -> new BitSet()).set(slot);
+            }
+            if (claimTypes[slot] != null) {
+                byClaimType.computeIfAbsent(claimTypes[slot], type -> new BitSet()).set(slot);
+            }
+            if (statuses[slot] != null) {
+                byStatus.computeIfAbsent(statuses[slot], status -> new BitSet()).set(slot);
+            }
+            byIncidentDate.set(slot, incidentDate != null ? incidentDate.toEpochDay() : null);
+            byEstimatedDamage.set(slot, estimatedDamage != null ? cents(estimatedDamage) : null);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Claims matching a query, newest first
+     */
+    public ClaimPage query(ClaimQuery query) throws IOException {
+        List<byte[]> page = new ArrayList<>(query.size());
+        long total;
+
+        lock.readLock().lock();
+        try {
+            BitSet matches = (BitSet) live.clone();
+            and(matches, byRoute, query.routes());
+            and(matches, byClaimType, query.claimTypes());
+            and(matches, byStatus, query.statuses());
+            if (query.incidentFrom() != null || query.incidentTo() != null) {
+                matches.and(byIncidentDate.range(
+                        query.incidentFrom() != null ? query.incidentFrom().toEpochDay() : null,
+                        query.incidentTo() != null ? query.incidentTo().toEpochDay() : null,
+                        matches));
+            }
+            if (query.minDamage() != null || query.maxDamage() != null) {
+                matches.and(byEstimatedDamage.range(
+                        query.minDamage() != null ? cents(query.minDamage().setScale(2, RoundingMode.CEILING)) : null,
+                        query.maxDamage() != null ? cents(query.maxDamage().setScale(2, RoundingMode.FLOOR)) : null,
+                        matches));
+            }
+            total = matches.cardinality();
+
+            // Newest first: down from the latest slot, then down from the end of the ring once it has wrapped
+            long skip = (long) query.page() * query.size();
+            if (skip < total && added > 0) {
+                int newest = (int) ((added - 1) % capacity);
+                skip = collect(matches, newest, 0, skip, page, query.size());
+                if (added > capacity) {
+                    collect(matches, capacity - 1, newest + 1, skip, page, query.size());
+                }
+            }
+        } finally {
+            lock.readLock().unlock();
+        }
+
+        List<ProcessingResult> results = new ArrayList<>(page.size());
+        for (byte[] claim : page) {
+            results.add(reader.readValue(claim));
+        }
+        return ClaimPage.builder()
+                .page(query.page())
+                .size(query.size())
+                .total(total)
+                .claims(results)
+                .build();
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return live.cardinality();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Add matching slots from {@code from} down to {@code to} to a page, after skipping earlier pages
+     *
+     * @return how many matches are still to be skipped
+     */
+    private long collect(BitSet matches, int from, int to, long skip, List<byte[]> page, int size) {
+        for (int slot = matches.previousSetBit(from); slot >= to && page.size() < size;
+             slot = matches.previousSetBit(slot - 1)) {
+            if (skip > 0) {
+                skip--;
+            } else {
+                page.add(claims[slot]);
+            }
+        }
+        return skip;
+    }
+
+    private void evict(int slot) {
+        live.clear(slot);
+        if (routes[slot] != null) {
+            byRoute.get(routes[slot]).clear(slot);
+        }
+        if (claimTypes[slot] != null) {
+            byClaimType.get(claimTypes[slot]).clear(slot);
+        }
+        if (statuses[slot] != null) {
+            byStatus.get(statuses[slot]).clear(slot);
+        }
+        byIncidentDate.remove(slot);
+        byEstimatedDamage.remove(slot);
+    }
+
+    private static <K> void and(BitSet matches, Map<K, BitSet> index, Collection<K> values) {
+        if (values == null || values.isEmpty()) {
+            return;
+        }
+        BitSet any = new BitSet();
+        for (K value : values) {
+            BitSet slots = index.get(value);
+            if (slots != null) {
+                any.or(slots);
+            }
+        }
+        matches.and(any);
+    }
+
+    private static RoutingDecision routeOf(String route) {
+        if (route == null) {
+            return null;
+        }
+        try {
+            return RoutingDecision.valueOf(route);
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static long cents(BigDecimal amount) {
+        return amount.movePointRight(2).setScale(0, RoundingMode.FLOOR).longValue();
+    }
+
+    /**
+     * Damage bins in cents: below 1,000, then 1-2-5 steps per decade (1,000, 2,000, 5,000, 10,000, ...)
+     */
+    private static long damageBinOf(long cents) {
+        if (cents < 100_000) {
+            return cents < 0 ? Long.MIN_VALUE + 1 : 0;
+        }
+        long decade = 100_000;
+        while (decade <= cents / 10) {
+            decade *= 10;
+        }
+        return cents >= 5 * decade ? 5 * decade : cents >= 2 * decade ? 2 * decade : decade;
+    }
+
+    private static long nextDamageBin(long bin) {
+        if (bin < 0) {
+            return 0;
+        }
+        if (bin == 0) {
+            return 100_000;
+        }
+        long decade = 100_000;
+        while (decade <= bin / 10) {
+            decade *= 10;
+        }
+        long next = bin == decade ? 2 * decade : bin == 2 * decade ? 5 * decade : 10 * decade;
+        return next > 0 ? next : Long.MAX_VALUE;
+    }
+}
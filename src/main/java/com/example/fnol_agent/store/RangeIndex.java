@@ -0,0 +1,94 @@
+package com.example.fnol_agent.store;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.LongUnaryOperator;
+
+/**
+ * Sorted index of one numeric value per claim slot, kept as a bitmap of slots per value range (bin).
+ * <p>
+ * A range query ORs the bitmaps of the bins it covers and checks only the slots of the two bins it
+ * cuts through against their exact values, so no query scans every claim.
+ */
+final class RangeIndex {
+
+    private static final long NONE = Long.MIN_VALUE;
+
+    private final LongUnaryOperator binOf;
+    private final LongUnaryOperator nextBin;
+    private final TreeMap<Long, BitSet> bins = new TreeMap<>();
+    private final long[] values;
+
+    /**
+     * @param binOf   lower bound of the bin holding a value
+     * @param nextBin lower bound of the bin after the one starting at a bound
+     */
+    RangeIndex(int capacity, LongUnaryOperator binOf, LongUnaryOperator nextBin) {
+        this.binOf = binOf;
+        this.nextBin = nextBin;
+        this.values = new long[capacity];
+        Arrays.fill(values, NONE);
+    }
+
+    void set(int slot, Long value) {
+        remove(slot);
+        if (value != null && value != NONE) {
+            values[slot] = value;
+            bins.computeIfAbsent(binOf.applyAsLong(value), bin -> new BitSet()).set(slot);
+        }
+    }
+
+    void remove(int slot) {
+        long value = values[slot];
+        if (value == NONE) {
+            return;
+        }
+        long bin = binOf.applyAsLong(value);
+        BitSet slots = bins.get(bin);
+        slots.clear(slot);
+        if (slots.isEmpty()) {
+            bins.remove(bin);
+        }
+        values[slot] = NONE;
+    }
+
+    /**
+     * Slots whose value lies in a range; a null bound leaves that end open
+     *
+     * @param within slots the caller will keep anyway, used to check fewer edge slots; may be null
+     */
+    BitSet range(Long from, Long to, BitSet within) {
+        BitSet result = new BitSet();
+        if (bins.isEmpty()) {
+            return result;
+        }
+        long low = from != null ? binOf.applyAsLong(from) : bins.firstKey();
+        long high = to != null ? binOf.applyAsLong(to) : bins.lastKey();
+        if (low > high) {
+            return result;
+        }
+
+        for (Map.Entry<Long, BitSet> bin : bins.subMap(low, true, high, true).entrySet()) {
+            long binStart = bin.getKey();
+            long binEnd = nextBin.applyAsLong(binStart) - 1;
+            if ((from == null || binStart >= from) && (to == null || binEnd <= to)) {
+                result.or(bin.getValue());
+                continue;
+            }
+
+            BitSet edge = (BitSet) bin.getValue().clone();
+            if (within != null) {
+                edge.and(within);
+            }
+            for (int slot = edge.nextSetBit(0); slot >= 0; slot = edge.nextSetBit(slot + 1)) {
+                long value = values[slot];
+                if ((from == null || value >= from) && (to == null || value <= to)) {
+                    result.set(slot);
+                }
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,186 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.pdf.FormSlot;
+import com.fasterxml.jackson.databind.JsonNode;
+import org.apache.pdfbox.cos.COSName;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.PDResources;
+import org.apache.pdfbox.pdmodel.common.PDRectangle;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.interactive.annotation.PDAnnotationWidget;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDCheckBox;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTerminalField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Writes fillable ACORD 2 style PDFs with the field names of the bundled
+ * {@code acord-2-automobile-loss} template, so they take the same extraction path as real forms.
+ * <p>
+ * Every field of the template is present; slots without a value are left empty. Check boxes are
+ * checked with the value {@code Yes}. Values are stored without appearance streams, which
+ * extraction never reads, and {@code NeedAppearances} asks viewers to render them.
+ */
+public final class AcordForms {
+
+    public static final String TEMPLATE = "acord-2-automobile-loss";
+
+    private static final Map<FormSlot, String> FIELD_NAMES = loadFieldNames();
+
+    private static final float MARGIN = 36;
+    private static final float ROW_HEIGHT = 11;
+
+    private AcordForms() {
+    }
+
+    /**
+     * Field name of a slot in the ACORD 2 template
+     */
+    public static String fieldName(FormSlot slot) {
+        return FIELD_NAMES.get(slot);
+    }
+
+    /**
+     * Values of a complete claim that routes to the fast track
+     */
+    public static Map<FormSlot, String> sampleValues() {
+        Map<FormSlot, String> values = new EnumMap<>(FormSlot.class);
+        values.put(FormSlot.POLICY_NUMBER, "POL-2024-881234");
+        values.put(FormSlot.POLICYHOLDER_NAME, "Jane A. Doe");
+        values.put(FormSlot.AGENCY_CUSTOMER_ID, "AC-55120");
+        values.put(FormSlot.LOSS_DATE, "03/14/2024");
+        values.put(FormSlot.LOSS_TIME, "4:35");
+        values.put(FormSlot.LOSS_TIME_PM, "Yes");
+        values.put(FormSlot.LOSS_STREET, "1200 Market Street");
+        values.put(FormSlot.LOSS_CITY_STATE_ZIP, "Springfield, IL 62701");
+        values.put(FormSlot.LOSS_COUNTRY, "USA");
+        values.put(FormSlot.ACCIDENT_DESCRIPTION,
+                "Rear-ended at a red light while stopped in traffic. Bumper and trunk damaged.");
+        values.put(FormSlot.INSURED_PRIMARY_PHONE, "(217) 555-0134");
+        values.put(FormSlot.INSURED_PRIMARY_PHONE_CELL, "Yes");
+        values.put(FormSlot.INSURED_PRIMARY_EMAIL, "jane.doe@example.com");
+        values.put(FormSlot.OWNER_NAME, "Jane A. Doe");
+        values.put(FormSlot.DRIVER_SAME_AS_OWNER, "Yes");
+        values.put(FormSlot.DRIVER_NAME, "Jane A. Doe");
+        values.put(FormSlot.PLATE_NUMBER, "ABC1234");
+        values.put(FormSlot.ESTIMATED_DAMAGE, "4,800");
+        values.put(FormSlot.DAMAGE_DESCRIPTION, "Rear bumper, trunk lid and tail lights");
+        return values;
+    }
+
+    /**
+     * Write a one-page form followed by {@code remarks}, one line each, on as many Additional
+     * Remarks pages as they need
+     */
+    public static byte[] write(Map<FormSlot, String> values, List<String> remarks) {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage(PDRectangle.LETTER);
+            document.addPage(page);
+
+            PDAcroForm acroForm = new PDAcroForm(document);
+            document.getDocumentCatalog().setAcroForm(acroForm);
+            PDResources resources = new PDResources();
+            resources.put(COSName.getPDFName("Helv"), PDType1Font.HELVETICA);
+            acroForm.setDefaultResources(resources);
+            acroForm.setDefaultAppearance("/Helv 0 Tf 0 g");
+            acroForm.setNeedAppearances(true);
+
+            float y = page.getMediaBox().getHeight() - MARGIN;
+            for (Map.Entry<FormSlot, String> slot : FIELD_NAMES.entrySet()) {
+                String name = slot.getValue();
+                boolean checkBox = name.startsWith("Check Box");
+                PDTerminalField field = checkBox ? new PDCheckBox(acroForm) : new PDTextField(acroForm);
+                field.setPartialName(name);
+
+                String value = values.get(slot.getKey());
+                if (value != null && !value.isEmpty()) {
+                    if (checkBox) {
+                        field.getCOSObject().setName(COSName.V, value);
+                    } else {
+                        field.getCOSObject().setString(COSName.V, value);
+                    }
+                }
+
+                y -= ROW_HEIGHT;
+                PDAnnotationWidget widget = field.getWidgets().get(0);
+                widget.setRectangle(checkBox
+                        ? new PDRectangle(MARGIN, y, ROW_HEIGHT - 2, ROW_HEIGHT - 2)
+                        : new PDRectangle(MARGIN, y, page.getMediaBox().getWidth() - 2 * MARGIN, ROW_HEIGHT - 1));
+                widget.setPage(page);
+                page.getAnnotations().add(widget);
+                acroForm.getFields().add(field);
+            }
+
+            writeLines(document, "ACORD 101 ADDITIONAL REMARKS SCHEDULE", remarks);
+            return save(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Write a printed notice without fillable fields, {@code lines} one per line on as many pages as
+     * they need, so it is read from its text layer
+     */
+    public static byte[] writePrinted(List<String> lines) {
+        try (PDDocument document = new PDDocument()) {
+            writeLines(document, "FIRST NOTICE OF LOSS", lines);
+            return save(document);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private static byte[] save(PDDocument document) throws IOException {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        document.save(out);
+        return out.toByteArray();
+    }
+
+    private static void writeLines(PDDocument document, String heading, List<String> lines) throws IOException {
+        int linesPerPage = (int) ((PDRectangle.LETTER.getHeight() - 2 * MARGIN) / ROW_HEIGHT) - 2;
+        for (int first = 0; first < lines.size(); first += linesPerPage) {
+            PDPage page = new PDPage(PDRectangle.LETTER);
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(PDType1Font.HELVETICA, 9);
+                content.setLeading(ROW_HEIGHT);
+                content.newLineAtOffset(MARGIN, page.getMediaBox().getHeight() - MARGIN);
+                content.showText(heading);
+                content.newLine();
+                content.newLine();
+                for (String line : lines.subList(first, Math.min(lines.size(), first + linesPerPage))) {
+                    content.showText(line);
+                    content.newLine();
+                }
+                content.endText();
+            }
+        }
+    }
+
+    private static Map<FormSlot, String> loadFieldNames() {
+        try {
+            JsonNode fields = BenchmarkFixtures.objectMapper()
+                    .readTree(BenchmarkFixtures.resource("pdf-templates.json"))
+                    .path("templates").path(TEMPLATE).path("fields");
+            Map<FormSlot, String> names = new EnumMap<>(FormSlot.class);
+            fields.fields().forEachRemaining(field -> names.put(FormSlot.valueOf(field.getKey()), field.getValue().asText()));
+            if (names.isEmpty()) {
+                throw new IllegalStateException("Template " + TEMPLATE + " not found in pdf-templates.json");
+            }
+            return names;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
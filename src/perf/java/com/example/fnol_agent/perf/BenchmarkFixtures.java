@@ -0,0 +1,112 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.assessment.ClaimAssessor;
+import com.example.fnol_agent.assessment.FraudIndicatorContributor;
+import com.example.fnol_agent.assessment.FraudLexicon;
+import com.example.fnol_agent.assessment.MissingFieldsContributor;
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.extraction.ExtractionRuleRegistry;
+import com.example.fnol_agent.pdf.FormTemplateRegistry;
+import com.example.fnol_agent.pdf.PdfDocumentLoader;
+import com.example.fnol_agent.pdf.PdfParseLimiter;
+import com.example.fnol_agent.pdf.PdfTextExtractor;
+import com.example.fnol_agent.service.ClaimRoutingService;
+import com.example.fnol_agent.service.PdfExtractionService;
+import com.example.fnol_agent.service.StageTimers;
+import com.example.fnol_agent.service.TxtExtractionService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+
+/**
+ * Services wired by hand with the defaults of their {@code @Value} properties and the bundled rule
+ * files, so benchmarks measure the production code paths without starting Spring.
+ */
+public final class BenchmarkFixtures {
+
+    /** A complete TXT claim that routes to the fast track */
+    public static final String SAMPLE_TXT = """
+            FIRST NOTICE OF LOSS
+            Policy Number: POL-2024-881234
+            Policyholder Name: Jane A. Doe
+            Agency Customer ID: AC-55120
+            Effective Dates: 01/01/2024 - 12/31/2024
+            Date of Loss: 03/14/2024
+            Incident Time: 4:35 PM
+            Street: 1200 Market Street
+            City: Springfield
+            State: IL
+            Zip: 62701
+            Description: Rear-ended at a red light while stopped in traffic. Bumper and trunk damaged.
+            Claimant Name: Jane A. Doe
+            Third Party Information: John Smith, Acme Insurance, policy AC-99812
+            Driver Name: Jane A. Doe
+            VIN: 1HGCM82633A004352
+            License Plate: ABC1234
+            Estimated Damage: $4,800
+            Damage Description: Rear bumper, trunk lid and tail lights
+            Initial Estimate: $4,800
+            Attachments: photos.zip, police-report.pdf
+            """;
+
+    private BenchmarkFixtures() {
+    }
+
+    public static ObjectMapper objectMapper() {
+        return new JacksonConfig().objectMapper();
+    }
+
+    public static ExtractionRuleRegistry extractionRules() throws IOException {
+        return ExtractionRuleRegistry.load(resource("extraction-rules.json"), objectMapper());
+    }
+
+    public static TxtExtractionService txtExtraction(MeterRegistry meterRegistry) throws IOException {
+        return new TxtExtractionService(extractionRules(), new StageTimers(meterRegistry), 500, 2000, 2_000_000);
+    }
+
+    /**
+     * PDF extraction with the default memory settings, splitting text extraction over {@code executor}
+     */
+    public static PdfExtractionService pdfExtraction(boolean formFastPath, ExecutorService executor)
+            throws IOException {
+        MeterRegistry meterRegistry = new SimpleMeterRegistry();
+        PdfDocumentLoader loader = new PdfDocumentLoader(meterRegistry, 4_194_304L, 16_777_216L,
+                104_857_600L, 1_073_741_824L, "", formFastPath);
+        PdfParseLimiter limiter = new PdfParseLimiter(meterRegistry, 0);
+        return new PdfExtractionService(loader,
+                FormTemplateRegistry.load(resource("pdf-templates.json"), objectMapper()),
+                new PdfTextExtractor(loader, limiter, executor, 2, 4),
+                limiter,
+                txtExtraction(meterRegistry),
+                new StageTimers(meterRegistry));
+    }
+
+    public static ClaimRoutingService routing() throws IOException {
+        return new ClaimRoutingService(new ClassPathResource("routing-rules.json"), objectMapper(),
+                new SimpleMeterRegistry());
+    }
+
+    /**
+     * Assessor with the stateless contributors only; the duplicate indexes would flag every
+     * repeated benchmark document
+     */
+    public static ClaimAssessor assessor() throws IOException {
+        FraudLexicon lexicon = FraudLexicon.load(resource("fraud-lexicon.json"), objectMapper());
+        return new ClaimAssessor(List.of(new MissingFieldsContributor(), new FraudIndicatorContributor(lexicon)));
+    }
+
+    public static byte[] resource(String name) throws IOException {
+        try (InputStream in = BenchmarkFixtures.class.getResourceAsStream("/" + name)) {
+            if (in == null) {
+                throw new IOException(name + " not found on the classpath");
+            }
+            return in.readAllBytes();
+        }
+    }
+}
@@ -0,0 +1,59 @@
+package com.example.fnol_agent.perf;
+
+import java.io.BufferedWriter;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+/**
+ * Writes a synthetic corpus of FNOL documents for {@link LoadDriver}, with a {@code manifest.csv}
+ * recording how each document was generated.
+ * <p>
+ * Arguments ({@code name=value}): {@code count} (1000), {@code out} (fnol-corpus), {@code seed} (42),
+ * {@code pdf-share} (0.5), {@code completeness} (0.97), {@code fraud-rate} (0.05),
+ * {@code injury-rate} (0.1), {@code remark-lines} (0).
+ */
+public final class CorpusGenerator {
+
+    private CorpusGenerator() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        int count = options.integer("count", 1000);
+        Path out = Path.of(options.string("out", "fnol-corpus"));
+        SyntheticClaims.Mix mix = new SyntheticClaims.Mix(
+                options.decimal("pdf-share", 0.5),
+                options.decimal("completeness", 0.97),
+                options.decimal("fraud-rate", 0.05),
+                options.decimal("injury-rate", 0.1),
+                options.integer("remark-lines", 0));
+        SyntheticClaims claims = new SyntheticClaims(options.longValue("seed", 42), mix);
+
+        Files.createDirectories(out);
+        long bytes = 0;
+        int pdfs = 0;
+        int fraud = 0;
+        int injuries = 0;
+        int incomplete = 0;
+        try (BufferedWriter manifest = Files.newBufferedWriter(out.resolve("manifest.csv"))) {
+            manifest.write("filename,bytes,fraud,injury,omitted_fields\n");
+            for (int i = 1; i <= count; i++) {
+                SyntheticClaims.Claim claim = claims.next(i);
+                Files.write(out.resolve(claim.filename()), claim.content());
+                manifest.write(String.format("%s,%d,%b,%b,%d%n", claim.filename(), claim.content().length,
+                        claim.fraud(), claim.injury(), claim.omittedFields()));
+
+                bytes += claim.content().length;
+                pdfs += claim.pdf() ? 1 : 0;
+                fraud += claim.fraud() ? 1 : 0;
+                injuries += claim.injury() ? 1 : 0;
+                incomplete += claim.omittedFields() > 0 ? 1 : 0;
+            }
+        }
+
+        System.out.printf("Wrote %,d documents (%,d PDF, %,d TXT), %,d KB in total, to %s%n",
+                count, pdfs, count - pdfs, bytes / 1024, out.toAbsolutePath());
+        System.out.printf("%,d with fraud terms, %,d with injuries, %,d missing at least one field%n",
+                fraud, injuries, incomplete);
+    }
+}
@@ -0,0 +1,328 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.model.RoutingDecision;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Replays a corpus against {@code /api/v1/fnol/process} of a running service at a fixed rate and
+ * reports throughput, latency percentiles and the service's heap and GC behaviour.
+ * <p>
+ * Requests are sent on an open-loop schedule: latency counts from when a request was due, not from
+ * when it was sent, so a stalled service shows up as latency instead of silently lowering the rate.
+ * Requests due while {@code max-in-flight} are outstanding are dropped and counted. Heap and GC
+ * figures are read from the service's actuator metrics.
+ * <p>
+ * Arguments ({@code name=value}): {@code url} (http://localhost:4001), {@code corpus} (fnol-corpus),
+ * {@code rate} requests per second (20), {@code duration} seconds (300), {@code warmup} seconds
+ * excluded from the summary (30), {@code max-in-flight} (256), {@code report} interval seconds (10).
+ */
+public final class LoadDriver {
+
+    private static final String BOUNDARY = "fnol-load-driver-7d3e91";
+    private static final ObjectMapper JSON = new ObjectMapper();
+    private static final Set<String> ROUTES = Arrays.stream(RoutingDecision.values())
+            .map(Enum::name)
+            .collect(Collectors.toUnmodifiableSet());
+
+    private final HttpClient client;
+    private final URI endpoint;
+    private final URI metrics;
+
+    private final Window interval = new Window();
+    private final Window total = new Window();
+    private final LongAdder dropped = new LongAdder();
+
+    private record Upload(String filename, byte[] body) {
+    }
+
+    /**
+     * Service JVM figures; NaN where the actuator does not report them
+     */
+    private record ServerSample(double heapUsedBytes, double gcPauses, double gcPauseSeconds,
+                                double allocatedBytes, double cpuUsage) {
+    }
+
+    /**
+     * Outcomes of the requests due in one period
+     */
+    private static final class Window {
+
+        private final LatencyHistogram latency = new LatencyHistogram();
+        private final Map<String, LongAdder> outcomes = new ConcurrentHashMap<>();
+        private final LongAdder sent = new LongAdder();
+
+        void record(long latencyNanos, String outcome) {
+            latency.record(latencyNanos);
+            outcomes.computeIfAbsent(outcome, key -> new LongAdder()).increment();
+        }
+
+        /**
+         * Requests that did not end with a routed claim
+         */
+        long errors() {
+            return outcomes.entrySet().stream()
+                    .filter(entry -> !ROUTES.contains(entry.getKey()))
+                    .mapToLong(entry -> entry.getValue().sum())
+                    .sum();
+        }
+
+        void reset() {
+            latency.reset();
+            outcomes.clear();
+            sent.reset();
+        }
+    }
+
+    private LoadDriver(String url) {
+        this.client = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        this.endpoint = URI.create(url + "/api/v1/fnol/process");
+        this.metrics = URI.create(url + "/actuator/metrics/");
+    }
+
+    public static void main(String[] args) throws Exception {
+        Options options = new Options(args);
+        Path corpus = Path.of(options.string("corpus", "fnol-corpus"));
+        double rate = options.decimal("rate", 20);
+        long duration = options.longValue("duration", 300);
+        long warmup = options.longValue("warmup", 30);
+        int maxInFlight = options.integer("max-in-flight", 256);
+        long report = options.longValue("report", 10);
+
+        List<Upload> uploads = load(corpus);
+        if (uploads.isEmpty()) {
+            throw new IllegalArgumentException("No .pdf or .txt documents in " + corpus.toAbsolutePath());
+        }
+        System.out.printf("Replaying %,d documents at %.1f req/s for %d s (%d s warm-up) against %s%n",
+                uploads.size(), rate, duration, warmup, options.string("url", "http://localhost:4001"));
+
+        new LoadDriver(options.string("url", "http://localhost:4001"))
+                .run(uploads, rate, duration, warmup, maxInFlight, report);
+    }
+
+    private void run(List<Upload> uploads, double rate, long durationSeconds, long warmupSeconds,
+                     int maxInFlight, long reportSeconds) throws InterruptedException {
+        ServerSample first = sample();
+        Semaphore inFlight = new Semaphore(maxInFlight);
+        long periodNanos = (long) (TimeUnit.SECONDS.toNanos(1) / rate);
+        long start = System.nanoTime();
+        long end = start + TimeUnit.SECONDS.toNanos(durationSeconds);
+        long measureFrom = start + TimeUnit.SECONDS.toNanos(warmupSeconds);
+
+        System.out.printf("%8s %9s %9s %7s %9s %9s %9s %9s %9s %10s %8s %10s%n", "elapsed", "sent/s",
+                "done/s", "errors", "p50 ms", "p90 ms", "p99 ms", "max ms", "dropped", "heap MB", "gc/s",
+                "pause ms/s");
+        ScheduledExecutorService reporter = Executors.newSingleThreadScheduledExecutor();
+        ServerSample[] previous = {first};
+        long[] previousDropped = {0};
+        reporter.scheduleAtFixedRate(() -> {
+            ServerSample now = sample();
+            long droppedNow = dropped.sum();
+            printInterval((System.nanoTime() - start) / 1e9, reportSeconds, previous[0], now,
+                    droppedNow - previousDropped[0]);
+            previous[0] = now;
+            previousDropped[0] = droppedNow;
+        }, reportSeconds, reportSeconds, TimeUnit.SECONDS);
+
+        for (long i = 0; ; i++) {
+            long due = start + i * periodNanos;
+            if (due >= end) {
+                break;
+            }
+            long wait = due - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!inFlight.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+
+            boolean measured = due >= measureFrom;
+            interval.sent.increment();
+            if (measured) {
+                total.sent.increment();
+            }
+            Upload upload = uploads.get((int) (i % uploads.size()));
+            client.sendAsync(request(upload), HttpResponse.BodyHandlers.ofByteArray())
+                    .whenComplete((response, error) -> {
+                        long latency = System.nanoTime() - due;
+                        inFlight.release();
+                        String outcome = outcome(response, error);
+                        interval.record(latency, outcome);
+                        if (measured) {
+                            total.record(latency, outcome);
+                        }
+                    });
+        }
+
+        if (!inFlight.tryAcquire(maxInFlight, 60, TimeUnit.SECONDS)) {
+            System.out.printf("%d requests still outstanding after 60 s%n", maxInFlight - inFlight.availablePermits());
+        }
+        reporter.shutdownNow();
+        printSummary((end - measureFrom) / 1e9, (System.nanoTime() - start) / 1e9, first, sample());
+    }
+
+    private HttpRequest request(Upload upload) {
+        return HttpRequest.newBuilder(endpoint)
+                .timeout(Duration.ofSeconds(120))
+                .header("Content-Type", "multipart/form-data; boundary=" + BOUNDARY)
+                .POST(HttpRequest.BodyPublishers.ofByteArray(upload.body()))
+                .build();
+    }
+
+    /**
+     * Route of a processed document, its status if it failed, or the HTTP status or exception
+     */
+    private static String outcome(HttpResponse<byte[]> response, Throwable error) {
+        if (error != null) {
+            Throwable cause = error.getCause() != null ? error.getCause() : error;
+            return cause.getClass().getSimpleName();
+        }
+        if (response.statusCode() != 200) {
+            return "HTTP " + response.statusCode();
+        }
+        try {
+            JsonNode result = JSON.readTree(response.body());
+            String route = result.path("recommendedRoute").asText(null);
+            return route != null ? route : result.path("status").asText("UNKNOWN");
+        } catch (IOException e) {
+            return "unreadable response";
+        }
+    }
+
+    private void printInterval(double elapsedSeconds, long seconds, ServerSample before, ServerSample now,
+                               long droppedInInterval) {
+        System.out.printf("%7.0fs %9.1f %9.1f %7d %9.1f %9.1f %9.1f %9.1f %9d %10.0f %8.2f %10.1f%n",
+                elapsedSeconds,
+                interval.sent.sum() / (double) seconds,
+                interval.latency.count() / (double) seconds,
+                interval.errors(),
+                interval.latency.percentileMillis(0.50),
+                interval.latency.percentileMillis(0.90),
+                interval.latency.percentileMillis(0.99),
+                interval.latency.maxMillis(),
+                droppedInInterval,
+                now.heapUsedBytes() / (1024 * 1024),
+                (now.gcPauses() - before.gcPauses()) / seconds,
+                (now.gcPauseSeconds() - before.gcPauseSeconds()) * 1000 / seconds);
+        interval.reset();
+    }
+
+    private void printSummary(double seconds, double runSeconds, ServerSample first, ServerSample last) {
+        System.out.println();
+        System.out.printf("Measured %.0f s after warm-up: %,d sent, %,d completed, %,d errors, %,d dropped in total%n",
+                seconds, total.sent.sum(), total.latency.count(), total.errors(), dropped.sum());
+        System.out.printf("Throughput %.1f req/s%n", total.latency.count() / seconds);
+        System.out.printf("Latency ms: p50 %.1f  p90 %.1f  p99 %.1f  p99.9 %.1f  max %.1f%n",
+                total.latency.percentileMillis(0.50),
+                total.latency.percentileMillis(0.90),
+                total.latency.percentileMillis(0.99),
+                total.latency.percentileMillis(0.999),
+                total.latency.maxMillis());
+
+        System.out.println("Outcomes:");
+        new TreeMap<>(total.outcomes).forEach((outcome, count) -> System.out.printf("  %-24s %,10d%n", outcome, count.sum()));
+
+        System.out.printf("Service over the whole run: heap %.0f MB -> %.0f MB, %.0f GC pauses totalling %.0f ms, "
+                        + "allocating %.0f MB/s, CPU %.0f%% at the end%n",
+                first.heapUsedBytes() / (1024 * 1024), last.heapUsedBytes() / (1024 * 1024),
+                last.gcPauses() - first.gcPauses(),
+                (last.gcPauseSeconds() - first.gcPauseSeconds()) * 1000,
+                (last.allocatedBytes() - first.allocatedBytes()) / (1024 * 1024) / runSeconds,
+                last.cpuUsage() * 100);
+    }
+
+    private ServerSample sample() {
+        return new ServerSample(
+                metric("jvm.memory.used?tag=area:heap", "VALUE"),
+                metric("jvm.gc.pause", "COUNT"),
+                metric("jvm.gc.pause", "TOTAL_TIME"),
+                metric("jvm.gc.memory.allocated", "COUNT"),
+                metric("process.cpu.usage", "VALUE"));
+    }
+
+    private double metric(String name, String statistic) {
+        try {
+            HttpResponse<byte[]> response = client.send(
+                    HttpRequest.newBuilder(metrics.resolve(name)).timeout(Duration.ofSeconds(5)).GET().build(),
+                    HttpResponse.BodyHandlers.ofByteArray());
+            if (response.statusCode() != 200) {
+                return Double.NaN;
+            }
+            for (JsonNode measurement : JSON.readTree(response.body()).path("measurements")) {
+                if (statistic.equals(measurement.path("statistic").asText())) {
+                    return measurement.path("value").asDouble();
+                }
+            }
+            return Double.NaN;
+        } catch (IOException e) {
+            return Double.NaN;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return Double.NaN;
+        }
+    }
+
+    /**
+     * Read every document of the corpus and wrap it in a multipart body once, up front
+     */
+    private static List<Upload> load(Path corpus) throws IOException {
+        try (Stream<Path> files = Files.list(corpus)) {
+            return files
+                    .filter(file -> {
+                        String name = file.getFileName().toString().toLowerCase();
+                        return name.endsWith(".pdf") || name.endsWith(".txt");
+                    })
+                    .sorted()
+                    .map(LoadDriver::upload)
+                    .toList();
+        }
+    }
+
+    private static Upload upload(Path file) {
+        try {
+            String filename = file.getFileName().toString();
+            String contentType = filename.toLowerCase().endsWith(".pdf") ? "application/pdf" : "text/plain";
+            ByteArrayOutputStream body = new ByteArrayOutputStream();
+            body.writeBytes(("--" + BOUNDARY + "\r\n"
+                    + "Content-Disposition: form-data; name=\"file\"; filename=\"" + filename + "\"\r\n"
+                    + "Content-Type: " + contentType + "\r\n\r\n").getBytes(StandardCharsets.UTF_8));
+            body.writeBytes(Files.readAllBytes(file));
+            body.writeBytes(("\r\n--" + BOUNDARY + "--\r\n").getBytes(StandardCharsets.UTF_8));
+            return new Upload(filename, body.toByteArray());
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+}
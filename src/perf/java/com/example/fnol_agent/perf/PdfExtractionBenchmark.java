@@ -0,0 +1,70 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.service.ByteArrayMultipartFile;
+import com.example.fnol_agent.service.PdfExtractionService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link PdfExtractionService#extractPdfFNOLDocument} on fillable ACORD 2 forms, read through the
+ * form fast path or by loading the whole document with PDFBox.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PdfExtractionBenchmark {
+
+    @Param({"true", "false"})
+    public boolean formFastPath;
+
+    /** Additional Remarks pages after the form page */
+    @Param({"0", "20"})
+    public int remarkPages;
+
+    private ExecutorService executor;
+    private PdfExtractionService extraction;
+    private ByteArrayMultipartFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        executor = Executors.newFixedThreadPool(4);
+        extraction = BenchmarkFixtures.pdfExtraction(formFastPath, executor);
+
+        List<String> remarks = new ArrayList<>();
+        for (int i = 0; i < remarkPages * 60; i++) {
+            remarks.add("Remark " + i + ": witness statement taken at the scene; vehicle towed to the insured's garage.");
+        }
+        file = new ByteArrayMultipartFile("acord-2.pdf", AcordForms.write(AcordForms.sampleValues(), remarks));
+    }
+
+    @TearDown
+    public void tearDown() {
+        executor.shutdownNow();
+    }
+
+    @Benchmark
+    public FNOLDocument extract() throws IOException {
+        return extraction.extractPdfFNOLDocument(file);
+    }
+}
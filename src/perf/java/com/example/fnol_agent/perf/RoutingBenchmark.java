@@ -0,0 +1,74 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.routing.RoutingRule;
+import com.example.fnol_agent.routing.RoutingRules;
+import com.example.fnol_agent.service.ClaimRoutingService;
+import com.example.fnol_agent.service.PartialExtractionException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link ClaimRoutingService#determineRoute} and {@link ClaimRoutingService#generateReasoning}
+ * for claims that stop at the first, a middle and the last of the bundled routing rules.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class RoutingBenchmark {
+
+    @Param({"missing-fields", "fraud", "injury", "fast-track", "standard"})
+    public String claim;
+
+    private ClaimRoutingService routing;
+    private RoutingRules rules;
+    private ClaimAssessment assessment;
+
+    @Setup
+    public void setUp() throws IOException {
+        routing = BenchmarkFixtures.routing();
+        rules = routing.currentRules();
+
+        String sample = BenchmarkFixtures.SAMPLE_TXT;
+        String text = switch (claim) {
+            case "missing-fields" -> sample.replaceAll("(?m)^(Policy Number|Date of Loss|Estimated Damage):.*\\n", "");
+            case "fraud" -> sample.replace("Bumper and trunk damaged.",
+                    "Bumper and trunk damaged. The other driver's account was inconsistent and the crash looked staged.");
+            case "injury" -> sample + "Claim Type: Injury\n";
+            case "fast-track" -> sample;
+            case "standard" -> sample.replace("$4,800", "$48,000");
+            default -> throw new IllegalArgumentException("Unknown claim " + claim);
+        };
+
+        FNOLDocument document;
+        try {
+            document = BenchmarkFixtures.txtExtraction(new SimpleMeterRegistry()).extractFNOLDocument(text, claim);
+        } catch (PartialExtractionException e) {
+            document = e.getDocument();
+        }
+        assessment = BenchmarkFixtures.assessor().assess("benchmark-" + claim, document);
+    }
+
+    @Benchmark
+    public String route() {
+        RoutingRule rule = routing.determineRoute(rules, assessment);
+        return routing.generateReasoning(rule, assessment);
+    }
+}
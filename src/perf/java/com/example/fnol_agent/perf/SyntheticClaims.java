@@ -0,0 +1,236 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.pdf.FormSlot;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+/**
+ * Random but plausible automobile loss claims, rendered as fillable ACORD 2 PDFs or as TXT notices
+ * with the labels of the bundled extraction rules.
+ * <p>
+ * Every claim has its own policy number, plate, loss date and narrative, so the duplicate detectors
+ * do not flag a corpus against itself. The same seed always yields the same corpus.
+ */
+public final class SyntheticClaims {
+
+    /**
+     * Shape of a corpus
+     *
+     * @param pdfShare     fraction of claims rendered as PDF rather than TXT
+     * @param completeness chance that each field is filled in
+     * @param fraudRate    fraction of narratives that contain a fraud lexicon term
+     * @param injuryRate   fraction of claims with an injured person
+     * @param remarkLines  lines of additional remarks per claim, to control document size
+     */
+    public record Mix(double pdfShare, double completeness, double fraudRate, double injuryRate, int remarkLines) {
+    }
+
+    /**
+     * A rendered claim and what it was generated with
+     */
+    public record Claim(String filename, byte[] content, boolean pdf, boolean fraud, boolean injury,
+                        int omittedFields) {
+    }
+
+    private static final DateTimeFormatter DATE = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+
+    private static final String[] FIRST_NAMES = {"Jane", "John", "Maria", "Wei", "Priya", "Ahmed", "Olga",
+            "Carlos", "Fatima", "Kenji", "Grace", "Samuel", "Aisha", "Lukas", "Mei", "Diego"};
+    private static final String[] LAST_NAMES = {"Doe", "Smith", "Garcia", "Chen", "Patel", "Khan", "Ivanova",
+            "Lopez", "Rahman", "Tanaka", "Okafor", "Miller", "Nguyen", "Schmidt", "Rossi", "Kowalski"};
+    private static final String[] STREETS = {"Market Street", "Oak Avenue", "Route 9", "Maple Drive",
+            "Elm Street", "Lakeshore Boulevard", "Highway 101", "Main Street", "Cedar Lane", "Pine Road"};
+    private static final String[][] CITIES = {{"Springfield", "IL", "627"}, {"Columbus", "OH", "432"},
+            {"Austin", "TX", "787"}, {"Portland", "OR", "972"}, {"Denver", "CO", "802"},
+            {"Raleigh", "NC", "276"}, {"Madison", "WI", "537"}, {"Tucson", "AZ", "857"}};
+
+    private static final String[] OPENERS = {"Rear-ended at a red light while stopped in traffic",
+            "Sideswiped by a vehicle changing lanes without signalling",
+            "Backed into a parked car while leaving a supermarket lot",
+            "Struck a deer crossing the road shortly after dusk",
+            "Hit by a driver who ran the stop sign at the intersection",
+            "Slid on black ice and collided with the guard rail",
+            "Another vehicle merged into our lane on the on-ramp",
+            "Hail storm dented the roof and cracked the windshield while parked"};
+    private static final String[] CIRCUMSTANCES = {"on the way to work", "in heavy rain", "during the evening rush",
+            "with two passengers on board", "at about 30 mph", "in a school zone", "after the light turned green",
+            "while the insured was reversing slowly", "on a wet, poorly lit road", "near the highway exit"};
+    private static final String[] AFTERMATH = {"Police attended and filed a report.",
+            "The other driver exchanged details at the scene.", "The vehicle was towed to a body shop.",
+            "A witness left a phone number with the insured.", "Photos were taken at the scene.",
+            "The insured drove the vehicle home afterwards."};
+    private static final String[] FRAUD_SENTENCES = {
+            "Witness statements are inconsistent with the damage pattern.",
+            "The adjuster noted the collision may have been staged.",
+            "The repair invoice submitted by the claimant appears to be fake.",
+            "A previous insurer flagged the claimant for suspected fraud."};
+    private static final String[] DAMAGE = {"Rear bumper, trunk lid and tail lights",
+            "Driver side doors and mirror", "Front bumper, grille and radiator", "Windshield and roof panel",
+            "Passenger side quarter panel", "Hood, headlights and front fender"};
+    private static final String[] INJURIES = {"whiplash", "broken wrist", "concussion", "bruised ribs",
+            "lacerations to the forearm"};
+
+    private final Random random;
+    private final Mix mix;
+    private final LocalDate today = LocalDate.now();
+
+    public SyntheticClaims(long seed, Mix mix) {
+        this.random = new Random(seed);
+        this.mix = mix;
+    }
+
+    /**
+     * Generate and render the next claim
+     */
+    public Claim next(int sequence) {
+        boolean pdf = random.nextDouble() < mix.pdfShare();
+        boolean fraud = random.nextDouble() < mix.fraudRate();
+        boolean injury = random.nextDouble() < mix.injuryRate();
+
+        Map<FormSlot, String> values = claim(fraud, injury);
+        int filled = values.size();
+        values.values().removeIf(value -> random.nextDouble() >= mix.completeness());
+        int omitted = filled - values.size();
+
+        List<String> remarks = remarks(mix.remarkLines());
+        String name = String.format("claim-%06d", sequence);
+        return pdf
+                ? new Claim(name + ".pdf", AcordForms.write(values, remarks), true, fraud, injury, omitted)
+                : new Claim(name + ".txt", txt(values, remarks).getBytes(StandardCharsets.UTF_8), false, fraud,
+                injury, omitted);
+    }
+
+    private Map<FormSlot, String> claim(boolean fraud, boolean injury) {
+        String holder = person();
+        String[] city = pick(CITIES);
+        LocalDate lossDate = today.minusDays(1 + random.nextInt(365));
+        int hour = 1 + random.nextInt(12);
+        boolean pm = random.nextBoolean();
+        long damage = damage();
+
+        StringBuilder narrative = new StringBuilder()
+                .append(pick(OPENERS)).append(' ').append(pick(CIRCUMSTANCES)).append(". ")
+                .append(pick(AFTERMATH));
+        if (fraud) {
+            narrative.append(' ').append(pick(FRAUD_SENTENCES));
+        }
+
+        Map<FormSlot, String> values = new EnumMap<>(FormSlot.class);
+        values.put(FormSlot.POLICY_NUMBER, String.format("POL-%d-%06d", lossDate.getYear(), random.nextInt(1_000_000)));
+        values.put(FormSlot.POLICYHOLDER_NAME, holder);
+        values.put(FormSlot.AGENCY_CUSTOMER_ID, String.format("AC-%05d", random.nextInt(100_000)));
+        values.put(FormSlot.LOSS_DATE, lossDate.format(DATE));
+        values.put(FormSlot.LOSS_TIME, String.format("%d:%02d", hour, random.nextInt(60)));
+        values.put(pm ? FormSlot.LOSS_TIME_PM : FormSlot.LOSS_TIME_AM, "Yes");
+        values.put(FormSlot.LOSS_STREET, (100 + random.nextInt(9900)) + " " + pick(STREETS));
+        values.put(FormSlot.LOSS_CITY_STATE_ZIP,
+                String.format("%s, %s %s%02d", city[0], city[1], city[2], random.nextInt(100)));
+        values.put(FormSlot.LOSS_COUNTRY, "USA");
+        values.put(FormSlot.ACCIDENT_DESCRIPTION, narrative.toString());
+        values.put(FormSlot.INSURED_PRIMARY_PHONE,
+                String.format("(%03d) 555-%04d", 200 + random.nextInt(800), random.nextInt(10_000)));
+        values.put(FormSlot.INSURED_PRIMARY_PHONE_CELL, "Yes");
+        values.put(FormSlot.INSURED_PRIMARY_EMAIL,
+                holder.toLowerCase().replace(". ", ".").replace(' ', '.') + "@example.com");
+        values.put(FormSlot.OWNER_NAME, holder);
+        if (random.nextInt(4) == 0) {
+            values.put(FormSlot.DRIVER_NAME, person());
+        } else {
+            values.put(FormSlot.DRIVER_SAME_AS_OWNER, "Yes");
+            values.put(FormSlot.DRIVER_NAME, holder);
+        }
+        values.put(FormSlot.PLATE_NUMBER, plate());
+        values.put(FormSlot.ESTIMATED_DAMAGE, String.format("%,d", damage));
+        values.put(FormSlot.DAMAGE_DESCRIPTION, pick(DAMAGE));
+        if (injury) {
+            values.put(FormSlot.INJURED_NAME_ADDRESS, person() + ", " + (100 + random.nextInt(900)) + " "
+                    + pick(STREETS) + ", " + city[0] + " - " + pick(INJURIES));
+        }
+        return values;
+    }
+
+    /**
+     * Render a claim with the labels the TXT extraction rules look for
+     */
+    private static String txt(Map<FormSlot, String> values, List<String> remarks) {
+        StringBuilder text = new StringBuilder("FIRST NOTICE OF LOSS\n");
+        line(text, "Policy Number", values.get(FormSlot.POLICY_NUMBER));
+        line(text, "Policyholder Name", values.get(FormSlot.POLICYHOLDER_NAME));
+        line(text, "Agency Customer ID", values.get(FormSlot.AGENCY_CUSTOMER_ID));
+        line(text, "Date of Loss", values.get(FormSlot.LOSS_DATE));
+        String time = values.get(FormSlot.LOSS_TIME);
+        if (time != null) {
+            line(text, "Incident Time", time + (values.containsKey(FormSlot.LOSS_TIME_PM) ? " PM" : " AM"));
+        }
+        line(text, "Street", values.get(FormSlot.LOSS_STREET));
+        String cityStateZip = values.get(FormSlot.LOSS_CITY_STATE_ZIP);
+        if (cityStateZip != null) {
+            int comma = cityStateZip.indexOf(',');
+            String[] stateZip = cityStateZip.substring(comma + 2).split(" ");
+            line(text, "City", cityStateZip.substring(0, comma));
+            line(text, "State", stateZip[0]);
+            line(text, "Zip", stateZip[1]);
+        }
+        line(text, "Description", values.get(FormSlot.ACCIDENT_DESCRIPTION));
+        line(text, "Claimant Name", values.get(FormSlot.POLICYHOLDER_NAME));
+        line(text, "Driver Name", values.get(FormSlot.DRIVER_NAME));
+        line(text, "License Plate", values.get(FormSlot.PLATE_NUMBER));
+        String damage = values.get(FormSlot.ESTIMATED_DAMAGE);
+        line(text, "Estimated Damage", damage != null ? "$" + damage : null);
+        line(text, "Damage Description", values.get(FormSlot.DAMAGE_DESCRIPTION));
+        line(text, "Injury", values.get(FormSlot.INJURED_NAME_ADDRESS));
+        line(text, "Phone", values.get(FormSlot.INSURED_PRIMARY_PHONE));
+        line(text, "Email", values.get(FormSlot.INSURED_PRIMARY_EMAIL));
+        if (!remarks.isEmpty()) {
+            text.append("Remarks:\n");
+            remarks.forEach(remark -> text.append(remark).append('\n'));
+        }
+        return text.toString();
+    }
+
+    private static void line(StringBuilder text, String label, String value) {
+        if (value != null) {
+            text.append(label).append(": ").append(value).append('\n');
+        }
+    }
+
+    private List<String> remarks(int lines) {
+        List<String> remarks = new ArrayList<>(lines);
+        for (int i = 0; i < lines; i++) {
+            remarks.add("Note " + (i + 1) + ": " + pick(OPENERS).toLowerCase() + " " + pick(CIRCUMSTANCES)
+                    + "; " + pick(AFTERMATH).toLowerCase());
+        }
+        return remarks;
+    }
+
+    /**
+     * Mostly small claims, with a long tail above the fast-track threshold
+     */
+    private long damage() {
+        double amount = Math.exp(7 + random.nextGaussian() * 1.2 + 1.5);
+        return Math.max(250, Math.min(150_000, Math.round(amount / 10) * 10));
+    }
+
+    private String person() {
+        return pick(FIRST_NAMES) + " " + (char) ('A' + random.nextInt(26)) + ". " + pick(LAST_NAMES);
+    }
+
+    private String plate() {
+        StringBuilder plate = new StringBuilder();
+        for (int i = 0; i < 3; i++) {
+            plate.append((char) ('A' + random.nextInt(26)));
+        }
+        return plate.append(String.format("%04d", random.nextInt(10_000))).toString();
+    }
+
+    private <T> T pick(T[] options) {
+        return options[random.nextInt(options.length)];
+    }
+}
@@ -0,0 +1,184 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.service.PdfExtractionService;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayInputStream;
+import java.io.File;
+import java.io.FilterInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares request handling on a platform thread pool with virtual threads.
+ * <p>
+ * Each simulated request uploads a real PDF at {@code uploadKbPerSecond}, like a client on a slow
+ * link, and runs it through {@link PdfExtractionService}: half are fillable ACORD 2 forms, half are
+ * printed notices of several pages read from their text layer by parallel workers. The service reads
+ * each upload before it takes a {@code fnol.pdf.max-concurrent-parses} slot, so the slots bound only
+ * the parsing. The platform mode uses a fixed pool the size of Tomcat's default, so requests queue
+ * once every thread is waiting on an upload; the virtual mode starts a thread per request.
+ * <p>
+ * Arguments: {@code requests uploadKbPerSecond platformThreads}, defaulting to {@code 2000 64 200}.
+ */
+public final class ThreadModeBenchmark {
+
+    private ThreadModeBenchmark() {
+    }
+
+    public static void main(String[] args) throws Exception {
+        int requests = args.length > 0 ? Integer.parseInt(args[0]) : 2000;
+        int uploadKbPerSecond = args.length > 1 ? Integer.parseInt(args[1]) : 64;
+        int platformThreads = args.length > 2 ? Integer.parseInt(args[2]) : 200;
+        int cpus = Runtime.getRuntime().availableProcessors();
+
+        List<String> notice = new ArrayList<>(BenchmarkFixtures.SAMPLE_TXT.lines().toList());
+        for (int i = 0; i < 300; i++) {
+            notice.add("Remark " + i + ": witness statement taken at the scene; vehicle towed to the insured's garage.");
+        }
+        byte[][] uploads = {AcordForms.write(AcordForms.sampleValues(), List.of()), AcordForms.writePrinted(notice)};
+
+        System.out.printf("%,d requests, uploads of %,d and %,d bytes at %d KB/s, %d CPUs%n",
+                requests, uploads[0].length, uploads[1].length, uploadKbPerSecond, cpus);
+
+        try (ExecutorService textExecutor = Executors.newFixedThreadPool(4)) {
+            PdfExtractionService extraction = BenchmarkFixtures.pdfExtraction(true, textExecutor);
+
+            // Warm up the extraction code paths before measuring either mode
+            run("warm-up", Executors.newFixedThreadPool(cpus), extraction, uploads, requests / 5, 0);
+
+            run("platform (" + platformThreads + " threads)", Executors.newFixedThreadPool(platformThreads),
+                    extraction, uploads, requests, uploadKbPerSecond);
+            run("virtual", Executors.newVirtualThreadPerTaskExecutor(),
+                    extraction, uploads, requests, uploadKbPerSecond);
+        }
+    }
+
+    private static void run(String mode, ExecutorService executor, PdfExtractionService extraction,
+                            byte[][] uploads, int requests, int uploadKbPerSecond) throws Exception {
+        long[] latencies = new long[requests];
+        List<Future<?>> futures = new ArrayList<>(requests);
+
+        long start = System.nanoTime();
+        try (executor) {
+            for (int i = 0; i < requests; i++) {
+                int request = i;
+                long submitted = System.nanoTime();
+                futures.add(executor.submit(() -> {
+                    extraction.extractPdfFNOLDocument(
+                            new PacedUpload("claim.pdf", uploads[request % uploads.length], uploadKbPerSecond));
+                    latencies[request] = System.nanoTime() - submitted;
+                    return null;
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        }
+        long elapsed = System.nanoTime() - start;
+
+        Arrays.sort(latencies);
+        System.out.printf("%-40s %,10.0f req/s   p50 %,8.1f ms   p99 %,8.1f ms%n",
+                mode,
+                requests / (elapsed / 1e9),
+                percentile(latencies, 0.50),
+                percentile(latencies, 0.99));
+    }
+
+    private static double percentile(long[] sorted, double quantile) {
+        int index = (int) Math.ceil(quantile * sorted.length) - 1;
+        return sorted[Math.max(0, index)] / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    /**
+     * An upload whose content arrives at a fixed rate, as from a client on a slow link; a rate of
+     * zero delivers it at once
+     */
+    private static final class PacedUpload implements MultipartFile {
+
+        private static final int CHUNK = 8192;
+
+        private final String filename;
+        private final byte[] content;
+        private final long nanosPerByte;
+
+        PacedUpload(String filename, byte[] content, int kbPerSecond) {
+            this.filename = filename;
+            this.content = content;
+            this.nanosPerByte = kbPerSecond > 0 ? TimeUnit.SECONDS.toNanos(1) / (kbPerSecond * 1024L) : 0;
+        }
+
+        @Override
+        public String getName() {
+            return "file";
+        }
+
+        @Override
+        public String getOriginalFilename() {
+            return filename;
+        }
+
+        @Override
+        public String getContentType() {
+            return "application/pdf";
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return content.length == 0;
+        }
+
+        @Override
+        public long getSize() {
+            return content.length;
+        }
+
+        @Override
+        public byte[] getBytes() throws IOException {
+            try (InputStream in = getInputStream()) {
+                return in.readAllBytes();
+            }
+        }
+
+        @Override
+        public InputStream getInputStream() {
+            return new FilterInputStream(new ByteArrayInputStream(content)) {
+                @Override
+                public int read() throws IOException {
+                    byte[] one = new byte[1];
+                    return read(one, 0, 1) < 0 ? -1 : one[0] & 0xff;
+                }
+
+                @Override
+                public int read(byte[] buffer, int offset, int length) throws IOException {
+                    int read = super.read(buffer, offset, Math.min(length, CHUNK));
+                    if (read > 0 && nanosPerByte > 0) {
+                        try {
+                            TimeUnit.NANOSECONDS.sleep(read * nanosPerByte);
+                        } catch (InterruptedException e) {
+                            Thread.currentThread().interrupt();
+                            throw new IOException("Interrupted while receiving the upload", e);
+                        }
+                    }
+                    return read;
+                }
+            };
+        }
+
+        @Override
+        public void transferTo(File dest) throws IOException {
+            try (InputStream in = getInputStream()) {
+                Files.copy(in, dest.toPath(), StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
@@ -0,0 +1,93 @@
+package com.example.fnol_agent.perf;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.service.ByteArrayMultipartFile;
+import com.example.fnol_agent.service.PartialExtractionException;
+import com.example.fnol_agent.service.TxtExtractionService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link TxtExtractionService#extractTxtFNOLDocument} over a typical claim, a claim with a long
+ * narrative, and text built to make the extraction patterns backtrack.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TxtExtractionBenchmark {
+
+    @Param({"small", "large", "adversarial"})
+    public String document;
+
+    private TxtExtractionService extraction;
+    private ByteArrayMultipartFile file;
+
+    @Setup
+    public void setUp() throws IOException {
+        extraction = BenchmarkFixtures.txtExtraction(new SimpleMeterRegistry());
+        String text = switch (document) {
+            case "small" -> BenchmarkFixtures.SAMPLE_TXT;
+            case "large" -> large();
+            case "adversarial" -> adversarial();
+            default -> throw new IllegalArgumentException("Unknown document " + document);
+        };
+        file = new ByteArrayMultipartFile("claim.txt", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Benchmark
+    public FNOLDocument extract() throws IOException {
+        try {
+            return extraction.extractTxtFNOLDocument(file);
+        } catch (PartialExtractionException e) {
+            // Hitting the matching budget is the expected outcome for adversarial text
+            return e.getDocument();
+        }
+    }
+
+    /**
+     * The sample claim followed by about 256 KB of remarks, as in claims with pasted statements
+     */
+    private static String large() {
+        StringBuilder text = new StringBuilder(BenchmarkFixtures.SAMPLE_TXT).append("Remarks:\n");
+        for (int i = 0; text.length() < 256 * 1024; i++) {
+            text.append("Statement ").append(i)
+                    .append(": the insured was travelling north on Market Street at about 25 mph when the ")
+                    .append("vehicle ahead braked suddenly; road surface was dry and visibility was good.\n");
+        }
+        return text.toString();
+    }
+
+    /**
+     * About 64 KB of near-misses for the label, date, amount and contact patterns, without a
+     * single line break to end a section
+     */
+    private static String adversarial() {
+        StringBuilder text = new StringBuilder(BenchmarkFixtures.SAMPLE_TXT);
+        while (text.length() < 64 * 1024) {
+            text.append("Policy Number: POL-").append("9-".repeat(40))
+                    .append(" Date of Loss: 1/1/").append("1".repeat(12))
+                    .append(" Estimated Damage: $").append("1,".repeat(30))
+                    .append(" Email: a.").append("a.".repeat(20)).append('@')
+                    .append(" Phone: (555) ").append("5-".repeat(15))
+                    .append(" Photos of ").append("x ".repeat(20));
+        }
+        return text.toString();
+    }
+}
@@ -0,0 +1,98 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.perf.BenchmarkFixtures;
+import com.example.fnol_agent.routing.RoutingRule;
+import com.example.fnol_agent.routing.RoutingRules;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * {@link FNOLProcessingService#buildExtractedFields} and the result assembly of
+ * {@code FNOLProcessingService}, then writing the result as JSON the way
+ * {@code JsonResponseConverter} writes response bodies.
+ * <p>
+ * Lives in the service package to reach the package-private {@code buildExtractedFields}.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ResultSerializationBenchmark {
+
+    private FNOLDocument document;
+    private RoutingRules rules;
+    private RoutingRule rule;
+    private String reasoning;
+    private ObjectWriter compact;
+    private ObjectWriter pretty;
+    private OutputStream out;
+
+    @Setup
+    public void setUp() throws IOException {
+        document = BenchmarkFixtures.txtExtraction(new SimpleMeterRegistry())
+                .extractFNOLDocument(BenchmarkFixtures.SAMPLE_TXT, "benchmark");
+        ClaimAssessment assessment = BenchmarkFixtures.assessor().assess("benchmark", document);
+
+        ClaimRoutingService routing = BenchmarkFixtures.routing();
+        rules = routing.currentRules();
+        rule = routing.determineRoute(rules, assessment);
+        reasoning = routing.generateReasoning(rule, assessment);
+
+        compact = BenchmarkFixtures.objectMapper().writer().without(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+        pretty = compact.with(SerializationFeature.INDENT_OUTPUT);
+        out = OutputStream.nullOutputStream();
+    }
+
+    @Benchmark
+    public ExtractedFields buildExtractedFields() {
+        return FNOLProcessingService.buildExtractedFields(document);
+    }
+
+    @Benchmark
+    public ProcessingResult buildAndWrite() throws IOException {
+        ProcessingResult result = buildResult();
+        compact.writeValue(out, result);
+        return result;
+    }
+
+    @Benchmark
+    public ProcessingResult buildAndWritePretty() throws IOException {
+        ProcessingResult result = buildResult();
+        pretty.writeValue(out, result);
+        return result;
+    }
+
+    private ProcessingResult buildResult() {
+        return ProcessingResult.builder()
+                .claimId("6f1c2a7e-3b9d-4e52-9a61-0c8d5f4b2e17")
+                .extractedFields(FNOLProcessingService.buildExtractedFields(document))
+                .missingFields(document.getMissingFields())
+                .recommendedRoute(rule.decision().name())
+                .reasoning(reasoning)
+                .status("SUCCESS")
+                .rulesVersion(rules.version())
+                .build();
+    }
+}
@@ -0,0 +1,86 @@
+package com.example.fnol_agent.assessment;
+
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.model.PolicyInformation;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.annotation.AnnotationConfigApplicationContext;
+import org.springframework.core.annotation.Order;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+class ClaimAssessorTest {
+
+    @Order(20)
+    static class Second implements AssessmentContributor {
+        @Override
+        public void contribute(FNOLDocument document, ClaimAssessment.Builder assessment) {
+            assessment.warning("second").attribute("order", assessment.claimId() + ":second");
+        }
+    }
+
+    @Order(10)
+    static class First implements AssessmentContributor {
+        @Override
+        public void contribute(FNOLDocument document, ClaimAssessment.Builder assessment) {
+            assessment.warning("first").attribute("order", assessment.claimId() + ":first");
+        }
+    }
+
+    private static FNOLDocument document() {
+        return FNOLDocument.builder()
+                .policyInformation(PolicyInformation.builder().policyNumber("POL-1").policyholderName("Jane Doe").build())
+                .build();
+    }
+
+    @Test
+    void runsContributorsInOrderAsWiredBySpring() {
+        try (AnnotationConfigApplicationContext context =
+                     new AnnotationConfigApplicationContext(Second.class, First.class, ClaimAssessor.class)) {
+            ClaimAssessment assessment = context.getBean(ClaimAssessor.class).assess("c1", document());
+
+            assertEquals(List.of("first", "second"), assessment.getWarnings());
+            assertEquals("c1:second", assessment.getAttribute("order"));
+        }
+    }
+
+    @Test
+    void asksTheDocumentForItsMissingFieldsOnce() {
+        FNOLDocument document = spy(document());
+        ClaimAssessor assessor = new ClaimAssessor(List.of(new MissingFieldsContributor(),
+                new FraudIndicatorContributor(lexicon())));
+
+        ClaimAssessment assessment = assessor.assess("c1", document);
+        assessment.getMissingFields();
+        assessment.getMissingFields();
+
+        verify(document, times(1)).getMissingFields();
+        assertEquals(document().getMissingFields(), assessment.getMissingFields());
+    }
+
+    @Test
+    void keepsContributionsInTheAssessment() {
+        ClaimAssessment assessment = new ClaimAssessor(List.of(new First(), new Second())).assess("c1", document());
+
+        assertEquals("c1", assessment.getClaimId());
+        assertEquals(List.of("first", "second"), assessment.getWarnings());
+        assertEquals("c1:second", assessment.getAttribute("order"));
+        assertNull(assessment.getAttribute("absent"));
+    }
+
+    private static FraudLexicon lexicon() {
+        try (InputStream in = ClaimAssessorTest.class.getResourceAsStream("/fraud-lexicon.json")) {
+            return FraudLexicon.load(in.readAllBytes(), new ObjectMapper());
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
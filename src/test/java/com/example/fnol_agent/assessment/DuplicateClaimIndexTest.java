@@ -0,0 +1,171 @@
+package com.example.fnol_agent.assessment;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DuplicateClaimIndexTest {
+
+    @TempDir
+    Path dir;
+
+    private static UUID claim(long n) {
+        return new UUID(n, ~n);
+    }
+
+    /**
+     * Spread key hashes over every segment, like {@link DuplicateClaimContributor#keyHash} does
+     */
+    private static long key(long n) {
+        return DuplicateClaimContributor.keyHash("POL-" + n, LocalDate.of(2024, 1, 1), "ABC" + n);
+    }
+
+    @Test
+    void returnsTheFirstClaimRecordedUnderAKey() {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(100);
+
+        assertNull(index.putIfAbsent(42, claim(1)));
+        assertEquals(claim(1), index.putIfAbsent(42, claim(2)));
+        assertEquals(claim(1), index.putIfAbsent(42, claim(3)));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void storesAZeroKeyHashLikeAnyOther() {
+        // Zero marks a free slot, so it is stored as one
+        DuplicateClaimIndex index = new DuplicateClaimIndex(100);
+
+        assertNull(index.putIfAbsent(0, claim(1)));
+        assertEquals(claim(1), index.putIfAbsent(0, claim(2)));
+        assertEquals(claim(1), index.putIfAbsent(1, claim(3)));
+    }
+
+    @Test
+    void growsPastTheExpectedNumberOfClaims() {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(16);
+        long initialBytes = index.capacityBytes();
+
+        for (long n = 0; n < 20_000; n++) {
+            assertNull(index.putIfAbsent(key(n), claim(n)));
+        }
+
+        assertEquals(20_000, index.size());
+        assertTrue(index.capacityBytes() > initialBytes);
+        for (long n = 0; n < 20_000; n++) {
+            assertEquals(claim(n), index.putIfAbsent(key(n), claim(-1)));
+        }
+    }
+
+    @Test
+    void growsASegmentThatTakesEveryKey() {
+        // All keys share their top bits, so they land in one segment and only that segment grows
+        DuplicateClaimIndex index = new DuplicateClaimIndex(16);
+        long initialBytes = index.capacityBytes();
+
+        for (long n = 1; n <= 5_000; n++) {
+            assertNull(index.putIfAbsent(0x7000_0000_0000_0000L | n << 8, claim(n)));
+        }
+
+        assertEquals(5_000, index.size());
+        for (long n = 1; n <= 5_000; n++) {
+            assertEquals(claim(n), index.putIfAbsent(0x7000_0000_0000_0000L | n << 8, claim(-1)));
+        }
+        // One segment grown to 8192 slots, the smallest that holds 5000 keys under 70% full
+        assertEquals(initialBytes / 16 * 15 + 8192 * 24, index.capacityBytes());
+    }
+
+    @Test
+    void stopsRecordingInASegmentThatIsFullAtItsLargestSize() {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(16, 32);
+        long segmentKey = 0x7000_0000_0000_0000L;
+
+        // One slot stays free so that probing for an absent key ends
+        for (long n = 1; n <= 31; n++) {
+            assertNull(index.putIfAbsent(segmentKey | n, claim(n)));
+        }
+        assertEquals(31, index.size());
+
+        assertNull(index.putIfAbsent(segmentKey | 32, claim(32)));
+        assertNull(index.putIfAbsent(segmentKey | 32, claim(33)));
+        assertEquals(31, index.size());
+        assertEquals(claim(31), index.putIfAbsent(segmentKey | 31, claim(-1)));
+
+        // Other segments are unaffected
+        assertNull(index.putIfAbsent(0x1000_0000_0000_0000L, claim(40)));
+        assertEquals(claim(40), index.putIfAbsent(0x1000_0000_0000_0000L, claim(-1)));
+    }
+
+    @Test
+    void readsBackASnapshot() throws IOException {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(1_000);
+        for (long n = 0; n < 3_000; n++) {
+            index.putIfAbsent(key(n), claim(n));
+        }
+        Path snapshot = dir.resolve("duplicates.idx");
+        index.writeSnapshot(snapshot);
+
+        DuplicateClaimIndex loaded = DuplicateClaimIndex.readSnapshot(snapshot);
+
+        assertEquals(index.size(), loaded.size());
+        assertEquals(index.capacityBytes(), loaded.capacityBytes());
+        for (long n = 0; n < 3_000; n++) {
+            assertEquals(claim(n), loaded.putIfAbsent(key(n), claim(-1)));
+        }
+        assertNull(loaded.putIfAbsent(key(3_000), claim(3_000)));
+        assertFalse(Files.exists(dir.resolve("duplicates.idx.tmp")));
+    }
+
+    @Test
+    void replacesAnEarlierSnapshot() throws IOException {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(100);
+        Path snapshot = dir.resolve("duplicates.idx");
+        index.putIfAbsent(key(1), claim(1));
+        index.writeSnapshot(snapshot);
+        index.putIfAbsent(key(2), claim(2));
+        index.writeSnapshot(snapshot);
+
+        DuplicateClaimIndex loaded = DuplicateClaimIndex.readSnapshot(snapshot);
+        assertEquals(2, loaded.size());
+        assertEquals(claim(2), loaded.putIfAbsent(key(2), claim(-1)));
+    }
+
+    @Test
+    void rejectsForeignAndTruncatedSnapshots() throws IOException {
+        DuplicateClaimIndex index = new DuplicateClaimIndex(100);
+        index.putIfAbsent(key(1), claim(1));
+        Path snapshot = dir.resolve("duplicates.idx");
+        index.writeSnapshot(snapshot);
+        byte[] bytes = Files.readAllBytes(snapshot);
+
+        Path truncated = Files.write(dir.resolve("truncated.idx"), Arrays.copyOf(bytes, bytes.length - 1));
+        assertThrows(IOException.class, () -> DuplicateClaimIndex.readSnapshot(truncated));
+
+        byte[] foreignBytes = bytes.clone();
+        foreignBytes[0] ^= 1;
+        Path foreign = Files.write(dir.resolve("foreign.idx"), foreignBytes);
+        assertThrows(IOException.class, () -> DuplicateClaimIndex.readSnapshot(foreign));
+
+        // First segment header claims more entries than slots
+        byte[] corruptBytes = bytes.clone();
+        ByteBuffer.wrap(corruptBytes).order(ByteOrder.LITTLE_ENDIAN).putInt(16, Integer.MAX_VALUE);
+        Path corrupt = Files.write(dir.resolve("corrupt.idx"), corruptBytes);
+        assertThrows(IOException.class, () -> DuplicateClaimIndex.readSnapshot(corrupt));
+
+        assertArrayEquals(bytes, Files.readAllBytes(snapshot));
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.fnol_agent.assessment;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FraudLexiconTest {
+
+    private static FraudLexicon load(String json) throws IOException {
+        return FraudLexicon.load(json.getBytes(StandardCharsets.UTF_8), new ObjectMapper());
+    }
+
+    private static List<String> terms(FraudLexicon lexicon, String text) {
+        return lexicon.scan(text).stream().map(FraudLexicon.Hit::term).toList();
+    }
+
+    @Test
+    void matchesWholeWordsOnly() throws IOException {
+        FraudLexicon lexicon = load("{\"terms\": [\"fake\", \"fraud\"]}");
+
+        assertEquals(List.of("fake", "fraud"), terms(lexicon, "A FAKE invoice, possible Fraud."));
+        assertTrue(terms(lexicon, "fakery and defrauded parties").isEmpty());
+    }
+
+    @Test
+    void matchesStemmedFormsUnlessDisabled() throws IOException {
+        FraudLexicon lexicon = load("{\"terms\": [\"fake\", {\"term\": \"staged\", \"stem\": false}]}");
+
+        assertEquals(List.of("fake", "fake", "fake"), terms(lexicon, "faked, fakes and faking"));
+        assertEquals(List.of("staged"), terms(lexicon, "a staged collision, not a stage show"));
+    }
+
+    @Test
+    void matchesPhrasesAcrossSpacesAndPunctuation() throws IOException {
+        FraudLexicon lexicon = load("{\"terms\": [\"prior claim\", \"claim\"]}");
+        String text = "A prior -\n claim was filed";
+
+        List<FraudLexicon.Hit> hits = lexicon.scan(text);
+        assertEquals(2, hits.size());
+        FraudLexicon.Hit phrase = hits.stream().filter(hit -> hit.term().equals("prior claim")).findFirst().orElseThrow();
+        assertEquals(text.indexOf("prior"), phrase.start());
+        assertEquals(text.indexOf("claim") + "claim".length(), phrase.end());
+    }
+
+    @Test
+    void reportsOverlappingTermsEndingAtTheSameWord() throws IOException {
+        FraudLexicon lexicon = load("{\"terms\": [\"staged accident\", \"accident\", \"inconsistent\"]}");
+
+        assertEquals(List.of("inconsistent", "staged accident", "accident"),
+                terms(lexicon, "Inconsistent story about a staged accident"));
+    }
+
+    @Test
+    void loadsTheBundledLexicon() throws IOException {
+        FraudLexicon lexicon;
+        try (var in = FraudLexiconTest.class.getResourceAsStream("/fraud-lexicon.json")) {
+            lexicon = FraudLexicon.load(in.readAllBytes(), new ObjectMapper());
+        }
+
+        assertEquals(7, lexicon.size());
+        assertEquals(List.of("inconsistent", "fraudulent"),
+                terms(lexicon, "Statements inconsistent; invoice looks fraudulent"));
+    }
+
+    @Test
+    void versionChangesWithContent() throws IOException {
+        assertNotEquals(load("{\"terms\": [\"fake\"]}").version(), load("{\"terms\": [\"fraud\"]}").version());
+    }
+
+    @Test
+    void rejectsInvalidTerms() {
+        assertThrows(IllegalArgumentException.class, () -> load("{\"terms\": []}"));
+        assertThrows(IllegalArgumentException.class, () -> load("{\"terms\": [\"--\"]}"));
+        assertThrows(IllegalArgumentException.class, () -> load("{\"terms\": [42]}"));
+    }
+
+    @Test
+    void ignoresNullText() throws IOException {
+        assertTrue(load("{\"terms\": [\"fake\"]}").scan(null).isEmpty());
+    }
+}
@@ -0,0 +1,89 @@
+package com.example.fnol_agent.assessment;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class NearDuplicateIndexTest {
+
+    private static final String ORIGINAL = "Rear-ended at a red light while stopped in traffic on the way to work. "
+            + "Police attended and filed a report. The vehicle was towed to a body shop on Market Street.";
+    private static final String REWORDED = "Rear-ended at a red light while stopped in traffic on the way to work. "
+            + "Police attended and filed a report. The vehicle was towed to a body shop on Oak Avenue.";
+    private static final String UNRELATED = "Hail storm dented the roof and cracked the windshield while parked "
+            + "overnight in the driveway. Photos were taken the next morning before the insured drove to work.";
+
+    private static final double THRESHOLD = 0.8;
+
+    @Test
+    void findsARewordedDescription() {
+        NearDuplicateIndex index = new NearDuplicateIndex(100, 60_000, 8);
+        assertNull(index.findAndAdd("c1", index.signature(ORIGINAL), THRESHOLD, 0));
+
+        NearDuplicateIndex.Match match = index.findAndAdd("c2", index.signature(REWORDED), THRESHOLD, 1);
+        assertNotNull(match);
+        assertEquals("c1", match.claimId());
+        assertTrue(match.similarity() >= THRESHOLD, String.valueOf(match.similarity()));
+    }
+
+    @Test
+    void ignoresDissimilarDescriptions() {
+        NearDuplicateIndex index = new NearDuplicateIndex(100, 60_000, 8);
+        index.findAndAdd("c1", index.signature(ORIGINAL), THRESHOLD, 0);
+
+        assertNull(index.findAndAdd("c2", index.signature(UNRELATED), THRESHOLD, 1));
+        assertEquals(2, index.size());
+    }
+
+    @Test
+    void identicalDescriptionsAreFullySimilar() {
+        NearDuplicateIndex index = new NearDuplicateIndex(100, 60_000, 8);
+        index.findAndAdd("c1", index.signature(ORIGINAL), THRESHOLD, 0);
+
+        assertEquals(1.0, index.findAndAdd("c2", index.signature(ORIGINAL.toUpperCase()), THRESHOLD, 1).similarity());
+    }
+
+    @Test
+    void skipsDescriptionsThatAreTooShort() {
+        NearDuplicateIndex index = new NearDuplicateIndex(100, 60_000, 8);
+
+        assertNull(index.signature("Rear-ended at a light"));
+    }
+
+    @Test
+    void forgetsClaimsOutsideTheWindow() {
+        NearDuplicateIndex index = new NearDuplicateIndex(100, 1_000, 8);
+        index.findAndAdd("c1", index.signature(ORIGINAL), THRESHOLD, 0);
+
+        assertNull(index.findAndAdd("c2", index.signature(ORIGINAL), THRESHOLD, 5_000));
+        assertEquals(1, index.size());
+    }
+
+    @Test
+    void evictsTheOldestClaimWhenFull() {
+        NearDuplicateIndex index = new NearDuplicateIndex(2, 60_000, 8);
+        index.findAndAdd("c1", index.signature(ORIGINAL), THRESHOLD, 0);
+        index.findAndAdd("c2", index.signature(UNRELATED), THRESHOLD, 1);
+        index.findAndAdd("c3", index.signature(UNRELATED + " Again."), THRESHOLD, 2);
+
+        assertEquals(2, index.size());
+        assertNull(index.findAndAdd("c4", index.signature(ORIGINAL), THRESHOLD, 3));
+    }
+
+    @Test
+    void keepsFindingClaimsAfterTheRingWrapsAround() {
+        NearDuplicateIndex index = new NearDuplicateIndex(3, 60_000, 8);
+        for (int i = 0; i < 10; i++) {
+            index.findAndAdd("filler-" + i, index.signature(UNRELATED + " Claim number " + i + " of many."),
+                    THRESHOLD, i);
+        }
+        index.findAndAdd("c1", index.signature(ORIGINAL), THRESHOLD, 10);
+
+        NearDuplicateIndex.Match match = index.findAndAdd("c2", index.signature(REWORDED), THRESHOLD, 11);
+        assertNotNull(match);
+        assertEquals("c1", match.claimId());
+    }
+}
@@ -0,0 +1,84 @@
+package com.example.fnol_agent.controller;
+
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.model.ProcessingJob;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.service.StageTimers;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.http.MockHttpOutputMessage;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+
+import java.io.IOException;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class JsonResponseConverterTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final JsonResponseConverter converter =
+            new JsonResponseConverter(new JacksonConfig().objectMapper(), new StageTimers(meterRegistry));
+    private final JsonResponses jsonResponses = new JsonResponses();
+
+    private final ProcessingResult result = ProcessingResult.builder()
+            .status("SUCCESS")
+            .recommendedRoute("FAST_TRACK")
+            .errors(List.of())
+            .build();
+
+    @BeforeEach
+    void bindRequest() {
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(new MockHttpServletRequest()));
+    }
+
+    @AfterEach
+    void unbindRequest() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    private String write(Object body) throws IOException {
+        MockHttpOutputMessage out = new MockHttpOutputMessage();
+        converter.write(body, MediaType.APPLICATION_JSON, out);
+        return out.getBodyAsString();
+    }
+
+    @Test
+    void writesOnlyTheApiResponseTypes() {
+        assertTrue(converter.canWrite(ProcessingResult.class, MediaType.APPLICATION_JSON));
+        assertTrue(converter.canWrite(ProcessingJob.class, null));
+        assertFalse(converter.canWrite(String.class, MediaType.APPLICATION_JSON));
+        assertFalse(converter.canWrite(ProcessingResult.class, MediaType.APPLICATION_XML));
+        assertFalse(converter.canRead(ProcessingResult.class, MediaType.APPLICATION_JSON));
+    }
+
+    @Test
+    void writesCompactJsonUnlessTheHandlerAskedForIndentation() throws IOException {
+        ResponseEntity<ProcessingResult> response = jsonResponses.body(ResponseEntity.ok(), result, false);
+        assertSame(result, response.getBody());
+        assertEquals(MediaType.APPLICATION_JSON, response.getHeaders().getContentType());
+        assertFalse(write(response.getBody()).contains("\n"));
+
+        jsonResponses.body(ResponseEntity.ok(), result, true);
+        String indented = write(result);
+        assertTrue(indented.contains("\n  \"status\" : \"SUCCESS\""), indented);
+    }
+
+    @Test
+    void recordsSerializationTimeByRoute() throws IOException {
+        write(result);
+        write(ProcessingJob.builder().jobId("job-1").status("QUEUED").build());
+
+        assertEquals(1, meterRegistry.get("fnol.response.serialization").tag("route", "FAST_TRACK").timer().count());
+        assertEquals(1, meterRegistry.get("fnol.response.serialization").tag("route", "none").timer().count());
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.fnol_agent.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ContactScannerTest {
+
+    private static List<String> phones(String text) {
+        return ContactScanner.phones(text).within(text, 0, text.length(), Integer.MAX_VALUE);
+    }
+
+    private static List<String> emails(String text) {
+        return ContactScanner.emails(text).within(text, 0, text.length(), Integer.MAX_VALUE);
+    }
+
+    @Test
+    void findsGroupedAndUngroupedPhoneNumbers() {
+        assertEquals(List.of("555-123-4567", "555.123.4567", "5551234567"),
+                phones("Cell 555-123-4567, home 555.123.4567 or 5551234567."));
+    }
+
+    @Test
+    void findsPhoneNumbersAtTheEdgesOfTheText() {
+        assertEquals(List.of("555-123-4567"), phones("555-123-4567"));
+        assertEquals(List.of("555-123-4567", "555-987-6543"), phones("555-123-4567\n555-987-6543"));
+    }
+
+    @Test
+    void rejectsPhoneNumbersInsideLongerTokens() {
+        assertEquals(List.of(), phones("55512345678"));
+        assertEquals(List.of(), phones("A5551234567"));
+        assertEquals(List.of(), phones("5551234567x"));
+        assertEquals(List.of(), phones("555-123-456"));
+        assertEquals(List.of(), phones("555--123-4567"));
+        assertEquals(List.of(), phones("Policy POL-2024-881234"));
+    }
+
+    @Test
+    void findsEmailAddresses() {
+        assertEquals(List.of("jane.doe@example.com", "claims+fnol@mail.insurer.co.uk"),
+                emails("Contact jane.doe@example.com or claims+fnol@mail.insurer.co.uk."));
+    }
+
+    @Test
+    void findsEmailAddressesAtTheEdgesOfTheText() {
+        assertEquals(List.of("a@b.io"), emails("a@b.io"));
+        assertEquals(List.of("x@y.org", "z@w.net"), emails("x@y.org,z@w.net"));
+    }
+
+    @Test
+    void rejectsIncompleteEmailAddresses() {
+        assertEquals(List.of(), emails("@example.com"));
+        assertEquals(List.of(), emails("jane@localhost"));
+        assertEquals(List.of(), emails("jane@example.c"));
+        assertEquals(List.of(), emails("jane@.com"));
+        assertEquals(List.of(), emails("jane@example.com2"));
+    }
+
+    @Test
+    void limitsSpansToARange() {
+        String text = "a@b.io 555-123-4567 c@d.io";
+        TextSpans spans = ContactScanner.emails(text);
+
+        assertEquals(2, spans.size());
+        assertEquals(List.of("c@d.io"), spans.within(text, 7, text.length(), 5));
+        assertEquals(List.of("a@b.io"), spans.within(text, 0, text.length(), 1));
+    }
+}
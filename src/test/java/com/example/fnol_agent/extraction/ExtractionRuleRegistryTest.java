@@ -0,0 +1,160 @@
+package com.example.fnol_agent.extraction;
+
+import com.example.fnol_agent.config.ExtractionConfig;
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.service.StageTimers;
+import com.example.fnol_agent.service.TxtExtractionService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ExtractionRuleRegistryTest {
+
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @TempDir
+    Path dir;
+
+    private ExtractionRuleRegistry load(String json) throws IOException {
+        return ExtractionRuleRegistry.load(json.getBytes(StandardCharsets.UTF_8), objectMapper);
+    }
+
+    private static String rules(String fields) {
+        return "{\"version\": \"7\", \"fields\": {" + fields + "}}";
+    }
+
+    private ObjectNode bundled() throws IOException {
+        try (InputStream in = new ClassPathResource("extraction-rules.json").getInputStream()) {
+            return (ObjectNode) objectMapper.readTree(in);
+        }
+    }
+
+    /**
+     * Load a rules file the way the application does for {@code fnol.extraction.rules-location}
+     */
+    private ExtractionRuleRegistry loadOverride(ObjectNode json) throws IOException {
+        Path file = dir.resolve("extraction-rules.json");
+        Files.write(file, objectMapper.writeValueAsBytes(json));
+        return new ExtractionConfig().extractionRuleRegistry(new FileSystemResource(file), objectMapper);
+    }
+
+    private static TxtExtractionService extraction(ExtractionRuleRegistry rules) {
+        return new TxtExtractionService(rules, new StageTimers(new SimpleMeterRegistry()), 500, 2000, 2_000_000);
+    }
+
+    @Test
+    void compilesTheBundledRules() throws IOException {
+        ExtractionRuleRegistry registry = new ExtractionConfig()
+                .extractionRuleRegistry(new ClassPathResource("extraction-rules.json"), objectMapper);
+
+        extraction(registry);
+        assertTrue(registry.version().matches("1-[0-9a-f]{8}"), registry.version());
+        assertEquals(List.of("Policy Number", "PolicyNumber", "Policy No", "Policy No.", "Policy #"),
+                registry.rule("policyInformation.policyNumber").labels());
+        assertTrue(registry.pattern("assetDetails.vin").matcher("1hgcm82633a004352").matches());
+        assertEquals(200, registry.sectionLength("attachments"));
+    }
+
+    @Test
+    void loadsAnOverrideFromTheRulesLocation() throws IOException {
+        ObjectNode json = bundled();
+        ((ObjectNode) json.path("fields").path("policyInformation.policyNumber"))
+                .putArray("labels").add("Policy Number").add("Contract");
+
+        ExtractionRuleRegistry registry = loadOverride(json);
+
+        extraction(registry);
+        assertEquals(List.of("Policy Number", "Contract"), registry.rule("policyInformation.policyNumber").labels());
+    }
+
+    @Test
+    void rejectsAnOverrideMissingARuleTheExtractorNeeds() throws IOException {
+        ObjectNode json = bundled();
+        ((ObjectNode) json.path("fields")).remove("assetDetails.vin");
+        ExtractionRuleRegistry registry = loadOverride(json);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> extraction(registry));
+        assertEquals("No extraction rule declared for assetDetails.vin", e.getMessage());
+    }
+
+    @Test
+    void rejectsAnOverrideWithoutAPatternTheExtractorNeeds() throws IOException {
+        ObjectNode json = bundled();
+        ((ObjectNode) json.path("fields").path("assetDetails.vin")).remove("pattern");
+        ExtractionRuleRegistry registry = loadOverride(json);
+
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> extraction(registry));
+        assertEquals("Extraction rule assetDetails.vin declares no pattern", e.getMessage());
+    }
+
+    @Test
+    void rejectsMalformedRules() {
+        assertEquals("Invalid pattern in extraction rule assetDetails.vin: Unclosed group",
+                assertThrows(IllegalArgumentException.class,
+                        () -> load(rules("\"assetDetails.vin\": {\"pattern\": \"([A-Z]\"}"))).getMessage());
+        assertEquals("Blank label in extraction rule claimType.vehicle",
+                assertThrows(IllegalArgumentException.class,
+                        () -> load(rules("\"claimType.vehicle\": {\"labels\": [\"Vehicle\", \" \"]}"))).getMessage());
+        assertEquals("Negative section length in extraction rule attachments",
+                assertThrows(IllegalArgumentException.class,
+                        () -> load(rules("\"attachments\": {\"labels\": [\"Attachments\"], \"section\": -1}"))).getMessage());
+        assertEquals("Extraction rule claimType.vehicle declares neither labels nor pattern",
+                assertThrows(IllegalArgumentException.class,
+                        () -> load(rules("\"claimType.vehicle\": {\"section\": 10}"))).getMessage());
+        assertEquals("Extraction rules file declares no fields",
+                assertThrows(IllegalArgumentException.class, () -> load(rules(""))).getMessage());
+    }
+
+    @Test
+    void rejectsUnknownPropertiesAndBrokenJson() {
+        JsonProcessingException unknown = assertThrows(JsonProcessingException.class,
+                () -> load(rules("\"assetDetails.vin\": {\"patern\": \"[A-Z0-9]{17}\"}")));
+        assertTrue(unknown.getMessage().contains("\"patern\""), unknown.getMessage());
+
+        assertThrows(JsonProcessingException.class, () -> load("{\"fields\": {\"assetDetails.vin\": "));
+    }
+
+    @Test
+    void failsFastOnRulesTheCallerDependsOn() throws IOException {
+        ExtractionRuleRegistry registry = load(rules("""
+                "claimType.vehicle": {"labels": ["Vehicle"]},
+                "values.date": {"pattern": "\\\\d+"}
+                """));
+
+        assertEquals("Extraction rule claimType.vehicle declares no pattern",
+                assertThrows(IllegalStateException.class, () -> registry.pattern("claimType.vehicle")).getMessage());
+        assertEquals("Extraction rule claimType.vehicle declares no section length",
+                assertThrows(IllegalStateException.class, () -> registry.sectionLength("claimType.vehicle")).getMessage());
+        assertEquals("Extraction rule values.date declares no labels",
+                assertThrows(IllegalStateException.class, () -> registry.requireLabels("values.date")).getMessage());
+    }
+
+    @Test
+    void versionChangesWithTheContent() throws IOException {
+        String vehicle = rules("\"claimType.vehicle\": {\"labels\": [\"Vehicle\"]}");
+        String vehicles = rules("\"claimType.vehicle\": {\"labels\": [\"Vehicle\", \"Vehicles\"]}");
+
+        assertEquals(load(vehicle).version(), load(vehicle).version());
+        assertNotEquals(load(vehicle).version(), load(vehicles).version());
+        assertTrue(load(vehicle).version().startsWith("7-"), load(vehicle).version());
+        assertTrue(load("{\"fields\": {\"claimType.vehicle\": {\"labels\": [\"Vehicle\"]}}}").version()
+                .matches("[0-9a-f]{8}"));
+    }
+}
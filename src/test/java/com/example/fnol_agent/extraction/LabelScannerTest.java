@@ -0,0 +1,147 @@
+package com.example.fnol_agent.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class LabelScannerTest {
+
+    private static final String STATE = "state";
+    private static final String DRIVER = "driver";
+    private static final String DAMAGE = "damage";
+    private static final String DESCRIPTION = "description";
+    private static final String DAMAGE_DESCRIPTION = "damageDescription";
+    private static final String VEHICLE = "vehicle";
+    private static final String CLAIMANT = "claimant";
+
+    private final LabelScanner scanner = new LabelScanner(labels());
+
+    private static Map<String, List<String>> labels() {
+        Map<String, List<String>> labels = new LinkedHashMap<>();
+        labels.put(STATE, List.of("State"));
+        labels.put(DRIVER, List.of("Driver", "Driver Name"));
+        labels.put(DAMAGE, List.of("Estimated Damage", "Damage Estimate"));
+        labels.put(DESCRIPTION, List.of("Description"));
+        labels.put(DAMAGE_DESCRIPTION, List.of("Damage Description"));
+        labels.put(VEHICLE, List.of("Vehicle", "Vehicles"));
+        labels.put(CLAIMANT, List.of("Claimant"));
+        return labels;
+    }
+
+    @Test
+    void readsLabelValuesCaseInsensitively() {
+        LabelIndex index = scanner.scan("STATE: IL\ndriver name:   Jane Doe  \n");
+
+        assertEquals("IL", index.value(STATE));
+        assertEquals("Jane Doe", index.value(DRIVER));
+    }
+
+    @Test
+    void matchesLabelsOnlyAtWordBoundaries() {
+        // "Statement" and "Drivers" used to match "State" and "Driver" as substrings
+        LabelIndex index = scanner.scan("Statement: taken at scene\nDrivers license: D123\n");
+
+        assertFalse(index.contains(STATE));
+        assertFalse(index.contains(DRIVER));
+        assertNull(index.value(STATE));
+    }
+
+    @Test
+    void matchesAnyRunOfSpacesInsideALabel() {
+        LabelIndex index = scanner.scan("Estimated \t  Damage: $4,800\n");
+
+        assertEquals("$4,800", index.value(DAMAGE));
+    }
+
+    @Test
+    void prefersTheLongestLabelAtAPosition() {
+        LabelIndex index = scanner.scan("Damage Description: Rear bumper\nDescription: Rear-ended\n");
+
+        assertEquals("Rear bumper", index.value(DAMAGE_DESCRIPTION));
+        assertEquals("Rear-ended", index.value(DESCRIPTION));
+        assertEquals(0, index.position(DAMAGE_DESCRIPTION));
+    }
+
+    @Test
+    void countsNestedAndInlineMentionsForContainsOnly() {
+        LabelIndex index = scanner.scan("Notes: the claimant's vehicle was parked\n");
+
+        assertTrue(index.contains(VEHICLE));
+        assertTrue(index.contains(CLAIMANT));
+        assertNull(index.value(VEHICLE));
+    }
+
+    @Test
+    void prefersColonLabelsOverLabelsOpeningALine() {
+        LabelIndex index = scanner.scan("Driver\nwas not injured\nDriver: John Smith\n");
+
+        assertEquals("John Smith", index.value(DRIVER));
+    }
+
+    @Test
+    void endsALineValueAtTheNextLabelOrCell() {
+        LabelIndex index = scanner.scan("State: IL Driver: Jane | Claimant: John\n");
+
+        assertEquals("IL", index.value(STATE));
+        assertEquals("Jane", index.value(DRIVER));
+        assertEquals("John", index.value(CLAIMANT));
+    }
+
+    @Test
+    void readsBlocksUpToATerminatorOrBlankLine() {
+        String text = "Description: Rear-ended at a light.\nBumper damaged.\nClaimant: Jane\n";
+        assertEquals("Rear-ended at a light.\nBumper damaged.",
+                scanner.scan(text).block(DESCRIPTION, CLAIMANT));
+
+        String blank = "Description: Hail damage.\n\nUnrelated footer\n";
+        assertEquals("Hail damage.", scanner.scan(blank).block(DESCRIPTION, CLAIMANT));
+    }
+
+    @Test
+    void reportsValueStartsOfEveryOccurrence() {
+        String text = "Estimated Damage: n/a\nDamage Estimate: $900\n";
+        LabelIndex index = scanner.scan(text);
+
+        int[] starts = index.valueStarts(DAMAGE);
+        assertArrayEquals(new int[]{text.indexOf("n/a"), text.indexOf("$900")}, starts);
+    }
+
+    @Test
+    void foldsAsciiAndNonAsciiCase() {
+        assertEquals('a', LabelScanner.fold('A'));
+        assertEquals('z', LabelScanner.fold('Z'));
+        assertEquals('@', LabelScanner.fold('@'));
+        assertEquals('[', LabelScanner.fold('['));
+        assertEquals('\u00e9', LabelScanner.fold('\u00c9'));
+
+        Map<String, List<String>> labels = new LinkedHashMap<>();
+        labels.put("street", List.of("Stra\u00dfe", "\u00c9glise"));
+        LabelIndex index = new LabelScanner(labels).scan("\u00c9GLISE: Notre-Dame\n");
+        assertEquals("Notre-Dame", index.value("street"));
+    }
+
+    @Test
+    void rejectsALabelDeclaredForTwoKeys() {
+        Map<String, List<String>> labels = new LinkedHashMap<>();
+        labels.put("a", List.of("Name"));
+        labels.put("b", List.of("name"));
+
+        assertThrows(IllegalArgumentException.class, () -> new LabelScanner(labels));
+    }
+
+    @Test
+    void rejectsUnknownKeys() {
+        LabelIndex index = scanner.scan("State: IL");
+
+        assertThrows(IllegalArgumentException.class, () -> index.value("unknown"));
+    }
+}
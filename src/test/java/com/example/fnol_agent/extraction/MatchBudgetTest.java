@@ -0,0 +1,91 @@
+package com.example.fnol_agent.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.regex.Pattern;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class MatchBudgetTest {
+
+    private static void readAll(CharSequence text) {
+        for (int i = 0; i < text.length(); i++) {
+            text.charAt(i);
+        }
+    }
+
+    @Test
+    void allowsStepsPerCharOfTheText() {
+        MatchBudget budget = MatchBudget.forText(10, 2, 0, 60_000);
+        CharSequence guarded = budget.guard("0123456789", "rule");
+
+        readAll(guarded);
+        readAll(guarded);
+        assertEquals(20, budget.steps());
+
+        MatchBudgetExceededException e = assertThrows(MatchBudgetExceededException.class, () -> guarded.charAt(0));
+        assertEquals("rule", e.getRule());
+        assertEquals(21, e.getSteps());
+        assertEquals("Rule 'rule' exceeded its matching budget after 21 steps in " + e.getElapsedMillis() + " ms",
+                e.getMessage());
+    }
+
+    @Test
+    void neverAllowsFewerThanTheMinimumSteps() {
+        MatchBudget budget = MatchBudget.forText(10, 2, 100, 60_000);
+        CharSequence guarded = budget.guard("0123456789", "rule");
+
+        for (int i = 0; i < 10; i++) {
+            readAll(guarded);
+        }
+
+        assertThrows(MatchBudgetExceededException.class, () -> guarded.charAt(0));
+    }
+
+    @Test
+    void chargesEveryGuardedRuleToTheSameBudget() {
+        MatchBudget budget = MatchBudget.forText(10, 1, 0, 60_000);
+        readAll(budget.guard("0123456789", "first"));
+
+        MatchBudgetExceededException e = assertThrows(MatchBudgetExceededException.class,
+                () -> budget.guard("0123456789", "second").charAt(0));
+        assertEquals("second", e.getRule());
+    }
+
+    @Test
+    void doesNotChargeLengthOrSubSequence() {
+        MatchBudget budget = MatchBudget.forText(10, 1, 0, 60_000);
+        CharSequence guarded = budget.guard("0123456789", "rule");
+
+        assertEquals(10, guarded.length());
+        assertEquals("234", guarded.subSequence(2, 5).toString());
+        assertEquals(0, budget.steps());
+    }
+
+    @Test
+    void stopsAtTheDeadline() {
+        MatchBudget budget = MatchBudget.forText(10, 1, Long.MAX_VALUE, 0);
+        CharSequence guarded = budget.guard("0123456789", "rule");
+
+        MatchBudgetExceededException e = assertThrows(MatchBudgetExceededException.class, () -> {
+            while (true) {
+                readAll(guarded);
+            }
+        });
+        // The deadline is only checked every few thousand steps
+        assertEquals(0, e.getSteps() % 4096);
+    }
+
+    @Test
+    void abortsACatastrophicallyBacktrackingRegex() {
+        MatchBudget budget = MatchBudget.forText(40, 1, Long.MAX_VALUE, 50);
+        CharSequence guarded = budget.guard("a".repeat(40), "nested");
+
+        MatchBudgetExceededException e = assertThrows(MatchBudgetExceededException.class,
+                () -> Pattern.compile("(a+)+\\1b").matcher(guarded).find());
+        assertEquals("nested", e.getRule());
+        assertTrue(e.getElapsedMillis() >= 50);
+    }
+}
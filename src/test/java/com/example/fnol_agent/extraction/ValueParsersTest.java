@@ -0,0 +1,97 @@
+package com.example.fnol_agent.extraction;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import static com.example.fnol_agent.extraction.ValueParsers.INVALID_AMOUNT;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ValueParsersTest {
+
+    private static long minorUnits(String text) {
+        return ValueParsers.parseMinorUnits(text, 0, text.length());
+    }
+
+    @Test
+    void parsesSupportedDateShapes() {
+        LocalDate expected = LocalDate.of(2024, 3, 14);
+        assertEquals(expected, ValueParsers.parseDate("03/14/2024"));
+        assertEquals(expected, ValueParsers.parseDate("3-14-2024"));
+        assertEquals(expected, ValueParsers.parseDate("3/14/24"));
+        assertEquals(expected, ValueParsers.parseDate("2024-03-14"));
+        assertEquals(expected, ValueParsers.parseDate("2024/3/14"));
+        assertEquals(expected, ValueParsers.parseDate("  03/14/2024 "));
+    }
+
+    @Test
+    void parsesADateInsideARange() {
+        String text = "Loss: 12/31/2023 reported";
+        assertEquals(LocalDate.of(2023, 12, 31), ValueParsers.parseDate(text, 6, 16));
+    }
+
+    @Test
+    void rejectsInvalidDates() {
+        assertNull(ValueParsers.parseDate((CharSequence) null));
+        assertNull(ValueParsers.parseDate(""));
+        assertNull(ValueParsers.parseDate("13/01/2024"));
+        assertNull(ValueParsers.parseDate("00/10/2024"));
+        assertNull(ValueParsers.parseDate("04/31/2024"));
+        assertNull(ValueParsers.parseDate("02/29/2023"));
+        assertNull(ValueParsers.parseDate("03/14-2024"));
+        assertNull(ValueParsers.parseDate("03/14/202"));
+        assertNull(ValueParsers.parseDate("2024-03-140"));
+        assertNull(ValueParsers.parseDate("03/14/2024 at noon"));
+        assertNull(ValueParsers.parseDate("99999999999999999999/1/1"));
+    }
+
+    @Test
+    void acceptsLeapDays() {
+        assertEquals(LocalDate.of(2024, 2, 29), ValueParsers.parseDate("02/29/2024"));
+        assertEquals(LocalDate.of(2000, 2, 29), ValueParsers.parseDate("2/29/00"));
+    }
+
+    @Test
+    void parsesAmountsIntoMinorUnits() {
+        assertEquals(125050, minorUnits("$1,250.50"));
+        assertEquals(125050, minorUnits("1250.5"));
+        assertEquals(125000, minorUnits("1250"));
+        assertEquals(123457, minorUnits("€ 1,234.565"));
+        assertEquals(123456, minorUnits("£1234.5649"));
+        assertEquals(0, minorUnits("0.00"));
+        assertEquals(100, minorUnits("1."));
+    }
+
+    @Test
+    void parsesAmountsAsBigDecimals() {
+        assertEquals(new BigDecimal("4800.00"), ValueParsers.parseAmount("$4,800"));
+        assertNull(ValueParsers.parseAmount((CharSequence) null));
+        assertNull(ValueParsers.parseAmount("n/a"));
+    }
+
+    @Test
+    void rejectsMalformedAmounts() {
+        assertEquals(INVALID_AMOUNT, minorUnits(""));
+        assertEquals(INVALID_AMOUNT, minorUnits("$"));
+        assertEquals(INVALID_AMOUNT, minorUnits(",100"));
+        assertEquals(INVALID_AMOUNT, minorUnits("1,250 USD"));
+        assertEquals(INVALID_AMOUNT, minorUnits("12.3.4"));
+        assertEquals(INVALID_AMOUNT, minorUnits("-100"));
+    }
+
+    @Test
+    void acceptsTheLargestAmountThatFitsInMinorUnits() {
+        assertEquals(999_999_999_999_999_999L, minorUnits("9999999999999999.99"));
+        assertEquals(999_999_999_999_999_999L, minorUnits("9,999,999,999,999,999.994"));
+        assertEquals(1_000_000_000_000_000_000L, minorUnits("9999999999999999.995"));
+    }
+
+    @Test
+    void rejectsAmountsThatWouldOverflow() {
+        assertEquals(INVALID_AMOUNT, minorUnits("10000000000000000"));
+        assertEquals(INVALID_AMOUNT, minorUnits("92233720368547758.07"));
+        assertEquals(INVALID_AMOUNT, minorUnits("99999999999999999999"));
+    }
+}
@@ -0,0 +1,212 @@
+package com.example.fnol_agent.journal;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClaimJournalTest {
+
+    private static final int SEGMENT_BYTES = 4096;
+    private static final int PAYLOAD_BYTES = 200;
+    private static final int RECORD_BYTES = ClaimJournal.HEADER_BYTES + PAYLOAD_BYTES;
+    /** Records per segment, leaving room for the 4-byte end marker */
+    private static final int PER_SEGMENT = (SEGMENT_BYTES - 4) / RECORD_BYTES;
+
+    @TempDir
+    Path dir;
+
+    private static byte[] payload(long sequence) {
+        byte[] payload = new byte[PAYLOAD_BYTES];
+        byte[] label = ("claim " + sequence).getBytes(StandardCharsets.UTF_8);
+        System.arraycopy(label, 0, payload, 0, label.length);
+        return payload;
+    }
+
+    private static void appendAll(ClaimJournal journal, int count, long firstTimestamp) throws IOException {
+        long last = -1;
+        for (int i = 0; i < count; i++) {
+            long sequence = journal.nextSequence();
+            last = journal.append(payload(sequence), firstTimestamp + i);
+        }
+        if (last >= 0) {
+            journal.awaitDurable(last);
+        }
+    }
+
+    private static List<ClaimJournal.Entry> replay(ClaimJournal journal, long fromSequence) throws IOException {
+        List<ClaimJournal.Entry> entries = new ArrayList<>();
+        journal.replay(fromSequence, entries::add);
+        return entries;
+    }
+
+    private List<Path> segmentFiles() throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files.sorted().toList();
+        }
+    }
+
+    @Test
+    void replaysWhatWasAppendedInOrder() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            assertEquals(0, journal.append(payload(0), 1_000));
+            assertEquals(1, journal.append(payload(1), 1_001));
+            assertEquals(2, journal.append(payload(2), 1_002));
+            journal.awaitDurable(2);
+
+            List<ClaimJournal.Entry> entries = replay(journal, 0);
+            assertEquals(3, entries.size());
+            for (int i = 0; i < 3; i++) {
+                assertEquals(i, entries.get(i).sequence());
+                assertEquals(1_000 + i, entries.get(i).timestampMillis());
+                assertArrayEquals(payload(i), entries.get(i).payload());
+            }
+            assertTrue(journal.flushes() >= 1);
+        }
+    }
+
+    @Test
+    void rollsOverToANewSegmentWhenOneIsFull() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            appendAll(journal, PER_SEGMENT, 0);
+            assertEquals(1, journal.segmentCount());
+
+            appendAll(journal, 1, PER_SEGMENT);
+            assertEquals(2, journal.segmentCount());
+            // Segments are named by their first sequence
+            assertEquals(String.format("claims-%020d.journal", PER_SEGMENT),
+                    segmentFiles().get(1).getFileName().toString());
+
+            appendAll(journal, 2 * PER_SEGMENT, PER_SEGMENT + 1);
+            assertEquals(4, journal.segmentCount());
+            assertEquals(3 * PER_SEGMENT + 1, replay(journal, 0).size());
+        }
+    }
+
+    @Test
+    void continuesTheSequenceAfterReopening() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            appendAll(journal, PER_SEGMENT + 3, 0);
+        }
+
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            assertEquals(PER_SEGMENT + 3, journal.nextSequence());
+            appendAll(journal, 2, 100);
+
+            List<ClaimJournal.Entry> entries = replay(journal, 0);
+            assertEquals(PER_SEGMENT + 5, entries.size());
+            for (int i = 0; i < entries.size(); i++) {
+                assertEquals(i, entries.get(i).sequence());
+                assertArrayEquals(payload(i), entries.get(i).payload());
+            }
+        }
+    }
+
+    @Test
+    void replaysFromASequenceInALaterSegment() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            appendAll(journal, 3 * PER_SEGMENT, 0);
+
+            long from = PER_SEGMENT + 5;
+            List<ClaimJournal.Entry> entries = replay(journal, from);
+            assertEquals(3 * PER_SEGMENT - from, entries.size());
+            assertEquals(from, entries.get(0).sequence());
+            assertEquals(3 * PER_SEGMENT - 1, entries.get(entries.size() - 1).sequence());
+
+            assertEquals(0, replay(journal, 3 * PER_SEGMENT).size());
+        }
+    }
+
+    @Test
+    void dropsARecordTornByACrash() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            appendAll(journal, 5, 0);
+        }
+
+        // Corrupt the payload of the last record, as if the crash came before it was fully written
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) 0xff}), 4L * RECORD_BYTES + ClaimJournal.HEADER_BYTES + 50);
+        }
+
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            assertEquals(4, journal.nextSequence());
+            assertEquals(4, replay(journal, 0).size());
+
+            // The next record takes the torn record's place and sequence
+            assertEquals(4, journal.append(payload(4), 4));
+            journal.awaitDurable(4);
+            List<ClaimJournal.Entry> entries = replay(journal, 0);
+            assertEquals(5, entries.size());
+            assertArrayEquals(payload(4), entries.get(4).payload());
+        }
+    }
+
+    @Test
+    void dropsAHalfWrittenHeaderAfterTheLastRecord() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            appendAll(journal, 3, 0);
+        }
+
+        // A length was written for a fourth record but nothing else
+        Path segment = segmentFiles().get(0);
+        try (FileChannel channel = FileChannel.open(segment, StandardOpenOption.WRITE)) {
+            channel.write(ByteBuffer.wrap(new byte[]{(byte) PAYLOAD_BYTES, 0, 0, 0}), 3L * RECORD_BYTES);
+        }
+
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            assertEquals(3, journal.nextSequence());
+            appendAll(journal, 2, 3);
+            assertEquals(5, replay(journal, 0).size());
+        }
+    }
+
+    @Test
+    void deletesOnlySegmentsWhoseRecordsAreAllOlderThanTheCutoff() throws IOException {
+        try (ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES)) {
+            // Three full segments and a partial one; timestamps equal sequences
+            appendAll(journal, 3 * PER_SEGMENT + 2, 0);
+            assertEquals(4, journal.segmentCount());
+
+            // The second segment still holds a record at the cutoff, so only the first goes
+            assertEquals(1, journal.deleteOlderThan(2L * PER_SEGMENT - 1));
+            assertEquals(3, journal.segmentCount());
+            assertEquals(PER_SEGMENT, replay(journal, 0).get(0).sequence());
+
+            // The active segment is never deleted, even when everything is older
+            assertEquals(2, journal.deleteOlderThan(Long.MAX_VALUE));
+            assertEquals(1, journal.segmentCount());
+            assertEquals(3 * PER_SEGMENT, replay(journal, 0).get(0).sequence());
+
+            appendAll(journal, 1, 3 * PER_SEGMENT + 2);
+            assertEquals(3, replay(journal, 0).size());
+        }
+    }
+
+    @Test
+    void rejectsRecordsLargerThanASegmentAndAppendsAfterClose() throws IOException {
+        ClaimJournal journal = ClaimJournal.open(dir, SEGMENT_BYTES);
+        assertThrows(IOException.class, () -> journal.append(new byte[SEGMENT_BYTES], 0));
+
+        long sequence = journal.append(payload(0), 0);
+        journal.close();
+        // Closing flushes what was appended
+        journal.awaitDurable(sequence);
+        assertThrows(IOException.class, () -> journal.append(payload(1), 1));
+        assertThrows(IllegalArgumentException.class, () -> ClaimJournal.open(dir, 1024));
+    }
+}
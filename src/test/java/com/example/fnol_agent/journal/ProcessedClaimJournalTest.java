@@ -0,0 +1,60 @@
+package com.example.fnol_agent.journal;
+
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.IncidentInformation;
+import com.example.fnol_agent.model.ProcessingResult;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class ProcessedClaimJournalTest {
+
+    @TempDir
+    Path dir;
+
+    private ProcessedClaimJournal open() throws IOException {
+        return new ProcessedClaimJournal(new SimpleMeterRegistry(), new JacksonConfig().objectMapper(),
+                true, dir.toString(), 65_536, true, 90);
+    }
+
+    @Test
+    void replaysJournaledClaimsAfterARestart() throws IOException {
+        ProcessingResult result = ProcessingResult.builder()
+                .claimId("CLM-1")
+                .status("SUCCESS")
+                .recommendedRoute("FAST_TRACK")
+                .extractedFields(ExtractedFields.builder()
+                        .incidentInformation(IncidentInformation.builder()
+                                .incidentDate(LocalDate.of(2024, 3, 15))
+                                .location("Main St")
+                                .description("Rear-ended at a light")
+                                .build())
+                        .build())
+                .build();
+
+        ProcessedClaimJournal journal = open();
+        journal.record(result);
+        journal.record(result.toBuilder().claimId("CLM-2").build());
+        journal.close();
+
+        List<ProcessingResult> replayed = new ArrayList<>();
+        ProcessedClaimJournal reopened = open();
+        try {
+            // The derived IncidentInformation.complete flag is in each record and must not stop the replay
+            assertEquals(2, reopened.replay(replayed::add));
+        } finally {
+            reopened.close();
+        }
+        assertEquals(result, replayed.get(0));
+        assertEquals("CLM-2", replayed.get(1).getClaimId());
+    }
+}
@@ -0,0 +1,154 @@
+package com.example.fnol_agent.pdf;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class FormTemplateRegistryTest {
+
+    private static final String TEMPLATES = """
+            {
+              "version": "1",
+              "defaultTemplate": "carrier",
+              "templates": {
+                "acord": {
+                  "requiredFields": ["Text7"],
+                  "fields": {"POLICY_NUMBER": "Text7", "LOSS_DATE": "Text3", "PLATE_NUMBER": "PLATE NUMBER"}
+                },
+                "carrier": {
+                  "fields": {"POLICY_NUMBER": "policy.number", "LOSS_DATE": "loss.date"}
+                }
+              }
+            }
+            """;
+
+    private static FormTemplateRegistry load(String json) throws IOException {
+        return FormTemplateRegistry.load(json.getBytes(StandardCharsets.UTF_8), new ObjectMapper());
+    }
+
+    /**
+     * Form over a map of values that records which fields were read
+     */
+    private static final class MapForm implements FormFields {
+
+        private final Map<String, String> values;
+        private final List<String> reads = new ArrayList<>();
+
+        MapForm(Map<String, String> values) {
+            this.values = values;
+        }
+
+        @Override
+        public Set<String> names() {
+            return values.keySet();
+        }
+
+        @Override
+        public String value(String name) {
+            reads.add(name);
+            return values.get(name);
+        }
+    }
+
+    @Test
+    void matchesTheTemplateCoveringMostOfItsFields() throws IOException {
+        FormTemplateRegistry registry = load(TEMPLATES);
+
+        assertEquals("acord", registry.match(Set.of("Text7", "Text3", "Other")).id());
+        assertEquals("carrier", registry.match(Set.of("policy.number", "loss.date", "Text3")).id());
+    }
+
+    @Test
+    void skipsTemplatesWhoseRequiredFieldsAreMissing() throws IOException {
+        FormTemplateRegistry registry = load(TEMPLATES);
+
+        assertEquals("carrier", registry.match(Set.of("Text3", "PLATE NUMBER", "policy.number")).id());
+    }
+
+    @Test
+    void fallsBackToTheDefaultTemplate() throws IOException {
+        FormTemplateRegistry registry = load(TEMPLATES);
+
+        assertEquals("carrier", registry.match(Set.of("unrelated")).id());
+        assertEquals("carrier", registry.match(Set.of()).id());
+    }
+
+    @Test
+    void cachesTheMatchByFingerprint() throws IOException {
+        FormTemplateRegistry registry = load(TEMPLATES);
+        Set<String> names = new LinkedHashSet<>(List.of("Text7", "Text3"));
+
+        FormTemplate first = registry.match(names);
+        Set<String> reordered = new LinkedHashSet<>(List.of("Text3", "Text7"));
+        assertSame(first, registry.match(reordered));
+    }
+
+    @Test
+    void fingerprintsIgnoreOrderButNotContent() {
+        long fingerprint = FormTemplateRegistry.fingerprint(List.of("a", "b", "c"));
+
+        assertEquals(fingerprint, FormTemplateRegistry.fingerprint(List.of("c", "a", "b")));
+        assertNotEquals(fingerprint, FormTemplateRegistry.fingerprint(List.of("a", "b")));
+        assertNotEquals(fingerprint, FormTemplateRegistry.fingerprint(List.of("a", "b", "d")));
+        assertNotEquals(FormTemplateRegistry.fingerprint(List.of("ab", "c")),
+                FormTemplateRegistry.fingerprint(List.of("a", "bc")));
+    }
+
+    @Test
+    void readsOnlyTheMappedFields() throws IOException {
+        FormTemplateRegistry registry = load(TEMPLATES);
+        MapForm form = new MapForm(Map.of("Text7", " POL-1 ", "Text3", "03/14/2024", "Remarks", "ignored"));
+
+        FormValues values = registry.extract(form);
+
+        assertEquals("acord", values.templateId());
+        assertEquals("POL-1", values.get(FormSlot.POLICY_NUMBER));
+        assertEquals("03/14/2024", values.get(FormSlot.LOSS_DATE));
+        assertEquals("", values.get(FormSlot.PLATE_NUMBER));
+        assertEquals(2, values.filledCount());
+        assertTrue(form.reads.containsAll(List.of("Text7", "Text3", "PLATE NUMBER")));
+        assertEquals(3, form.reads.size());
+    }
+
+    @Test
+    void loadsTheBundledTemplates() throws IOException {
+        FormTemplateRegistry registry;
+        try (InputStream in = FormTemplateRegistryTest.class.getResourceAsStream("/pdf-templates.json")) {
+            registry = FormTemplateRegistry.load(in.readAllBytes(), new ObjectMapper());
+        }
+
+        assertEquals("acord-2-automobile-loss", registry.match(Set.of("Text7", "Text45", "Text3")).id());
+    }
+
+    @Test
+    void versionChangesWithContent() throws IOException {
+        assertNotEquals(load(TEMPLATES).version(), load(TEMPLATES.replace("Text3", "Text4")).version());
+    }
+
+    @Test
+    void rejectsInvalidTemplates() {
+        assertThrows(IllegalArgumentException.class, () -> load("{\"templates\": {}}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> load("{\"templates\": {\"a\": {\"fields\": {}}}}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> load("{\"templates\": {\"a\": {\"fields\": {\"NOT_A_SLOT\": \"x\"}}}}"));
+        assertThrows(IllegalArgumentException.class,
+                () -> load("{\"templates\": {\"a\": {\"fields\": {\"POLICY_NUMBER\": \" \"}}}}"));
+        assertThrows(IllegalArgumentException.class, () -> load(
+                "{\"defaultTemplate\": \"b\", \"templates\": {\"a\": {\"fields\": {\"POLICY_NUMBER\": \"x\"}}}}"));
+    }
+}
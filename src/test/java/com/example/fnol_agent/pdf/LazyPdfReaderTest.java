@@ -0,0 +1,212 @@
+package com.example.fnol_agent.pdf;
+
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+
+import static com.example.fnol_agent.pdf.PdfFixtures.Entry;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class LazyPdfReaderTest {
+
+    private static String policyNumber(byte[] pdf) throws IOException {
+        return AcroFormReader.open(ByteBuffer.wrap(pdf)).value("PolicyNumber");
+    }
+
+    @Test
+    void readsClassicCrossReferenceTables() throws IOException {
+        assertEquals("POL-1", policyNumber(PdfFixtures.classic("POL-1")));
+    }
+
+    @Test
+    void readsCrossReferenceStreamsAndObjectStreams() throws IOException {
+        assertEquals("POL-2", policyNumber(PdfFixtures.compressed("POL-2")));
+    }
+
+    @Test
+    void prefersHybridStreamEntriesOverFreeTableEntries() throws IOException {
+        assertEquals("POL-3", policyNumber(PdfFixtures.hybrid("POL-3")));
+    }
+
+    @Test
+    void followsIncrementalUpdatesToTheNewestObject() throws IOException {
+        PdfFixtures pdf = new PdfFixtures();
+        int catalog = pdf.object(1, PdfFixtures.catalog());
+        int form = pdf.object(2, PdfFixtures.acroForm());
+        int original = pdf.object(3, PdfFixtures.textField("PolicyNumber", "OLD"));
+        int firstXref = pdf.xrefTable(List.of(Entry.free(0), Entry.at(1, catalog), Entry.at(2, form),
+                Entry.at(3, original)), "/Size 4 /Root 1 0 R");
+        pdf.startXref(firstXref);
+
+        int updated = pdf.object(3, PdfFixtures.textField("PolicyNumber", "NEW"));
+        int secondXref = pdf.xrefTable(List.of(Entry.at(3, updated)), "/Size 4 /Root 1 0 R /Prev " + firstXref);
+        pdf.startXref(secondXref);
+
+        assertEquals("NEW", policyNumber(pdf.bytes()));
+    }
+
+    @Test
+    void honoursObjectsFreedByAnUpdate() throws IOException {
+        PdfFixtures pdf = new PdfFixtures();
+        int catalog = pdf.object(1, PdfFixtures.catalog());
+        int form = pdf.object(2, PdfFixtures.acroForm());
+        int field = pdf.object(3, PdfFixtures.textField("PolicyNumber", "GONE"));
+        int firstXref = pdf.xrefTable(List.of(Entry.free(0), Entry.at(1, catalog), Entry.at(2, form),
+                Entry.at(3, field)), "/Size 4 /Root 1 0 R");
+        pdf.startXref(firstXref);
+        int secondXref = pdf.xrefTable(List.of(Entry.free(3)), "/Size 4 /Root 1 0 R /Prev " + firstXref);
+        pdf.startXref(secondXref);
+
+        LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(pdf.bytes()));
+        assertNull(reader.resolve(new LazyPdfReader.Ref(3, 0)));
+    }
+
+    @Test
+    void resolvesDirectAndIndirectObjects() throws IOException {
+        LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(PdfFixtures.compressed("POL-4")));
+
+        Map<String, Object> catalog = reader.resolveDictionary(reader.trailer().get("Root"));
+        assertEquals(new LazyPdfReader.Name("Catalog"), catalog.get("Type"));
+        assertInstanceOf(List.class, reader.resolveDictionary(catalog.get("AcroForm")).get("Fields"));
+        assertEquals(42L, reader.resolve(42L));
+        assertNull(reader.resolve(new LazyPdfReader.Ref(99, 0)));
+    }
+
+    @Test
+    void rejectsDocumentsWithoutStartXref() {
+        byte[] pdf = "%PDF-1.4\n1 0 obj\n<< >>\nendobj\n".getBytes(StandardCharsets.US_ASCII);
+
+        assertThrows(IOException.class, () -> new LazyPdfReader(ByteBuffer.wrap(pdf)));
+    }
+
+    @Test
+    void rejectsCrossReferenceOffsetsOutOfRange() {
+        byte[] pdf = new PdfFixtures().startXref(1_000_000).bytes();
+
+        assertThrows(IOException.class, () -> new LazyPdfReader(ByteBuffer.wrap(pdf)));
+    }
+
+    @Test
+    void rejectsTruncatedDocuments() {
+        byte[] full = PdfFixtures.compressed("POL-5");
+        byte[] truncated = Arrays.copyOf(full, full.length / 2);
+
+        assertThrows(IOException.class, () -> new LazyPdfReader(ByteBuffer.wrap(truncated)));
+    }
+
+    @Test
+    void rejectsWrongCrossReferenceOffsets() throws IOException {
+        PdfFixtures pdf = new PdfFixtures();
+        pdf.object(1, PdfFixtures.catalog());
+        int xref = pdf.xrefTable(List.of(Entry.at(1, 3)), "/Size 2 /Root 1 0 R");
+        LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes()));
+
+        assertThrows(IOException.class, () -> reader.resolve(new LazyPdfReader.Ref(1, 0)));
+    }
+
+    @Test
+    void rejectsCircularReferences() throws IOException {
+        PdfFixtures pdf = new PdfFixtures();
+        int first = pdf.object(1, "2 0 R");
+        int second = pdf.object(2, "1 0 R");
+        int xref = pdf.xrefTable(List.of(Entry.at(1, first), Entry.at(2, second)), "/Size 3 /Root 1 0 R");
+        LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes()));
+
+        assertThrows(IOException.class, () -> reader.resolve(new LazyPdfReader.Ref(1, 0)));
+    }
+
+    @Test
+    void rejectsEncryptedDocuments() {
+        PdfFixtures pdf = new PdfFixtures();
+        int catalog = pdf.object(1, PdfFixtures.catalog());
+        int xref = pdf.xrefTable(List.of(Entry.at(1, catalog)), "/Size 2 /Root 1 0 R /Encrypt << /Filter /Standard >>");
+
+        assertThrows(IOException.class, () -> new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes())));
+    }
+
+    @Test
+    void rejectsCorruptAndUnsupportedStreams() throws IOException {
+        PdfFixtures pdf = new PdfFixtures();
+        int corrupt = pdf.stream(1, "/Filter /FlateDecode", "not deflate data".getBytes(StandardCharsets.US_ASCII));
+        int unsupported = pdf.stream(2, "/Filter /DCTDecode", new byte[]{1, 2, 3});
+        int xref = pdf.xrefTable(List.of(Entry.at(1, corrupt), Entry.at(2, unsupported)), "/Size 3");
+        LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes()));
+
+        LazyPdfReader.Stream first = assertInstanceOf(LazyPdfReader.Stream.class, reader.resolve(new LazyPdfReader.Ref(1, 0)));
+        assertThrows(IOException.class, () -> reader.streamData(first));
+        LazyPdfReader.Stream second = assertInstanceOf(LazyPdfReader.Stream.class, reader.resolve(new LazyPdfReader.Ref(2, 0)));
+        assertThrows(IOException.class, () -> reader.streamData(second));
+    }
+
+    @Test
+    void inflatesStreamsWithinTheBudget() throws IOException {
+        byte[] content = new byte[LazyPdfReader.MIN_INFLATE_BUDGET / 2];
+        Arrays.fill(content, (byte) 'x');
+        LazyPdfReader reader = readerWithStream(content);
+
+        LazyPdfReader.Stream stream = (LazyPdfReader.Stream) reader.resolve(new LazyPdfReader.Ref(1, 0));
+        assertEquals(content.length, reader.streamData(stream).length);
+    }
+
+    @Test
+    void stopsInflatingPastTheBudget() throws IOException {
+        // A few kilobytes that inflate to more than the budget of a small document
+        LazyPdfReader reader = readerWithStream(new byte[LazyPdfReader.MIN_INFLATE_BUDGET + 1]);
+
+        LazyPdfReader.Stream stream = (LazyPdfReader.Stream) reader.resolve(new LazyPdfReader.Ref(1, 0));
+        assertThrows(IOException.class, () -> reader.streamData(stream));
+    }
+
+    @Test
+    void countsTheBudgetAcrossStreams() throws IOException {
+        LazyPdfReader reader = readerWithStream(new byte[LazyPdfReader.MIN_INFLATE_BUDGET / 2 + 1]);
+
+        LazyPdfReader.Stream stream = (LazyPdfReader.Stream) reader.resolve(new LazyPdfReader.Ref(1, 0));
+        reader.streamData(stream);
+        assertThrows(IOException.class, () -> reader.streamData(stream));
+    }
+
+    @Test
+    void rejectsPredictorParametersBeforeAllocatingARow() throws IOException {
+        // A few hundred bytes that would otherwise ask for rows of gigabytes, or of a negative size
+        for (String parameters : List.of("/Columns 1000000000", "/Columns 0", "/Colors 0", "/Colors 33",
+                "/BitsPerComponent 3", "/Colors 32 /BitsPerComponent 16 /Columns 4611686018427387904")) {
+            PdfFixtures pdf = new PdfFixtures();
+            int stream = pdf.stream(1, "/Filter /FlateDecode /DecodeParms << /Predictor 12 " + parameters + " >>",
+                    PdfFixtures.deflate(new byte[64]));
+            int xref = pdf.xrefTable(List.of(Entry.at(1, stream)), "/Size 2");
+            LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes()));
+
+            LazyPdfReader.Stream resolved = (LazyPdfReader.Stream) reader.resolve(new LazyPdfReader.Ref(1, 0));
+            assertThrows(IOException.class, () -> reader.streamData(resolved), parameters);
+        }
+    }
+
+    @Test
+    void rejectsReferencesOutOfRange() throws IOException {
+        for (String reference : List.of("4294967297 0 R", "2 4294967296 R", "2 99999999999999999999 R")) {
+            PdfFixtures pdf = new PdfFixtures();
+            int object = pdf.object(1, "<< /Parent " + reference + " >>");
+            int xref = pdf.xrefTable(List.of(Entry.at(1, object)), "/Size 2");
+            LazyPdfReader reader = new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes()));
+
+            IOException e = assertThrows(IOException.class, () -> reader.resolve(new LazyPdfReader.Ref(1, 0)), reference);
+            assertEquals("Malformed reference", e.getMessage());
+        }
+    }
+
+    private static LazyPdfReader readerWithStream(byte[] content) throws IOException {
+        PdfFixtures pdf = new PdfFixtures();
+        int stream = pdf.stream(1, "/Filter /FlateDecode", PdfFixtures.deflate(content));
+        int xref = pdf.xrefTable(List.of(Entry.at(1, stream)), "/Size 2");
+        return new LazyPdfReader(ByteBuffer.wrap(pdf.startXref(xref).bytes()));
+    }
+}
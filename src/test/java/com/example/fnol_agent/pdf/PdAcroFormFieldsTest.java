@@ -0,0 +1,45 @@
+package com.example.fnol_agent.pdf;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.interactive.form.PDAcroForm;
+import org.apache.pdfbox.pdmodel.interactive.form.PDNonTerminalField;
+import org.apache.pdfbox.pdmodel.interactive.form.PDTextField;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class PdAcroFormFieldsTest {
+
+    private static PDTextField text(PDAcroForm form, String name, String value) throws IOException {
+        PDTextField field = new PDTextField(form);
+        field.setPartialName(name);
+        field.getCOSObject().setString("V", value);
+        return field;
+    }
+
+    @Test
+    void readsFlatAndNestedFieldsByName() throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDAcroForm form = new PDAcroForm(document);
+            PDNonTerminalField insured = new PDNonTerminalField(form);
+            insured.setPartialName("insured");
+            PDTextField name = text(form, "name", "Jane A. Doe");
+            insured.setChildren(List.of(name));
+            form.setFields(List.of(text(form, "Text7", "POL-1"), insured));
+
+            PdAcroFormFields fields = new PdAcroFormFields(form);
+
+            assertEquals(Set.of("Text7", "insured", "insured.name"), fields.names());
+            assertEquals("POL-1", fields.value("Text7"));
+            assertEquals("Jane A. Doe", fields.value("insured.name"));
+            assertNull(fields.value("insured.phone"));
+            assertNull(fields.value("Text7.child"));
+            assertNull(fields.value("missing"));
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package com.example.fnol_agent.pdf;
+
+import com.example.fnol_agent.service.ByteArrayMultipartFile;
+import com.example.fnol_agent.service.FileSystemMultipartFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfDocumentLoaderTest {
+
+    @TempDir
+    Path uploads;
+
+    @TempDir
+    Path scratch;
+
+    /**
+     * Loader that maps every upload for the form fast path, with its scratch files in {@link #scratch}
+     */
+    private PdfDocumentLoader loader() {
+        return new PdfDocumentLoader(new SimpleMeterRegistry(), 0, 16 << 20, 100 << 20, 1 << 30,
+                scratch.toString(), true);
+    }
+
+    /**
+     * Form reader that also records which scratch files exist while it runs
+     */
+    private PdfDocumentLoader.FormReader<String> policyNumber(List<Path> scratchFiles) {
+        return form -> {
+            try (Stream<Path> files = Files.list(scratch)) {
+                files.forEach(scratchFiles::add);
+            }
+            return form.value("PolicyNumber");
+        };
+    }
+
+    @Test
+    void mapsASpooledUploadWhereItIs() throws IOException {
+        Path spooled = Files.write(uploads.resolve("claim.pdf"), PdfFixtures.classic("POL-1"));
+        List<Path> scratchFiles = new ArrayList<>();
+
+        String value = loader().readForm(new FileSystemMultipartFile("claim.pdf", spooled), policyNumber(scratchFiles));
+
+        assertEquals("POL-1", value);
+        assertTrue(scratchFiles.isEmpty(), scratchFiles.toString());
+    }
+
+    @Test
+    void copiesAnInMemoryUploadToAScratchFileAndRemovesIt() throws IOException {
+        List<Path> scratchFiles = new ArrayList<>();
+
+        String value = loader().readForm(new ByteArrayMultipartFile("claim.pdf", PdfFixtures.classic("POL-2")),
+                policyNumber(scratchFiles));
+
+        assertEquals("POL-2", value);
+        assertEquals(1, scratchFiles.size());
+        try (Stream<Path> files = Files.list(scratch)) {
+            assertEquals(0, files.count());
+        }
+    }
+}
@@ -0,0 +1,203 @@
+package com.example.fnol_agent.pdf;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.zip.Deflater;
+
+/**
+ * Hand-assembled PDFs with exact control over the cross-reference layout, which PDFBox 2 cannot write
+ */
+final class PdfFixtures {
+
+    /**
+     * Cross-reference entry: type 0 free, 1 at a file offset, 2 inside an object stream
+     */
+    record Entry(int number, int type, long field2, int field3) {
+
+        static Entry free(int number) {
+            return new Entry(number, 0, 0, 0);
+        }
+
+        static Entry at(int number, long offset) {
+            return new Entry(number, 1, offset, 0);
+        }
+
+        static Entry compressed(int number, int objectStream, int index) {
+            return new Entry(number, 2, objectStream, index);
+        }
+    }
+
+    private final ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+    PdfFixtures() {
+        write("%PDF-1.5\n%âãÏÓ\n");
+    }
+
+    /**
+     * Offset the next write starts at
+     */
+    int offset() {
+        return out.size();
+    }
+
+    PdfFixtures write(String text) {
+        out.writeBytes(text.getBytes(StandardCharsets.ISO_8859_1));
+        return this;
+    }
+
+    /**
+     * Write an indirect object and return its offset
+     */
+    int object(int number, String body) {
+        int offset = offset();
+        write(number + " 0 obj\n" + body + "\nendobj\n");
+        return offset;
+    }
+
+    /**
+     * Write a stream object with the given raw data and return its offset
+     */
+    int stream(int number, String dictionary, byte[] data) {
+        int offset = offset();
+        write(number + " 0 obj\n<< " + dictionary + " /Length " + data.length + " >>\nstream\n");
+        out.writeBytes(data);
+        write("\nendstream\nendobj\n");
+        return offset;
+    }
+
+    /**
+     * Write a FlateDecode object stream holding the given objects, numbered from {@code first}
+     */
+    int objectStream(int number, int first, String... objects) {
+        StringBuilder header = new StringBuilder();
+        StringBuilder body = new StringBuilder();
+        for (int i = 0; i < objects.length; i++) {
+            header.append(first + i).append(' ').append(body.length()).append(' ');
+            body.append(objects[i]).append('\n');
+        }
+        byte[] data = (header + body.toString()).getBytes(StandardCharsets.ISO_8859_1);
+        return stream(number, "/Type /ObjStm /N " + objects.length + " /First " + header.length()
+                + " /Filter /FlateDecode", deflate(data));
+    }
+
+    /**
+     * Write a classic cross-reference table and trailer, and return the table's offset
+     */
+    int xrefTable(List<Entry> entries, String trailer) {
+        int offset = offset();
+        StringBuilder table = new StringBuilder("xref\n");
+        for (Entry entry : entries) {
+            table.append(entry.number()).append(" 1\n")
+                    .append(String.format("%010d %05d %s \n", entry.field2(), entry.type() == 0 ? 65535 : 0,
+                            entry.type() == 0 ? "f" : "n"));
+        }
+        write(table + "trailer\n<< " + trailer + " >>\n");
+        return offset;
+    }
+
+    /**
+     * Write a cross-reference stream with PNG Up prediction, and return its offset
+     */
+    int xrefStream(int number, List<Entry> entries, String trailer) {
+        int offset = offset();
+        List<Entry> all = new ArrayList<>(entries);
+        all.add(Entry.at(number, offset));
+
+        int rowLength = 1 + 4 + 2;
+        byte[] predicted = new byte[all.size() * (rowLength + 1)];
+        byte[] previous = new byte[rowLength];
+        StringBuilder index = new StringBuilder();
+        for (int i = 0; i < all.size(); i++) {
+            Entry entry = all.get(i);
+            byte[] row = {(byte) entry.type(),
+                    (byte) (entry.field2() >>> 24), (byte) (entry.field2() >>> 16),
+                    (byte) (entry.field2() >>> 8), (byte) entry.field2(),
+                    (byte) (entry.field3() >>> 8), (byte) entry.field3()};
+            int pos = i * (rowLength + 1);
+            predicted[pos] = 2;
+            for (int j = 0; j < rowLength; j++) {
+                predicted[pos + 1 + j] = (byte) (row[j] - previous[j]);
+            }
+            previous = row;
+            index.append(entry.number()).append(" 1 ");
+        }
+
+        stream(number, "/Type /XRef /W [1 4 2] /Index [" + index.toString().trim() + "] /Filter /FlateDecode"
+                + " /DecodeParms << /Predictor 12 /Columns " + rowLength + " >> " + trailer, deflate(predicted));
+        return offset;
+    }
+
+    PdfFixtures startXref(int offset) {
+        return write("startxref\n" + offset + "\n%%EOF\n");
+    }
+
+    byte[] bytes() {
+        return out.toByteArray();
+    }
+
+    static byte[] deflate(byte[] data) {
+        Deflater deflater = new Deflater();
+        deflater.setInput(data);
+        deflater.finish();
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream();
+        byte[] buffer = new byte[8192];
+        while (!deflater.finished()) {
+            compressed.write(buffer, 0, deflater.deflate(buffer));
+        }
+        deflater.end();
+        return compressed.toByteArray();
+    }
+
+    static String catalog() {
+        return "<< /Type /Catalog /AcroForm 2 0 R >>";
+    }
+
+    static String acroForm() {
+        return "<< /Fields [3 0 R] >>";
+    }
+
+    static String textField(String name, String value) {
+        return "<< /FT /Tx /T (" + name + ") /V (" + value + ") >>";
+    }
+
+    /**
+     * Catalog, form and one text field, with a classic cross-reference table
+     */
+    static byte[] classic(String value) {
+        PdfFixtures pdf = new PdfFixtures();
+        int catalog = pdf.object(1, catalog());
+        int form = pdf.object(2, acroForm());
+        int field = pdf.object(3, textField("PolicyNumber", value));
+        int xref = pdf.xrefTable(List.of(Entry.free(0), Entry.at(1, catalog), Entry.at(2, form), Entry.at(3, field)),
+                "/Size 4 /Root 1 0 R");
+        return pdf.startXref(xref).bytes();
+    }
+
+    /**
+     * The same form with all objects in an object stream, indexed by a cross-reference stream
+     */
+    static byte[] compressed(String value) {
+        PdfFixtures pdf = new PdfFixtures();
+        int objects = pdf.objectStream(4, 1, catalog(), acroForm(), textField("PolicyNumber", value));
+        int xref = pdf.xrefStream(5, List.of(Entry.free(0), Entry.compressed(1, 4, 0), Entry.compressed(2, 4, 1),
+                Entry.compressed(3, 4, 2), Entry.at(4, objects)), "/Size 6 /Root 1 0 R");
+        return pdf.startXref(xref).bytes();
+    }
+
+    /**
+     * A hybrid file: the field sits in an object stream, which the table lists as free and the
+     * {@code /XRefStm} stream lists as compressed
+     */
+    static byte[] hybrid(String value) {
+        PdfFixtures pdf = new PdfFixtures();
+        int catalog = pdf.object(1, catalog());
+        int form = pdf.object(2, acroForm());
+        int objects = pdf.objectStream(4, 3, textField("PolicyNumber", value));
+        int stream = pdf.xrefStream(5, List.of(Entry.compressed(3, 4, 0), Entry.at(4, objects)), "/Size 6");
+        int xref = pdf.xrefTable(List.of(Entry.free(0), Entry.at(1, catalog), Entry.at(2, form), Entry.free(3)),
+                "/Size 6 /Root 1 0 R /XRefStm " + stream);
+        return pdf.startXref(xref).bytes();
+    }
+}
@@ -0,0 +1,167 @@
+package com.example.fnol_agent.pdf;
+
+import com.example.fnol_agent.service.ByteArrayMultipartFile;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class PdfTextExtractorTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final PdfDocumentLoader loader = new PdfDocumentLoader(meterRegistry, 4 << 20, 16 << 20, 100 << 20,
+            1 << 30, "", true);
+    private final ExecutorService executor = Executors.newFixedThreadPool(4);
+    private final PdfParseLimiter limiter = new PdfParseLimiter(meterRegistry, 2);
+    private final PdfTextExtractor extractor = new PdfTextExtractor(loader, limiter, executor, 1, 2);
+
+    @AfterEach
+    void shutDown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Reader that is complete once the text contains a marker and records what it was given
+     */
+    private static final class MarkerReader implements PdfTextExtractor.TextReader<String> {
+
+        private final String marker;
+        private final List<Integer> reads = new ArrayList<>();
+        private int probes;
+
+        MarkerReader(String marker) {
+            this.marker = marker;
+        }
+
+        @Override
+        public String read(CharSequence text) {
+            reads.add(text.length());
+            return text.toString();
+        }
+
+        @Override
+        public boolean isComplete(String result) {
+            return result.contains(marker);
+        }
+
+        @Override
+        public boolean mayImprove(String result, CharSequence newText) {
+            probes++;
+            return newText.toString().contains(marker);
+        }
+    }
+
+    private static byte[] pdf(String... pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            for (String text : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(PDType1Font.HELVETICA, 12);
+                    content.newLineAtOffset(72, 700);
+                    content.showText(text);
+                    content.endText();
+                }
+            }
+            ByteArrayOutputStream out = new ByteArrayOutputStream();
+            document.save(out);
+            return out.toByteArray();
+        }
+    }
+
+    private double loads() {
+        return meterRegistry.find("fnol.pdf.loads").counters().stream().mapToDouble(c -> c.count()).sum();
+    }
+
+    @Test
+    void readsEveryPageInOrder() throws IOException {
+        byte[] bytes = pdf("page one", "page two", "page three", "page four", "page five");
+        MarkerReader reader = new MarkerReader("never");
+
+        String text;
+        try (PDDocument document = PDDocument.load(bytes)) {
+            text = extractor.extract(document, new ByteArrayMultipartFile("claim.pdf", bytes), reader);
+        }
+
+        assertTrue(text.indexOf("page one") < text.indexOf("page two"));
+        assertTrue(text.indexOf("page four") < text.indexOf("page five"));
+        // The first wave is read, the waves without the marker are not, and the full text is read once at the end
+        assertEquals(2, reader.reads.size());
+        assertEquals(text.length(), reader.reads.get(reader.reads.size() - 1));
+        assertEquals(0, loads());
+        // The extra worker's parse slot was handed back
+        assertEquals(2, limiter.tryAcquire(2));
+    }
+
+    @Test
+    void stopsOnceTheResultIsComplete() throws IOException {
+        byte[] bytes = pdf("intro", "details", "MARKER", "same wave", "skipped", "skipped");
+        MarkerReader reader = new MarkerReader("MARKER");
+
+        String text;
+        try (PDDocument document = PDDocument.load(bytes)) {
+            text = extractor.extract(document, new ByteArrayMultipartFile("claim.pdf", bytes), reader);
+        }
+
+        assertTrue(text.contains("MARKER") && text.contains("same wave"));
+        assertTrue(!text.contains("skipped"));
+        assertEquals(2, reader.reads.size());
+        assertEquals(1, reader.probes);
+    }
+
+    @Test
+    void readsOnTheCallersWorkerAloneWhenNoParseSlotIsFree() throws IOException {
+        byte[] bytes = pdf("one", "two", "three", "four");
+        // A second worker would fail to open this upload, so success means none was started
+        ByteArrayMultipartFile unreadable = new ByteArrayMultipartFile("claim.pdf", bytes) {
+            @Override
+            public InputStream getInputStream() {
+                return InputStream.nullInputStream();
+            }
+        };
+        PdfParseLimiter busy = new PdfParseLimiter(meterRegistry, 1);
+        PdfTextExtractor single = new PdfTextExtractor(loader, busy, executor, 1, 4);
+
+        String text;
+        try (PDDocument document = PDDocument.load(bytes)) {
+            text = busy.call(() -> single.extract(document, unreadable, new MarkerReader("never")));
+        }
+
+        assertTrue(text.indexOf("one") < text.indexOf("four"));
+        assertEquals(1, busy.tryAcquire(1));
+    }
+
+    @Test
+    void failsCleanlyWhenAWorkerCannotOpenTheDocument() throws IOException {
+        byte[] bytes = pdf("one", "two", "three");
+        ByteArrayMultipartFile unreadable = new ByteArrayMultipartFile("claim.pdf", bytes) {
+            @Override
+            public InputStream getInputStream() {
+                return InputStream.nullInputStream();
+            }
+        };
+
+        try (PDDocument document = PDDocument.load(bytes)) {
+            assertThrows(IOException.class, () -> extractor.extract(document, unreadable, new MarkerReader("x")));
+            // The caller's document stays open and usable
+            assertEquals(3, document.getNumberOfPages());
+        }
+        assertEquals(2, limiter.tryAcquire(2));
+    }
+}
@@ -0,0 +1,236 @@
+package com.example.fnol_agent.routing;
+
+import com.example.fnol_agent.assessment.ClaimAssessment;
+import com.example.fnol_agent.assessment.ClaimAssessor;
+import com.example.fnol_agent.assessment.FraudIndicatorContributor;
+import com.example.fnol_agent.assessment.FraudLexicon;
+import com.example.fnol_agent.assessment.MissingFieldsContributor;
+import com.example.fnol_agent.model.AssetDetails;
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.model.IncidentInformation;
+import com.example.fnol_agent.model.InvolvedParty;
+import com.example.fnol_agent.model.PolicyInformation;
+import com.example.fnol_agent.model.RoutingDecision;
+import com.example.fnol_agent.service.ClaimRoutingService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.FileSystemResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RoutingRulesTest {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final String BUNDLED = bundled("routing-rules.json");
+
+    private final RoutingRules rules = load(BUNDLED);
+    private final ClaimAssessor assessor = new ClaimAssessor(List.of(new MissingFieldsContributor(),
+            new FraudIndicatorContributor(lexicon())));
+
+    @TempDir
+    Path dir;
+
+    private static String bundled(String name) {
+        try (InputStream in = RoutingRulesTest.class.getResourceAsStream("/" + name)) {
+            return new String(in.readAllBytes(), StandardCharsets.UTF_8);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static FraudLexicon lexicon() {
+        try {
+            return FraudLexicon.load(bundled("fraud-lexicon.json").getBytes(StandardCharsets.UTF_8), OBJECT_MAPPER);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static RoutingRules load(String json) {
+        try {
+            return RoutingRules.load(json.getBytes(StandardCharsets.UTF_8), OBJECT_MAPPER);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * A claim with every mandatory field, an incident time and an attachment
+     */
+    private static FNOLDocument.FNOLDocumentBuilder complete(String damage) {
+        return FNOLDocument.builder()
+                .policyInformation(PolicyInformation.builder()
+                        .policyNumber("POL-1")
+                        .policyholderName("Jane Doe")
+                        .effectiveDate(LocalDate.of(2024, 1, 1))
+                        .build())
+                .incidentInformation(IncidentInformation.builder()
+                        .incidentDate(LocalDate.of(2024, 3, 14))
+                        .incidentTime("4:35 PM")
+                        .location("1200 Market Street, Springfield")
+                        .description("Rear-ended at a red light")
+                        .build())
+                .involvedParties(List.of(InvolvedParty.builder().name("Jane Doe").role("CLAIMANT").build()))
+                .assetDetails(AssetDetails.builder()
+                        .assetType("VEHICLE")
+                        .assetId("1HGCM82633A004352")
+                        .estimatedDamage(damage != null ? new BigDecimal(damage) : null)
+                        .build())
+                .claimType(ClaimType.VEHICLE)
+                .initialEstimate(new BigDecimal("4800"))
+                .attachments(List.of("photos.zip"));
+    }
+
+    private static FNOLDocument withDescription(String description) {
+        FNOLDocument document = complete("4800").build();
+        document.getIncidentInformation().setDescription(description);
+        return document;
+    }
+
+    private void assertRoute(FNOLDocument document, RoutingDecision decision, String reasoning) {
+        assertRoute(assessor.assess("claim-1", document), decision, reasoning);
+    }
+
+    private void assertRoute(ClaimAssessment assessment, RoutingDecision decision, String reasoning) {
+        RoutingRule rule = rules.match(assessment);
+        assertEquals(decision, rule.decision());
+        assertEquals(reasoning, rule.reasoning(assessment));
+    }
+
+    private List<String> warnings(FNOLDocument document) {
+        return rules.warnings(assessor.assess("claim-1", document));
+    }
+
+    @Test
+    void sendsClaimsWithMissingFieldsToManualReview() {
+        FNOLDocument document = complete("4800").build();
+        document.getPolicyInformation().setPolicyNumber(" ");
+        document.getIncidentInformation().setLocation(null);
+        // Missing fields win over every later rule
+        document.setClaimType(ClaimType.INJURY);
+
+        assertRoute(document, RoutingDecision.MANUAL_REVIEW,
+                "Missing mandatory fields: policyInformation.policyNumber, incidentInformation.location. "
+                        + "Manual review required to complete claim information.");
+    }
+
+    @Test
+    void listsEveryFraudKeywordForInvestigation() {
+        assertRoute(withDescription("Staged collision; the story is inconsistent and the staged damage old"),
+                RoutingDecision.INVESTIGATION,
+                "Fraud indicators detected in incident description. - Contains keyword: 'staged'. "
+                        + "- Contains keyword: 'inconsistent'. Requires investigation before processing.");
+    }
+
+    @Test
+    void sendsInjuryClaimsToTheSpecialistQueue() {
+        assertRoute(complete("4800").claimType(ClaimType.INJURY).build(), RoutingDecision.SPECIALIST_QUEUE,
+                "Claim type is INJURY - requires specialist handling. Routing to medical claims specialist queue.");
+    }
+
+    @Test
+    void fastTracksDamageBelowTheThreshold() {
+        assertRoute(complete("24999.99").build(), RoutingDecision.FAST_TRACK,
+                "Estimated damage of ₹24,999.99 is below the fast-track threshold of $25,000.00. "
+                        + "All mandatory fields are present. No fraud indicators detected.");
+    }
+
+    @Test
+    void processesEverythingElseAsStandard() {
+        assertRoute(complete("25000").build(), RoutingDecision.STANDARD_PROCESSING,
+                "Claim meets all standard processing criteria. Estimated damage: $25,000.00 (above fast-track threshold).");
+
+        // Without a damage amount the damage line is left out, as it always was
+        ClaimAssessment noDamage = ClaimAssessment.builder("claim-1", complete(null).build()).build();
+        assertRoute(noDamage, RoutingDecision.STANDARD_PROCESSING, "Claim meets all standard processing criteria.");
+    }
+
+    @Test
+    void warnsInDeclarationOrder() {
+        assertEquals(List.of(), warnings(complete("100000").build()));
+        assertEquals(List.of("High damage amount - may require additional approval"),
+                warnings(complete("100000.01").build()));
+
+        FNOLDocument document = complete("250000").attachments(List.of()).build();
+        document.getIncidentInformation().setIncidentTime(null);
+        assertEquals(List.of("Incident time not provided - may affect investigation",
+                "No attachments/supporting documents provided",
+                "High damage amount - may require additional approval"), warnings(document));
+
+        // No incident at all is reported as a missing field, not as a missing time
+        assertEquals(List.of(), warnings(complete("4800").incidentInformation(null).build()));
+    }
+
+    @Test
+    void rejectsRulesThatCannotBeCompiled() {
+        String fallback = "{\"id\": \"standard\", \"route\": \"STANDARD_PROCESSING\", \"reasoning\": [\"Standard\"]}";
+
+        assertRejected("Unknown routing rule field: claimColour", "{\"rules\": [{\"id\": \"a\", \"route\": \"FAST_TRACK\","
+                + " \"when\": [{\"field\": \"claimColour\", \"op\": \"eq\", \"value\": \"red\"}]}, " + fallback + "]}");
+        assertRejected("Unknown operator 'like'", "{\"rules\": [{\"id\": \"a\", \"route\": \"FAST_TRACK\","
+                + " \"when\": [{\"field\": \"claimType\", \"op\": \"like\", \"value\": \"INJURY\"}]}, " + fallback + "]}");
+        assertRejected("Unknown route EXPRESS", "{\"rules\": [{\"id\": \"a\", \"route\": \"EXPRESS\"}]}");
+        assertRejected("Duplicate routing rule id standard", "{\"rules\": [" + fallback + ", " + fallback + "]}");
+        assertRejected("Last routing rule a must have no conditions", "{\"rules\": [{\"id\": \"a\", \"route\": \"FAST_TRACK\","
+                + " \"when\": [{\"field\": \"claimType\", \"op\": \"eq\", \"value\": \"INJURY\"}]}]}");
+    }
+
+    private static void assertRejected(String message, String json) {
+        IllegalArgumentException e = assertThrows(IllegalArgumentException.class, () -> load(json));
+        assertTrue(e.getMessage().contains(message), e.getMessage());
+    }
+
+    @Test
+    void reloadsAChangedRulesFileAndKeepsTheRulesWhenItBreaks() throws IOException {
+        Path file = dir.resolve("routing-rules.json");
+        Files.writeString(file, BUNDLED);
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ClaimRoutingService routing = new ClaimRoutingService(new FileSystemResource(file), OBJECT_MAPPER, meterRegistry);
+        RoutingRules original = routing.currentRules();
+        assertEquals(rules.version(), original.version());
+
+        // Unchanged on disk: nothing to reload
+        routing.reloadIfChanged();
+        assertSame(original, routing.currentRules());
+
+        rewrite(file, BUNDLED.replace("\"threshold\": 25000", "\"threshold\": 1000"), 10);
+        routing.reloadIfChanged();
+        RoutingRules reloaded = routing.currentRules();
+        assertNotEquals(original.version(), reloaded.version());
+        ClaimAssessment assessment = assessor.assess("claim-1", complete("4800").build());
+        assertEquals(RoutingDecision.FAST_TRACK, original.match(assessment).decision());
+        assertEquals(RoutingDecision.STANDARD_PROCESSING, reloaded.match(assessment).decision());
+        assertEquals(1, meterRegistry.get("fnol.routing.reloads").tag("outcome", "success").counter().count());
+
+        rewrite(file, BUNDLED.replace("\"op\": \"lt\"", "\"op\": \"below\""), 20);
+        routing.reloadIfChanged();
+        assertSame(reloaded, routing.currentRules());
+        assertEquals(1, meterRegistry.get("fnol.routing.reloads").tag("outcome", "failure").counter().count());
+    }
+
+    /**
+     * Rewrite a file and move its modification time forward, as a coarse file system clock may not
+     */
+    private static void rewrite(Path file, String content, long secondsLater) throws IOException {
+        FileTime modified = Files.getLastModifiedTime(file);
+        Files.writeString(file, content);
+        Files.setLastModifiedTime(file, FileTime.fromMillis(modified.toMillis() + secondsLater * 1_000));
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.BatchItemResult;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class BatchProcessingServiceTest {
+
+    private static final int MAX_ENTRY_BYTES = 64;
+
+    private final ExecutorService batchExecutor = Executors.newFixedThreadPool(2);
+    private final ExecutorService batchDispatchExecutor = Executors.newSingleThreadExecutor();
+    private final FNOLProcessingService processing = mock(FNOLProcessingService.class);
+
+    @AfterEach
+    void shutdown() {
+        batchExecutor.shutdownNow();
+        batchDispatchExecutor.shutdownNow();
+    }
+
+    private BatchProcessingService batches(int maxDocuments) {
+        when(processing.validateUpload(any(), any())).thenCallRealMethod();
+        when(processing.processDocument(any(), anyString())).thenAnswer(invocation -> ProcessingResult.builder()
+                .status("SUCCESS")
+                .claimId(invocation.getArgument(1))
+                .build());
+        return new BatchProcessingService(processing, new ObjectMapper(), batchExecutor, batchDispatchExecutor,
+                2, maxDocuments, MAX_ENTRY_BYTES, 60_000);
+    }
+
+    /**
+     * Run a batch and return its lines in upload order rather than completion order
+     */
+    private static List<BatchItemResult> process(BatchProcessingService batches, MultipartFile... uploads)
+            throws IOException {
+        List<BatchItemResult> items = new ArrayList<>();
+        batches.process(List.of(uploads), items::add);
+        items.sort(Comparator.comparingInt(BatchItemResult::getIndex));
+        return items;
+    }
+
+    private static ByteArrayMultipartFile zip(String... namesAndContents) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ZipOutputStream zip = new ZipOutputStream(bytes)) {
+            for (int i = 0; i < namesAndContents.length; i += 2) {
+                zip.putNextEntry(new ZipEntry(namesAndContents[i]));
+                zip.write(namesAndContents[i + 1].getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        }
+        return new ByteArrayMultipartFile("batch.zip", bytes.toByteArray());
+    }
+
+    private static ByteArrayMultipartFile txt(String name) {
+        return new ByteArrayMultipartFile(name, "Policy Number: POL-1\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void streamsOneLinePerEntryOfAMixedArchive() throws IOException {
+        List<BatchItemResult> items = process(batches(100),
+                txt("first.txt"),
+                zip("claims/a.pdf", "%PDF-1.4", "claims/b.txt", "Policy Number: POL-2", "claims/C.PDF", "%PDF-1.4"));
+
+        assertEquals(List.of("first.txt", "claims/a.pdf", "claims/b.txt", "claims/C.PDF"),
+                items.stream().map(BatchItemResult::getFilename).toList());
+        assertEquals(List.of(0, 1, 2, 3), items.stream().map(BatchItemResult::getIndex).toList());
+        for (BatchItemResult item : items) {
+            assertEquals("SUCCESS", item.getResult().getStatus());
+            assertEquals(item.getFilename(), item.getResult().getClaimId());
+        }
+    }
+
+    @Test
+    void reportsAnOversizeEntryAndCarriesOn() throws IOException {
+        List<BatchItemResult> items = process(batches(100),
+                zip("small.txt", "Policy Number: POL-1", "huge.pdf", "x".repeat(MAX_ENTRY_BYTES + 1),
+                        "after.txt", "Policy Number: POL-3"));
+
+        assertEquals(3, items.size());
+        assertEquals("SUCCESS", items.get(0).getResult().getStatus());
+        assertEquals("huge.pdf", items.get(1).getFilename());
+        assertEquals("FAILED", items.get(1).getResult().getStatus());
+        assertEquals(List.of("File exceeds 64 bytes"), items.get(1).getResult().getErrors());
+        assertEquals("after.txt", items.get(2).getFilename());
+        assertEquals("SUCCESS", items.get(2).getResult().getStatus());
+        verify(processing, never()).processDocument(any(), eq("huge.pdf"));
+    }
+
+    @Test
+    void stopsAtTheDocumentLimit() throws IOException {
+        List<BatchItemResult> items = process(batches(2),
+                zip("a.txt", "1", "b.txt", "2", "c.txt", "3", "d.txt", "4"),
+                txt("never-read.txt"));
+
+        assertEquals(3, items.size());
+        assertEquals("a.txt", items.get(0).getFilename());
+        assertEquals("b.txt", items.get(1).getFilename());
+
+        BatchItemResult limit = items.get(2);
+        assertEquals(2, limit.getIndex());
+        assertNull(limit.getFilename());
+        assertEquals("FAILED", limit.getResult().getStatus());
+        assertEquals(List.of("Batch exceeds 2 documents; remaining documents were skipped"),
+                limit.getResult().getErrors());
+    }
+
+    @Test
+    void skipsArchiveEntriesThatAreNotDocuments() throws IOException {
+        List<BatchItemResult> items = process(batches(100),
+                zip("docs/", "", "docs/readme.md", "# notes", "docs/.DS_Store", "x",
+                        "__MACOSX/docs/._claim.pdf", "x", "docs/claim.pdf", "%PDF-1.4", "docs/photo.jpg", "x"));
+
+        assertEquals(1, items.size());
+        assertEquals(0, items.get(0).getIndex());
+        assertEquals("docs/claim.pdf", items.get(0).getFilename());
+        assertEquals("SUCCESS", items.get(0).getResult().getStatus());
+    }
+
+    @Test
+    void stillRejectsTopLevelUploadsOfOtherTypes() throws IOException {
+        List<BatchItemResult> items = process(batches(100), txt("notes.md"), txt("claim.txt"));
+
+        assertEquals(2, items.size());
+        assertEquals("FAILED", items.get(0).getResult().getStatus());
+        assertEquals(List.of("Invalid file type. Only PDF and TXT files are supported."),
+                items.get(0).getResult().getErrors());
+        assertEquals("SUCCESS", items.get(1).getResult().getStatus());
+    }
+}
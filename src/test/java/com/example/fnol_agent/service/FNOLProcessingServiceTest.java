@@ -0,0 +1,294 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.assessment.AssessmentContributor;
+import com.example.fnol_agent.assessment.ClaimAssessor;
+import com.example.fnol_agent.assessment.DuplicateClaimContributor;
+import com.example.fnol_agent.assessment.FraudIndicatorContributor;
+import com.example.fnol_agent.assessment.FraudLexicon;
+import com.example.fnol_agent.assessment.MissingFieldsContributor;
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.extraction.ExtractionRuleRegistry;
+import com.example.fnol_agent.journal.ProcessedClaimJournal;
+import com.example.fnol_agent.model.AssetDetails;
+import com.example.fnol_agent.model.ClaimPage;
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.model.IncidentInformation;
+import com.example.fnol_agent.model.PolicyInformation;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.pdf.FormTemplateRegistry;
+import com.example.fnol_agent.store.ClaimQuery;
+import com.example.fnol_agent.store.ClaimStore;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ClassPathResource;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+class FNOLProcessingServiceTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    @TempDir
+    Path dir;
+
+    private ProcessedClaimJournal journal;
+    private ClaimStore store;
+    private ProcessingResultCache cache;
+    private final List<AssessmentContributor> extraContributors = new ArrayList<>();
+
+    @AfterEach
+    void closeJournal() throws IOException {
+        if (journal != null) {
+            journal.close();
+        }
+    }
+
+    private static byte[] resource(String name) throws IOException {
+        try (InputStream in = FNOLProcessingServiceTest.class.getResourceAsStream("/" + name)) {
+            return in.readAllBytes();
+        }
+    }
+
+    /**
+     * The service with the bundled rules, a journal in a scratch directory, a claim store and a
+     * result cache; PDF extraction is left to {@code pdfExtraction}. Contributors in
+     * {@link #extraContributors} run after the bundled ones.
+     */
+    private FNOLProcessingService service(boolean duplicatesEnabled, TxtExtractionService txtExtraction,
+                                          PdfExtractionService pdfExtraction) throws IOException {
+        journal = new ProcessedClaimJournal(meterRegistry, objectMapper, true, dir.toString(), 1_048_576, true, 90);
+        store = new ClaimStore(meterRegistry, objectMapper, journal, true, 100);
+        cache = new ProcessingResultCache(meterRegistry, objectMapper, true, 16_777_216, 3_600_000);
+        FraudLexicon lexicon = FraudLexicon.load(resource("fraud-lexicon.json"), objectMapper);
+        DuplicateClaimContributor duplicates = new DuplicateClaimContributor(meterRegistry, duplicatesEnabled, 1_000, "");
+        List<AssessmentContributor> contributors = new ArrayList<>(
+                List.of(new MissingFieldsContributor(), new FraudIndicatorContributor(lexicon), duplicates));
+        contributors.addAll(extraContributors);
+        ClaimAssessor assessor = new ClaimAssessor(contributors);
+
+        return new FNOLProcessingService(assessor, duplicates,
+                new ClaimRoutingService(new ClassPathResource("routing-rules.json"), objectMapper, meterRegistry),
+                pdfExtraction,
+                txtExtraction,
+                cache,
+                ExtractionRuleRegistry.load(resource("extraction-rules.json"), objectMapper),
+                FormTemplateRegistry.load(resource("pdf-templates.json"), objectMapper),
+                lexicon,
+                journal,
+                store,
+                new StageTimers(meterRegistry),
+                new ProcessingProfiler(false, 0));
+    }
+
+    private FNOLProcessingService service(boolean duplicatesEnabled) throws IOException {
+        return service(duplicatesEnabled, TxtExtractionServiceTest.service(2_000_000), mock(PdfExtractionService.class));
+    }
+
+    private static ProcessingResult process(FNOLProcessingService service, String text) {
+        return service.processDocument(
+                new ByteArrayMultipartFile("claim.txt", text.getBytes(StandardCharsets.UTF_8)), "claim.txt");
+    }
+
+    private List<String> storedClaimIds() throws IOException {
+        ClaimPage page = store.query(new ClaimQuery(null, null, null, null, null, null, null, 0, 10));
+        return page.getClaims().stream().map(ProcessingResult::getClaimId).toList();
+    }
+
+    private List<String> journaledClaimIds() throws IOException {
+        List<String> claimIds = new ArrayList<>();
+        journal.replay(result -> claimIds.add(result.getClaimId()));
+        return claimIds;
+    }
+
+    private static ProcessingResult cached(String assetId) {
+        return ProcessingResult.builder()
+                .claimId("11111111-1111-1111-1111-111111111111")
+                .extractedFields(ExtractedFields.builder()
+                        .policyInformation(PolicyInformation.builder().policyNumber("POL-1").build())
+                        .incidentInformation(IncidentInformation.builder().incidentDate(LocalDate.of(2024, 3, 14)).build())
+                        .assetDetails(AssetDetails.builder().assetId(assetId).build())
+                        .build())
+                .recommendedRoute("FAST_TRACK")
+                .warnings(List.of("Estimate is close to the fast-track limit"))
+                .build();
+    }
+
+    @Test
+    void marksACacheHitAsADuplicateOfTheCachedClaim() {
+        ProcessingResult cached = cached("ABC1234");
+
+        ProcessingResult reReport = FNOLProcessingService.asDuplicate(cached);
+
+        assertNotEquals(cached.getClaimId(), reReport.getClaimId());
+        assertEquals(cached.getClaimId(), reReport.getDuplicateOf());
+        assertEquals(List.of(DuplicateClaimContributor.warning(cached.getClaimId()),
+                "Estimate is close to the fast-track limit"), reReport.getWarnings());
+        assertEquals("FAST_TRACK", reReport.getRecommendedRoute());
+    }
+
+    @Test
+    void keepsTheOriginalOfACachedDuplicate() {
+        String original = "22222222-2222-2222-2222-222222222222";
+        ProcessingResult cached = cached("ABC1234").toBuilder()
+                .duplicateOf(original)
+                .warnings(List.of(DuplicateClaimContributor.warning(original)))
+                .build();
+
+        ProcessingResult reReport = FNOLProcessingService.asDuplicate(cached);
+
+        assertNotEquals(cached.getClaimId(), reReport.getClaimId());
+        assertEquals(original, reReport.getDuplicateOf());
+        assertEquals(cached.getWarnings(), reReport.getWarnings());
+    }
+
+    @Test
+    void leavesResultsWithoutADuplicateKeyUnmarked() {
+        assertNull(FNOLProcessingService.asDuplicate(cached(" ")));
+        assertNull(FNOLProcessingService.asDuplicate(ProcessingResult.builder().claimId("x").build()));
+    }
+
+    @Test
+    void journalsAndStoresACacheHitAsAReReport() throws IOException {
+        FNOLProcessingService service = service(true);
+
+        ProcessingResult first = process(service, TxtExtractionServiceTest.SAMPLE);
+        ProcessingResult hit = process(service, TxtExtractionServiceTest.SAMPLE);
+
+        assertEquals(Boolean.TRUE, hit.getCacheHit());
+        assertNotEquals(first.getClaimId(), hit.getClaimId());
+        assertEquals(first.getClaimId(), hit.getDuplicateOf());
+        assertEquals(List.of(hit.getClaimId(), first.getClaimId()), storedClaimIds());
+        assertEquals(List.of(first.getClaimId(), hit.getClaimId()), journaledClaimIds());
+    }
+
+    @Test
+    void givesACacheHitItsOwnClaimIdWithoutDuplicateDetection() throws IOException {
+        FNOLProcessingService service = service(false);
+
+        ProcessingResult first = process(service, TxtExtractionServiceTest.SAMPLE);
+        ProcessingResult hit = process(service, TxtExtractionServiceTest.SAMPLE);
+
+        assertEquals(Boolean.TRUE, hit.getCacheHit());
+        assertNotEquals(first.getClaimId(), hit.getClaimId());
+        assertNull(hit.getDuplicateOf());
+        assertEquals(first.getRecommendedRoute(), hit.getRecommendedRoute());
+        assertEquals(List.of(hit.getClaimId(), first.getClaimId()), storedClaimIds());
+        assertTrue(journaledClaimIds().contains(hit.getClaimId()));
+    }
+
+    private double cacheRequests(String result) {
+        return meterRegistry.get("fnol.cache.requests").tag("result", result).counter().count();
+    }
+
+    @Test
+    void neverCachesAFailedResult() throws Exception {
+        TxtExtractionService failing = mock(TxtExtractionService.class);
+        when(failing.extractTxtFNOLDocument(any())).thenThrow(new IllegalStateException("disk on fire"));
+        FNOLProcessingService service = service(false, failing, mock(PdfExtractionService.class));
+
+        ProcessingResult first = process(service, TxtExtractionServiceTest.SAMPLE);
+        ProcessingResult second = process(service, TxtExtractionServiceTest.SAMPLE);
+
+        assertEquals("FAILED", first.getStatus());
+        assertEquals("FAILED", second.getStatus());
+        assertEquals(Boolean.FALSE, second.getCacheHit());
+        assertEquals(0, cacheRequests("hit"));
+        assertEquals(2, cacheRequests("miss"));
+    }
+
+    @Test
+    void neverCachesAResultCutShortByTheExtractionBudget() throws IOException {
+        FNOLProcessingService service = service(false, TxtExtractionServiceTest.service(40), mock(PdfExtractionService.class));
+
+        ProcessingResult first = process(service, TxtExtractionServiceTest.SAMPLE);
+        ProcessingResult second = process(service, TxtExtractionServiceTest.SAMPLE);
+
+        assertEquals("PARTIAL", first.getStatus());
+        assertTrue(first.isExtractionStopped());
+        assertEquals(Boolean.FALSE, second.getCacheHit());
+        assertEquals(0, cacheRequests("hit"));
+        assertEquals(2, cacheRequests("miss"));
+    }
+
+    @Test
+    void cachesACompleteResult() throws IOException {
+        FNOLProcessingService service = service(false);
+
+        ProcessingResult first = process(service, TxtExtractionServiceTest.SAMPLE);
+        process(service, TxtExtractionServiceTest.SAMPLE);
+
+        assertFalse(first.isExtractionStopped());
+        assertEquals(1, cacheRequests("hit"));
+        assertEquals(1, cacheRequests("miss"));
+    }
+
+    @Test
+    void routesWhatWasExtractedBeforeTheMatchingBudgetRanOut() throws IOException {
+        FNOLProcessingService service = service(false, TxtExtractionServiceTest.backtrackingVinService(),
+                mock(PdfExtractionService.class));
+
+        ProcessingResult result = process(service, TxtExtractionServiceTest.PATHOLOGICAL_VIN);
+
+        assertEquals("PARTIAL", result.getStatus());
+        assertTrue(result.isExtractionStopped());
+        assertTrue(result.getWarnings().get(0).startsWith("Extraction stopped early: Rule 'assetDetails.vin'"),
+                result.getWarnings().get(0));
+        assertEquals("POL-2024-881234",
+                result.getExtractedFields().getPolicyInformation().getPolicyNumber());
+        assertNotNull(result.getRecommendedRoute());
+    }
+
+    @Test
+    void readsTheMissingFieldsOnceForRoutingWarningsAndStatus() throws Exception {
+        String text = TxtExtractionServiceTest.SAMPLE.replace("Policyholder Name: Jane A. Doe\n", "");
+        FNOLDocument document = spy(TxtExtractionServiceTest.service(2_000_000).extractTxtFNOLDocument(
+                new ByteArrayMultipartFile("claim.txt", text.getBytes(StandardCharsets.UTF_8))));
+        TxtExtractionService txtExtraction = mock(TxtExtractionService.class);
+        when(txtExtraction.extractTxtFNOLDocument(any())).thenReturn(document);
+        FNOLProcessingService service = service(false, txtExtraction, mock(PdfExtractionService.class));
+
+        ProcessingResult result = process(service, text);
+
+        verify(document, times(1)).getMissingFields();
+        assertEquals(List.of("policyInformation.policyholderName"), result.getMissingFields());
+        assertEquals("MANUAL_REVIEW", result.getRecommendedRoute());
+        assertEquals("PARTIAL", result.getStatus());
+    }
+
+    @Test
+    void carriesContributorWarningsAndAttributesIntoTheResult() throws IOException {
+        extraContributors.add((document, assessment) -> assessment
+                .warning("Checked against the watch list")
+                .attribute(DuplicateClaimContributor.DUPLICATE_OF, "33333333-3333-3333-3333-333333333333"));
+        FNOLProcessingService service = service(false);
+
+        ProcessingResult result = process(service, TxtExtractionServiceTest.SAMPLE);
+
+        assertTrue(result.getWarnings().contains("Checked against the watch list"), result.getWarnings().toString());
+        assertEquals("33333333-3333-3333-3333-333333333333", result.getDuplicateOf());
+    }
+}
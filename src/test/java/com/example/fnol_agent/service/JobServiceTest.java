@@ -0,0 +1,131 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.ProcessingJob;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.net.InetSocketAddress;
+import java.net.ServerSocket;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Predicate;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class JobServiceTest {
+
+    private final ThreadPoolExecutor jobExecutor =
+            new ThreadPoolExecutor(1, 1, 0, TimeUnit.MILLISECONDS, new ArrayBlockingQueue<>(8));
+    private final ScheduledExecutorService callbackExecutor = Executors.newScheduledThreadPool(2);
+    private HttpServer server;
+
+    @AfterEach
+    void shutdown() {
+        jobExecutor.shutdownNow();
+        callbackExecutor.shutdownNow();
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    private JobService jobs(String allowedHosts) {
+        FNOLProcessingService processing = mock(FNOLProcessingService.class);
+        when(processing.processDocument(any(), anyString()))
+                .thenReturn(ProcessingResult.builder().status("SUCCESS").build());
+        return new JobService(processing, jobExecutor, callbackExecutor, new ObjectMapper().findAndRegisterModules(),
+                3_600_000, 1_000, allowedHosts);
+    }
+
+    private static ByteArrayMultipartFile upload() {
+        return new ByteArrayMultipartFile("claim.txt", "Policy Number: POL-1\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static ProcessingJob await(JobService jobs, String jobId, Predicate<ProcessingJob> condition)
+            throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            ProcessingJob job = jobs.find(jobId).orElseThrow();
+            if (condition.test(job)) {
+                return job;
+            }
+            Thread.sleep(10);
+        }
+        throw new AssertionError("Job " + jobId + " did not reach the expected state");
+    }
+
+    @Test
+    void allowsOnlyListedCallbackHosts() {
+        JobService jobs = jobs(" Hooks.Example.com, *.claims.example.org ");
+
+        assertTrue(jobs.isAllowedCallback(URI.create("https://hooks.example.com/fnol")));
+        assertTrue(jobs.isAllowedCallback(URI.create("https://eu.claims.example.org/fnol")));
+        assertFalse(jobs.isAllowedCallback(URI.create("https://claims.example.org/fnol")));
+        assertFalse(jobs.isAllowedCallback(URI.create("http://169.254.169.254/latest/meta-data")));
+        assertFalse(jobs.isAllowedCallback(URI.create("http://evilclaims.example.org/")));
+        assertFalse(jobs("").isAllowedCallback(URI.create("http://localhost:9000/")));
+    }
+
+    @Test
+    void rejectsJobsWithADisallowedCallback() {
+        JobService jobs = jobs("hooks.example.com");
+
+        assertThrows(IllegalArgumentException.class,
+                () -> jobs.submit(upload(), "claim.txt", URI.create("http://localhost:9000/")));
+        assertEquals(0, jobExecutor.getCompletedTaskCount() + jobExecutor.getQueue().size());
+    }
+
+    @Test
+    void retriesAFailedCallback() throws Exception {
+        AtomicInteger calls = new AtomicInteger();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/hook", exchange -> {
+            exchange.getRequestBody().readAllBytes();
+            exchange.sendResponseHeaders(calls.incrementAndGet() == 1 ? 503 : 204, -1);
+            exchange.close();
+        });
+        server.start();
+
+        JobService jobs = jobs("localhost");
+        URI callback = URI.create("http://localhost:" + server.getAddress().getPort() + "/hook");
+        ProcessingJob job = jobs.submit(upload(), "claim.txt", callback);
+
+        ProcessingJob delivered = await(jobs, job.getJobId(), j -> !"PENDING".equals(j.getCallbackStatus()));
+        assertEquals("DELIVERED", delivered.getCallbackStatus());
+        assertEquals(2, calls.get());
+    }
+
+    @Test
+    void doesNotHoldTheJobWorkerWhileRetryingADeadCallback() throws Exception {
+        int closedPort;
+        try (ServerSocket socket = new ServerSocket(0)) {
+            closedPort = socket.getLocalPort();
+        }
+
+        // One worker: the second job can only run once the first has let go of it
+        JobService jobs = jobs("localhost");
+        ProcessingJob first = jobs.submit(upload(), "claim.txt", URI.create("http://localhost:" + closedPort + "/"));
+        ProcessingJob second = jobs.submit(upload(), "claim.txt", null);
+
+        await(jobs, second.getJobId(), j -> "COMPLETED".equals(j.getStatus()));
+        assertEquals("PENDING", jobs.find(first.getJobId()).orElseThrow().getCallbackStatus());
+
+        ProcessingJob failed = await(jobs, first.getJobId(), j -> "FAILED".equals(j.getCallbackStatus()));
+        assertEquals("COMPLETED", failed.getStatus());
+    }
+}
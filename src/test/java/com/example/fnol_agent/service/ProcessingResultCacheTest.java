@@ -0,0 +1,174 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+
+class ProcessingResultCacheTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+
+    private ProcessingResultCache cache(long maxWeightBytes, long ttlMillis) {
+        return new ProcessingResultCache(meterRegistry, objectMapper, true, maxWeightBytes, ttlMillis);
+    }
+
+    private static ProcessingResult result(String claimId) {
+        return ProcessingResult.builder().claimId(claimId).status("SUCCESS").recommendedRoute("FAST_TRACK").build();
+    }
+
+    /**
+     * Weight the cache charges for an entry, read from its weight gauge
+     */
+    private long weight(String key, ProcessingResult result) {
+        SimpleMeterRegistry scratch = new SimpleMeterRegistry();
+        ProcessingResultCache probe = new ProcessingResultCache(scratch, objectMapper, true, Long.MAX_VALUE, 60_000);
+        probe.put(key, result);
+        return (long) scratch.get("fnol.cache.weight").gauge().value();
+    }
+
+    private double weightGauge() {
+        return meterRegistry.get("fnol.cache.weight").gauge().value();
+    }
+
+    private double entriesGauge() {
+        return meterRegistry.get("fnol.cache.entries").gauge().value();
+    }
+
+    private double requests(String result) {
+        return meterRegistry.get("fnol.cache.requests").tag("result", result).counter().count();
+    }
+
+    private double evictions(String cause) {
+        return meterRegistry.get("fnol.cache.evictions").tag("cause", cause).counter().count();
+    }
+
+    @Test
+    void evictsByTotalWeightRatherThanEntryCount() {
+        long small = weight("k1", result("c1"));
+        ProcessingResult large = result("c".repeat((int) (2 * small)));
+        long largeWeight = weight("k9", large);
+        ProcessingResultCache cache = cache(4 * small, 60_000);
+
+        for (String i : List.of("1", "2", "3", "4")) {
+            cache.put("k" + i, result("c" + i));
+        }
+        assertEquals(4, entriesGauge());
+        assertEquals(4 * small, weightGauge());
+
+        // Four small entries fit; one large entry displaces three of them
+        cache.put("k9", large);
+
+        assertEquals(2, entriesGauge());
+        assertEquals(small + largeWeight, weightGauge());
+        assertNull(cache.get("k1"));
+        assertNull(cache.get("k2"));
+        assertNull(cache.get("k3"));
+        assertNotNull(cache.get("k4"));
+        assertSame(large, cache.get("k9"));
+        assertEquals(3, evictions("size"));
+    }
+
+    @Test
+    void promotesAnEntryOnGet() {
+        long small = weight("k1", result("c1"));
+        ProcessingResultCache cache = cache(3 * small, 60_000);
+        cache.put("k1", result("c1"));
+        cache.put("k2", result("c2"));
+        cache.put("k3", result("c3"));
+
+        assertNotNull(cache.get("k1"));
+        cache.put("k4", result("c4"));
+
+        assertNotNull(cache.get("k1"));
+        assertNull(cache.get("k2"));
+        assertNotNull(cache.get("k3"));
+        assertNotNull(cache.get("k4"));
+    }
+
+    @Test
+    void replacesAnEntryWithoutCountingItTwice() {
+        long small = weight("k1", result("c1"));
+        ProcessingResultCache cache = cache(3 * small, 60_000);
+        ProcessingResult replacement = result("c9");
+
+        cache.put("k1", result("c1"));
+        cache.put("k1", replacement);
+
+        assertEquals(1, entriesGauge());
+        assertEquals(small, weightGauge());
+        assertSame(replacement, cache.get("k1"));
+    }
+
+    @Test
+    void expiresEntriesAfterTheirTtl() {
+        ProcessingResultCache cache = cache(1_000_000, 0);
+        cache.put("k1", result("c1"));
+
+        assertNull(cache.get("k1"));
+        assertEquals(0, entriesGauge());
+        assertEquals(0, weightGauge());
+        assertEquals(1, evictions("expired"));
+        assertEquals(0, evictions("size"));
+    }
+
+    @Test
+    void countsExpiredEntriesEvictedForSpaceAsExpired() {
+        long small = weight("k1", result("c1"));
+        ProcessingResultCache cache = cache(small, 0);
+        cache.put("k1", result("c1"));
+        cache.put("k2", result("c2"));
+
+        assertEquals(1, evictions("expired"));
+        assertEquals(0, evictions("size"));
+    }
+
+    @Test
+    void neverCachesAnEntryHeavierThanTheWholeBudget() {
+        long small = weight("k1", result("c1"));
+        ProcessingResultCache cache = cache(2 * small, 60_000);
+        cache.put("k1", result("c1"));
+
+        cache.put("k2", result("c".repeat((int) (2 * small))));
+
+        assertNull(cache.get("k2"));
+        assertNotNull(cache.get("k1"));
+        assertEquals(1, entriesGauge());
+        assertEquals(small, weightGauge());
+        assertEquals(0, evictions("size"));
+    }
+
+    @Test
+    void countsHitsAndMisses() {
+        ProcessingResultCache cache = cache(1_000_000, 60_000);
+        cache.put("k1", result("c1"));
+
+        cache.get("k1");
+        cache.get("k1");
+        cache.get("k2");
+
+        assertEquals(2, requests("hit"));
+        assertEquals(1, requests("miss"));
+    }
+
+    @Test
+    void registersItsMetersUpFront() {
+        cache(1_000_000, 60_000);
+
+        assertEquals(0, requests("hit"));
+        assertEquals(0, requests("miss"));
+        assertEquals(0, evictions("size"));
+        assertEquals(0, evictions("expired"));
+        assertNotNull(meterRegistry.find("fnol.cache.weight").gauge());
+        assertEquals(0, entriesGauge());
+    }
+}
@@ -0,0 +1,115 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.AssetDetails;
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.PolicyInformation;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.StageProfile;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class ProcessingTraceTest {
+
+    private static final ProcessingResult RESULT = ProcessingResult.builder().status("SUCCESS").build();
+
+    private static List<String> stages(List<StageProfile> profile) {
+        return profile.stream().map(StageProfile::getStage).toList();
+    }
+
+    @Test
+    void listsSubStagesAfterTheStageTheyArePartOf() {
+        List<StageProfile> profile;
+        try (ProcessingTrace trace = new ProcessingTrace("pdf", 1_024, true)) {
+            trace.stage("cache-key");
+            ProcessingTrace.subStage("pdf-load");
+            ProcessingTrace.subStage("pdf-text-layer", "workers not counted");
+            trace.stage("extraction");
+            trace.stage("routing");
+            profile = trace.finish(RESULT).getProfile();
+        }
+
+        assertEquals(List.of("cache-key", "extraction", "pdf-load", "pdf-text-layer", "routing"), stages(profile));
+        assertNull(profile.get(1).getParent());
+        assertEquals("extraction", profile.get(2).getParent());
+        assertEquals("extraction", profile.get(3).getParent());
+        assertNull(profile.get(2).getNote());
+        assertEquals("workers not counted", profile.get(3).getNote());
+        assertNull(profile.get(4).getParent());
+    }
+
+    @Test
+    void ignoresSubStagesOffTheProcessingThreadAndAfterClose() throws Exception {
+        List<StageProfile> profile;
+        try (ProcessingTrace trace = new ProcessingTrace("txt", 10, true)) {
+            CompletableFuture.runAsync(() -> ProcessingTrace.subStage("txt-labels")).get();
+            trace.stage("extraction");
+            profile = trace.finish(RESULT).getProfile();
+        }
+        ProcessingTrace.subStage("txt-read");
+
+        assertEquals(List.of("extraction"), stages(profile));
+    }
+
+    @Test
+    void attachesNoProfileUnlessProfiled() {
+        try (ProcessingTrace trace = new ProcessingTrace("txt", 10, false)) {
+            ProcessingTrace.subStage("txt-read");
+            trace.stage("extraction");
+            assertNull(trace.finish(RESULT).getProfile());
+        }
+    }
+
+    @Test
+    void countsExtractedFieldGroups() {
+        assertEquals(0, ProcessingTrace.extractedFieldGroups(null));
+        assertEquals(0, ProcessingTrace.extractedFieldGroups(ExtractedFields.builder().attachments(List.of()).build()));
+        assertEquals(3, ProcessingTrace.extractedFieldGroups(ExtractedFields.builder()
+                .policyInformation(PolicyInformation.builder().policyNumber("POL-1").build())
+                .assetDetails(AssetDetails.builder().assetId("ABC1234").build())
+                .claimType(ClaimType.VEHICLE)
+                .involvedParties(List.of())
+                .build()));
+    }
+
+    @Test
+    void recordsTheExtractedFieldGroupsOfADocument(@TempDir Path dir) throws Exception {
+        ProcessingResult result = RESULT.toBuilder()
+                .claimId("c1")
+                .extractedFields(ExtractedFields.builder()
+                        .policyInformation(PolicyInformation.builder().policyNumber("POL-1").build())
+                        .claimType(ClaimType.VEHICLE)
+                        .build())
+                .missingFields(List.of("assetDetails.estimatedDamage"))
+                .build();
+
+        Path file = dir.resolve("trace.jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable("com.example.fnol.DocumentProcessed");
+            recording.start();
+            try (ProcessingTrace trace = new ProcessingTrace("txt", 1_024, false)) {
+                trace.finish(result);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+
+        RecordedEvent event = RecordingFile.readAllEvents(file).stream()
+                .filter(e -> e.getEventType().getName().equals("com.example.fnol.DocumentProcessed"))
+                .findFirst()
+                .orElseThrow();
+        assertEquals("c1", event.getString("claimId"));
+        assertEquals(1, event.getInt("missingFields"));
+        assertEquals(2, event.getInt("extractedFieldGroups"));
+    }
+}
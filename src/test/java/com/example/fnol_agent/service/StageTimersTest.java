@@ -0,0 +1,107 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.RoutingDecision;
+import com.example.fnol_agent.service.StageTimers.FileType;
+import com.example.fnol_agent.service.StageTimers.TxtField;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.distribution.CountAtBucket;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class StageTimersTest {
+
+    private static final List<Duration> SLOS = List.of(
+            Duration.ofMillis(1), Duration.ofMillis(5), Duration.ofMillis(10), Duration.ofMillis(25),
+            Duration.ofMillis(50), Duration.ofMillis(100), Duration.ofMillis(250), Duration.ofMillis(500),
+            Duration.ofSeconds(1), Duration.ofMillis(2500), Duration.ofSeconds(5));
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final StageTimers timers = new StageTimers(meterRegistry);
+
+    private Timer registered(String name, String... tags) {
+        return meterRegistry.get(name).tags(tags).timer();
+    }
+
+    private static void assertSloBuckets(Timer timer) {
+        Set<Double> buckets = Arrays.stream(timer.takeSnapshot().histogramCounts())
+                .map(CountAtBucket::bucket)
+                .collect(Collectors.toSet());
+        for (Duration slo : SLOS) {
+            assertTrue(buckets.contains((double) slo.toNanos()),
+                    timer.getId() + " has no bucket at " + slo);
+        }
+    }
+
+    @Test
+    void registersEveryTagCombinationUpFront() {
+        for (FileType type : FileType.values()) {
+            assertSame(timers.uploadRead(type), registered("fnol.upload.read", "type", type.tag()));
+            assertSame(timers.cacheKey(type), registered("fnol.cache.key", "type", type.tag()));
+            assertSame(timers.assessment(type), registered("fnol.assessment", "type", type.tag()));
+            for (RoutingDecision route : RoutingDecision.values()) {
+                assertSame(timers.routing(type, route),
+                        registered("fnol.routing", "type", type.tag(), "route", route.name()));
+            }
+            for (TxtField field : TxtField.values()) {
+                assertSame(timers.txtField(type, field),
+                        registered("fnol.txt.field", "type", type.tag(), "field", field.tag()));
+            }
+        }
+        assertSame(timers.pdfLoad(), registered("fnol.pdf.load"));
+        assertSame(timers.acroFormRead(true), registered("fnol.pdf.acroform.read", "path", "fast"));
+        assertSame(timers.acroFormRead(false), registered("fnol.pdf.acroform.read", "path", "full"));
+        for (RoutingDecision route : RoutingDecision.values()) {
+            assertSame(timers.serialization(ProcessingResult.builder().recommendedRoute(route.name()).build()),
+                    registered("fnol.response.serialization", "route", route.name()));
+        }
+
+        int types = FileType.values().length;
+        int routes = RoutingDecision.values().length;
+        int fields = TxtField.values().length;
+        assertEquals(types * (3 + routes + fields) + 3 + routes + 1,
+                meterRegistry.getMeters().stream().filter(Timer.class::isInstance).count());
+    }
+
+    @Test
+    void publishesSloBuckets() {
+        assertSloBuckets(timers.uploadRead(FileType.PDF));
+        assertSloBuckets(timers.cacheKey(FileType.TXT));
+        assertSloBuckets(timers.routing(FileType.TXT, RoutingDecision.FAST_TRACK));
+        assertSloBuckets(timers.txtField(FileType.PDF, TxtField.LABELS));
+        assertSloBuckets(timers.pdfLoad());
+        assertSloBuckets(timers.serialization(null));
+    }
+
+    @Test
+    void countsResponsesOfUnknownRoutesUnderNone() {
+        Timer none = registered("fnol.response.serialization", "route", "none");
+
+        assertSame(none, timers.serialization(null));
+        assertSame(none, timers.serialization("not a result"));
+        assertSame(none, timers.serialization(ProcessingResult.builder().recommendedRoute("NOWHERE").build()));
+    }
+
+    @Test
+    void recordsTheTimeSinceAMark() {
+        Timer timer = timers.assessment(FileType.TXT);
+        long mark = System.nanoTime() - TimeUnit.MILLISECONDS.toNanos(3);
+
+        long now = StageTimers.record(timer, mark);
+
+        assertEquals(1, timer.count());
+        assertTrue(timer.totalTime(TimeUnit.NANOSECONDS) >= TimeUnit.MILLISECONDS.toNanos(3));
+        assertTrue(now - mark >= TimeUnit.MILLISECONDS.toNanos(3));
+    }
+}
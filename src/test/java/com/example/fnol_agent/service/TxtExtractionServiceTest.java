@@ -0,0 +1,267 @@
+package com.example.fnol_agent.service;
+
+import com.example.fnol_agent.extraction.ExtractionRuleRegistry;
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.FNOLDocument;
+import com.example.fnol_agent.model.InvolvedParty;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.StageProfile;
+import com.example.fnol_agent.extraction.MatchBudgetExceededException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertInstanceOf;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TxtExtractionServiceTest {
+
+    static final String SAMPLE = """
+            FIRST NOTICE OF LOSS
+            Policy Number: POL-2024-881234
+            Policyholder Name: Jane A. Doe
+            Agency Customer ID: AC-55120
+            Effective Dates: 01/01/2024 - 12/31/2024
+            Date of Loss: 03/14/2024
+            Incident Time: 4:35 PM
+            Street: 1200 Market Street
+            City: Springfield
+            State: IL
+            Zip: 62701
+            Description: Rear-ended at a red light while stopped in traffic. Bumper and trunk damaged.
+            Claimant Name: Jane A. Doe
+            Third Party Information: John Smith, Acme Insurance, policy AC-99812
+            Driver Name: Jane A. Doe
+            VIN: 1HGCM82633A004352
+            License Plate: ABC1234
+            Estimated Damage: $4,800
+            Damage Description: Rear bumper, trunk lid and tail lights
+            Initial Estimate: $4,800
+            Attachments: photos.zip, police-report.pdf
+            """;
+
+    private final TxtExtractionService extraction = service(2_000_000);
+
+    /**
+     * A claim whose VIN is a long run of letters and digits, so a backtracking VIN pattern never finishes
+     */
+    static final String PATHOLOGICAL_VIN = SAMPLE.replace("VIN: 1HGCM82633A004352", "VIN: " + "A1".repeat(20));
+
+    static TxtExtractionService service(int maxChars) {
+        try (InputStream in = TxtExtractionServiceTest.class.getResourceAsStream("/extraction-rules.json")) {
+            ExtractionRuleRegistry rules = ExtractionRuleRegistry.load(in.readAllBytes(), new ObjectMapper());
+            return new TxtExtractionService(rules, new StageTimers(new SimpleMeterRegistry()), 500, 2000, maxChars);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * The bundled rules with a VIN pattern that backtracks polynomially in the length of the VIN, and
+     * the smallest matching budget
+     */
+    static TxtExtractionService backtrackingVinService() {
+        try (InputStream in = TxtExtractionServiceTest.class.getResourceAsStream("/extraction-rules.json")) {
+            ObjectMapper objectMapper = new ObjectMapper();
+            ObjectNode json = (ObjectNode) objectMapper.readTree(in);
+            ((ObjectNode) json.path("fields").path("assetDetails.vin")).put("pattern", "(?:[A-Z0-9]*1){10}-");
+            ExtractionRuleRegistry rules = ExtractionRuleRegistry.load(objectMapper.writeValueAsBytes(json), objectMapper);
+            return new TxtExtractionService(rules, new StageTimers(new SimpleMeterRegistry()), 1, 60_000, 2_000_000);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private FNOLDocument extract(String text) throws IOException {
+        return extraction.extractTxtFNOLDocument(
+                new ByteArrayMultipartFile("claim.txt", text.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    void extractsEveryFieldOfACompleteNotice() throws IOException {
+        FNOLDocument document = extract(SAMPLE);
+
+        assertEquals("POL-2024-881234", document.getPolicyInformation().getPolicyNumber());
+        assertEquals("Jane A. Doe", document.getPolicyInformation().getPolicyholderName());
+        assertEquals("AC-55120", document.getPolicyInformation().getAgencyCustomerId());
+        assertEquals(LocalDate.of(2024, 1, 1), document.getPolicyInformation().getEffectiveDate());
+
+        assertEquals(LocalDate.of(2024, 3, 14), document.getIncidentInformation().getIncidentDate());
+        assertEquals("4:35 PM", document.getIncidentInformation().getIncidentTime());
+        assertEquals("1200 Market Street, Springfield, IL, 62701", document.getIncidentInformation().getLocation());
+        assertEquals("Rear-ended at a red light while stopped in traffic. Bumper and trunk damaged.",
+                document.getIncidentInformation().getDescription());
+
+        assertEquals("1HGCM82633A004352", document.getAssetDetails().getAssetId());
+        assertEquals("VEHICLE", document.getAssetDetails().getAssetType());
+        assertEquals(new BigDecimal("4800.00"), document.getAssetDetails().getEstimatedDamage());
+        assertEquals("Rear bumper, trunk lid and tail lights", document.getAssetDetails().getDescription());
+        assertEquals(new BigDecimal("4800.00"), document.getInitialEstimate());
+        assertEquals(ClaimType.VEHICLE, document.getClaimType());
+
+        List<InvolvedParty> parties = document.getInvolvedParties();
+        assertEquals("Jane A. Doe", parties.get(0).getName());
+        assertEquals("CLAIMANT", parties.get(0).getRole());
+        assertTrue(parties.stream().anyMatch(party -> "THIRD_PARTY_OWNER".equals(party.getRole())));
+        assertTrue(document.getMissingFields().isEmpty(), document.getMissingFields().toString());
+    }
+
+    @Test
+    void acceptsLabelVariantsAndLayout() throws IOException {
+        String text = """
+                policy #:   POL-77-1
+                POLICYHOLDER:  John Q. Public
+                Incident Date: 2024-07-04
+                Location: Exit 12, Interstate 80
+                Incident Description: Struck a deer
+                crossing the road at dusk.
+
+                Insured: John Q. Public
+                Plate Number: XYZ 987
+                Damage Estimate: EUR 1,000 or about €1,234.56
+                Claim Amount: £980
+                """;
+        FNOLDocument document = extract(text);
+
+        assertEquals("POL-77-1", document.getPolicyInformation().getPolicyNumber());
+        assertEquals("John Q. Public", document.getPolicyInformation().getPolicyholderName());
+        assertEquals(LocalDate.of(2024, 7, 4), document.getIncidentInformation().getIncidentDate());
+        assertEquals("Exit 12, Interstate 80", document.getIncidentInformation().getLocation());
+        assertEquals("Struck a deer\ncrossing the road at dusk.", document.getIncidentInformation().getDescription());
+        assertEquals("XYZ 987", document.getAssetDetails().getAssetId());
+        assertEquals(new BigDecimal("1234.56"), document.getAssetDetails().getEstimatedDamage());
+        assertEquals(new BigDecimal("980.00"), document.getInitialEstimate());
+        assertEquals("John Q. Public", document.getInvolvedParties().get(0).getName());
+    }
+
+    @Test
+    void classifiesInjuryAndPropertyDamageClaims() throws IOException {
+        assertEquals(ClaimType.INJURY, extract(SAMPLE + "Injury: passenger with whiplash\n").getClaimType());
+
+        String property = SAMPLE.replace("VIN: 1HGCM82633A004352\n", "")
+                .replace("License Plate: ABC1234\n", "")
+                + "Property Damage: garden wall\n";
+        FNOLDocument document = extract(property);
+        assertEquals(ClaimType.PROPERTY, document.getClaimType());
+        assertEquals("PROPERTY", document.getAssetDetails().getAssetType());
+    }
+
+    @Test
+    void doesNotTreatWordsStartingWithALabelAsLabels() throws IOException {
+        // "Statement" starts with the "State" label and "Vehicles" with "Vehicle"; neither is a field
+        FNOLDocument document = extract(SAMPLE.replace("State: IL\n", "Statement: IL\n")
+                + "Property Damage: fence\nInjuryFree: yes\n");
+
+        assertEquals("1200 Market Street, Springfield, 62701", document.getIncidentInformation().getLocation());
+        assertEquals(ClaimType.PROPERTY, document.getClaimType());
+    }
+
+    @Test
+    void reportsMissingMandatoryFields() throws IOException {
+        FNOLDocument document = extract(SAMPLE
+                .replace("Policy Number: POL-2024-881234\n", "")
+                .replace("Date of Loss: 03/14/2024\n", ""));
+
+        assertNull(document.getPolicyInformation().getPolicyNumber());
+        assertTrue(document.getMissingFields().contains("policyInformation.policyNumber"));
+        assertTrue(document.getMissingFields().contains("incidentInformation.incidentDate"));
+    }
+
+    @Test
+    void detectsNewTextThatLabelsAMissingField() {
+        List<String> missing = List.of("policyInformation.policyNumber", "incidentInformation.location");
+
+        assertTrue(extraction.labelsAnyOf("Policy #: POL-1\n", missing));
+        assertTrue(extraction.labelsAnyOf("City: Springfield\n", missing));
+        assertFalse(extraction.labelsAnyOf("Driver Name: Jane\nNo further details.\n", missing));
+        assertTrue(extraction.labelsAnyOf("anything", List.of("someUnmappedField")));
+        assertFalse(extraction.labelsAnyOf("Policy #: POL-1\n", List.of()));
+    }
+
+    @Test
+    void readsWindows1252AndByteOrderMarks() throws IOException {
+        String text = SAMPLE.replace("Street: 1200 Market Street", "Street: 12 Rue de l'Église");
+        FNOLDocument latin = extraction.extractTxtFNOLDocument(
+                new ByteArrayMultipartFile("claim.txt", text.getBytes("windows-1252")));
+        assertEquals("12 Rue de l'Église, Springfield, IL, 62701", latin.getIncidentInformation().getLocation());
+
+        byte[] utf16 = ("\uFEFF" + text).getBytes(StandardCharsets.UTF_16BE);
+        FNOLDocument bom = extraction.extractTxtFNOLDocument(new ByteArrayMultipartFile("claim.txt", utf16));
+        assertEquals("12 Rue de l'Église, Springfield, IL, 62701", bom.getIncidentInformation().getLocation());
+    }
+
+    @Test
+    void stopsAtTheCharacterCapWithAPartialDocument() {
+        TxtExtractionService capped = service(120);
+        PartialExtractionException e = assertThrows(PartialExtractionException.class, () -> capped
+                .extractTxtFNOLDocument(new ByteArrayMultipartFile("claim.txt", SAMPLE.getBytes(StandardCharsets.UTF_8))));
+
+        assertEquals("POL-2024-881234", e.getDocument().getPolicyInformation().getPolicyNumber());
+    }
+
+    @Test
+    void timesReadingTheUpload() throws IOException {
+        StageTimers timers = new StageTimers(new SimpleMeterRegistry());
+        TxtExtractionService timed;
+        try (InputStream in = TxtExtractionServiceTest.class.getResourceAsStream("/extraction-rules.json")) {
+            timed = new TxtExtractionService(ExtractionRuleRegistry.load(in.readAllBytes(), new ObjectMapper()),
+                    timers, 500, 2000, 2_000_000);
+        }
+
+        timed.extractTxtFNOLDocument(new ByteArrayMultipartFile("claim.txt", SAMPLE.getBytes(StandardCharsets.UTF_8)));
+        timed.extractFNOLDocument(SAMPLE, "claim.pdf");
+
+        assertEquals(1, timers.uploadRead(StageTimers.FileType.TXT).count());
+        assertEquals(0, timers.uploadRead(StageTimers.FileType.PDF).count());
+    }
+
+    @Test
+    void stopsARuleThatExhaustsTheMatchingBudgetWithTheFieldsExtractedSoFar() {
+        TxtExtractionService budgeted = backtrackingVinService();
+        PartialExtractionException e = assertThrows(PartialExtractionException.class, () -> budgeted
+                .extractTxtFNOLDocument(new ByteArrayMultipartFile("claim.txt", PATHOLOGICAL_VIN.getBytes(StandardCharsets.UTF_8))));
+
+        MatchBudgetExceededException cause = assertInstanceOf(MatchBudgetExceededException.class, e.getCause());
+        assertEquals("assetDetails.vin", cause.getRule());
+        assertTrue(e.getMessage().startsWith("Extraction stopped early: Rule 'assetDetails.vin' exceeded its matching budget"),
+                e.getMessage());
+
+        // Groups before the asset details are kept; the asset details and everything after are not
+        FNOLDocument document = e.getDocument();
+        assertEquals("POL-2024-881234", document.getPolicyInformation().getPolicyNumber());
+        assertEquals(LocalDate.of(2024, 3, 14), document.getIncidentInformation().getIncidentDate());
+        assertFalse(document.getInvolvedParties().isEmpty());
+        assertNull(document.getAssetDetails());
+        assertNull(document.getInitialEstimate());
+    }
+
+    @Test
+    void tracesEachGroupOfFieldsOfATxtUploadAsASubStage() throws IOException {
+        List<StageProfile> profile;
+        try (ProcessingTrace trace = new ProcessingTrace("txt", SAMPLE.length(), true)) {
+            extract(SAMPLE);
+            trace.stage("extraction");
+            // Text decoded from a PDF is covered by the PDF's own sub-stages
+            extraction.extractFNOLDocument(SAMPLE, "claim.pdf");
+            trace.stage("assessment");
+            profile = trace.finish(ProcessingResult.builder().build()).getProfile();
+        }
+
+        assertEquals(List.of("extraction", "txt-read", "txt-labels", "txt-policyInformation",
+                        "txt-incidentInformation", "txt-involvedParties", "txt-assetDetails", "txt-claimType",
+                        "txt-attachments", "txt-initialEstimate", "assessment"),
+                profile.stream().map(StageProfile::getStage).toList());
+    }
+}
@@ -0,0 +1,148 @@
+package com.example.fnol_agent.store;
+
+import com.example.fnol_agent.config.JacksonConfig;
+import com.example.fnol_agent.journal.ProcessedClaimJournal;
+import com.example.fnol_agent.model.AssetDetails;
+import com.example.fnol_agent.model.ClaimPage;
+import com.example.fnol_agent.model.ClaimType;
+import com.example.fnol_agent.model.ExtractedFields;
+import com.example.fnol_agent.model.IncidentInformation;
+import com.example.fnol_agent.model.ProcessingResult;
+import com.example.fnol_agent.model.RoutingDecision;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class ClaimStoreTest {
+
+    private static final int CAPACITY = 5;
+    private static final LocalDate FIRST_INCIDENT = LocalDate.of(2024, 1, 1);
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final ObjectMapper objectMapper = new JacksonConfig().objectMapper();
+    private ClaimStore store;
+
+    /**
+     * Claim {@code i} happened {@code i} days after the first incident with {@code i * 1,000.00} of
+     * damage; even claims are fast-tracked vehicle claims, odd ones property claims sent for review
+     */
+    private static ProcessingResult claim(int i) {
+        boolean even = i % 2 == 0;
+        return ProcessingResult.builder()
+                .claimId("CLM-" + i)
+                .status("SUCCESS")
+                .recommendedRoute((even ? RoutingDecision.FAST_TRACK : RoutingDecision.MANUAL_REVIEW).name())
+                .extractedFields(ExtractedFields.builder()
+                        .claimType(even ? ClaimType.VEHICLE : ClaimType.PROPERTY)
+                        .incidentInformation(IncidentInformation.builder()
+                                .incidentDate(FIRST_INCIDENT.plusDays(i))
+                                .build())
+                        .assetDetails(AssetDetails.builder()
+                                .estimatedDamage(BigDecimal.valueOf(i * 1_000L).setScale(2))
+                                .build())
+                        .build())
+                .build();
+    }
+
+    private static ClaimQuery query(int page, int size) {
+        return new ClaimQuery(null, null, null, null, null, null, null, page, size);
+    }
+
+    private static List<String> claimIds(ClaimPage page) {
+        return page.getClaims().stream().map(ProcessingResult::getClaimId).toList();
+    }
+
+    @BeforeEach
+    void fill() throws IOException {
+        ProcessedClaimJournal journal =
+                new ProcessedClaimJournal(meterRegistry, objectMapper, false, "unused", 67_108_864, true, 90);
+        store = new ClaimStore(meterRegistry, objectMapper, journal, true, CAPACITY);
+        // Three past capacity, so the ring has wrapped and claims 0-2 are gone
+        for (int i = 0; i < 8; i++) {
+            store.add(claim(i));
+        }
+    }
+
+    @Test
+    void keepsOnlyTheNewestClaimsNewestFirst() throws IOException {
+        ClaimPage page = store.query(query(0, 10));
+
+        assertEquals(CAPACITY, store.size());
+        assertEquals(CAPACITY, page.getTotal());
+        assertEquals(List.of("CLM-7", "CLM-6", "CLM-5", "CLM-4", "CLM-3"), claimIds(page));
+        assertEquals(CAPACITY, meterRegistry.get("fnol.claims.stored").gauge().value());
+    }
+
+    @Test
+    void pagesAcrossTheWrapOfTheRing() throws IOException {
+        // Claims 7, 6 and 5 sit in slots 2, 1 and 0, claims 4 and 3 in slots 4 and 3
+        assertEquals(List.of("CLM-7", "CLM-6"), claimIds(store.query(query(0, 2))));
+        assertEquals(List.of("CLM-5", "CLM-4"), claimIds(store.query(query(1, 2))));
+        assertEquals(List.of("CLM-3"), claimIds(store.query(query(2, 2))));
+
+        ClaimPage past = store.query(query(3, 2));
+        assertTrue(past.getClaims().isEmpty());
+        assertEquals(CAPACITY, past.getTotal());
+    }
+
+    @Test
+    void matchesIncidentDatesToTheDayInclusively() throws IOException {
+        ClaimPage page = store.query(new ClaimQuery(null, null, null,
+                FIRST_INCIDENT.plusDays(4), FIRST_INCIDENT.plusDays(5), null, null, 0, 10));
+        assertEquals(List.of("CLM-5", "CLM-4"), claimIds(page));
+
+        // Evicted claims no longer match, even where the range covers their dates
+        page = store.query(new ClaimQuery(null, null, null, null, FIRST_INCIDENT.plusDays(3), null, null, 0, 10));
+        assertEquals(List.of("CLM-3"), claimIds(page));
+
+        page = store.query(new ClaimQuery(null, null, null, FIRST_INCIDENT.plusDays(7), null, null, null, 0, 10));
+        assertEquals(List.of("CLM-7"), claimIds(page));
+    }
+
+    @Test
+    void matchesEstimatedDamageToTheCent() throws IOException {
+        ClaimPage page = store.query(new ClaimQuery(null, null, null, null, null,
+                new BigDecimal("3500"), new BigDecimal("6000.00"), 0, 10));
+        assertEquals(List.of("CLM-6", "CLM-5", "CLM-4"), claimIds(page));
+
+        page = store.query(new ClaimQuery(null, null, null, null, null,
+                new BigDecimal("4000.001"), new BigDecimal("5999.99"), 0, 10));
+        assertEquals(List.of("CLM-5"), claimIds(page));
+    }
+
+    @Test
+    void intersectsEveryFilter() throws IOException {
+        ClaimPage page = store.query(new ClaimQuery(Set.of(RoutingDecision.FAST_TRACK), null, null,
+                FIRST_INCIDENT.plusDays(4), null, null, null, 0, 10));
+        assertEquals(List.of("CLM-6", "CLM-4"), claimIds(page));
+
+        page = store.query(new ClaimQuery(null, Set.of("SUCCESS"), Set.of(ClaimType.PROPERTY),
+                null, null, new BigDecimal("4000"), null, 0, 10));
+        assertEquals(List.of("CLM-7", "CLM-5"), claimIds(page));
+
+        page = store.query(new ClaimQuery(Set.of(RoutingDecision.INVESTIGATION), null, null,
+                null, null, null, null, 0, 10));
+        assertEquals(0, page.getTotal());
+    }
+
+    @Test
+    void ignoresResultsWithoutAClaimId() throws IOException {
+        store.add(ProcessingResult.builder().status("FAILED").build());
+
+        assertEquals(CAPACITY, store.size());
+        assertEquals("CLM-7", claimIds(store.query(query(0, 1))).get(0));
+        assertFalse(store.query(new ClaimQuery(null, Set.of("FAILED"), null, null, null, null, null, 0, 10))
+                .getTotal() > 0);
+    }
+}
@@ -0,0 +1,94 @@
+package com.example.fnol_agent.store;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.BitSet;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class RangeIndexTest {
+
+    /** Bins of ten: 0-9, 10-19, ... */
+    private final RangeIndex index = new RangeIndex(16, value -> Math.floorDiv(value, 10) * 10, bin -> bin + 10);
+
+    private static BitSet slots(int... slots) {
+        BitSet set = new BitSet();
+        for (int slot : slots) {
+            set.set(slot);
+        }
+        return set;
+    }
+
+    private void fill() {
+        // slot -> value: 0 -> 5, 1 -> 10, 2 -> 14, 3 -> 19, 4 -> 20, 5 -> 35, 6 -> -3
+        long[] values = {5, 10, 14, 19, 20, 35, -3};
+        for (int slot = 0; slot < values.length; slot++) {
+            index.set(slot, values[slot]);
+        }
+    }
+
+    @Test
+    void takesWholeBinsInsideTheRange() {
+        fill();
+
+        assertEquals(slots(1, 2, 3), index.range(10L, 19L, null));
+        assertEquals(slots(1, 2, 3, 4), index.range(10L, 29L, null));
+    }
+
+    @Test
+    void checksExactValuesInTheBinsARangeCutsThrough() {
+        fill();
+
+        assertEquals(slots(2, 3, 4), index.range(11L, 20L, null));
+        assertEquals(slots(2), index.range(11L, 18L, null));
+        assertEquals(slots(), index.range(15L, 18L, null));
+        // Both bounds are inclusive
+        assertEquals(slots(1), index.range(10L, 10L, null));
+        assertEquals(slots(4), index.range(20L, 20L, null));
+    }
+
+    @Test
+    void leavesAnEndOpenForANullBound() {
+        fill();
+
+        assertEquals(slots(0, 1, 2, 6), index.range(null, 14L, null));
+        assertEquals(slots(3, 4, 5), index.range(15L, null, null));
+        assertEquals(slots(0, 1, 2, 3, 4, 5, 6), index.range(null, null, null));
+        assertEquals(slots(6), index.range(null, -1L, null));
+    }
+
+    @Test
+    void returnsNothingForAnEmptyOrInvertedRange() {
+        assertTrue(index.range(null, null, null).isEmpty());
+        fill();
+        assertTrue(index.range(30L, 10L, null).isEmpty());
+        assertTrue(index.range(100L, 200L, null).isEmpty());
+    }
+
+    @Test
+    void checksOnlyTheRequestedSlotsInEdgeBins() {
+        fill();
+
+        // Edge bins honour the filter; whole bins are returned as they are, for the caller to intersect
+        assertEquals(slots(3, 4), index.range(15L, 29L, slots(3)));
+        assertEquals(slots(3), index.range(11L, 19L, slots(3)));
+        assertTrue(index.range(15L, 19L, slots(2)).isEmpty());
+    }
+
+    @Test
+    void movesASlotWhenItsValueChangesOrIsRemoved() {
+        fill();
+
+        index.set(2, 35L);
+        assertEquals(slots(1, 3), index.range(10L, 19L, null));
+        assertEquals(slots(2, 5), index.range(30L, 39L, null));
+
+        index.set(5, null);
+        index.remove(2);
+        index.remove(2);
+        assertTrue(index.range(30L, 39L, null).isEmpty());
+        // The bins emptied above no longer bound an open range
+        assertEquals(slots(0, 1, 3, 4, 6), index.range(null, null, null));
+    }
+}